@@ -29,6 +29,7 @@ import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.apache.ignite.ci.web.model.ContributionKey;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
+import org.apache.ignite.tcignited.SyncMode;
 import org.apache.ignite.tcservice.model.result.Build;
 
 /**
@@ -114,9 +115,7 @@ public class BuildsInfo {
     public String getStatus(ITeamcityIgnited teamcity, IStringCompactor strCompactor) {
         boolean isFinished = true;
 
-        for (Integer id : builds) {
-            FatBuildCompacted build = teamcity.getFatBuild(id);
-
+        for (FatBuildCompacted build : teamcity.getFatBuilds(builds, SyncMode.RELOAD_QUEUED).values()) {
             if (build.isFakeStub() || build.isCancelled(strCompactor))
                 return CANCELLED_STATUS;
 
@@ -156,9 +155,7 @@ public class BuildsInfo {
     public int finishedBuildsCount(ITeamcityIgnited teamcity, IStringCompactor strCompactor) {
         int finishedCnt = 0;
 
-        for (Integer id : builds) {
-            FatBuildCompacted build = teamcity.getFatBuild(id);
-
+        for (FatBuildCompacted build : teamcity.getFatBuilds(builds, SyncMode.RELOAD_QUEUED).values()) {
             if (!build.isFakeStub() && build.isFinished(strCompactor))
                 ++finishedCnt;
         }
@@ -32,6 +32,7 @@ import org.apache.ignite.ci.tcbot.conf.LocalFilesBasedConfig;
 import org.apache.ignite.ci.tcbot.issue.IssueDetector;
 import org.apache.ignite.ci.tcbot.trends.MasterTrendsService;
 import org.apache.ignite.ci.web.model.hist.VisasHistoryStorage;
+import org.apache.ignite.ci.web.push.UpdatesPushHub;
 import org.apache.ignite.githubignited.GitHubIgnitedModule;
 import org.apache.ignite.jiraignited.JiraIgnitedModule;
 import org.apache.ignite.tcbot.common.conf.IDataSourcesConfigSupplier;
@@ -80,6 +81,7 @@ public class TcBotWebAppModule extends AbstractModule {
         bind(BuildObserver.class).in(new SingletonScope());
         bind(VisasHistoryStorage.class).in(new SingletonScope());
         bind(Cleaner.class).in(new SingletonScope());
+        bind(UpdatesPushHub.class).in(new SingletonScope());
 
         install(new TcBotPersistenceModule());
         install(new TeamcityIgnitedModule());
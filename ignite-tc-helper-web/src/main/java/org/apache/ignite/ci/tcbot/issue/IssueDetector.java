@@ -32,6 +32,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.ci.issue.Issue;
@@ -65,6 +66,7 @@ import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
 import org.apache.ignite.tcignited.SyncMode;
+import org.apache.ignite.tcignited.history.EventTemplateMatcher;
 import org.apache.ignite.tcignited.history.IRunHistory;
 import org.apache.ignite.tcignited.history.InvocationData;
 import org.jetbrains.annotations.NotNull;
@@ -167,7 +169,15 @@ public class IssueDetector {
         AtomicInteger hasSubscriptions = new AtomicInteger();
         AtomicInteger neverSentBefore = new AtomicInteger();
 
-        issuesStorage.allIssues()
+        Map<IssueKey, Issue> candidates = new HashMap<>();
+        Map<IssueKey, List<String>> addrsByIssue = new HashMap<>();
+        Map<IssueKey, int[]> subscribersStat = new HashMap<>();
+
+        // widest age bound of the filter below, only issues detected within it are read
+        long windowStart = System.currentTimeMillis()
+            - TimeUnit.HOURS.toMillis(TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_FOR_NOTIFIED_ISSUE_HOURS);
+
+        issuesStorage.recentIssues(windowStart)
             .peek(issue -> issuesChecked.incrementAndGet())
             .filter(issue -> {
                 long detected = issue.detectedTs == null ? 0 : issue.detectedTs;
@@ -238,34 +248,45 @@ public class IssueDetector {
                             addrs.add(SLACK + slack);
                     });
 
-                if(!addrs.isEmpty())
+                if(!addrs.isEmpty()) {
                     hasSubscriptions.incrementAndGet();
 
-                boolean nonNotifedChFound = false;
-
-                for (String nextAddr : addrs) {
-                    if (issuesStorage.getIsNewAndSetNotified(issue.issueKey, nextAddr, null)) {
-                        nonNotifedChFound = true;
-
-                        toBeSent.computeIfAbsent(nextAddr, addr -> {
-                            Notification notification = new Notification();
-                            notification.ts = System.currentTimeMillis();
-                            notification.addr = addr;
-                            return notification;
-                        }).addIssue(issue);
-                    }
+                    addrsByIssue.put(issue.issueKey, addrs);
                 }
 
-                if (!nonNotifedChFound) {
-                    issuesStorage.saveIssueSubscribersStat(issue.issueKey,
-                        ctnSrvAllowed.get(),
-                        cntSubscibed.get(),
-                        cntTagsFilterPassed.get());
-                }
-                else
-                    neverSentBefore.incrementAndGet();
+                candidates.put(issue.issueKey, issue);
+                subscribersStat.put(issue.issueKey,
+                    new int[] {ctnSrvAllowed.get(), cntSubscibed.get(), cntTagsFilterPassed.get()});
             });
 
+        Map<IssueKey, Set<String>> newAddrs = issuesStorage.setNotified(addrsByIssue);
+
+        candidates.forEach((key, issue) -> {
+            Set<String> issueNewAddrs = newAddrs.get(key);
+
+            if (issueNewAddrs == null) {
+                int[] subscribers = subscribersStat.get(key);
+
+                issuesStorage.saveIssueSubscribersStat(key, subscribers[0], subscribers[1], subscribers[2]);
+
+                return;
+            }
+
+            neverSentBefore.incrementAndGet();
+
+            for (String nextAddr : addrsByIssue.get(key)) {
+                if (!issueNewAddrs.contains(nextAddr))
+                    continue;
+
+                toBeSent.computeIfAbsent(nextAddr, addr -> {
+                    Notification notification = new Notification();
+                    notification.ts = System.currentTimeMillis();
+                    notification.addr = addr;
+                    return notification;
+                }).addIssue(issue);
+            }
+        });
+
         String stat = issuesChecked.get() + " issues checked, " +
             filteredFresh.get() + " detected recenty, " +
             filteredBuildTs.get() + " for fresh builds, " +
@@ -445,6 +466,14 @@ public class IssueDetector {
         }
     }
 
+    /**
+     * @param buildId Result of {@link EventTemplateMatcher}.
+     * @return build ID or <code>null</code> if template was not detected.
+     */
+    @Nullable private static Integer detectedBuildId(int buildId) {
+        return buildId == EventTemplateMatcher.NOT_DETECTED ? null : buildId;
+    }
+
     private boolean registerTestFailIssues(ITeamcityIgnited tcIgnited,
         String srvCode,
         String suiteId,
@@ -464,20 +493,24 @@ public class IssueDetector {
 
         IssueType type = null;
 
-        Integer firstFailedBuildId = runStat.detectTemplate(EventTemplates.newContributedTestFailure);
+        int[] detected = new int[EventTemplates.testFailureMatcher.templates()];
+
+        EventTemplates.testFailureMatcher.detectAll(runStat, detected);
+
+        Integer firstFailedBuildId = detectedBuildId(detected[EventTemplates.TEST_NEW_CONTRIBUTED_FAILURE]);
 
         if (firstFailedBuildId != null)
             type = IssueType.newContributedTestFailure;
 
         if (firstFailedBuildId == null) {
-            firstFailedBuildId = runStat.detectTemplate(EventTemplates.newFailure);
+            firstFailedBuildId = detectedBuildId(detected[EventTemplates.TEST_NEW_FAILURE]);
 
             if (firstFailedBuildId != null) {
                 type = IssueType.newFailure;
                 final String flakyComments = runStat.getFlakyComments();
 
                 if (!Strings.isNullOrEmpty(flakyComments) &&
-                    runStat.detectTemplate(EventTemplates.newFailureForFlakyTest) != null)
+                    detected[EventTemplates.TEST_NEW_FAILURE_FOR_FLAKY] != EventTemplateMatcher.NOT_DETECTED)
                         type = IssueType.newFailureForFlakyTest;
             }
         }
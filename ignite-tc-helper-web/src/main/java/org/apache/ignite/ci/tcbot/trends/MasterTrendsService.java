@@ -98,16 +98,16 @@ public class MasterTrendsService {
     public void initialize(BuildStatisticsSummary s, @Nonnull final ITeamcityIgnited tcIgn) {
         BuildStatisticsSummary.initStrings(compactor);
 
-        FatBuildCompacted build = tcIgn.getFatBuild(s.buildId);
+        Map<Integer, Future<FatBuildCompacted>> builds = bcp.loadAllBuildsInChains(
+            Collections.singletonList(s.buildId), SyncMode.RELOAD_QUEUED, tcIgn);
+
+        FatBuildCompacted build = FutureUtil.getResult(builds.get(s.buildId));
 
         s.isFakeStub = build.isFakeStub();
 
         if (s.isFakeStub)
             return;
 
-        Map<Integer, Future<FatBuildCompacted>> builds = bcp.loadAllBuildsInChains(
-            Collections.singletonList(s.buildId), SyncMode.RELOAD_QUEUED, tcIgn);
-
         List<FatBuildCompacted> chainBuilds = FutureUtil.getResults(builds.values()).collect(Collectors.toList());
 
         if (chainBuilds.stream().allMatch(b -> build.isFakeStub())) {
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.push;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import org.apache.ignite.tcignited.build.UpdateCountersStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes updates of TC branches counters to subscribed pages, instead of periodical polling of updates by each page.
+ *
+ * Increments of {@link UpdateCountersStorage} are coalesced per branch: changed branches are collected during
+ * {@link #DEBOUNCE_MS}, and then each affected subscription gets one event with actual hash of its counters.
+ * Streams are written using async servlet I/O, so connected but idle client does not occupy any thread.
+ */
+public class UpdatesPushHub {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(UpdatesPushHub.class);
+
+    /** Period of collecting changed branches before notification. */
+    public static final long DEBOUNCE_MS = TimeUnit.SECONDS.toMillis(2);
+
+    /** Period of keep alive comments and expired subscriptions removal. */
+    public static final long KEEP_ALIVE_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /** Max time for subscription to stay without connected client. */
+    public static final long DETACHED_TTL_MS = TimeUnit.MINUTES.toMillis(2);
+
+    /** Counters storage. */
+    @Inject private UpdateCountersStorage countersStorage;
+
+    /** Subscriptions by ID. */
+    private final ConcurrentMap<String, UpdatesSubscription> subscriptions = new ConcurrentHashMap<>();
+
+    /** Subscriptions by branch name compactor ID. */
+    private final ConcurrentMap<Integer, Set<UpdatesSubscription>> byBranch = new ConcurrentHashMap<>();
+
+    /** Branches updated since last notification. */
+    private final Set<Integer> changedBranches = ConcurrentHashMap.newKeySet();
+
+    /** Notification of changed branches is scheduled. */
+    private final AtomicBoolean notifyScheduled = new AtomicBoolean();
+
+    /** Counters increment listener. */
+    private final IntConsumer lsnr = this::onIncrement;
+
+    /** Started flag. */
+    private final AtomicBoolean init = new AtomicBoolean();
+
+    /** Executor service. */
+    private volatile ScheduledExecutorService executorSvc;
+
+    /**
+     * Registers subscription, client should connect to stream during {@link #DETACHED_TTL_MS}.
+     *
+     * @param branches Branch name compactor IDs.
+     * @return subscription ID.
+     */
+    public String subscribe(Collection<Integer> branches) {
+        start();
+
+        UpdatesSubscription sub = new UpdatesSubscription(UUID.randomUUID().toString(), new HashSet<>(branches));
+
+        subscriptions.put(sub.id(), sub);
+
+        for (Integer branch : sub.branches())
+            byBranch.computeIfAbsent(branch, k -> ConcurrentHashMap.newKeySet()).add(sub);
+
+        return sub.id();
+    }
+
+    /**
+     * @param id Subscription ID.
+     * @param ctx Async context of event stream request.
+     * @return {@code false} if subscription was not found.
+     */
+    boolean connect(@Nullable String id, AsyncContext ctx) throws IOException {
+        UpdatesSubscription sub = id == null ? null : subscriptions.get(id);
+
+        if (sub == null)
+            return false;
+
+        sub.attach(ctx, () -> countersStorage.getCounters(sub.branches()));
+
+        return true;
+    }
+
+    /**
+     * @param branch Branch name compactor ID.
+     */
+    private void onIncrement(int branch) {
+        if (!byBranch.containsKey(branch))
+            return;
+
+        changedBranches.add(branch);
+
+        if (!notifyScheduled.compareAndSet(false, true))
+            return;
+
+        try {
+            executorSvc.schedule(this::notifySubscriptions, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ignored) {
+            // Hub is stopped.
+        }
+    }
+
+    /**
+     * Sends actual counters to subscriptions of branches changed during debounce period.
+     */
+    private void notifySubscriptions() {
+        notifyScheduled.set(false);
+
+        Set<UpdatesSubscription> affected = new HashSet<>();
+
+        for (Integer branch : drainChangedBranches())
+            affected.addAll(byBranch.getOrDefault(branch, Collections.emptySet()));
+
+        for (UpdatesSubscription sub : affected) {
+            try {
+                sub.countersUpdated(countersStorage.getCounters(sub.branches()));
+            }
+            catch (Exception e) {
+                logger.error("Failed to notify subscription " + sub.id(), e);
+            }
+        }
+    }
+
+    /**
+     * @return branches changed since previous call.
+     */
+    private List<Integer> drainChangedBranches() {
+        List<Integer> res = new ArrayList<>(changedBranches);
+
+        changedBranches.removeAll(res);
+
+        return res;
+    }
+
+    /**
+     * Sends keep alive comments and removes subscriptions without connected clients.
+     */
+    private void keepAlive() {
+        long ts = System.currentTimeMillis();
+
+        for (UpdatesSubscription sub : subscriptions.values()) {
+            if (sub.expired(ts, DETACHED_TTL_MS))
+                remove(sub);
+            else
+                sub.keepAlive();
+        }
+    }
+
+    /**
+     * @param sub Subscription.
+     */
+    private void remove(UpdatesSubscription sub) {
+        subscriptions.remove(sub.id(), sub);
+
+        for (Integer branch : sub.branches()) {
+            byBranch.computeIfPresent(branch, (k, subs) -> {
+                subs.remove(sub);
+
+                return subs.isEmpty() ? null : subs;
+            });
+        }
+    }
+
+    /**
+     * @return count of registered subscriptions.
+     */
+    public int subscriptions() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Starts listening of counters updates.
+     */
+    public void start() {
+        if (init.compareAndSet(false, true)) {
+            ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+            executorSvc = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = threadFactory.newThread(r);
+
+                thread.setName("updates-push-" + thread.getName());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+            executorSvc.scheduleWithFixedDelay(this::keepAlive, KEEP_ALIVE_MS, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS);
+
+            countersStorage.addListener(lsnr);
+        }
+    }
+
+    /**
+     * Stops listening and closes all streams.
+     */
+    public void stop() {
+        if (!init.get())
+            return;
+
+        countersStorage.removeListener(lsnr);
+
+        if (executorSvc != null)
+            executorSvc.shutdownNow();
+
+        subscriptions.values().forEach(UpdatesSubscription::close);
+    }
+}
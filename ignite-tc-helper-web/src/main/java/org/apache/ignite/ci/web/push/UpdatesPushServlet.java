@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.push;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.ignite.ci.web.CtxListener;
+
+/**
+ * Stream of counters updates in <code>text/event-stream</code> format for browser <code>EventSource</code>.
+ * Subscription should be created by authorized REST call (<code>rest/tracked/subscribe</code> or
+ * <code>rest/pr/subscribe</code>), its ID is passed as <code>id</code> parameter.
+ *
+ * Request is switched to async mode and released, events are written by {@link UpdatesPushHub}.
+ */
+public class UpdatesPushServlet extends HttpServlet {
+    /** {@inheritDoc} */
+    @Override protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        UpdatesPushHub hub = CtxListener.getInjector(getServletContext()).getInstance(UpdatesPushHub.class);
+
+        resp.setContentType("text/event-stream");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setHeader("Cache-Control", "no-cache");
+        resp.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext ctx = req.startAsync();
+
+        ctx.setTimeout(0);
+
+        if (!hub.connect(req.getParameter("id"), ctx)) {
+            // Not 200 status, so browser stops reconnection and page falls back to polling.
+            resp.reset();
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+
+            ctx.complete();
+        }
+    }
+}
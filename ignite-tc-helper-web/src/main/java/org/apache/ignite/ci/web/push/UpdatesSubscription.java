@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.push;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import org.apache.ignite.tcignited.build.UpdateCountersStorage;
+
+/**
+ * Subscription of one page to updates of TC branches. Survives reconnects of the browser event source: stream is
+ * attached on connect and detached on close, subscription is removed by {@link UpdatesPushHub} if it stays detached.
+ *
+ * Only the latest event is kept for sending, so slow client gets current counters hash and never accumulates a
+ * backlog. Writes are non-blocking: if output is not ready, event is written from {@link WriteListener} callback.
+ */
+class UpdatesSubscription {
+    /** Reconnection delay for browser, milliseconds. */
+    private static final int RETRY_MS = 10000;
+
+    /** Comment event. */
+    private static final byte[] KEEP_ALIVE_EVT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /** Subscription ID. */
+    private final String id;
+
+    /** Branch name compactor IDs. */
+    private final Set<Integer> branches;
+
+    /** Attached stream, guarded by this. */
+    @Nullable private Stream stream;
+
+    /** Time of detaching stream or of subscription creation, guarded by this. */
+    private long detachedTs = System.currentTimeMillis();
+
+    /** Hash of counters sent last time, guarded by this. */
+    @Nullable private String sentHash;
+
+    /** Event sequence number, guarded by this. */
+    private long evtId;
+
+    /**
+     * @param id Subscription ID.
+     * @param branches Branch name compactor IDs.
+     */
+    UpdatesSubscription(String id, Set<Integer> branches) {
+        this.id = id;
+        this.branches = Collections.unmodifiableSet(branches);
+    }
+
+    /** */
+    String id() {
+        return id;
+    }
+
+    /** */
+    Set<Integer> branches() {
+        return branches;
+    }
+
+    /**
+     * @param ctx Async context of event stream request.
+     * @param counters Supplier of current counters, these are sent immediately.
+     */
+    void attach(AsyncContext ctx, Supplier<Map<Integer, Integer>> counters) throws IOException {
+        Stream newStream = new Stream(ctx);
+        String hash = UpdateCountersStorage.getCountersHash(counters.get());
+
+        ctx.addListener(newStream);
+
+        newStream.send(countersEvent(hash), false);
+
+        // Container calls onWritePossible() after that, so stream starts writing in non-blocking mode.
+        newStream.out.setWriteListener(newStream);
+
+        Stream old;
+
+        synchronized (this) {
+            old = stream;
+            stream = newStream;
+            sentHash = hash;
+        }
+
+        if (old != null)
+            old.close();
+
+        // Counters could be updated before stream was attached.
+        countersUpdated(counters.get());
+    }
+
+    /**
+     * Sends counters hash, if it was changed since the last event.
+     *
+     * @param counters Current counters.
+     */
+    void countersUpdated(Map<Integer, Integer> counters) {
+        String hash = UpdateCountersStorage.getCountersHash(counters);
+        Stream s;
+
+        synchronized (this) {
+            if (stream == null || hash.equals(sentHash))
+                return;
+
+            sentHash = hash;
+
+            s = stream;
+            s.send(countersEvent(hash), true);
+        }
+
+        s.writePending();
+    }
+
+    /**
+     * @param hash Counters hash.
+     * @return event in text/event-stream format, data is compatible with {@code UpdateInfo}.
+     */
+    private synchronized byte[] countersEvent(String hash) {
+        evtId++;
+
+        String evt = "retry: " + RETRY_MS + "\nid: " + evtId + "\nevent: counters\n"
+            + "data: {\"hashCodeHex\":\"" + hash + "\"}\n\n";
+
+        return evt.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends SSE comment, so proxies keep idle connection open and closed connections are detected.
+     */
+    void keepAlive() {
+        Stream s;
+
+        synchronized (this) {
+            if (stream == null)
+                return;
+
+            s = stream;
+            s.send(KEEP_ALIVE_EVT, false);
+        }
+
+        s.writePending();
+    }
+
+    /**
+     * @param ts Current time.
+     * @param ttl Max time to stay without attached stream.
+     * @return {@code true} if subscription was detached for longer than ttl.
+     */
+    synchronized boolean expired(long ts, long ttl) {
+        return stream == null && ts - detachedTs > ttl;
+    }
+
+    /**
+     * Closes attached stream.
+     */
+    void close() {
+        Stream s;
+
+        synchronized (this) {
+            s = stream;
+        }
+
+        if (s != null)
+            s.close();
+    }
+
+    /**
+     * @param s Closed stream.
+     */
+    private synchronized void detach(Stream s) {
+        if (stream != s)
+            return;
+
+        stream = null;
+        detachedTs = System.currentTimeMillis();
+    }
+
+    /**
+     * Event stream of one HTTP request.
+     */
+    private class Stream implements WriteListener, AsyncListener {
+        /** Async context. */
+        private final AsyncContext ctx;
+
+        /** Output. */
+        private final ServletOutputStream out;
+
+        /** Data to be written, guarded by this. */
+        @Nullable private byte[] pending;
+
+        /** Stream is closed, guarded by this. */
+        private boolean closed;
+
+        /**
+         * @param ctx Async context.
+         */
+        Stream(AsyncContext ctx) throws IOException {
+            this.ctx = ctx;
+            this.out = ctx.getResponse().getOutputStream();
+        }
+
+        /**
+         * @param data Event data.
+         * @param replace Replace not yet written event, otherwise data is dropped if there is pending event.
+         */
+        synchronized void send(byte[] data, boolean replace) {
+            if (replace || pending == null)
+                pending = data;
+        }
+
+        /**
+         * Writes pending event if output is ready.
+         */
+        void writePending() {
+            synchronized (this) {
+                if (closed)
+                    return;
+
+                try {
+                    if (pending == null || !out.isReady())
+                        return;
+
+                    byte[] data = pending;
+
+                    pending = null;
+
+                    out.write(data);
+
+                    if (out.isReady())
+                        out.flush();
+
+                    return;
+                }
+                catch (IOException | IllegalStateException ignored) {
+                    // Client has gone, stream is closed below.
+                }
+            }
+
+            close();
+        }
+
+        /**
+         * Completes request and detaches stream from subscription.
+         */
+        void close() {
+            synchronized (this) {
+                if (closed)
+                    return;
+
+                closed = true;
+                pending = null;
+            }
+
+            detach(this);
+
+            try {
+                ctx.complete();
+            }
+            catch (IllegalStateException ignored) {
+                // Request is already completed by container.
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onWritePossible() {
+            writePending();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onError(Throwable t) {
+            close();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onComplete(AsyncEvent evt) {
+            close();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onTimeout(AsyncEvent evt) {
+            close();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onError(AsyncEvent evt) {
+            close();
+        }
+
+        /** {@inheritDoc} */
+        @Override public void onStartAsync(AsyncEvent evt) {
+            // No-op.
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.ci.web.rest.build;
+
+import com.google.common.base.Strings;
+import com.google.inject.Injector;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.security.PermitAll;
+import javax.servlet.ServletContext;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.apache.ignite.ci.tcbot.ITcBotBgAuth;
+import org.apache.ignite.ci.web.CtxListener;
+import org.apache.ignite.ci.web.model.SimpleResult;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
+import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
+
+/**
+ * Receives build events from TeamCity, e.g. from build finish webhook configured with URL
+ * <code>rest/buildEvents/finished?serverId=apache&amp;token=...&amp;buildId=%teamcity.build.id%</code>. Build IDs can
+ * also be posted as plain text body, separated by whitespace or commas, e.g. by
+ * <code>curl --data-binary @builds.txt</code>. Reported builds are synchronized with the bot DB in the background.
+ *
+ * Endpoint is enabled if {@link TcBotSystemProperties#TEAMCITY_BOT_BUILD_EVENTS_TOKEN} is set.
+ */
+@Path("buildEvents")
+@Produces(MediaType.APPLICATION_JSON)
+public class BuildEventsRestService {
+    /** Servlet Context. */
+    @Context
+    private ServletContext ctx;
+
+    /**
+     * @param srvCode Server code.
+     * @param tok Secret configured by {@link TcBotSystemProperties#TEAMCITY_BOT_BUILD_EVENTS_TOKEN}.
+     * @param buildIds Build IDs.
+     * @param body Optional build IDs, separated by whitespace or commas.
+     * @return <code>200</code> if builds are accepted, <code>404</code> if endpoint is disabled, <code>403</code> if
+     * token is invalid, <code>400</code> if server is unknown.
+     */
+    @POST
+    @PermitAll
+    @Path("finished")
+    @Consumes(MediaType.WILDCARD)
+    public Response buildsFinished(
+        @QueryParam("serverId") String srvCode,
+        @QueryParam("token") String tok,
+        @QueryParam("buildId") List<Integer> buildIds,
+        @Nullable String body) {
+        String expTok = System.getProperty(TcBotSystemProperties.TEAMCITY_BOT_BUILD_EVENTS_TOKEN);
+
+        if (Strings.isNullOrEmpty(expTok))
+            return error(Response.Status.NOT_FOUND, "Build events are disabled");
+
+        if (!isTokenValid(expTok, tok))
+            return error(Response.Status.FORBIDDEN, "Invalid token");
+
+        Injector injector = CtxListener.getInjector(ctx);
+
+        if (srvCode == null || !injector.getInstance(ITcBotConfig.class).getServerIds().contains(srvCode))
+            return error(Response.Status.BAD_REQUEST, "Unknown server " + srvCode);
+
+        Set<Integer> ids = parseBuildIds(buildIds, body);
+
+        if (ids.isEmpty())
+            return Response.ok(new SimpleResult("No builds reported")).build();
+
+        injector.getInstance(ITeamcityIgnitedProvider.class)
+            .server(srvCode, injector.getInstance(ITcBotBgAuth.class).getServerAuthorizerCreds())
+            .onBuildEvents(ids);
+
+        return Response.ok(new SimpleResult("Builds accepted: " + ids.size())).build();
+    }
+
+    /**
+     * @param status Status.
+     * @param msg Message.
+     */
+    private static Response error(Response.Status status, String msg) {
+        return Response.status(status).entity(new SimpleResult(msg)).build();
+    }
+
+    /**
+     * @param expTok Expected token.
+     * @param tok Token provided by sender.
+     * @return <code>true</code> if tokens are equal, compared in constant time.
+     */
+    static boolean isTokenValid(String expTok, @Nullable String tok) {
+        return tok != null && MessageDigest.isEqual(expTok.getBytes(StandardCharsets.UTF_8),
+            tok.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param buildIds Build IDs from query parameters.
+     * @param body Optional build IDs, separated by whitespace, commas or semicolons. Invalid values are skipped.
+     * @return distinct build IDs in order of appearance.
+     */
+    static Set<Integer> parseBuildIds(@Nullable List<Integer> buildIds, @Nullable String body) {
+        Set<Integer> ids = new LinkedHashSet<>();
+
+        if (buildIds != null)
+            ids.addAll(buildIds);
+
+        if (!Strings.isNullOrEmpty(body)) {
+            for (String id : body.split("[\\s,;]+")) {
+                if (!id.isEmpty() && id.chars().allMatch(Character::isDigit) && id.length() < 10)
+                    ids.add(Integer.parseInt(id));
+            }
+        }
+
+        return ids;
+    }
+}
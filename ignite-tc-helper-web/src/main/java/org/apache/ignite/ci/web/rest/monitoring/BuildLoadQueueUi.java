@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.rest.monitoring;
+
+import org.apache.ignite.tcignited.build.BuildLoadQueue;
+
+/**
+ * Fat builds load queue statistics for one server and one class of loads.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BuildLoadQueueUi {
+    public String srvCode;
+    public String priority;
+    public int depth;
+    public long enqueued;
+    public long dropped;
+    public long taken;
+    public long avgWaitMs;
+    public long maxWaitMs;
+    public long headWaitMs;
+
+    public BuildLoadQueueUi(String srvCode, BuildLoadQueue.ClassStat stat) {
+        this.srvCode = srvCode;
+        this.priority = stat.priority.name();
+        this.depth = stat.depth;
+        this.enqueued = stat.enqueued;
+        this.dropped = stat.dropped;
+        this.taken = stat.taken;
+        this.avgWaitMs = stat.avgWaitMs;
+        this.maxWaitMs = stat.maxWaitMs;
+        this.headWaitMs = stat.headWaitMs;
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.ignite.ci.web.rest.monitoring;
 
+import org.apache.ignite.tcbot.common.interceptor.LatencyHistogram;
 import org.apache.ignite.tcbot.common.util.TimeUtil;
 
 @SuppressWarnings("WeakerAccess")
@@ -25,6 +26,15 @@ public class HotSpot {
     public int count;
     public String avgDuration;
 
+    /** Calls count within recent window. */
+    public long recentCount;
+
+    /** Recent latency percentiles and maximum. */
+    public String p50;
+    public String p99;
+    public String p999;
+    public String max;
+
     private transient long ns;
 
     public long getNanos() {
@@ -47,4 +57,12 @@ public class HotSpot {
         duration = TimeUtil.nanosToDurationPrintable(ns);
         avgDuration = TimeUtil.nanosToDurationPrintable(ns / count);
     }
+
+    public void setRecentLatency(LatencyHistogram.Snapshot latency) {
+        recentCount = latency.getCount();
+        p50 = TimeUtil.nanosToDurationPrintable(latency.getP50());
+        p99 = TimeUtil.nanosToDurationPrintable(latency.getP99());
+        p999 = TimeUtil.nanosToDurationPrintable(latency.getP999());
+        max = TimeUtil.nanosToDurationPrintable(latency.getMax());
+    }
 }
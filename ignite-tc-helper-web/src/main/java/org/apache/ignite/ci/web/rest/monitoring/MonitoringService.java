@@ -23,11 +23,15 @@ import org.apache.ignite.cache.affinity.Affinity;
 import org.apache.ignite.ci.web.CtxListener;
 import org.apache.ignite.ci.web.model.SimpleResult;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfilingInterceptor;
+import org.apache.ignite.tcbot.common.interceptor.LatencyHistogram;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTaskInterceptor;
 import org.apache.ignite.tcbot.engine.conf.INotificationChannel;
 import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
 import org.apache.ignite.tcbot.engine.conf.NotificationsConfig;
 import org.apache.ignite.tcbot.notify.ISlackSender;
+import org.apache.ignite.tcignited.build.FatBuildBatchMetrics;
+import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
+import org.apache.ignite.tcignited.buildlog.LogAnalysisExecutor;
 
 import javax.annotation.security.PermitAll;
 import javax.servlet.ServletContext;
@@ -84,6 +88,7 @@ public class MonitoringService {
             HotSpot hotSpot = new HotSpot();
 
             hotSpot.setTiming(inv.getNanos(), inv.getCount());
+            hotSpot.setRecentLatency(inv.getRecentLatency());
             hotSpot.method = inv.getName();
 
             return hotSpot;
@@ -94,6 +99,52 @@ public class MonitoringService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * @return profiling data in Prometheus text exposition format: recent latency percentiles as summary quantiles,
+     * total time and count since start (or reset).
+     */
+    @GET
+    @PermitAll
+    @Path("profiling/metrics")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String getProfilingMetrics() {
+        AutoProfilingInterceptor instance = CtxListener.getInjector(ctx).getInstance(AutoProfilingInterceptor.class);
+
+        List<AutoProfilingInterceptor.Invocation> profile = new ArrayList<>(instance.getInvocations());
+        profile.sort(Comparator.comparing(AutoProfilingInterceptor.Invocation::getName));
+
+        String metric = "tcbot_method_duration_seconds";
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# HELP ").append(metric).append(" Duration of @AutoProfiling methods, quantiles are for last ")
+            .append(LatencyHistogram.WINDOW_MINUTES).append(" minutes.\n");
+        sb.append("# TYPE ").append(metric).append(" summary\n");
+
+        for (AutoProfilingInterceptor.Invocation inv : profile) {
+            LatencyHistogram.Snapshot latency = inv.getRecentLatency();
+            String mtd = "method=\"" + inv.getName() + "\"";
+
+            appendSample(sb, metric, mtd + ",quantile=\"0.5\"", latency.getP50());
+            appendSample(sb, metric, mtd + ",quantile=\"0.99\"", latency.getP99());
+            appendSample(sb, metric, mtd + ",quantile=\"0.999\"", latency.getP999());
+            appendSample(sb, metric, mtd + ",quantile=\"1\"", latency.getMax());
+            appendSample(sb, metric + "_sum", mtd, inv.getNanos());
+            sb.append(metric).append("_count{").append(mtd).append("} ").append(inv.getCount()).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @param sb Output.
+     * @param metric Metric name.
+     * @param labels Labels.
+     * @param nanos Value in nanoseconds, printed in seconds.
+     */
+    private static void appendSample(StringBuilder sb, String metric, String labels, long nanos) {
+        sb.append(metric).append('{').append(labels).append("} ").append(nanos / 1e9).append('\n');
+    }
+
     @POST
     @Path("resetProfiling")
     public SimpleResult resetProfiling() {
@@ -128,6 +179,34 @@ public class MonitoringService {
     }
 
 
+    @GET
+    @PermitAll
+    @Path("buildLoadQueues")
+    public List<BuildLoadQueueUi> getBuildLoadQueues() {
+        ProactiveFatBuildSync fatBuildSync = CtxListener.getInjector(ctx).getInstance(ProactiveFatBuildSync.class);
+
+        List<BuildLoadQueueUi> res = new ArrayList<>();
+
+        fatBuildSync.queueStats().forEach((srvCode, stats) ->
+            stats.forEach(stat -> res.add(new BuildLoadQueueUi(srvCode, stat))));
+
+        return res;
+    }
+
+    @GET
+    @PermitAll
+    @Path("fatBuildBatches")
+    public FatBuildBatchMetrics.Metrics getFatBuildBatchMetrics() {
+        return CtxListener.getInjector(ctx).getInstance(FatBuildBatchMetrics.class).metrics();
+    }
+
+    @GET
+    @PermitAll
+    @Path("logAnalysis")
+    public LogAnalysisExecutor.Metrics getLogAnalysisMetrics() {
+        return CtxListener.getInjector(ctx).getInstance(LogAnalysisExecutor.class).metrics();
+    }
+
     @GET
     @PermitAll
     @Path("cacheMetrics")
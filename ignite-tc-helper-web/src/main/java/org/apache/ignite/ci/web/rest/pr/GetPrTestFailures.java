@@ -18,6 +18,7 @@
 package org.apache.ignite.ci.web.rest.pr;
 
 import com.google.inject.Injector;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -32,6 +33,8 @@ import javax.ws.rs.core.MediaType;
 import org.apache.ignite.ci.github.PullRequest;
 import org.apache.ignite.ci.user.ITcBotUserCreds;
 import org.apache.ignite.ci.web.CtxListener;
+import org.apache.ignite.ci.web.model.SimpleResult;
+import org.apache.ignite.ci.web.push.UpdatesPushHub;
 import org.apache.ignite.githubignited.IGitHubConnIgnited;
 import org.apache.ignite.githubignited.IGitHubConnIgnitedProvider;
 import org.apache.ignite.githubservice.IGitHubConnection;
@@ -66,6 +69,24 @@ public class GetPrTestFailures {
                 .getPrUpdateCounters(srvCodeOrAlias, branchForTc, baseBranchForTc, ITcBotUserCreds.get(req)));
     }
 
+    /**
+     * Registers subscription to counters updates of PR and base branches, stream of updates is available at
+     * <code>updates/stream?id=</code>.
+     */
+    @GET
+    @Path("subscribe")
+    public SimpleResult subscribeToUpdates(
+        @Nullable @QueryParam("serverId") String srvCodeOrAlias,
+        @Nonnull @QueryParam("branchForTc") String branchForTc,
+        @Nullable @QueryParam("baseBranchForTc") String baseBranchForTc) {
+        Injector injector = CtxListener.getInjector(ctx);
+
+        Map<Integer, Integer> counters = injector.getInstance(PrChainsProcessor.class)
+            .getPrUpdateCounters(srvCodeOrAlias, branchForTc, baseBranchForTc, ITcBotUserCreds.get(req));
+
+        return new SimpleResult(injector.getInstance(UpdatesPushHub.class).subscribe(counters.keySet()));
+    }
+
     @GET
     @Path("resultsNoSync")
     public DsSummaryUi getPrFailuresResultsNoSync(
@@ -30,17 +30,23 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import org.apache.ignite.ci.tcbot.visa.TcBotTriggerAndSignOffService;
 import org.apache.ignite.ci.user.ITcBotUserCreds;
 import org.apache.ignite.ci.web.CtxListener;
+import org.apache.ignite.ci.web.model.SimpleResult;
+import org.apache.ignite.ci.web.push.UpdatesPushHub;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.tcbot.engine.chain.SortOption;
 import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
 import org.apache.ignite.tcbot.engine.tracked.DisplayMode;
 import org.apache.ignite.tcbot.engine.tracked.IDetailedStatusForTrackedBranch;
-import org.apache.ignite.tcbot.engine.tracked.TrackedBranchChainsProcessor;
+import org.apache.ignite.tcbot.engine.tracked.TrackedBranchResultsCache;
 import org.apache.ignite.tcbot.engine.ui.DsSummaryUi;
 import org.apache.ignite.tcbot.engine.ui.GuardBranchStatusUi;
 import org.apache.ignite.tcbot.engine.ui.UpdateInfo;
@@ -66,6 +72,10 @@ public class GetTrackedBranchTestResults {
     @Context
     private HttpServletRequest req;
 
+    /** Current Request, used for preconditions evaluation. */
+    @Context
+    private Request jaxRsReq;
+
     @GET
     @Path("updates")
     public UpdateInfo getTestFailsUpdates(@Nullable @QueryParam("branch") String branchOrNull) {
@@ -78,6 +88,23 @@ public class GetTrackedBranchTestResults {
         return info;
     }
 
+    /**
+     * Registers subscription to counters updates of tracked branch, stream of updates is available at
+     * <code>updates/stream?id=</code>.
+     *
+     * @param branchOrNull Tracked branch.
+     */
+    @GET
+    @Path("subscribe")
+    public SimpleResult subscribeToUpdates(@Nullable @QueryParam("branch") String branchOrNull) {
+        Injector injector = CtxListener.getInjector(ctx);
+
+        Map<Integer, Integer> counters = injector.getInstance(IDetailedStatusForTrackedBranch.class)
+            .getTrackedBranchUpdateCounters(branchOrNull, ITcBotUserCreds.get(req));
+
+        return new SimpleResult(injector.getInstance(UpdatesPushHub.class).subscribe(counters.keySet()));
+    }
+
     @GET
     @Path("results/txt")
     @Produces(MediaType.TEXT_PLAIN)
@@ -92,13 +119,16 @@ public class GetTrackedBranchTestResults {
         @Nullable @QueryParam("showTestLongerThan") Integer showTestLongerThan,
         @Nullable @QueryParam("muted") Boolean showMuted,
         @Nullable @QueryParam("ignored") Boolean showIgnored) {
-        return getTestFailsResultsNoSync(branchOrNull, checkAllLogs, trustedTests, tagSelected, tagForHistSelected,
-            displayMode, sortOption, mergeCnt, showTestLongerThan, showMuted, showIgnored).toString();
+        TrackedBranchResultsCache.Query qry = latestBuildResultsQuery(branchOrNull, checkAllLogs, trustedTests,
+            tagSelected, tagForHistSelected, SyncMode.NONE, displayMode, sortOption, mergeCnt, showTestLongerThan,
+            showMuted, showIgnored);
+
+        return resultsCache().results(qry, ITcBotUserCreds.get(req)).toString();
     }
 
     @GET
     @Path("resultsNoSync")
-    public DsSummaryUi getTestFailsResultsNoSync(
+    public Response getTestFailsResultsNoSync(
         @Nullable @QueryParam("branch") String branch,
         @Nullable @QueryParam("checkAllLogs") Boolean checkAllLogs,
         @Nullable @QueryParam("trustedTests") Boolean trustedTests,
@@ -117,7 +147,7 @@ public class GetTrackedBranchTestResults {
     @GET
     @Path("results")
     @NotNull
-    public DsSummaryUi getTestFailsNoCache(
+    public Response getTestFailsNoCache(
         @Nullable @QueryParam("branch") String branch,
         @Nullable @QueryParam("checkAllLogs") Boolean checkAllLogs,
         @Nullable @QueryParam("trustedTests") Boolean trustedTests,
@@ -133,7 +163,7 @@ public class GetTrackedBranchTestResults {
             SyncMode.RELOAD_QUEUED, displayMode, sortOption, mergeCnt, showTestLongerThan, showMuted, showIgnored);
     }
 
-    @NotNull private DsSummaryUi latestBuildResults(
+    @NotNull private Response latestBuildResults(
         @Nullable String branch,
         @Nullable Boolean checkAllLogs,
         @Nullable Boolean trustedTests,
@@ -146,16 +176,31 @@ public class GetTrackedBranchTestResults {
         @Nullable Integer showTestLongerThan,
         @Nullable Boolean showMuted,
         @Nullable Boolean showIgnored) {
-        ITcBotUserCreds creds = ITcBotUserCreds.get(req);
+        return cachedResults(latestBuildResultsQuery(branch, checkAllLogs, trustedTests, tagSelected,
+            tagForHistSelected, mode, displayMode, sortOption, mergeCnt, showTestLongerThan, showMuted, showIgnored));
+    }
 
-        Injector injector = CtxListener.getInjector(ctx);
+    @NotNull private TrackedBranchResultsCache.Query latestBuildResultsQuery(
+        @Nullable String branch,
+        @Nullable Boolean checkAllLogs,
+        @Nullable Boolean trustedTests,
+        @Nullable String tagSelected,
+        @Nullable String tagForHistSelected,
+        @Nonnull SyncMode mode,
+        @Nullable String displayMode,
+        @Nullable String sortOption,
+        @Nullable Integer mergeCnt,
+        @Nullable Integer showTestLongerThan,
+        @Nullable Boolean showMuted,
+        @Nullable Boolean showIgnored) {
+        ITcBotUserCreds creds = ITcBotUserCreds.get(req);
 
         int actualMergeBuilds = (mergeCnt == null || mergeCnt < 1) ? 1 : mergeCnt;
 
         int maxDurationSec = (showTestLongerThan == null || showTestLongerThan < 1) ? 0 : showTestLongerThan;
 
-        return injector.getInstance(IDetailedStatusForTrackedBranch.class)
-            .getTrackedBranchTestFailures(branch,
+        return resultsCache()
+            .query(branch,
                 checkAllLogs,
                 actualMergeBuilds,
                 creds,
@@ -170,6 +215,46 @@ public class GetTrackedBranchTestResults {
                 Boolean.TRUE.equals(showIgnored));
     }
 
+    /**
+     * Provides materialised results. If client already has results for the same query (same parameters, visible
+     * servers and update counters), replies <code>304 Not Modified</code> without computing results. Entity tag is
+     * used only for queries without sync, see {@link TrackedBranchResultsCache.Query#revalidationAllowed()}, and only
+     * for complete results: partial results of timed out chains are not stored by client.
+     *
+     * @param qry Query.
+     */
+    private Response cachedResults(TrackedBranchResultsCache.Query qry) {
+        EntityTag etag = qry.revalidationAllowed() ? new EntityTag(qry.etag()) : null;
+
+        CacheControl cacheCtrl = new CacheControl();
+        cacheCtrl.setPrivate(true);
+        cacheCtrl.setNoCache(true);
+
+        if (etag != null) {
+            Response.ResponseBuilder notModified = jaxRsReq.evaluatePreconditions(etag);
+
+            if (notModified != null)
+                return notModified.cacheControl(cacheCtrl).build();
+        }
+
+        DsSummaryUi res = resultsCache().results(qry, ITcBotUserCreds.get(req));
+
+        if (res.hasTimedOutChains()) {
+            // Partial results should not be confirmed by entity tag of complete ones.
+            etag = null;
+            cacheCtrl.setNoStore(true);
+        }
+
+        return Response.ok(res).tag(etag).cacheControl(cacheCtrl).build();
+    }
+
+    /**
+     * @return tracked branch results cache.
+     */
+    private TrackedBranchResultsCache resultsCache() {
+        return CtxListener.getInjector(ctx).getInstance(TrackedBranchResultsCache.class);
+    }
+
     @GET
     @Path("mergedUpdates")
     public UpdateInfo getAllTestFailsUpdates(@Nullable @QueryParam("branch") String branchOrNull) {
@@ -181,7 +266,7 @@ public class GetTrackedBranchTestResults {
 
     @GET
     @Path("mergedResultsNoSync")
-    public DsSummaryUi getAllTestFailsNoSync(@Nullable @QueryParam("branch") String branch,
+    public Response getAllTestFailsNoSync(@Nullable @QueryParam("branch") String branch,
                                              @Nullable @QueryParam("count") Integer cnt,
                                              @Nullable @QueryParam("checkAllLogs") Boolean checkAllLogs) {
         return mergedBuildsResults(branch, cnt, checkAllLogs, SyncMode.NONE);
@@ -190,25 +275,24 @@ public class GetTrackedBranchTestResults {
     @GET
     @Path("mergedResults")
     @NotNull
-    public DsSummaryUi getAllTestFailsForMergedBuidls(@Nullable @QueryParam("branch") String branchOpt,
+    public Response getAllTestFailsForMergedBuidls(@Nullable @QueryParam("branch") String branchOpt,
                                                       @QueryParam("count") Integer cnt,
                                                       @Nullable @QueryParam("checkAllLogs") Boolean checkAllLogs) {
         return mergedBuildsResults(branchOpt, cnt, checkAllLogs, SyncMode.RELOAD_QUEUED);
     }
 
-    @NotNull private DsSummaryUi mergedBuildsResults(
+    @NotNull private Response mergedBuildsResults(
         @QueryParam("branch") @Nullable String branchOpt,
         @QueryParam("count") Integer cnt,
         @QueryParam("checkAllLogs") @Nullable Boolean checkAllLogs,
         SyncMode mode) {
         ITcBotUserCreds creds = ITcBotUserCreds.get(req);
         int cntLimit = cnt == null ? DEFAULT_COUNT : cnt;
-        Injector injector = CtxListener.getInjector(ctx);
 
-        return injector.getInstance(TrackedBranchChainsProcessor.class)
-            .getTrackedBranchTestFailures(branchOpt, checkAllLogs, cntLimit, creds, mode,
+        return cachedResults(resultsCache()
+            .query(branchOpt, checkAllLogs, cntLimit, creds, mode,
                 false, null, null, DisplayMode.OnlyFailures, null,
-                -1, false, false);
+                -1, false, false));
     }
 
     /**
@@ -308,6 +308,41 @@ function scriptRequest(url, onSuccess, onError) {
     document.body.appendChild(script);
 }
 
+/**
+ * Subscribes to server push of update counters changes.
+ *
+ * @param subscribeUrl REST URL registering subscription, returns its ID.
+ * @param onUpdate Function for changed counters, accepts counters hash.
+ * @param onFailure Function called if push is not available, page should poll for updates instead.
+ */
+function subscribeForUpdates(subscribeUrl, onUpdate, onFailure) {
+    if (typeof EventSource === "undefined") {
+        onFailure();
+
+        return;
+    }
+
+    $.ajax({
+        url: subscribeUrl,
+        success: function (result) {
+            var src = new EventSource("updates/stream?id=" + encodeURIComponent(result.result));
+
+            src.addEventListener("counters", function (e) {
+                onUpdate(JSON.parse(e.data).hashCodeHex);
+            });
+
+            src.onerror = function () {
+                // Browser reconnects automatically unless stream was rejected.
+                if (src.readyState === EventSource.CLOSED)
+                    onFailure();
+            };
+        },
+        error: function () {
+            onFailure();
+        }
+    });
+}
+
 /** Key-value map. Key - server id. Value - url to git api. */
 var gitUrls = new Map();
 
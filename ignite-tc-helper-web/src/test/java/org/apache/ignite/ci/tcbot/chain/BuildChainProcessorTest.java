@@ -43,7 +43,6 @@ import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mockito;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
@@ -68,7 +67,7 @@ public class BuildChainProcessorTest {
         @Override protected void configure() {
             bind(IStringCompactor.class).to(InMemoryStringCompactor.class).in(new SingletonScope());
 
-            bind(IBuildLogProcessor.class).toInstance(Mockito.mock(IBuildLogProcessor.class));
+            bind(IBuildLogProcessor.class).toInstance(MockBasedTcBotModule.mockLogProcessor());
         }
     });
 
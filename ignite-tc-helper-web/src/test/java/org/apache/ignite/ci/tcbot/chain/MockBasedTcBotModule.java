@@ -21,6 +21,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.internal.SingletonScope;
 import java.io.File;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import org.apache.ignite.ci.HelperConfig;
 import org.apache.ignite.ci.github.PullRequest;
 import org.apache.ignite.githubignited.IGitHubConnIgnited;
@@ -42,6 +43,7 @@ import org.apache.ignite.tcbot.engine.conf.ITrackedBranchesConfig;
 import org.apache.ignite.tcbot.engine.conf.NotificationsConfig;
 import org.apache.ignite.tcbot.engine.conf.TcServerConfig;
 import org.apache.ignite.tcbot.engine.issue.IIssuesStorage;
+import org.apache.ignite.tcbot.engine.pool.ChainEvaluationPool;
 import org.apache.ignite.tcbot.engine.user.IUserStorage;
 import org.apache.ignite.tcbot.notify.IEmailSender;
 import org.apache.ignite.tcbot.notify.ISlackSender;
@@ -56,6 +58,7 @@ import org.apache.ignite.tcservice.ITeamcityConn;
 import org.mockito.Mockito;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -75,11 +78,23 @@ public class MockBasedTcBotModule extends AbstractModule {
 
     }
 
+    /**
+     * @return log processor which does not find any logs.
+     */
+    public static IBuildLogProcessor mockLogProcessor() {
+        IBuildLogProcessor logProcessor = Mockito.mock(IBuildLogProcessor.class);
+
+        when(logProcessor.analyzeBuildLogAsync(any(), anyInt(), anyBoolean()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        return logProcessor;
+    }
+
     /** {@inheritDoc} */
     @Override protected void configure() {
         bind(IStringCompactor.class).to(InMemoryStringCompactor.class).in(new SingletonScope());
 
-        bind(IBuildLogProcessor.class).toInstance(Mockito.mock(IBuildLogProcessor.class));
+        bind(IBuildLogProcessor.class).toInstance(mockLogProcessor());
 
         final IGitHubConnectionProvider ghProv = Mockito.mock(IGitHubConnectionProvider.class);
         bind(IGitHubConnectionProvider.class).toInstance(ghProv);
@@ -140,6 +155,8 @@ public class MockBasedTcBotModule extends AbstractModule {
         bind(IEmailSender.class).toInstance(Mockito.mock(IEmailSender.class));
         bind(ISlackSender.class).toInstance(Mockito.mock(ISlackSender.class));
 
+        bind(ChainEvaluationPool.class).in(new SingletonScope());
+
         super.configure();
     }
 
@@ -25,7 +25,11 @@ import com.google.inject.Injector;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.apache.ignite.tcbot.engine.pool.ChainEvaluationPool;
 import org.apache.ignite.tcbot.engine.tracked.DisplayMode;
 import org.apache.ignite.tcbot.engine.tracked.TrackedBranchChainsProcessor;
 import org.apache.ignite.tcservice.ITeamcity;
@@ -51,6 +55,7 @@ import static org.apache.ignite.ci.tcbot.chain.PrChainsProcessorTest.TEST_RARE_F
 import static org.apache.ignite.ci.tcbot.chain.PrChainsProcessorTest.TEST_RARE_FAILED_WITH_CHANGES;
 import static org.apache.ignite.ci.tcbot.chain.PrChainsProcessorTest.createFatBuild;
 import static org.apache.ignite.ci.tcbot.chain.PrChainsProcessorTest.createTest;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -128,6 +133,8 @@ public class TrackedBranchProcessorTest {
         System.out.println(gson.toJson(failures));
 
         assertFalse(failures.servers.isEmpty());
+        assertEquals(failures.servers.size(), failures.chainTimings.size());
+        assertFalse(failures.hasTimedOutChains());
 
         DsChainUi apacheSrv = failures.servers.get(0);
 
@@ -153,6 +160,44 @@ public class TrackedBranchProcessorTest {
         assertNull(tfFlakyOpt.get().problemRef);
     }
 
+    @Test
+    public void testChainsNotEvaluatedBeforeDeadlineAreReportedAsTimedOut() {
+        BranchTracked branch = new BranchTracked();
+        branch.id = BRACH_NAME;
+        branch.chains.add(trackedChain(CACHE_9));
+        branchesTracked.addBranch(branch);
+
+        apacheBuilds.putAll(new PrChainsProcessorTest().initHistory(injector.getInstance(IStringCompactor.class)));
+
+        ChainEvaluationPool pool = injector.getInstance(ChainEvaluationPool.class);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // All threads are busy, so the chain waits in queue till the deadline.
+        for (int i = 0; i < ChainEvaluationPool.POOL_SIZE; i++)
+            pool.getService().submit(() -> release.await(10, TimeUnit.SECONDS));
+
+        System.setProperty(TcBotSystemProperties.TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS, "200");
+
+        try {
+            ITcBotUserCreds mock = mock(ITcBotUserCreds.class);
+            when(mock.hasAccess(anyString())).thenReturn(true);
+
+            DsSummaryUi failures = injector.getInstance(TrackedBranchChainsProcessor.class)
+                .getTrackedBranchTestFailures(BRACH_NAME, false, 1, mock, SyncMode.NONE,
+                    false, null, null, DisplayMode.OnlyFailures, null, -1, false, false);
+
+            assertTrue(failures.hasTimedOutChains());
+            assertTrue(failures.servers.isEmpty());
+            assertEquals(1, failures.chainTimings.size());
+            assertTrue(failures.chainTimings.get(0).durationMs >= 200);
+        }
+        finally {
+            System.clearProperty(TcBotSystemProperties.TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS);
+
+            release.countDown();
+        }
+    }
+
     public Optional<DsSuiteUi> findSuite(DsChainUi apacheSrv, String suiteName) {
         return apacheSrv.suites.stream().filter(s -> {
             return s.name.contains(suiteName);
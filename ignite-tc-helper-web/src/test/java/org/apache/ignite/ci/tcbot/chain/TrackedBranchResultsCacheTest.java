@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.tcbot.chain;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ignite.ci.user.ITcBotUserCreds;
+import org.apache.ignite.tcbot.engine.conf.BranchTracked;
+import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
+import org.apache.ignite.tcbot.engine.conf.TcBotJsonConfig;
+import org.apache.ignite.tcbot.engine.tracked.DisplayMode;
+import org.apache.ignite.tcbot.engine.tracked.IDetailedStatusForTrackedBranch;
+import org.apache.ignite.tcbot.engine.tracked.TrackedBranchResultsCache;
+import org.apache.ignite.tcbot.engine.ui.ChainTimingUi;
+import org.apache.ignite.tcbot.engine.ui.DsSummaryUi;
+import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
+import org.apache.ignite.tcignited.SyncMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.ignite.ci.tcbot.chain.TrackedBranchProcessorTest.BRACH_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link TrackedBranchResultsCache}.
+ */
+public class TrackedBranchResultsCacheTest {
+    /** Update counters of the branch. */
+    private final Map<Integer, Integer> counters = new HashMap<>();
+
+    /** Count of results computations. */
+    private final AtomicInteger computations = new AtomicInteger();
+
+    /** Result of next computation, new one is created if <code>null</code>. */
+    private volatile DsSummaryUi nextResult;
+
+    /** Computation waits for this latch. */
+    private volatile CountDownLatch computationGate = new CountDownLatch(0);
+
+    /** Tracked branch processor. */
+    private final IDetailedStatusForTrackedBranch tbProc = mock(IDetailedStatusForTrackedBranch.class);
+
+    /** User credentials. */
+    private final ITcBotUserCreds creds = mock(ITcBotUserCreds.class);
+
+    /** Executor. */
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /** Cache. */
+    private TrackedBranchResultsCache cache;
+
+    /** */
+    @Before
+    public void initCache() {
+        TcBotJsonConfig branches = new TcBotJsonConfig();
+        BranchTracked branch = new BranchTracked();
+        branch.id = BRACH_NAME;
+        branch.chains.add(new TrackedBranchProcessorTest().trackedChain("suite"));
+        branches.addBranch(branch);
+
+        ITcBotConfig cfg = mock(ITcBotConfig.class);
+        when(cfg.getTrackedBranches()).thenReturn(branches);
+
+        ITeamcityIgnitedProvider tcProv = mock(ITeamcityIgnitedProvider.class);
+        when(tcProv.hasAccess(anyString(), any())).thenReturn(true);
+
+        counters.put(1, 1);
+
+        when(tbProc.getTrackedBranchUpdateCounters(anyString(), any())).thenAnswer(inv -> new HashMap<>(counters));
+        when(tbProc.getTrackedBranchTestFailures(anyString(), anyBoolean(), anyInt(), any(), any(), anyBoolean(),
+            isNull(), isNull(), any(), isNull(), anyInt(), anyBoolean(), anyBoolean()))
+            .thenAnswer(inv -> {
+                computations.incrementAndGet();
+
+                computationGate.await(10, TimeUnit.SECONDS);
+
+                DsSummaryUi res = nextResult;
+
+                return res != null ? res : new DsSummaryUi();
+            });
+
+        Injector injector = Guice.createInjector(binder -> {
+            binder.bind(IDetailedStatusForTrackedBranch.class).toInstance(tbProc);
+            binder.bind(ITcBotConfig.class).toInstance(cfg);
+            binder.bind(ITeamcityIgnitedProvider.class).toInstance(tcProv);
+        });
+
+        cache = injector.getInstance(TrackedBranchResultsCache.class);
+    }
+
+    /** */
+    @After
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testQueryKeyAndEtag() {
+        TrackedBranchResultsCache.Query qry = query(SyncMode.NONE, 1);
+
+        assertEquals(qry, query(SyncMode.NONE, 1));
+        assertEquals(qry.etag(), query(SyncMode.NONE, 1).etag());
+
+        assertNotEquals(qry, query(SyncMode.NONE, 2));
+        assertNotEquals(qry.etag(), query(SyncMode.NONE, 2).etag());
+        assertNotEquals(qry, query(SyncMode.RELOAD_QUEUED, 1));
+
+        counters.put(1, 2);
+
+        TrackedBranchResultsCache.Query updated = query(SyncMode.NONE, 1);
+
+        assertNotEquals(qry, updated);
+        assertNotEquals(qry.etag(), updated.etag());
+
+        // Client copy is confirmed only if sync of queued builds is not requested.
+        assertTrue(qry.revalidationAllowed());
+        assertFalse(query(SyncMode.RELOAD_QUEUED, 1).revalidationAllowed());
+    }
+
+    @Test
+    public void testResultsAreMaterialisedByQuery() {
+        DsSummaryUi res = cache.results(query(SyncMode.NONE, 1), creds);
+
+        assertSame(res, cache.results(query(SyncMode.NONE, 1), creds));
+        assertEquals(1, computations.get());
+
+        cache.results(query(SyncMode.NONE, 2), creds);
+
+        assertEquals(2, computations.get());
+
+        counters.put(1, 2);
+
+        cache.results(query(SyncMode.NONE, 1), creds);
+
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    public void testIdenticalRequestsAreCollapsed() throws Exception {
+        computationGate = new CountDownLatch(1);
+
+        TrackedBranchResultsCache.Query qry = query(SyncMode.NONE, 1);
+
+        Future<DsSummaryUi> first = executor.submit(() -> cache.results(qry, creds));
+        Future<DsSummaryUi> second = executor.submit(() -> cache.results(query(SyncMode.NONE, 1), creds));
+
+        // Let both requests reach the cache while the computation is blocked.
+        Thread.sleep(200);
+
+        computationGate.countDown();
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testPartialResultsAreNotMaterialised() {
+        DsSummaryUi partial = new DsSummaryUi();
+        ChainTimingUi timing = new ChainTimingUi(TrackedBranchProcessorTest.SRV_ID, "suite", "<default>");
+        timing.timedOut = true;
+        partial.chainTimings.add(timing);
+
+        nextResult = partial;
+
+        assertSame(partial, cache.results(query(SyncMode.NONE, 1), creds));
+
+        nextResult = null;
+
+        DsSummaryUi complete = cache.results(query(SyncMode.NONE, 1), creds);
+
+        assertFalse(complete.hasTimedOutChains());
+        assertSame(complete, cache.results(query(SyncMode.NONE, 1), creds));
+        assertEquals(2, computations.get());
+    }
+
+    /**
+     * @param syncMode Sync mode.
+     * @param mergeCnt Count of builds to merge.
+     */
+    private TrackedBranchResultsCache.Query query(SyncMode syncMode, int mergeCnt) {
+        return cache.query(BRACH_NAME, false, mergeCnt, creds, syncMode, false, null, null,
+            DisplayMode.OnlyFailures, null, -1, false, false);
+    }
+}
@@ -35,7 +35,9 @@ import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -60,6 +62,16 @@ public class TeamcityIgnitedMock {
         when(tcIgnited.getFatBuild(anyInt(), any(SyncMode.class))).thenAnswer(buildAnswer);
         when(tcIgnited.getFatBuild(anyInt())).thenAnswer(buildAnswer);
 
+        when(tcIgnited.getFatBuilds(anyCollection(), any(SyncMode.class))).thenAnswer(inv -> {
+            Collection<Integer> ids = inv.getArgument(0);
+            Map<Integer, FatBuildCompacted> res = new LinkedHashMap<>();
+
+            for (Integer id : ids)
+                res.put(id, Preconditions.checkNotNull(builds.get(id), "Can't find build in map [" + id + "]"));
+
+            return res;
+        });
+
         when(tcIgnited.getAllBuildsCompacted(anyString(), anyString()))
             .thenAnswer(inv -> {
                 String btId = inv.getArgument(0);
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.push;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.internal.SingletonScope;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import org.apache.ignite.tcignited.build.UpdateCountersStorage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks coalescing of counters updates pushed to subscriptions.
+ */
+public class UpdatesPushHubTest {
+    /** Counters. */
+    private UpdateCountersStorage counters;
+
+    /** Hub. */
+    private UpdatesPushHub hub;
+
+    /** */
+    @Before
+    public void setUp() {
+        Injector injector = Guice.createInjector(binder -> {
+            binder.bind(UpdateCountersStorage.class).in(new SingletonScope());
+            binder.bind(UpdatesPushHub.class).in(new SingletonScope());
+        });
+
+        counters = injector.getInstance(UpdateCountersStorage.class);
+        hub = injector.getInstance(UpdatesPushHub.class);
+    }
+
+    /** */
+    @After
+    public void tearDown() {
+        hub.stop();
+    }
+
+    /**
+     * @throws Exception If failed.
+     */
+    @Test
+    public void testUpdatesAreCoalesced() throws Exception {
+        String id = hub.subscribe(Arrays.asList(1, 2));
+        TestStream stream = new TestStream();
+
+        assertFalse(hub.connect("unknown", stream.ctx));
+        assertTrue(hub.connect(id, stream.ctx));
+
+        stream.lsnr.get().onWritePossible();
+
+        assertEquals(1, stream.events());
+
+        counters.increment(1);
+        counters.increment(1);
+        counters.increment(2);
+        counters.increment(3);
+
+        Thread.sleep(UpdatesPushHub.DEBOUNCE_MS * 2);
+
+        assertEquals(2, stream.events());
+        assertTrue(stream.content().endsWith("data: {\"hashCodeHex\":\""
+            + UpdateCountersStorage.getCountersHash(counters.getCounters(Arrays.asList(1, 2))) + "\"}\n\n"));
+
+        counters.increment(3);
+
+        Thread.sleep(UpdatesPushHub.DEBOUNCE_MS * 2);
+
+        assertEquals(2, stream.events());
+    }
+
+    /**
+     * Mocked async request collecting written data.
+     */
+    private static class TestStream {
+        /** Written data. */
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        /** Write listener. */
+        private final AtomicReference<WriteListener> lsnr = new AtomicReference<>();
+
+        /** Async context. */
+        private final AsyncContext ctx = mock(AsyncContext.class);
+
+        /** */
+        TestStream() throws Exception {
+            ServletResponse resp = mock(ServletResponse.class);
+
+            ServletOutputStream out = new ServletOutputStream() {
+                @Override public boolean isReady() {
+                    return lsnr.get() != null;
+                }
+
+                @Override public void setWriteListener(WriteListener writeLsnr) {
+                    lsnr.set(writeLsnr);
+                }
+
+                @Override public void write(int b) {
+                    synchronized (written) {
+                        written.write(b);
+                    }
+                }
+            };
+
+            when(resp.getOutputStream()).thenReturn(out);
+            when(ctx.getResponse()).thenReturn(resp);
+        }
+
+        /** */
+        String content() {
+            synchronized (written) {
+                return new String(written.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+
+        /** */
+        int events() {
+            return content().split("event: counters\n", -1).length - 1;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.web.rest.build;
+
+import java.util.Arrays;
+import java.util.Collections;
+import javax.ws.rs.core.Response;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildEventsRestServiceTest {
+    /** */
+    @After
+    public void clearToken() {
+        System.clearProperty(TcBotSystemProperties.TEAMCITY_BOT_BUILD_EVENTS_TOKEN);
+    }
+
+    @Test
+    public void testTokenCheck() {
+        assertTrue(BuildEventsRestService.isTokenValid("secret", "secret"));
+
+        assertFalse(BuildEventsRestService.isTokenValid("secret", null));
+        assertFalse(BuildEventsRestService.isTokenValid("secret", ""));
+        assertFalse(BuildEventsRestService.isTokenValid("secret", "Secret"));
+        assertFalse(BuildEventsRestService.isTokenValid("secret", "secret2"));
+    }
+
+    @Test
+    public void testDisabledEndpointAndInvalidTokenAreRejected() {
+        BuildEventsRestService svc = new BuildEventsRestService();
+
+        Response disabled = svc.buildsFinished("apache", "secret", Collections.singletonList(1), null);
+
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), disabled.getStatus());
+
+        System.setProperty(TcBotSystemProperties.TEAMCITY_BOT_BUILD_EVENTS_TOKEN, "secret");
+
+        Response forbidden = svc.buildsFinished("apache", "wrong", Collections.singletonList(1), null);
+
+        assertEquals(Response.Status.FORBIDDEN.getStatusCode(), forbidden.getStatus());
+
+        Response noTok = svc.buildsFinished("apache", null, Collections.singletonList(1), null);
+
+        assertEquals(Response.Status.FORBIDDEN.getStatusCode(), noTok.getStatus());
+    }
+
+    @Test
+    public void testBuildIdsParsing() {
+        assertEquals(Arrays.asList(5, 1, 2, 3, 4),
+            Arrays.asList(BuildEventsRestService.parseBuildIds(Arrays.asList(5, 1), "2, 3;4\n\t1 5")
+                .toArray()));
+
+        // Invalid and too long values are skipped.
+        assertEquals(Arrays.asList(7, 8),
+            Arrays.asList(BuildEventsRestService.parseBuildIds(null, "abc 7 -3 12345678901 8 1.5")
+                .toArray()));
+
+        assertTrue(BuildEventsRestService.parseBuildIds(Collections.emptyList(), "").isEmpty());
+        assertTrue(BuildEventsRestService.parseBuildIds(null, null).isEmpty());
+    }
+}
@@ -22,9 +22,13 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.internal.SingletonScope;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.Ignition;
@@ -60,6 +64,7 @@ import org.mockito.Mockito;
 
 import static org.apache.ignite.tcbot.engine.issue.IssueType.newFailure;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -359,6 +364,34 @@ public class BoardServiceTest {
         assertEquals((int)issue4.issueKey().buildId, defect2.buildsInvolved().get(issue4.issueKey().buildId).build().id());
     }
 
+    @Test
+    public void testRecentIssuesAreNotifiedOnce() {
+        issuesStorage.saveIssue(issue1);
+        issuesStorage.saveIssue(issue3);
+
+        long windowStart = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+
+        assertEquals(2, issuesStorage.recentIssues(windowStart).count());
+        assertEquals(0, issuesStorage.recentIssues(System.currentTimeMillis() + 1).count());
+
+        Map<IssueKey, List<String>> addrs = new HashMap<>();
+        addrs.put(issue1.issueKey(), Arrays.asList("a@apache.org", "b@apache.org"));
+        addrs.put(issue3.issueKey(), Collections.singletonList("a@apache.org"));
+
+        Map<IssueKey, Set<String>> notified = issuesStorage.setNotified(addrs);
+
+        assertEquals(2, notified.size());
+        assertEquals(2, notified.get(issue1.issueKey()).size());
+        assertTrue(issuesStorage.getIssue(issue3.issueKey()).addressNotified.contains("a@apache.org"));
+
+        addrs.put(issue3.issueKey(), Arrays.asList("a@apache.org", "c@apache.org"));
+
+        notified = issuesStorage.setNotified(addrs);
+
+        assertEquals(1, notified.size());
+        assertEquals(Collections.singleton("c@apache.org"), notified.get(issue3.issueKey()));
+    }
+
     private static class IgniteTestModule extends AbstractModule {
         /** {@inheritDoc} */
         @Override protected void configure() {
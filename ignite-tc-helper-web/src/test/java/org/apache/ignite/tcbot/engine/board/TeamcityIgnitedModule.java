@@ -39,7 +39,9 @@ import org.apache.ignite.tcignited.buildlog.BuildLogProcessorModule;
 import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
 import org.apache.ignite.tcignited.buildlog.LogIgniteSpecific;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.buildref.BuildEventsTracker;
 import org.apache.ignite.tcignited.buildref.BuildRefSync;
+import org.apache.ignite.tcignited.buildref.ReindexCursorDao;
 import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcignited.history.HistoryCollector;
 import org.apache.ignite.tcignited.history.SuiteInvocationHistoryDao;
@@ -54,6 +56,8 @@ public class TeamcityIgnitedModule extends AbstractModule {
     @Override protected void configure() {
         bind(BuildRefDao.class).in(new SingletonScope());
         bind(BuildRefSync.class).in(new SingletonScope());
+        bind(ReindexCursorDao.class).in(new SingletonScope());
+        bind(BuildEventsTracker.class).in(new SingletonScope());
         bind(BuildConditionDao.class).in(new SingletonScope());
         bind(FatBuildDao.class).in(new SingletonScope());
         bind(ProactiveFatBuildSync.class).in(new SingletonScope());
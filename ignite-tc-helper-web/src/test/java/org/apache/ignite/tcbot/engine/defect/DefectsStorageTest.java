@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.engine.defect;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Providers;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.function.BiFunction;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.ci.db.TcHelperDb;
+import org.apache.ignite.ci.teamcity.ignited.change.ChangeDao;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lookup index of defects is kept consistent with defects cache when old defects are removed.
+ */
+public class DefectsStorageTest {
+    /** Test ignite port. */
+    public static final int TEST_IGNITE_PORT = 64124;
+
+    /** Server ID. */
+    private static final int SRV_ID = 7;
+
+    /** Ignite. */
+    private static Ignite ignite;
+
+    /** Defects storage. */
+    private DefectsStorage storage;
+
+    /**
+     *
+     */
+    @BeforeClass
+    public static void startIgnite() {
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        final TcpDiscoverySpi spi = new TcpDiscoverySpi();
+        int locPort = TEST_IGNITE_PORT;
+
+        spi.setLocalPort(locPort);
+        spi.setLocalPortRange(1);
+        spi.setIpFinder(new TcHelperDb.LocalOnlyTcpDiscoveryIpFinder(locPort));
+
+        cfg.setDiscoverySpi(spi);
+
+        ignite = Ignition.start(cfg);
+    }
+
+    /**
+     *
+     */
+    @AfterClass
+    public static void stopIgnite() {
+        if (ignite != null)
+            ignite.close();
+    }
+
+    /**
+     *
+     */
+    @Before
+    public void setUp() {
+        IgniteCache<Integer, DefectCompacted> cache = DefectsStorage.botDetectedIssuesCache(ignite);
+
+        cache.clear();
+
+        ChangeDao changeDao = Mockito.mock(ChangeDao.class);
+
+        when(changeDao.getAll(anyInt(), any())).thenAnswer(inv -> new HashMap<>());
+
+        storage = Guice.createInjector(new AbstractModule() {
+            /** {@inheritDoc} */
+            @Override protected void configure() {
+                bind(Ignite.class).toInstance(ignite);
+                bind(ChangeDao.class).toProvider(Providers.of(changeDao));
+            }
+        }).getInstance(DefectsStorage.class);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testIndexUpdatedOnRemovalByBuilds() {
+        DefectCompacted removed = merge(101);
+        DefectCompacted kept = merge(102);
+
+        assertNotEquals(removed.id(), kept.id());
+        assertEquals(removed.id(), storage.merge(0, SRV_ID, build(101), (id, d) -> d).id());
+        assertEquals(Integer.valueOf(removed.id()), storage.index().defectByBuild(SRV_ID, 101));
+
+        storage.removeOldDefects(Collections.singletonMap(SRV_ID, Collections.singletonList(101)));
+
+        assertNull(storage.load(removed.id()));
+        assertNull(storage.index().defectByBuild(SRV_ID, 101));
+        assertEquals(Integer.valueOf(kept.id()), storage.index().defectByBuild(SRV_ID, 102));
+
+        // Build of removed defect opens new one.
+        DefectCompacted reopened = merge(101);
+
+        assertNotEquals(removed.id(), reopened.id());
+        assertEquals(Integer.valueOf(reopened.id()), storage.index().defectByBuild(SRV_ID, 101));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testIndexInvalidatedOnRemovalByDate() {
+        DefectCompacted resolved = merge(201);
+        DefectCompacted open = merge(202);
+
+        resolved.resolvedByUsernameId(1);
+        storage.save(resolved);
+
+        assertEquals(Integer.valueOf(resolved.id()), storage.index().defectByBuild(SRV_ID, 201));
+
+        storage.removeOldDefects(System.currentTimeMillis() + 60_000, 10);
+
+        assertNull(storage.load(resolved.id()));
+        assertNotNull(storage.load(open.id()));
+
+        // Removed entries are not tracked one by one, index is rebuilt from cache.
+        assertNull(storage.index().defectByBuild(SRV_ID, 201));
+        assertEquals(Integer.valueOf(open.id()), storage.index().defectByBuild(SRV_ID, 202));
+    }
+
+    /**
+     * @param buildId Build ID.
+     * @return defect containing the build, builds without changes and revisions never share new defect.
+     */
+    private DefectCompacted merge(int buildId) {
+        FatBuildCompacted build = build(buildId);
+
+        BiFunction<Integer, DefectCompacted, DefectCompacted> addBuild = (id, defect) -> {
+            defect.computeIfAbsent(build);
+
+            return defect;
+        };
+
+        return storage.merge(0, SRV_ID, build, addBuild);
+    }
+
+    /**
+     * @param buildId Build ID.
+     */
+    private static FatBuildCompacted build(int buildId) {
+        FatBuildCompacted build = new FatBuildCompacted();
+
+        build.withId(buildId);
+
+        return build;
+    }
+}
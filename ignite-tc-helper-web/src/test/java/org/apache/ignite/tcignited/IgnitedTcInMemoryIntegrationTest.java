@@ -80,6 +80,8 @@ import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
 import org.apache.ignite.tcignited.build.TestCompactedV2;
 import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.buildref.ReindexCursor;
+import org.apache.ignite.tcignited.buildref.ReindexCursorDao;
 import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcignited.history.HistoryCollector;
 import org.apache.ignite.tcignited.history.IRunHistory;
@@ -120,6 +122,7 @@ import static junit.framework.TestCase.assertTrue;
 import static org.apache.ignite.ci.tcbot.issue.IssueDetectorTest.SRV_ID;
 import static org.apache.ignite.tcbot.common.conf.TcBotWorkDir.ensureDirExist;
 import static org.apache.ignite.tcbot.persistence.IgniteStringCompactor.STRINGS_CACHE;
+import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -896,6 +899,57 @@ public class IgnitedTcInMemoryIntegrationTest {
         assertNotNull(integer);
     }
 
+    @Test
+    public void testStringCompactorBatch() {
+        IStringCompactor c = Guice.createInjector(new IgniteAndSchedulerTestModule())
+            .getInstance(IStringCompactor.class);
+
+        int existing = c.getStringId("batchExisting");
+
+        Map<String, Integer> ids = c.getStringIds(Arrays.asList("batchExisting", "batchNew1", null, "batchNew2", "batchNew1"));
+
+        assertEquals(3, ids.size());
+        assertEquals(existing, ids.get("batchExisting").intValue());
+        assertEquals(3, new TreeSet<>(ids.values()).size());
+        assertEquals(ids.get("batchNew2").intValue(), c.getStringId("batchNew2"));
+
+        int[] idsArr = {ids.get("batchNew1"), -1, ids.get("batchExisting")};
+        assertArrayEquals(new String[] {"batchNew1", null, "batchExisting"}, c.getStringsFromIds(idsArr));
+
+        // other instance sees strings saved in batch.
+        IStringCompactor other = Guice.createInjector(new IgniteAndSchedulerTestModule())
+            .getInstance(IStringCompactor.class);
+
+        assertEquals("batchNew2", other.getStringFromId(ids.get("batchNew2")));
+        assertEquals(ids.get("batchNew1"), other.getStringIdIfPresent("batchNew1"));
+    }
+
+    @Test
+    public void testReindexCursorSaveLoad() {
+        ReindexCursorDao dao = Guice.createInjector(new IgniteAndSchedulerTestModule())
+            .getInstance(ReindexCursorDao.class);
+
+        dao.init();
+
+        int srvId = ITeamcityIgnited.serverIdToInt(APACHE);
+
+        dao.remove(srvId);
+        assertNull(dao.get(srvId));
+
+        ReindexCursor cursor = new ReindexCursor();
+
+        dao.save(srvId, cursor);
+
+        ReindexCursor loaded = dao.get(srvId);
+
+        assertNotNull(loaded);
+        assertTrue(loaded != cursor);
+        assertNull(dao.get(srvId + 1));
+
+        dao.remove(srvId);
+        assertNull(dao.get(srvId));
+    }
+
     /**
      *
      */
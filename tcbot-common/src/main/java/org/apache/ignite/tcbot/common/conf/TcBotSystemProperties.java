@@ -32,6 +32,75 @@ public class TcBotSystemProperties {
      */
     public static final String TEAMCITY_BOT_REGIONSIZE = "teamcity.bot.regionsize";
 
+    /**
+     * Memory limit in megabytes for in-memory suite histories (test statuses matrices). Default is 1024, 128 in dev
+     * mode.
+     */
+    public static final String TEAMCITY_BOT_HISTORY_MEM_MB = "teamcity.bot.history.mem.mb";
+
+    /**
+     * Maximal count of concurrent requests to one TeamCity server made to load parts of builds (tests pages,
+     * problems, statistics, changes). Default is 4.
+     */
+    public static final String TEAMCITY_BOT_TC_PARALLEL_REQUESTS = "teamcity.bot.tc.parallel.requests";
+
+    /**
+     * Maximal count of builds waiting for proactive load from one TeamCity server. If queue is full, loads of lower
+     * priority are dropped, those are found again by the next missing builds search. Default is 100000.
+     */
+    public static final String TEAMCITY_BOT_FAT_BUILD_QUEUE_CAPACITY = "teamcity.bot.fatbuild.queue.capacity";
+
+    /**
+     * Count of build reference pages requested concurrently by full reindex of one server. Requests are also limited
+     * by {@link #TEAMCITY_BOT_TC_PARALLEL_REQUESTS}. Default is 2.
+     */
+    public static final String TEAMCITY_BOT_REINDEX_PARALLEL_PAGES = "teamcity.bot.reindex.parallel.pages";
+
+    /**
+     * Secret to be provided by build events sender (TeamCity webhook) as <code>token</code> parameter. Build events
+     * endpoint is disabled if it is not set.
+     */
+    public static final String TEAMCITY_BOT_BUILD_EVENTS_TOKEN = "teamcity.bot.build.events.token";
+
+    /**
+     * Period in minutes of polling TeamCity for recent builds if the server reports build events. Polling remains as a
+     * safety net for lost events. Default is 30.
+     */
+    public static final String TEAMCITY_BOT_BUILD_EVENTS_POLL_MINUTES = "teamcity.bot.build.events.poll.minutes";
+
+    /** Count of threads downloading and analyzing build logs. Default is 4. */
+    public static final String TEAMCITY_BOT_LOG_ANALYSIS_THREADS = "teamcity.bot.log.analysis.threads";
+
+    /**
+     * Maximal count of build logs waiting for analysis. If queue is full, log is not analyzed for this request and can
+     * be analyzed on the next one. Default is 500.
+     */
+    public static final String TEAMCITY_BOT_LOG_ANALYSIS_QUEUE = "teamcity.bot.log.analysis.queue";
+
+    /**
+     * Maximal total size in megabytes of zipped build logs being analyzed at the same time. One log is analyzed anyway
+     * even if it exceeds the limit. Default is 512.
+     */
+    public static final String TEAMCITY_BOT_LOG_ANALYSIS_MB_IN_FLIGHT = "teamcity.bot.log.analysis.mb.in.flight";
+
+    /**
+     * Size in megabytes reserved from {@link #TEAMCITY_BOT_LOG_ANALYSIS_MB_IN_FLIGHT} for a zipped build log being
+     * downloaded, while average size of archived logs is not known yet. Default is 64.
+     */
+    public static final String TEAMCITY_BOT_LOG_ANALYSIS_DEFAULT_MB = "teamcity.bot.log.analysis.default.mb";
+
+    /**
+     * Maximal total size in megabytes of zipped build logs kept on disk for each server. Logs already analyzed are
+     * removed first, then least recently used ones. Default is 10240.
+     */
+    public static final String TEAMCITY_BOT_LOGS_ARCHIVE_MB = "teamcity.bot.logs.archive.mb";
+
+    /**
+     * Max time in milliseconds to wait for evaluation of all tracked chains of one request, including time chains
+     * wait in evaluation queue. Results of chains not evaluated in time are not returned. Default is 60000.
+     */
+    public static final String TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS = "teamcity.bot.chain.eval.timeout.ms";
+
     /** System property to specify: Teamcity helper home. Ignite home will be set to same dir. */
     public static final String TEAMCITY_HELPER_HOME = "teamcity.helper.home";
 }
@@ -43,4 +43,14 @@ public class TcBotWorkDir {
 
         return ensureDirExist(workDir);
     }
+
+    /**
+     * @param logsProp Logs directory from server config, absolute or relative to work directory.
+     * @return existing logs directory.
+     */
+    public static File resolveLogsDir(String logsProp) {
+        File logsDirConfigured = new File(logsProp);
+
+        return ensureDirExist(logsDirConfigured.isAbsolute() ? logsDirConfigured : new File(resolveWorkDir(), logsProp));
+    }
 }
@@ -14,29 +14,37 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package org.apache.ignite.tcbot.common.interceptor;
 
-import com.google.common.base.Stopwatch;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 public class AutoProfilingInterceptor implements MethodInterceptor {
+    /** Profiling key (Class.method) to statistics. */
     private final ConcurrentMap<String, Invocation> totalTime = new ConcurrentHashMap<>();
 
+    /** Method to statistics, avoids building key for each call. */
+    private final ConcurrentMap<Method, Invocation> byMethod = new ConcurrentHashMap<>();
+
     public void reset() {
+        // Statistics are cleared first: otherwise a call in between may cache in byMethod an entry about to be removed
+        // from totalTime and never be reported again. In this order at most a concurrent sample is lost.
         totalTime.clear();
+        byMethod.clear();
     }
 
     public static class Invocation {
         private final AtomicLong timeNanos = new AtomicLong();
         private final AtomicInteger callsCnt = new AtomicInteger();
+        private final LatencyHistogram histogram = new LatencyHistogram();
         private String name;
 
         public Invocation(String name) {
@@ -45,6 +53,7 @@ public class AutoProfilingInterceptor implements MethodInterceptor {
 
         public long addAndGet(long elapsed) {
             callsCnt.incrementAndGet();
+            histogram.record(elapsed);
 
             return timeNanos.addAndGet(elapsed);
         }
@@ -60,26 +69,45 @@ public class AutoProfilingInterceptor implements MethodInterceptor {
         public String getName() {
             return name;
         }
+
+        /**
+         * @return latency percentiles for last {@link LatencyHistogram#WINDOW_MINUTES} minutes.
+         */
+        public LatencyHistogram.Snapshot getRecentLatency() {
+            return histogram.snapshot();
+        }
     }
 
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        String cls = invocation.getMethod().getDeclaringClass().getSimpleName();
-        String mtd = invocation.getMethod().getName();
+        Method mtd = invocation.getMethod();
 
-        Stopwatch started = Stopwatch.createStarted();
+        long start = System.nanoTime();
         try {
             return invocation.proceed();
         }
         finally {
-            long elapsed = started.elapsed(TimeUnit.NANOSECONDS);
+            long elapsed = System.nanoTime() - start;
 
-            String fullKey = cls + "." + mtd;
+            Invocation inv = byMethod.get(mtd);
 
-            totalTime.computeIfAbsent(fullKey, Invocation::new).addAndGet(elapsed);
+            if (inv == null)
+                inv = byMethod.computeIfAbsent(mtd, this::invocationFor);
+
+            inv.addAndGet(elapsed);
         }
     }
 
+    /**
+     * @param mtd Method.
+     * @return statistics for method, overloaded methods share the same statistics.
+     */
+    private Invocation invocationFor(Method mtd) {
+        String fullKey = mtd.getDeclaringClass().getSimpleName() + "." + mtd.getName();
+
+        return totalTime.computeIfAbsent(fullKey, Invocation::new);
+    }
+
     public Collection<Invocation> getInvocations() {
         return Collections.unmodifiableCollection(totalTime.values());
     }
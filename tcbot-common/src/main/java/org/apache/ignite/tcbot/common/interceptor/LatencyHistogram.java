@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.common.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free latency histogram over a sliding time window, HDR-like: values are counted in log-linear buckets,
+ * {@link #SUB_BUCKETS} buckets per power of two, so relative error of reported percentile is below 1/16.
+ *
+ * Window consists of {@link #SLOTS} time slots, recording touches only the slot of the current time. Slot is cleared
+ * by the first thread recording into it in a new period, values recorded concurrently with clear may be lost, which
+ * is acceptable for monitoring.
+ */
+public class LatencyHistogram {
+    /** Bits of value used to select bucket within a power of two. */
+    private static final int SUB_BITS = 4;
+
+    /** Buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Maximal recorded value, bigger values are recorded as this one: about 18 minutes in nanoseconds. */
+    static final long MAX_VALUE = (1L << 40) - 1;
+
+    /** Buckets count. */
+    private static final int BUCKETS = bucket(MAX_VALUE) + 1;
+
+    /** Slots in window. */
+    static final int SLOTS = 10;
+
+    /** Slot duration. */
+    static final long SLOT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /** Window duration, minutes. */
+    public static final long WINDOW_MINUTES = TimeUnit.MILLISECONDS.toMinutes(SLOTS * SLOT_MS);
+
+    /** Slots. */
+    private final Slot[] slots = new Slot[SLOTS];
+
+    /**
+     * Default constructor.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < SLOTS; i++)
+            slots[i] = new Slot();
+    }
+
+    /**
+     * @param nanos Value to record.
+     */
+    public void record(long nanos) {
+        record(nanos, System.currentTimeMillis());
+    }
+
+    /**
+     * @param nanos Value to record.
+     * @param nowMs Current time, milliseconds.
+     */
+    void record(long nanos, long nowMs) {
+        long period = nowMs / SLOT_MS;
+        Slot slot = slots[(int)(period % SLOTS)];
+
+        long slotPeriod = slot.period.get();
+
+        if (slotPeriod != period && slot.period.compareAndSet(slotPeriod, period))
+            slot.clear();
+
+        long val = Math.min(Math.max(nanos, 0), MAX_VALUE);
+
+        slot.counts.incrementAndGet(bucket(val));
+
+        long max = slot.max.get();
+
+        while (val > max && !slot.max.compareAndSet(max, val))
+            max = slot.max.get();
+    }
+
+    /**
+     * @return percentiles of values recorded within the window.
+     */
+    public Snapshot snapshot() {
+        return snapshot(System.currentTimeMillis());
+    }
+
+    /**
+     * @param nowMs Current time, milliseconds.
+     * @return percentiles of values recorded within the window ending at given time.
+     */
+    Snapshot snapshot(long nowMs) {
+        long period = nowMs / SLOT_MS;
+        long[] counts = new long[BUCKETS];
+        Snapshot res = new Snapshot();
+
+        for (Slot slot : slots) {
+            if (period - slot.period.get() >= SLOTS)
+                continue;
+
+            for (int i = 0; i < BUCKETS; i++)
+                counts[i] += slot.counts.get(i);
+
+            res.max = Math.max(res.max, slot.max.get());
+        }
+
+        for (long cnt : counts)
+            res.count += cnt;
+
+        if (res.count == 0)
+            return res;
+
+        // Bucket highest value may exceed actual maximum.
+        res.p50 = Math.min(percentile(counts, res.count, 0.5), res.max);
+        res.p99 = Math.min(percentile(counts, res.count, 0.99), res.max);
+        res.p999 = Math.min(percentile(counts, res.count, 0.999), res.max);
+
+        return res;
+    }
+
+    /**
+     * @param counts Counts per bucket.
+     * @param total Total count.
+     * @param quantile Quantile.
+     * @return highest value of bucket containing the quantile.
+     */
+    private static long percentile(long[] counts, long total, double quantile) {
+        long rank = Math.max(1, (long)Math.ceil(total * quantile));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank)
+                return bucketHighestValue(i);
+        }
+
+        return MAX_VALUE;
+    }
+
+    /**
+     * @param val Non negative value.
+     * @return bucket index.
+     */
+    static int bucket(long val) {
+        if (val < 2 * SUB_BUCKETS)
+            return (int)val;
+
+        int shift = 63 - Long.numberOfLeadingZeros(val) - SUB_BITS;
+
+        return shift * SUB_BUCKETS + (int)(val >>> shift);
+    }
+
+    /**
+     * @param bucket Bucket index.
+     * @return highest value counted in bucket.
+     */
+    static long bucketHighestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Values recorded during one period.
+     */
+    private static class Slot {
+        /** Period (time divided by slot duration) of values in this slot. */
+        private final AtomicLong period = new AtomicLong(-SLOTS);
+
+        /** Counts per bucket. */
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS);
+
+        /** Maximal value. */
+        private final AtomicLong max = new AtomicLong();
+
+        /** */
+        private void clear() {
+            for (int i = 0; i < BUCKETS; i++)
+                counts.set(i, 0);
+
+            max.set(0);
+        }
+    }
+
+    /**
+     * Percentiles of latency within the window, nanoseconds.
+     */
+    public static class Snapshot {
+        /** Count of recorded values. */
+        private long count;
+
+        /** Median. */
+        private long p50;
+
+        /** 99th percentile. */
+        private long p99;
+
+        /** 99.9th percentile. */
+        private long p999;
+
+        /** Maximal value. */
+        private long max;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
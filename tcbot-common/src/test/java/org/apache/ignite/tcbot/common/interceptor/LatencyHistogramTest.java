@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.common.interceptor;
+
+import org.junit.Test;
+
+import static org.apache.ignite.tcbot.common.interceptor.LatencyHistogram.MAX_VALUE;
+import static org.apache.ignite.tcbot.common.interceptor.LatencyHistogram.SLOTS;
+import static org.apache.ignite.tcbot.common.interceptor.LatencyHistogram.SLOT_MS;
+import static org.apache.ignite.tcbot.common.interceptor.LatencyHistogram.bucket;
+import static org.apache.ignite.tcbot.common.interceptor.LatencyHistogram.bucketHighestValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    /** Start of some slot. */
+    private static final long NOW = SLOT_MS * 1_000_000;
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (long val = 0; val < 32; val++)
+            assertEquals(val, bucketHighestValue(bucket(val)));
+
+        int maxBucket = bucket(MAX_VALUE);
+
+        assertEquals(MAX_VALUE, bucketHighestValue(maxBucket));
+
+        for (int b = 0; b < maxBucket; b++) {
+            long high = bucketHighestValue(b);
+
+            assertEquals(b, bucket(high));
+            assertEquals(b + 1, bucket(high + 1));
+
+            long low = b == 0 ? 0 : bucketHighestValue(b - 1) + 1;
+
+            assertTrue("Bucket " + b + " is too wide: " + low + ".." + high, (high - low) * 16 <= low);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram hist = new LatencyHistogram();
+
+        for (long val = 1; val <= 1000; val++)
+            hist.record(val, NOW);
+
+        LatencyHistogram.Snapshot snapshot = hist.snapshot(NOW);
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+
+        // 500 and 990 fall into buckets [496..511] and [960..991].
+        assertEquals(511, snapshot.getP50());
+        assertEquals(991, snapshot.getP99());
+
+        // Bucket [992..1023] is limited by actual maximum.
+        assertEquals(1000, snapshot.getP999());
+    }
+
+    @Test
+    public void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram hist = new LatencyHistogram();
+
+        hist.record(-5, NOW);
+        hist.record(Long.MAX_VALUE, NOW);
+
+        LatencyHistogram.Snapshot snapshot = hist.snapshot(NOW);
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(MAX_VALUE, snapshot.getMax());
+        assertEquals(0, snapshot.getP50());
+        assertEquals(MAX_VALUE, snapshot.getP99());
+    }
+
+    @Test
+    public void testWindowExpiry() {
+        LatencyHistogram hist = new LatencyHistogram();
+
+        hist.record(100, NOW);
+        hist.record(200, NOW + SLOT_MS);
+
+        long lastSlotOfWindow = NOW + (SLOTS - 1) * SLOT_MS;
+
+        assertEquals(2, hist.snapshot(lastSlotOfWindow).getCount());
+        assertEquals(200, hist.snapshot(lastSlotOfWindow).getMax());
+
+        LatencyHistogram.Snapshot snapshot = hist.snapshot(NOW + SLOTS * SLOT_MS);
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(200, snapshot.getMax());
+
+        assertEquals(0, hist.snapshot(NOW + (SLOTS + 1) * SLOT_MS).getCount());
+        assertEquals(0, hist.snapshot(NOW + (SLOTS + 1) * SLOT_MS).getMax());
+    }
+
+    @Test
+    public void testSlotReusedAfterRotation() {
+        LatencyHistogram hist = new LatencyHistogram();
+
+        for (int i = 0; i < 10; i++)
+            hist.record(5000, NOW);
+
+        // Same slot index one window later, old values should be dropped on first record.
+        long nextWindow = NOW + SLOTS * SLOT_MS;
+
+        hist.record(7, nextWindow);
+
+        LatencyHistogram.Snapshot snapshot = hist.snapshot(nextWindow);
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(7, snapshot.getMax());
+        assertEquals(7, snapshot.getP50());
+        assertEquals(7, snapshot.getP99());
+    }
+}
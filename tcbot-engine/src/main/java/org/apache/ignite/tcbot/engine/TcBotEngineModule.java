@@ -26,8 +26,10 @@ import org.apache.ignite.tcbot.engine.buildtime.BuildTimeService;
 import org.apache.ignite.tcbot.engine.chain.BuildChainProcessor;
 import org.apache.ignite.tcbot.engine.issue.IIssuesStorage;
 import org.apache.ignite.tcbot.engine.issue.IssuesStorage;
+import org.apache.ignite.tcbot.engine.pool.ChainEvaluationPool;
 import org.apache.ignite.tcbot.engine.tracked.IDetailedStatusForTrackedBranch;
 import org.apache.ignite.tcbot.engine.tracked.TrackedBranchChainsProcessor;
+import org.apache.ignite.tcbot.engine.tracked.TrackedBranchResultsCache;
 import org.apache.ignite.tcbot.engine.user.IUserStorage;
 import org.apache.ignite.tcbot.engine.user.UserAndSessionsStorage;
 
@@ -38,7 +40,9 @@ public class TcBotEngineModule extends AbstractModule {
     /** {@inheritDoc} */
     @Override protected void configure() {
         bind(BuildChainProcessor.class).in(new SingletonScope());
+        bind(ChainEvaluationPool.class).in(new SingletonScope());
         bind(IDetailedStatusForTrackedBranch.class).to(TrackedBranchChainsProcessor.class).in(new SingletonScope());
+        bind(TrackedBranchResultsCache.class).in(new SingletonScope());
         bind(SingleBuildResultsService.class).in(new SingletonScope());
 
         bind(BuildTimeService.class).in(new SingletonScope());
@@ -115,9 +115,13 @@ public class BoardService {
             List<BlameCandidate> candidates = next.blameCandidates();
 
             Map<Integer, DefectFirstBuild> build = next.buildsInvolved();
+            Map<Long, FatBuildCompacted> fatBuilds = fatBuildDao.getAllFatBuilds(next.tcSrvId(),
+                build.values().stream().map(cause -> cause.build().id()).collect(Collectors.toList()));
+
             for (DefectFirstBuild cause : build.values()) {
                 FatBuildCompacted firstBuild = cause.build();
-                FatBuildCompacted fatBuild = fatBuildDao.getFatBuild(next.tcSrvId(), firstBuild.id());
+                FatBuildCompacted fatBuild =
+                    fatBuilds.get(FatBuildDao.buildIdToCacheKey(next.tcSrvId(), firstBuild.id()));
 
                 // In case the build was removed from the cache, but the defect was not yet
                 if (fatBuild == null)
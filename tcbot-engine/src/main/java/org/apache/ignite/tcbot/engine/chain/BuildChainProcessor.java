@@ -17,13 +17,12 @@
 
 package org.apache.ignite.tcbot.engine.chain;
 
-import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.Futures;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,7 +34,6 @@ import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -68,6 +66,9 @@ public class BuildChainProcessor {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(BuildChainProcessor.class);
 
+    /** Maximal level of snapshot dependencies loaded for chain. */
+    private static final int MAX_DEPENDENCY_LEVEL = 5;
+
     /** TC REST updates pool. */
     @Inject private TcUpdatePool tcUpdatePool;
 
@@ -251,32 +252,80 @@ public class BuildChainProcessor {
     public Map<Integer, Future<FatBuildCompacted>> loadAllBuildsInChains(Collection<Integer> entryPoints,
         SyncMode mode,
         ITeamcityIgnited tcIgn) {
-        Map<Integer, Future<FatBuildCompacted>> builds = new ConcurrentHashMap<>();
+        return FutureUtil.getResult(loadAllBuildsInChainsAsync(entryPoints, mode, tcIgn));
+    }
 
-        Stream<Future<FatBuildCompacted>> entryPointsFatBuilds = entryPoints.stream()
-            .filter(Objects::nonNull)
-            .map(id -> getOrLoadBuild(id, mode, builds, tcIgn));
+    /**
+     * Loads builds of chains and their snapshot dependencies. Dependencies of each loaded group of builds are
+     * requested as soon as this group is available, each group is read from DB by one request.
+     *
+     * @param entryPoints Chain build IDs.
+     * @param mode Sync mode.
+     * @param tcIgn Teamcity.
+     * @return future for map of all builds, completed when all dependencies are found.
+     */
+    @Nonnull
+    public CompletableFuture<Map<Integer, Future<FatBuildCompacted>>> loadAllBuildsInChainsAsync(
+        Collection<Integer> entryPoints,
+        SyncMode mode,
+        ITeamcityIgnited tcIgn) {
+        Map<Integer, Future<FatBuildCompacted>> builds = new ConcurrentHashMap<>();
 
-        Set<Integer> remainedUnloadedDeps = entryPointsFatBuilds
-            .flatMap(ref -> dependencies(ref, mode, builds, tcIgn).stream()).collect(Collectors.toSet());
+        List<Integer> ids = entryPoints.stream().filter(Objects::nonNull).collect(Collectors.toList());
 
-        for (int level = 1; level < 5; level++) {
-            if (remainedUnloadedDeps.isEmpty())
-                break;
+        return loadDependencyLevel(ids, 0, mode, builds, tcIgn).thenApply(v -> builds);
+    }
 
-            Set<Integer> depsNextLevel = remainedUnloadedDeps
-                .stream()
-                .map(builds::get)
-                .peek(val -> Preconditions.checkNotNull(val, "Build future should be in context"))
-                .flatMap(ref -> dependencies(ref, mode, builds, tcIgn).stream()).collect(Collectors.toSet());
+    /**
+     * @param ids Build IDs, builds already present in map are skipped.
+     * @param level Level of dependencies, 0 for chains.
+     * @param mode Sync mode.
+     * @param builds All builds.
+     * @param tcIgn Teamcity.
+     * @return future completed when builds and all their dependencies are loaded.
+     */
+    private CompletableFuture<Void> loadDependencyLevel(Collection<Integer> ids,
+        int level,
+        SyncMode mode,
+        Map<Integer, Future<FatBuildCompacted>> builds,
+        ITeamcityIgnited tcIgn) {
+        Map<Integer, CompletableFuture<FatBuildCompacted>> newBuilds = new HashMap<>();
 
-            if(logger.isDebugEnabled())
-                logger.debug("Level [" + level + "] dependencies:" + depsNextLevel);
+        for (Integer id : ids) {
+            CompletableFuture<FatBuildCompacted> fut = new CompletableFuture<>();
 
-            remainedUnloadedDeps = depsNextLevel;
+            if (builds.putIfAbsent(id, fut) == null)
+                newBuilds.put(id, fut);
         }
 
-        return builds;
+        if (newBuilds.isEmpty())
+            return CompletableFuture.completedFuture(null);
+
+        if (logger.isDebugEnabled())
+            logger.debug("Level [" + level + "] dependencies:" + newBuilds.keySet());
+
+        CompletableFuture<Map<Integer, FatBuildCompacted>> loaded = mode == SyncMode.NONE
+            ? CompletableFuture.completedFuture(tcIgn.getFatBuilds(newBuilds.keySet(), mode))
+            : CompletableFuture.supplyAsync(() -> tcIgn.getFatBuilds(newBuilds.keySet(), mode),
+                tcUpdatePool.getService());
+
+        return loaded.whenComplete((res, e) -> {
+            if (e != null)
+                newBuilds.values().forEach(fut -> fut.completeExceptionally(e));
+            else
+                newBuilds.forEach((id, fut) -> fut.complete(res.get(id)));
+        }).thenCompose(res -> {
+            if (level >= MAX_DEPENDENCY_LEVEL)
+                return CompletableFuture.completedFuture(null);
+
+            Set<Integer> deps = res.values().stream()
+                .filter(Objects::nonNull)
+                .flatMapToInt(b -> IntStream.of(b.snapshotDependencies()))
+                .boxed()
+                .collect(Collectors.toSet());
+
+            return loadDependencyLevel(deps, level + 1, mode, builds, tcIgn);
+        });
     }
 
     @Nonnull
@@ -453,45 +502,14 @@ public class BuildChainProcessor {
             if ((procLog == ProcessLogsMode.SUITE_NOT_COMPLETE && incompleteFailure)
                     || procLog == ProcessLogsMode.ALL)
                 ctx.setLogCheckResFut(
-                        CompletableFuture.supplyAsync(
-                            () -> {
-                                ILogCheckResult res = buildLogProcessor.analyzeBuildLog(teamcity,
-                                    ctx.buildId(),
-                                    incompleteFailure);
-                                int branchName = ctx.branchName();
-
-                                //build log result is ready for branch.
-                                counters.increment(branchName);
-
-                                return res;
-                            },
-                            tcUpdatePool.getService()));
-        }
-    }
+                    buildLogProcessor.analyzeBuildLogAsync(teamcity, ctx.buildId(), incompleteFailure)
+                        .thenApply(res -> {
+                            //build log result is ready for branch.
+                            counters.increment(ctx.branchName());
 
-    /**
-     * @param buildFut Chain build future.
-     * @param mode Mode.
-     * @param builds Build futures map.
-     * @param teamcityIgnited Teamcity ignited.
-     * @return Set of new builds found during this dependencies check round.
-     */
-    @Nonnull
-    private Set<Integer> dependencies(
-        Future<FatBuildCompacted> buildFut,
-        SyncMode mode,
-        Map<Integer, Future<FatBuildCompacted>> builds,
-        ITeamcityIgnited teamcityIgnited) {
-        Set<Integer> newBuilds = new HashSet<>();
-
-        IntStream.of(FutureUtil.getResult(buildFut).snapshotDependencies())
-            .forEach(id -> builds.computeIfAbsent(id, id0 -> {
-                newBuilds.add(id0);
-
-                return loadBuildAsync(id0, mode, teamcityIgnited);
-            }));
-
-        return newBuilds;
+                            return res;
+                        }));
+        }
     }
 
     public Future<FatBuildCompacted> loadBuildAsync(Integer id, SyncMode mode, ITeamcityIgnited teamcityIgnited) {
@@ -106,6 +106,22 @@ public class DefectCompacted {
         return this;
     }
 
+    /**
+     * @return hash of commits list, same as hash of sorted list passed to {@link #sameCommits(List)}, or 0 if defect
+     * has no commits.
+     */
+    int commitsHash() {
+        return commits == null || commits.isEmpty() ? 0 : commits.hashCode();
+    }
+
+    /**
+     * @return hash of revisions list, same as hash of sorted list passed to {@link #sameRevisions(List)}, or 0 if
+     * defect has no revisions.
+     */
+    int revisionsHash() {
+        return revisions == null || revisions.isEmpty() ? 0 : revisions.hashCode();
+    }
+
     public Map<Integer, DefectFirstBuild> buildsInvolved() {
         return Collections.unmodifiableMap(buildsInvolved);
     }
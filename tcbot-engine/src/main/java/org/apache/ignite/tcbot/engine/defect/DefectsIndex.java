@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcbot.engine.defect;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Process local lookup index of defects: build ID to defect, and commits/revisions hash to open defects. Hashes may
+ * collide, so caller should check candidates using {@link DefectCompacted#sameCommits(java.util.List)} and {@link
+ * DefectCompacted#sameRevisions(java.util.List)}.
+ */
+class DefectsIndex {
+    /** Build ID and server ID to defect ID, including resolved defects. */
+    private final Map<Long, Integer> byBuild = new ConcurrentHashMap<>();
+
+    /** Commits hash and server ID to open defect IDs. */
+    private final Map<Long, Set<Integer>> byCommits = new ConcurrentHashMap<>();
+
+    /** Revisions hash and server ID to open defect IDs. */
+    private final Map<Long, Set<Integer>> byRevisions = new ConcurrentHashMap<>();
+
+    /**
+     * @param srvId Server ID.
+     * @param val Build ID or hash.
+     */
+    private static long key(int srvId, int val) {
+        return (long)val & 0xFFFFFFFFL | (long)srvId << 32;
+    }
+
+    /**
+     * @param srvId Server ID.
+     * @param buildId Build ID.
+     * @return ID of defect (open or resolved) containing build or <code>null</code>.
+     */
+    @Nullable Integer defectByBuild(int srvId, int buildId) {
+        return byBuild.get(key(srvId, buildId));
+    }
+
+    /**
+     * @param srvId Server ID.
+     * @param hash Hash of sorted commits.
+     * @return IDs of open defects having commits with the same hash.
+     */
+    Set<Integer> openDefectsByCommits(int srvId, int hash) {
+        return byCommits.getOrDefault(key(srvId, hash), Collections.emptySet());
+    }
+
+    /**
+     * @param srvId Server ID.
+     * @param hash Hash of sorted revisions.
+     * @return IDs of open defects having revisions with the same hash.
+     */
+    Set<Integer> openDefectsByRevisions(int srvId, int hash) {
+        return byRevisions.getOrDefault(key(srvId, hash), Collections.emptySet());
+    }
+
+    /**
+     * @param id Defect ID.
+     * @param defect Defect.
+     */
+    void add(int id, DefectCompacted defect) {
+        int srvId = defect.tcSrvId();
+
+        for (Integer buildId : defect.buildsInvolved().keySet())
+            byBuild.putIfAbsent(key(srvId, buildId), id);
+
+        if (defect.resolvedByUsernameId() >= 1)
+            return;
+
+        int commitsHash = defect.commitsHash();
+        if (commitsHash != 0)
+            byCommits.computeIfAbsent(key(srvId, commitsHash), k -> ConcurrentHashMap.newKeySet()).add(id);
+
+        int revisionsHash = defect.revisionsHash();
+        if (revisionsHash != 0)
+            byRevisions.computeIfAbsent(key(srvId, revisionsHash), k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    /**
+     * @param id Defect ID.
+     * @param defect Previously indexed version of defect.
+     */
+    void remove(int id, DefectCompacted defect) {
+        int srvId = defect.tcSrvId();
+
+        for (Integer buildId : defect.buildsInvolved().keySet())
+            byBuild.remove(key(srvId, buildId), id);
+
+        removeFromSet(byCommits, key(srvId, defect.commitsHash()), id);
+        removeFromSet(byRevisions, key(srvId, defect.revisionsHash()), id);
+    }
+
+    /**
+     * @param id Defect ID.
+     * @param oldDefect Previously indexed version of defect, <code>null</code> if defect is new.
+     * @param newDefect Saved version of defect.
+     */
+    void update(int id, @Nullable DefectCompacted oldDefect, DefectCompacted newDefect) {
+        if (oldDefect != null)
+            remove(id, oldDefect);
+
+        add(id, newDefect);
+    }
+
+    /**
+     * @param idx Index.
+     * @param key Key.
+     * @param id Defect ID.
+     */
+    private static void removeFromSet(Map<Long, Set<Integer>> idx, long key, int id) {
+        idx.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -22,7 +22,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.cache.Cache;
 import javax.inject.Inject;
@@ -55,6 +59,9 @@ public class DefectsStorage {
     @Inject
     private ChangeDao changeDao;
 
+    /** Lookup index, <code>null</code> until first usage. */
+    @Nullable private volatile DefectsIndex idx;
+
 
     public DefectsStorage() {
     }
@@ -86,17 +93,16 @@ public class DefectsStorage {
         BiFunction<Integer, DefectCompacted, DefectCompacted> function) {
 
         IgniteCache<Integer, DefectCompacted> cache = cache();
+        DefectsIndex idx = index();
 
-        try (QueryCursor<Cache.Entry<Integer, DefectCompacted>> qry = cache.query(new ScanQuery<Integer, DefectCompacted>()
-            .setFilter((k, v) -> v.tcSrvId() == srvId))) {
-            //here we ignore if issue was resolved or not because defect can be already resolved,
-            // and if this(resolved) defect contains same build ID, as we've used earlier, no reason to open new defect for it.
-            for (Cache.Entry<Integer, DefectCompacted> next : qry) {
-                DefectCompacted openDefect = next.getValue();
+        //here we ignore if issue was resolved or not because defect can be already resolved,
+        // and if this(resolved) defect contains same build ID, as we've used earlier, no reason to open new defect for it.
+        Integer defectWithBuild = idx.defectByBuild(srvId, fatBuild.id());
+        if (defectWithBuild != null) {
+            DefectCompacted defect = cache.get(defectWithBuild);
 
-                if (openDefect.hasBuild(fatBuild.id()))
-                    return processExisting(function, cache, next.getKey(), openDefect);
-            }
+            if (defect != null && defect.hasBuild(fatBuild.id()))
+                return processExisting(function, cache, defectWithBuild, defect);
         }
 
         int[] changes = fatBuild.changes();
@@ -111,15 +117,12 @@ public class DefectsStorage {
             .collect(toList());
 
         if (!commitsToUse.isEmpty()) {
-            try (QueryCursor<Cache.Entry<Integer, DefectCompacted>> qry = cache.query(new ScanQuery<Integer, DefectCompacted>()
-                .setFilter((k, v) -> v.resolvedByUsernameId() < 1 && v.tcSrvId() == srvId))) {
-                for (Cache.Entry<Integer, DefectCompacted> next : qry) {
-                    DefectCompacted openDefect = next.getValue();
+            DefectCompacted openDefect = findOpenDefect(cache,
+                idx.openDefectsByCommits(srvId, commitsToUse.hashCode()),
+                d -> d.sameCommits(commitsToUse));
 
-                    if (openDefect.sameCommits(commitsToUse))
-                        return processExisting(function, cache, next.getKey(), openDefect);
-                }
-            }
+            if (openDefect != null)
+                return processExisting(function, cache, openDefect.id(), openDefect);
         }
 
         List<RevisionCompacted> buildRevisions = fatBuild.revisions();
@@ -134,15 +137,12 @@ public class DefectsStorage {
             .collect(toList());
 
         if (commitsToUse.isEmpty() && !buildRevisions.isEmpty()) {
-            try (QueryCursor<Cache.Entry<Integer, DefectCompacted>> qry = cache.query(new ScanQuery<Integer, DefectCompacted>()
-                .setFilter((k, v) -> v.resolvedByUsernameId() < 1 && v.tcSrvId() == srvId))) {
-                for (Cache.Entry<Integer, DefectCompacted> next : qry) {
-                    DefectCompacted openDefect = next.getValue();
+            DefectCompacted openDefect = findOpenDefect(cache,
+                idx.openDefectsByRevisions(srvId, revisionsToUse.hashCode()),
+                d -> d.sameRevisions(revisionsToUse));
 
-                    if (openDefect.sameRevisions(revisionsToUse))
-                        return processExisting(function, cache, next.getKey(), openDefect);
-                }
-            }
+            if (openDefect != null)
+                return processExisting(function, cache, openDefect.id(), openDefect);
         }
 
         int id = (int)sequence().incrementAndGet();
@@ -159,11 +159,91 @@ public class DefectsStorage {
 
         DefectCompacted defectT = function.apply(id, defect);
 
-        boolean putSuccess = cache.putIfAbsent(id, defectT);
+        if (cache.putIfAbsent(id, defectT))
+            indexUpdated(id, null, defectT);
 
         return defectT;
     }
 
+    /**
+     * @param cache Cache.
+     * @param candidates IDs of open defects found in index, may include false positives because of hash collision.
+     * @param filter Exact match check.
+     * @return first open defect matching filter or <code>null</code>.
+     */
+    @Nullable private DefectCompacted findOpenDefect(IgniteCache<Integer, DefectCompacted> cache,
+        Set<Integer> candidates,
+        Predicate<DefectCompacted> filter) {
+        if (candidates.isEmpty())
+            return null;
+
+        Map<Integer, DefectCompacted> defects = cache.getAll(new TreeSet<>(candidates));
+
+        for (Map.Entry<Integer, DefectCompacted> next : defects.entrySet()) {
+            DefectCompacted openDefect = next.getValue();
+
+            if (openDefect.resolvedByUsernameId() < 1 && filter.test(openDefect)) {
+                openDefect.id(next.getKey());
+
+                return openDefect;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return lookup index of defects, built by single scan of cache on first usage.
+     */
+    synchronized DefectsIndex index() {
+        DefectsIndex idx = this.idx;
+
+        if (idx != null)
+            return idx;
+
+        idx = new DefectsIndex();
+
+        ScanQuery<Integer, DefectCompacted> scan = new ScanQuery<>();
+
+        try (QueryCursor<Cache.Entry<Integer, DefectCompacted>> qry = cache().query(scan)) {
+            for (Cache.Entry<Integer, DefectCompacted> next : qry)
+                idx.add(next.getKey(), next.getValue());
+        }
+
+        this.idx = idx;
+
+        return idx;
+    }
+
+    /**
+     * Updates index if it was already built, otherwise saved version will be taken from cache on index building.
+     *
+     * @param id Defect ID.
+     * @param oldDefect Previous version of defect, <code>null</code> if defect is new.
+     * @param newDefect Saved version of defect, <code>null</code> if defect was removed.
+     */
+    private synchronized void indexUpdated(int id, @Nullable DefectCompacted oldDefect,
+        @Nullable DefectCompacted newDefect) {
+        DefectsIndex idx = this.idx;
+
+        if (idx == null)
+            return;
+
+        if (newDefect == null) {
+            if (oldDefect != null)
+                idx.remove(id, oldDefect);
+        }
+        else
+            idx.update(id, oldDefect, newDefect);
+    }
+
+    /**
+     * Drops index, it will be rebuilt on next usage.
+     */
+    private synchronized void invalidateIndex() {
+        idx = null;
+    }
+
     public DefectCompacted processExisting(BiFunction<Integer, DefectCompacted, DefectCompacted> function,
                                            IgniteCache<Integer, DefectCompacted> cache, Integer id, DefectCompacted openDefect) {
         DefectCompacted defect = function.apply(id, openDefect);
@@ -201,7 +281,9 @@ public class DefectsStorage {
 
     public void save(DefectCompacted defect) {
         Preconditions.checkState(defect.id() != 0);
-        cache().put(defect.id(), defect);
+        DefectCompacted oldDefect = cache().getAndPut(defect.id(), defect);
+
+        indexUpdated(defect.id(), oldDefect, defect);
     }
 
     public void checkIfPossibleToRemove(Map<Integer, List<Integer>> oldBuildsTeamCityAndBuildIds) {
@@ -226,8 +308,11 @@ public class DefectsStorage {
                 List<Integer> defectBuildIds = defect.buildsInvolved().values().stream()
                     .map(build -> build.build().id()).collect(toList());
 
-                if (defectBuildIds.stream().anyMatch(buildIdsToRemove::contains))
+                if (defectBuildIds.stream().anyMatch(buildIdsToRemove::contains)) {
                     cache().remove(entry.getKey());
+
+                    indexUpdated(entry.getKey(), defect, null);
+                }
             });
         });
     }
@@ -254,5 +339,7 @@ public class DefectsStorage {
             else
                 break;
         }
+
+        invalidateIndex();
     }
 }
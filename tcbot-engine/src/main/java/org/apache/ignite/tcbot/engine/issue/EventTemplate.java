@@ -17,6 +17,7 @@
 
 package org.apache.ignite.tcbot.engine.issue;
 
+import org.apache.ignite.tcignited.history.EventTemplateMatcher;
 import org.apache.ignite.tcignited.history.IEventTemplate;
 
 public class EventTemplate implements IEventTemplate {
@@ -28,6 +29,9 @@ public class EventTemplate implements IEventTemplate {
      */
     private boolean shouldBeFirstNonMissing = false;
 
+    /** Compiled matcher, reset if template is changed. */
+    private volatile EventTemplateMatcher matcher;
+
     public EventTemplate(int[] beforeEvent, int[] eventAndAfter) {
         this.beforeEvent = beforeEvent;
         this.eventAndAfter = eventAndAfter;
@@ -53,16 +57,28 @@ public class EventTemplate implements IEventTemplate {
 
     EventTemplate includeMissing(boolean include) {
         this.includeMissing = include;
+        this.matcher = null;
 
         return this;
     }
 
+    /** {@inheritDoc} */
+    @Override public EventTemplateMatcher matcher() {
+        EventTemplateMatcher matcher = this.matcher;
+
+        if (matcher == null)
+            this.matcher = matcher = EventTemplateMatcher.compile(this);
+
+        return matcher;
+    }
+
     public int cntEvents() {
         return beforeEvent.length + eventAndAfter.length;
     }
 
     public EventTemplate onlyForFirstNonMissing(boolean shouldBeFirst) {
         this.shouldBeFirstNonMissing = shouldBeFirst;
+        this.matcher = null;
 
         return this;
     }
@@ -19,6 +19,7 @@ package org.apache.ignite.tcbot.engine.issue;
 
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
+import org.apache.ignite.tcignited.history.EventTemplateMatcher;
 
 import static org.apache.ignite.tcignited.history.RunStatus.RES_CRITICAL_FAILURE;
 import static org.apache.ignite.tcignited.history.RunStatus.RES_FAILURE;
@@ -55,6 +56,19 @@ public class EventTemplates {
                     FAIL, FAIL}
     );
 
+    /** Test failure templates detected by one pass, index of template in matcher: see constants below. */
+    public static final EventTemplateMatcher testFailureMatcher = EventTemplateMatcher.compile(
+        newContributedTestFailure, newFailure, newFailureForFlakyTest);
+
+    /** Index of {@link #newContributedTestFailure} in {@link #testFailureMatcher}. */
+    public static final int TEST_NEW_CONTRIBUTED_FAILURE = 0;
+
+    /** Index of {@link #newFailure} in {@link #testFailureMatcher}. */
+    public static final int TEST_NEW_FAILURE = 1;
+
+    /** Index of {@link #newFailureForFlakyTest} in {@link #testFailureMatcher}. */
+    public static final int TEST_NEW_FAILURE_FOR_FLAKY = 2;
+
     public static ArrayList<EventTemplate> templates;
 
     static {
@@ -17,8 +17,10 @@
 
 package org.apache.ignite.tcbot.engine.issue;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.ignite.ci.issue.Issue;
@@ -39,6 +41,12 @@ public interface IIssuesStorage {
 
     public Stream<Issue> allIssues();
 
+    /**
+     * @param detectedAfterTs Timestamp, should be within notification window.
+     * @return issues detected after timestamp, only recent issues are read from storage.
+     */
+    public Stream<Issue> recentIssues(long detectedAfterTs);
+
     /**
      * Checks and saves address was notified (NotThreadSafe)
      * @param key issue key.
@@ -48,6 +56,14 @@ public interface IIssuesStorage {
      */
     public boolean getIsNewAndSetNotified(IssueKey key, String addr, @Nullable Exception e);
 
+    /**
+     * Registers successful notification of addresses by one batch update.
+     *
+     * @param addrs Addresses to register as notified by issue.
+     * @return addresses which were not notified before by issue, issues without such addresses are not included.
+     */
+    public Map<IssueKey, Set<String>> setNotified(Map<IssueKey, ? extends Collection<String>> addrs);
+
     public void saveIssueSubscribersStat(IssueKey key, int cntSrvAllowed, int cntSubscribed, int cntTagsFilterPassed);
 
     public void removeOldIssues(Map<Integer, List<Integer>> oldBuildsTeamCityAndBuildIds);
@@ -17,33 +17,57 @@
 
 package org.apache.ignite.tcbot.engine.issue;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 import javax.cache.Cache;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
 import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.CacheEntryProcessor;
 import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.ci.issue.Issue;
 import org.apache.ignite.ci.issue.IssueKey;
+import org.apache.ignite.tcbot.common.TcBotConst;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
  */
 public class IssuesStorage implements IIssuesStorage {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(IssuesStorage.class);
+
     public static final String BOT_DETECTED_ISSUES = "botDetectedIssues";
 
+    /** Issues detected within this period are kept in recent issues index. */
+    public static final long RECENT_ISSUES_WINDOW_MS = TimeUnit.HOURS.toMillis(
+        Math.max(TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_HOURS,
+            TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_FOR_NOTIFIED_ISSUE_HOURS));
+
     @Inject
     private Provider<Ignite> igniteProvider;
 
+    /** Recent issues index, <code>null</code> until first usage. */
+    @Nullable private volatile RecentIssuesIndex recentIdx;
+
     public IssuesStorage() {
     }
 
@@ -116,6 +140,26 @@ public class IssuesStorage implements IIssuesStorage {
             cache().put(issueKey, issue); // protect from odd writes
     }
 
+    /** {@inheritDoc} */
+    @Override public Map<IssueKey, Set<String>> setNotified(Map<IssueKey, ? extends Collection<String>> addrs) {
+        if (addrs.isEmpty())
+            return Collections.emptyMap();
+
+        Map<IssueKey, EntryProcessorResult<Set<String>>> res =
+            cache().invokeAll(new LinkedHashSet<>(addrs.keySet()), new SetNotifiedProc(), new HashMap<>(addrs));
+
+        Map<IssueKey, Set<String>> notified = new HashMap<>();
+
+        res.forEach((key, procRes) -> {
+            Set<String> newAddrs = procRes.get();
+
+            if (newAddrs != null && !newAddrs.isEmpty())
+                notified.put(key, newAddrs);
+        });
+
+        return notified;
+    }
+
     /** {@inheritDoc} */
     @Override public boolean containsIssueKey(IssueKey issueKey) {
         return cache().containsKey(issueKey);
@@ -124,6 +168,11 @@ public class IssuesStorage implements IIssuesStorage {
     /** {@inheritDoc} */
     @Override public void saveIssue(Issue issue) {
         cache().put(issue.issueKey(), issue);
+
+        RecentIssuesIndex idx = recentIdx;
+
+        if (idx != null && issue.detectedTs != null)
+            idx.add(issue.issueKey(), issue.detectedTs);
     }
 
     /** {@inheritDoc} */
@@ -136,6 +185,67 @@ public class IssuesStorage implements IIssuesStorage {
         return StreamSupport.stream(cache().spliterator(), false).map(Cache.Entry::getValue);
     }
 
+    /** {@inheritDoc} */
+    @Override public Stream<Issue> recentIssues(long detectedAfterTs) {
+        RecentIssuesIndex idx = recentIssuesIndex();
+
+        idx.removeDetectedBefore(System.currentTimeMillis() - RECENT_ISSUES_WINDOW_MS);
+
+        Set<IssueKey> keys = idx.detectedAfter(detectedAfterTs);
+
+        if (keys.isEmpty())
+            return Stream.empty();
+
+        return cache().getAll(keys).values().stream()
+            .filter(issue -> issue.detectedTs != null && issue.detectedTs >= detectedAfterTs);
+    }
+
+    /**
+     * @return index of recent issues, filled by scan of issues detected within window on first usage. Readers are
+     * blocked by this method until the scan is completed.
+     */
+    private synchronized RecentIssuesIndex recentIssuesIndex() {
+        RecentIssuesIndex idx = recentIdx;
+
+        if (idx != null)
+            return idx;
+
+        idx = new RecentIssuesIndex();
+
+        // published before the scan, so issues saved during the scan are added to index by saveIssue().
+        recentIdx = idx;
+
+        long windowStart = System.currentTimeMillis() - RECENT_ISSUES_WINDOW_MS;
+
+        ScanQuery<BinaryObject, BinaryObject> scan =
+            new ScanQuery<>((issueKey, issue) -> {
+                Long detectedTs = issue.hasField("detectedTs") ? issue.<Long>field("detectedTs") : null;
+
+                return detectedTs != null && detectedTs >= windowStart;
+            });
+
+        IgniteCache<BinaryObject, BinaryObject> cacheWithBinary = cache().withKeepBinary();
+
+        try {
+            for (Cache.Entry<BinaryObject, BinaryObject> entry : cacheWithBinary.query(scan)) {
+                IssueKey key = entry.getKey().deserialize();
+                Long detectedTs = entry.getValue().field("detectedTs");
+
+                idx.add(key, detectedTs);
+            }
+        }
+        catch (RuntimeException e) {
+            // incomplete index is dropped, the scan is repeated on next usage.
+            recentIdx = null;
+
+            throw e;
+        }
+
+        logger.info("Recent issues index loaded: " + idx.size() + " issues");
+
+        return idx;
+    }
+
     public void removeOldIssues(Map<Integer, List<Integer>> oldBuildsTeamCityAndBuildIds) {
         cache().forEach(entry -> {
             IssueKey issueKey = entry.getKey();
@@ -172,4 +282,45 @@ public class IssuesStorage implements IIssuesStorage {
                 break;
         }
     }
+
+    /**
+     * Registers addresses as notified, for each issue processor gets addresses from the map passed as an argument.
+     * Result is set of addresses which were not notified before.
+     */
+    private static class SetNotifiedProc implements CacheEntryProcessor<IssueKey, Issue, Set<String>> {
+        /** {@inheritDoc} */
+        @SuppressWarnings("unchecked")
+        @Override public Set<String> process(MutableEntry<IssueKey, Issue> entry,
+            Object... arguments) throws EntryProcessorException {
+            Issue issue = entry.getValue();
+
+            if (issue == null)
+                return null;
+
+            Map<IssueKey, Collection<String>> addrs = (Map<IssueKey, Collection<String>>)arguments[0];
+            Collection<String> issueAddrs = addrs.get(entry.getKey());
+
+            if (issueAddrs == null)
+                return null;
+
+            Set<String> res = new TreeSet<>();
+
+            for (String to : issueAddrs) {
+                if (issue.notificationRetry >= 2 && issue.notificationFailed.containsKey(to))
+                    continue; // no more tries;
+
+                if (issue.addressNotified.add(to)) {
+                    res.add(to);
+
+                    if (issue.notificationFailed != null)
+                        issue.notificationFailed.remove(to);
+                }
+            }
+
+            if (!res.isEmpty())
+                entry.setValue(issue);
+
+            return res;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.engine.issue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.ci.issue.IssueKey;
+
+/**
+ * Process local outbox of issues pending notification: keys of recently detected issues grouped into hourly buckets
+ * by detection time. Buckets older than notification window are dropped, so notifier touches only fresh issues.
+ */
+class RecentIssuesIndex {
+    /** Bucket length. */
+    private static final long BUCKET_MS = TimeUnit.HOURS.toMillis(1);
+
+    /** Bucket number to keys of issues detected in this bucket. */
+    private final ConcurrentSkipListMap<Long, Set<IssueKey>> buckets = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param key Issue key.
+     * @param detectedTs Detection timestamp.
+     */
+    void add(IssueKey key, long detectedTs) {
+        buckets.computeIfAbsent(detectedTs / BUCKET_MS, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    /**
+     * @param ts Timestamp.
+     * @return keys of issues detected after timestamp, may include issues detected up to one bucket earlier.
+     */
+    Set<IssueKey> detectedAfter(long ts) {
+        Set<IssueKey> res = new HashSet<>();
+
+        buckets.tailMap(ts / BUCKET_MS, true).values().forEach(res::addAll);
+
+        return res;
+    }
+
+    /**
+     * @param ts Timestamp.
+     */
+    void removeDetectedBefore(long ts) {
+        buckets.headMap(ts / BUCKET_MS, false).clear();
+    }
+
+    /**
+     * @return count of issues in index.
+     */
+    int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+}
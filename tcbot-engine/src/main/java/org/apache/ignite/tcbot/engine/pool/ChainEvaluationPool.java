@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcbot.engine.pool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool for evaluation of tracked chains of one request in parallel. Separated from {@link TcUpdatePool},
+ * because chain evaluation waits for builds loaded by that pool. Queue is bounded too: if it is full, new chains are
+ * rejected with {@link RejectedExecutionException} instead of waiting beyond request deadline.
+ */
+public class ChainEvaluationPool {
+    /** Max chains evaluated in parallel by all requests. */
+    public static final int POOL_SIZE = 8;
+
+    /** Max chains waiting for evaluation. */
+    public static final int QUEUE_CAPACITY = 64;
+
+    /** Thread factory. */
+    private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+    /** Service. */
+    private ExecutorService service = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        r -> {
+            Thread thread = threadFactory.newThread(r);
+
+            thread.setName("chain-eval-" + thread.getName());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+    /**
+     * @return Executor service to evaluate chains there.
+     */
+    public ExecutorService getService() {
+        return service;
+    }
+
+    /** */
+    public void stop() {
+        service.shutdown();
+        try {
+            service.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
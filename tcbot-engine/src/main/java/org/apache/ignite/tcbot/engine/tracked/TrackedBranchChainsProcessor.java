@@ -18,6 +18,7 @@ package org.apache.ignite.tcbot.engine.tracked;
 
 import com.google.common.base.Strings;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -25,8 +26,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -34,6 +42,8 @@ import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
 import org.apache.ignite.tcbot.common.conf.IBuildParameterSpec;
 import org.apache.ignite.tcbot.common.conf.IParameterValueSpec;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.engine.chain.BuildChainProcessor;
 import org.apache.ignite.tcbot.engine.chain.FullChainRunCtx;
@@ -43,6 +53,8 @@ import org.apache.ignite.tcbot.engine.chain.SortOption;
 import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
 import org.apache.ignite.tcbot.engine.conf.ITrackedBranch;
 import org.apache.ignite.tcbot.engine.conf.ITrackedChain;
+import org.apache.ignite.tcbot.engine.pool.ChainEvaluationPool;
+import org.apache.ignite.tcbot.engine.ui.ChainTimingUi;
 import org.apache.ignite.tcbot.engine.ui.DsChainUi;
 import org.apache.ignite.tcbot.engine.ui.DsSummaryUi;
 import org.apache.ignite.tcbot.engine.ui.GuardBranchStatusUi;
@@ -54,6 +66,8 @@ import org.apache.ignite.tcignited.SyncMode;
 import org.apache.ignite.tcignited.build.UpdateCountersStorage;
 import org.apache.ignite.tcignited.buildref.BranchEquivalence;
 import org.apache.ignite.tcignited.creds.ICredentialsProv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
@@ -61,6 +75,15 @@ import static com.google.common.base.Strings.isNullOrEmpty;
  * Process failures for some setup tracked branch, which may be triggered/monitored by TC Bot.
  */
 public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBranch {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(TrackedBranchChainsProcessor.class);
+
+    /**
+     * Default max time to wait for evaluation of all chains of one request, see
+     * {@link TcBotSystemProperties#TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS}.
+     */
+    public static final long CHAIN_EVAL_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+
     /** TC ignited server provider. */
     @Inject private ITeamcityIgnitedProvider tcIgnitedProv;
 
@@ -78,6 +101,9 @@ public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBr
     /** Update Counters for branch-related changes storage. */
     @Inject private UpdateCountersStorage countersStorage;
 
+    /** Pool for parallel evaluation of chains. */
+    @Inject private ChainEvaluationPool chainEvalPool;
+
     /** {@inheritDoc} */
     @AutoProfiling
     @Nonnull
@@ -102,64 +128,65 @@ public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBr
 
         final ITrackedBranch tracked = tcBotCfg.getTrackedBranches().getBranchMandatory(branchNn);
 
-        tracked.chainsStream()
+        List<ITrackedChain> accessibleChains = tracked.chainsStream()
             .filter(chainTracked -> tcIgnitedProv.hasAccess(chainTracked.serverCode(), creds))
-            .map(chainTracked -> {
-                final String srvCodeOrAlias = chainTracked.serverCode();
+            .collect(Collectors.toList());
 
-                final String branchForTc = chainTracked.tcBranch();
+        evaluateChains(accessibleChains, res.chainTimings, chainTracked -> {
+            final String srvCodeOrAlias = chainTracked.serverCode();
 
-                //branch is tracked, so fail rate should be taken from this branch data (otherwise it is specified).
-                final String baseBranchTc = chainTracked.tcBaseBranch().orElse(branchForTc);
+            final String branchForTc = chainTracked.tcBranch();
 
-                ITeamcityIgnited tcIgnited = tcIgnitedProv.server(srvCodeOrAlias, creds);
+            //branch is tracked, so fail rate should be taken from this branch data (otherwise it is specified).
+            final String baseBranchTc = chainTracked.tcBaseBranch().orElse(branchForTc);
 
-                Map<Integer, Integer> requireParamVal = new HashMap<>();
+            ITeamcityIgnited tcIgnited = tcIgnitedProv.server(srvCodeOrAlias, creds);
 
-                if (!Strings.isNullOrEmpty(tagForHistSelected)) {
-                    requireParamVal.putAll(
-                        reverseTagToParametersRequired(tagForHistSelected, srvCodeOrAlias));
-                }
+            Map<Integer, Integer> requireParamVal = new HashMap<>();
+
+            if (!Strings.isNullOrEmpty(tagForHistSelected)) {
+                requireParamVal.putAll(
+                    reverseTagToParametersRequired(tagForHistSelected, srvCodeOrAlias));
+            }
 
-                DsChainUi chainStatus = new DsChainUi(srvCodeOrAlias,
-                    tcIgnited.serverCode(),
-                    branchForTc);
+            DsChainUi chainStatus = new DsChainUi(srvCodeOrAlias,
+                tcIgnited.serverCode(),
+                branchForTc);
 
-                chainStatus.baseBranchForTc = baseBranchTc;
+            chainStatus.baseBranchForTc = baseBranchTc;
 
-                String suiteIdMandatory = chainTracked.tcSuiteId();
+            String suiteIdMandatory = chainTracked.tcSuiteId();
 
-                List<Integer> chains = tcIgnited.getLastNBuildsFromHistory(suiteIdMandatory, branchForTc, buildResMergeCnt);
+            List<Integer> chains = tcIgnited.getLastNBuildsFromHistory(suiteIdMandatory, branchForTc, buildResMergeCnt);
 
-                ProcessLogsMode logs;
-                if (buildResMergeCnt > 1)
-                    logs = (checkAllLogs != null && checkAllLogs) ? ProcessLogsMode.ALL : ProcessLogsMode.DISABLED;
-                else
-                    logs = (checkAllLogs != null && checkAllLogs) ? ProcessLogsMode.ALL : ProcessLogsMode.SUITE_NOT_COMPLETE;
+            ProcessLogsMode logs;
+            if (buildResMergeCnt > 1)
+                logs = (checkAllLogs != null && checkAllLogs) ? ProcessLogsMode.ALL : ProcessLogsMode.DISABLED;
+            else
+                logs = (checkAllLogs != null && checkAllLogs) ? ProcessLogsMode.ALL : ProcessLogsMode.SUITE_NOT_COMPLETE;
 
-                LatestRebuildMode rebuild = buildResMergeCnt > 1 ? LatestRebuildMode.ALL : LatestRebuildMode.LATEST;
+            LatestRebuildMode rebuild = buildResMergeCnt > 1 ? LatestRebuildMode.ALL : LatestRebuildMode.LATEST;
 
-                boolean includeScheduled = buildResMergeCnt == 1;
+            boolean includeScheduled = buildResMergeCnt == 1;
 
-                final FullChainRunCtx ctx = chainProc.loadFullChainContext(
-                    tcIgnited,
-                    chains,
-                    rebuild,
-                    logs,
-                    includeScheduled,
-                    baseBranchTc,
-                    syncMode,
-                    sortOption,
-                    requireParamVal
-                );
+            final FullChainRunCtx ctx = chainProc.loadFullChainContext(
+                tcIgnited,
+                chains,
+                rebuild,
+                logs,
+                includeScheduled,
+                baseBranchTc,
+                syncMode,
+                sortOption,
+                requireParamVal
+            );
 
-                chainStatus.initFromContext(tcIgnited, ctx, baseBranchTc, compactor, calcTrustedTests, tagSelected,
-                    displayMode, maxDurationSec, requireParamVal,
-                    showMuted, showIgnored);
+            chainStatus.initFromContext(tcIgnited, ctx, baseBranchTc, compactor, calcTrustedTests, tagSelected,
+                displayMode, maxDurationSec, requireParamVal,
+                showMuted, showIgnored);
 
-                return chainStatus;
-            })
-            .forEach(res::addChainOnServer);
+            return chainStatus;
+        }).forEach(res::addChainOnServer);
 
         res.servers.sort(Comparator.comparing(DsChainUi::serverName));
 
@@ -207,7 +234,7 @@ public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBr
         GuardBranchStatusUi statusUi = new GuardBranchStatusUi();
         statusUi.setName(tb.name());
 
-        for (ITrackedChain chain : accessibleChains) {
+        evaluateChains(accessibleChains, statusUi.getChainTimings(), chain -> {
             String srvCodeOrAlias = chain.serverCode();
             ITeamcityIgnited tcIgn = tcIgnitedProv.server(srvCodeOrAlias, prov);
 
@@ -240,8 +267,8 @@ public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBr
                     finished.incrementAndGet();
                 });
 
-            statusUi.addSuiteRunStat(finished.get(), running.get(), queued.get());
-        }
+            return new int[] {finished.get(), running.get(), queued.get()};
+        }).forEach(stat -> statusUi.addSuiteRunStat(stat[0], stat[1], stat[2]));
 
         return statusUi;
     }
@@ -284,21 +311,127 @@ public class TrackedBranchChainsProcessor implements IDetailedStatusForTrackedBr
         final String branchNn = isNullOrEmpty(branch) ? ITcServerConfig.DEFAULT_TRACKED_BRANCH_NAME : branch;
         final ITrackedBranch tracked = tcBotCfg.getTrackedBranches().getBranchMandatory(branchNn);
 
-        tracked.chainsStream()
+        List<ITrackedChain> accessibleChains = tracked.chainsStream()
             .filter(chainTracked -> tcIgnitedProv.hasAccess(chainTracked.serverCode(), creds))
-            .map(chainTracked -> {
-                final String srvId = chainTracked.serverCode();
+            .collect(Collectors.toList());
+
+        evaluateChains(accessibleChains, summary.chainTimings, chainTracked -> {
+            final String srvId = chainTracked.serverCode();
 
-                final String branchForTc = chainTracked.tcBranch();
+            final String branchForTc = chainTracked.tcBranch();
 
-                ITeamcityIgnited tcIgnited = tcIgnitedProv.server(srvId, creds);
+            ITeamcityIgnited tcIgnited = tcIgnitedProv.server(srvId, creds);
 
-                List<Integer> hist = tcIgnited.getLastNBuildsFromHistory(chainTracked.tcSuiteId(), branchForTc, 1);
+            List<Integer> hist = tcIgnited.getLastNBuildsFromHistory(chainTracked.tcSuiteId(), branchForTc, 1);
 
-                return chainProc.loadLongRunningTestsSummary(tcIgnited, hist);
-            })
-            .forEach(summary::addSuiteSummaries);
+            return chainProc.loadLongRunningTestsSummary(tcIgnited, hist);
+        }).forEach(summary::addSuiteSummaries);
 
         return summary;
     }
+
+    /**
+     * Evaluates chains in parallel in {@link ChainEvaluationPool}. Request waits for all chains not longer than
+     * {@link TcBotSystemProperties#TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS}, time spent by chains in the pool queue is
+     * included. Results of chains not evaluated before that are not returned. Chains still queued are cancelled, running
+     * ones are not interrupted: they complete in background, and their data becomes available for next requests.
+     *
+     * @param chains Chains.
+     * @param timings Timings of evaluation, filled for each chain.
+     * @param eval Evaluation of one chain.
+     * @return results of chains evaluated before deadline, in order of chains.
+     */
+    private <R> Stream<R> evaluateChains(List<ITrackedChain> chains, List<ChainTimingUi> timings,
+        Function<ITrackedChain, R> eval) {
+        long timeoutMs = Long.getLong(TcBotSystemProperties.TEAMCITY_BOT_CHAIN_EVAL_TIMEOUT_MS, CHAIN_EVAL_TIMEOUT_MS);
+        long startNs = System.nanoTime();
+        long deadlineNs = startNs + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        List<Future<TimedResult<R>>> futs = new ArrayList<>(chains.size());
+
+        for (ITrackedChain chain : chains) {
+            Future<TimedResult<R>> fut;
+
+            try {
+                fut = chainEvalPool.getService().submit(() -> {
+                    long chainStartNs = System.nanoTime();
+
+                    R res = eval.apply(chain);
+
+                    return new TimedResult<>(res, chainStartNs - startNs, System.nanoTime() - chainStartNs);
+                });
+            }
+            catch (RejectedExecutionException e) {
+                logger.warn("Chain " + chain.tcSuiteId() + " at " + chain.serverCode() + " [" + chain.tcBranch()
+                    + "] was rejected, evaluation queue is full, returning partial results");
+
+                fut = null;
+            }
+
+            futs.add(fut);
+        }
+
+        List<R> res = new ArrayList<>(chains.size());
+
+        for (int i = 0; i < chains.size(); i++) {
+            ITrackedChain chain = chains.get(i);
+            ChainTimingUi timing = new ChainTimingUi(chain.serverCode(), chain.tcSuiteId(), chain.tcBranch());
+            Future<TimedResult<R>> fut = futs.get(i);
+
+            try {
+                if (fut == null)
+                    timing.timedOut = true;
+                else {
+                    TimedResult<R> timed = fut.get(Math.max(0, deadlineNs - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+                    timing.queueWaitMs = TimeUnit.NANOSECONDS.toMillis(timed.queueWaitNs);
+                    timing.durationMs = TimeUnit.NANOSECONDS.toMillis(timed.durationNs);
+
+                    res.add(timed.res);
+                }
+            }
+            catch (TimeoutException e) {
+                // chain which has not started yet is not evaluated, nobody waits for its result.
+                fut.cancel(false);
+
+                timing.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+                timing.timedOut = true;
+
+                logger.warn("Chain " + chain.tcSuiteId() + " at " + chain.serverCode() + " [" + chain.tcBranch()
+                    + "] was not evaluated in " + timeoutMs + "ms, returning partial results");
+            }
+            catch (InterruptedException | ExecutionException e) {
+                throw ExceptionUtil.propagateException(e);
+            }
+
+            timings.add(timing);
+        }
+
+        return res.stream();
+    }
+
+    /**
+     * Result of chain evaluation and time spent.
+     */
+    private static class TimedResult<R> {
+        /** Result. */
+        private final R res;
+
+        /** Time from request start to evaluation start. */
+        private final long queueWaitNs;
+
+        /** Duration of evaluation. */
+        private final long durationNs;
+
+        /**
+         * @param res Result.
+         * @param queueWaitNs Time from request start to evaluation start.
+         * @param durationNs Duration of evaluation.
+         */
+        TimedResult(R res, long queueWaitNs, long durationNs) {
+            this.res = res;
+            this.queueWaitNs = queueWaitNs;
+            this.durationNs = durationNs;
+        }
+    }
 }
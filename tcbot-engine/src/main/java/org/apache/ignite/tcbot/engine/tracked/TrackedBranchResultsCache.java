@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.engine.tracked;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
+import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
+import org.apache.ignite.tcbot.engine.chain.SortOption;
+import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
+import org.apache.ignite.tcbot.engine.conf.ITrackedBranch;
+import org.apache.ignite.tcbot.engine.conf.ITrackedChain;
+import org.apache.ignite.tcbot.engine.ui.DsSummaryUi;
+import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
+import org.apache.ignite.tcignited.SyncMode;
+import org.apache.ignite.tcignited.build.UpdateCountersStorage;
+import org.apache.ignite.tcignited.creds.ICredentialsProv;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Materialised results of tracked branch: {@link DsSummaryUi} is computed once for the same request parameters,
+ * servers visible to the user and update counters of the branch, so all pages polling unchanged branch share one
+ * result. Concurrent identical requests wait for one computation.
+ */
+public class TrackedBranchResultsCache {
+    /** Result is recomputed at least this often, so sync requested by results page is still triggered. */
+    public static final long RESULT_TTL_SEC = 60;
+
+    /** Tracked branch processor. */
+    @Inject private IDetailedStatusForTrackedBranch tbProc;
+
+    /** Tc Bot config. */
+    @Inject private ITcBotConfig tcBotCfg;
+
+    /** TC ignited server provider. */
+    @Inject private ITeamcityIgnitedProvider tcIgnitedProv;
+
+    /** Results by request. */
+    private final Cache<Query, DsSummaryUi> results = CacheBuilder.newBuilder()
+        .maximumSize(256)
+        .expireAfterWrite(RESULT_TTL_SEC, TimeUnit.SECONDS)
+        .softValues()
+        .build();
+
+    /**
+     * Creates key of results, see {@link IDetailedStatusForTrackedBranch#getTrackedBranchTestFailures} for
+     * parameters description. Only update counters are read from storage.
+     */
+    public Query query(@Nullable String branch,
+        @Nullable Boolean checkAllLogs,
+        int buildResMergeCnt,
+        ICredentialsProv creds,
+        SyncMode syncMode,
+        boolean calcTrustedTests,
+        @Nullable String tagSelected,
+        @Nullable String tagForHistSelected,
+        @Nullable DisplayMode displayMode,
+        @Nullable SortOption sortOption,
+        int maxDurationSec,
+        boolean showMuted,
+        boolean showIgnored) {
+        String branchNn = isNullOrEmpty(branch) ? ITcServerConfig.DEFAULT_TRACKED_BRANCH_NAME : branch;
+        ITrackedBranch tracked = tcBotCfg.getTrackedBranches().getBranchMandatory(branchNn);
+
+        Query qry = new Query();
+
+        qry.branch = branchNn;
+        qry.checkAllLogs = Boolean.TRUE.equals(checkAllLogs);
+        qry.buildResMergeCnt = buildResMergeCnt;
+        qry.syncMode = syncMode;
+        qry.calcTrustedTests = calcTrustedTests;
+        qry.tagSelected = tagSelected;
+        qry.tagForHistSelected = tagForHistSelected;
+        qry.displayMode = displayMode;
+        qry.sortOption = sortOption;
+        qry.maxDurationSec = maxDurationSec;
+        qry.showMuted = showMuted;
+        qry.showIgnored = showIgnored;
+        qry.servers = tracked.chainsStream()
+            .map(ITrackedChain::serverCode)
+            .filter(srvCode -> tcIgnitedProv.hasAccess(srvCode, creds))
+            .collect(Collectors.toCollection(TreeSet::new));
+        qry.countersHash = UpdateCountersStorage.getCountersHash(
+            tbProc.getTrackedBranchUpdateCounters(branchNn, creds));
+
+        return qry;
+    }
+
+    /**
+     * @param qry Query.
+     * @param creds Credentials, used only if result is not materialised yet.
+     * @return tracked branch results.
+     */
+    public DsSummaryUi results(Query qry, ICredentialsProv creds) {
+        DsSummaryUi res = load(qry, creds);
+
+        // Partial results are returned to waiting requests, but next request tries to load all chains again.
+        if (res.hasTimedOutChains())
+            results.asMap().remove(qry, res);
+
+        return res;
+    }
+
+    /**
+     * @param qry Query.
+     * @param creds Credentials.
+     * @return materialised or loaded results.
+     */
+    private DsSummaryUi load(Query qry, ICredentialsProv creds) {
+        try {
+            return results.get(qry, () -> tbProc.getTrackedBranchTestFailures(qry.branch,
+                qry.checkAllLogs,
+                qry.buildResMergeCnt,
+                creds,
+                qry.syncMode,
+                qry.calcTrustedTests,
+                qry.tagSelected,
+                qry.tagForHistSelected,
+                qry.displayMode,
+                qry.sortOption,
+                qry.maxDurationSec,
+                qry.showMuted,
+                qry.showIgnored));
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtil.propagateException(e);
+        }
+        catch (UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+
+            throw e;
+        }
+    }
+
+    /**
+     * Key of tracked branch results: request parameters, servers visible to user and update counters hash.
+     */
+    public static final class Query {
+        /** Branch. */
+        private String branch;
+
+        /** Check all logs. */
+        private boolean checkAllLogs;
+
+        /** Build results merge count. */
+        private int buildResMergeCnt;
+
+        /** Sync mode. */
+        private SyncMode syncMode;
+
+        /** Calculate trusted tests. */
+        private boolean calcTrustedTests;
+
+        /** Tag selected. */
+        @Nullable private String tagSelected;
+
+        /** Tag for history selected. */
+        @Nullable private String tagForHistSelected;
+
+        /** Display mode. */
+        @Nullable private DisplayMode displayMode;
+
+        /** Sort option. */
+        @Nullable private SortOption sortOption;
+
+        /** Max duration sec. */
+        private int maxDurationSec;
+
+        /** Show muted. */
+        private boolean showMuted;
+
+        /** Show ignored. */
+        private boolean showIgnored;
+
+        /** Servers visible to user. */
+        private Set<String> servers;
+
+        /** Update counters hash. */
+        private String countersHash;
+
+        /**
+         * @return entity tag of results, changed if any of parameters, visible servers or counters are changed.
+         */
+        public String etag() {
+            return Hashing.murmur3_128().hashString(toString(), StandardCharsets.UTF_8).toString();
+        }
+
+        /**
+         * @return <code>true</code> if client's copy of results can be confirmed by {@link #etag()} without loading
+         * results. Query syncing queued builds should always reach results loading, which requests the sync.
+         */
+        public boolean revalidationAllowed() {
+            return syncMode == SyncMode.NONE;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Query qry = (Query)o;
+            return checkAllLogs == qry.checkAllLogs &&
+                buildResMergeCnt == qry.buildResMergeCnt &&
+                calcTrustedTests == qry.calcTrustedTests &&
+                maxDurationSec == qry.maxDurationSec &&
+                showMuted == qry.showMuted &&
+                showIgnored == qry.showIgnored &&
+                Objects.equals(branch, qry.branch) &&
+                syncMode == qry.syncMode &&
+                Objects.equals(tagSelected, qry.tagSelected) &&
+                Objects.equals(tagForHistSelected, qry.tagForHistSelected) &&
+                displayMode == qry.displayMode &&
+                sortOption == qry.sortOption &&
+                Objects.equals(servers, qry.servers) &&
+                Objects.equals(countersHash, qry.countersHash);
+        }
+
+        /** {@inheritDoc} */
+        @Override public int hashCode() {
+            return Objects.hash(branch, checkAllLogs, buildResMergeCnt, syncMode, calcTrustedTests, tagSelected,
+                tagForHistSelected, displayMode, sortOption, maxDurationSec, showMuted, showIgnored, servers,
+                countersHash);
+        }
+
+        /** {@inheritDoc} */
+        @Override public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("branch", branch)
+                .add("checkAllLogs", checkAllLogs)
+                .add("buildResMergeCnt", buildResMergeCnt)
+                .add("syncMode", syncMode)
+                .add("calcTrustedTests", calcTrustedTests)
+                .add("tagSelected", tagSelected)
+                .add("tagForHistSelected", tagForHistSelected)
+                .add("displayMode", displayMode)
+                .add("sortOption", sortOption)
+                .add("maxDurationSec", maxDurationSec)
+                .add("showMuted", showMuted)
+                .add("showIgnored", showIgnored)
+                .add("servers", servers)
+                .add("countersHash", countersHash)
+                .toString();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcbot.engine.ui;
+
+/**
+ * Time spent to evaluate one tracked chain. UI model, so it contains public fields.
+ */
+@SuppressWarnings({"WeakerAccess", "PublicField"})
+public class ChainTimingUi {
+    /** Server code. */
+    public String serverCode;
+
+    /** Suite ID. */
+    public String suiteId;
+
+    /** Branch name in teamcity identification. */
+    public String branchName;
+
+    /** Time the chain waited in evaluation queue, counted against request deadline too. */
+    public long queueWaitMs;
+
+    /** Evaluation time, or time waited before deadline if chain is timed out. */
+    public long durationMs;
+
+    /**
+     * Chain was not evaluated before request deadline, or was rejected because evaluation queue is full. Its results
+     * are not included.
+     */
+    public boolean timedOut;
+
+    /**
+     * @param serverCode Server code.
+     * @param suiteId Suite ID.
+     * @param branchName Branch name.
+     */
+    public ChainTimingUi(String serverCode, String suiteId, String branchName) {
+        this.serverCode = serverCode;
+        this.suiteId = suiteId;
+        this.branchName = branchName;
+    }
+}
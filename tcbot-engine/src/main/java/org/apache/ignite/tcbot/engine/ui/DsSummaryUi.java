@@ -39,6 +39,9 @@ public class DsSummaryUi extends UpdateInfo {
     /** Count of suites with critical build problems found */
     public Integer failedToFinish;
 
+    /** Time spent to evaluate tracked chains. */
+    public List<ChainTimingUi> chainTimings = new ArrayList<>();
+
     /** Tracked branch ID. */
     @Nullable
     private String trackedBranch;
@@ -95,6 +98,13 @@ public class DsSummaryUi extends UpdateInfo {
         return builder.toString();
     }
 
+    /**
+     * @return {@code true} if some chains were not evaluated before request deadline, so results are partial.
+     */
+    public boolean hasTimedOutChains() {
+        return chainTimings.stream().anyMatch(t -> t.timedOut);
+    }
+
     public void setTrackedBranch(String trackedBranch) {
         this.trackedBranch = trackedBranch;
     }
@@ -29,6 +29,9 @@ public class GuardBranchStatusUi {
     private List<Integer> runningList = new ArrayList<>();
     private List<Integer> queuedList = new ArrayList<>();
 
+    /** Time spent to evaluate tracked chains. */
+    private List<ChainTimingUi> chainTimings = new ArrayList<>();
+
     public String getName() {
         return name;
     }
@@ -55,4 +58,8 @@ public class GuardBranchStatusUi {
     public List<Integer> getQueuedList() {
         return queuedList;
     }
+
+    public List<ChainTimingUi> getChainTimings() {
+        return chainTimings;
+    }
 }
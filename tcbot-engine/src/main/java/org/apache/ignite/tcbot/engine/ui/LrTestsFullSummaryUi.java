@@ -26,6 +26,9 @@ import java.util.List;
 public class LrTestsFullSummaryUi {
     public List<LrTestsSuiteSummaryUi> suiteSummaries = new ArrayList<>();
 
+    /** Time spent to evaluate tracked chains. */
+    public List<ChainTimingUi> chainTimings = new ArrayList<>();
+
     public void addSuiteSummaries(List<LrTestsSuiteSummaryUi> summaries) {
         suiteSummaries.addAll(summaries);
     }
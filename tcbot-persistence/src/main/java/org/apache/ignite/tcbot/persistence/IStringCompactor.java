@@ -16,6 +16,10 @@
  */
 package org.apache.ignite.tcbot.persistence;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  *
  */
@@ -36,4 +40,36 @@ public interface IStringCompactor {
      * @param val Value to check in the compactor.
      */
     public Integer getStringIdIfPresent(String val);
+
+    /**
+     * Batch version of {@link #getStringId(String)}, strings not yet known are registered at once.
+     *
+     * @param vals Values to be identified as integers.
+     * @return mapping from each non-null value to its ID.
+     */
+    public default Map<String, Integer> getStringIds(Collection<String> vals) {
+        Map<String, Integer> res = new HashMap<>();
+
+        for (String val : vals) {
+            if (val != null)
+                res.computeIfAbsent(val, this::getStringId);
+        }
+
+        return res;
+    }
+
+    /**
+     * Batch version of {@link #getStringFromId(int)}.
+     *
+     * @param ids Ids of strings from {@link #getStringId(String)}.
+     * @return strings in the same order as IDs, <code>null</code> for negative or unknown IDs.
+     */
+    public default String[] getStringsFromIds(int[] ids) {
+        String[] res = new String[ids.length];
+
+        for (int i = 0; i < ids.length; i++)
+            res[i] = getStringFromId(ids[i]);
+
+        return res;
+    }
 }
@@ -16,23 +16,34 @@
  */
 package org.apache.ignite.tcbot.persistence;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.cache.Cache;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteAtomicSequence;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheEntryProcessor;
 import org.apache.ignite.cache.QueryEntity;
+import org.apache.ignite.cache.query.ContinuousQuery;
 import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.cache.query.SqlQuery;
-import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
+import org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
-import org.apache.ignite.tcbot.common.interceptor.GuavaCached;
-import org.apache.ignite.tcbot.common.util.ObjectInterner;
+import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,11 +65,18 @@ public class IgniteStringCompactor implements IStringCompactor {
     @Inject private Provider<Ignite> igniteProvider;
 
     /** Builds cache. */
-    private IgniteCache<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> stringsCache;
+    private IgniteCache<String, CompactorEntity> stringsCache;
 
     /** Sequence. */
     private IgniteAtomicSequence seq;
 
+    /** Process local copy of strings cache, all lookups are served from here if possible. */
+    private final StringsDictionary dict = new StringsDictionary();
+
+    /** Cursor of continuous query delivering new strings to {@link #dict}, kept open to keep query running. */
+    @SuppressWarnings("FieldCanBeLocal")
+    private QueryCursor<Cache.Entry<String, CompactorEntity>> updatesCursor;
+
     private void initIfNeeded() {
         if (initGuard.compareAndSet(false, true)) {
             init();
@@ -80,48 +98,153 @@ public class IgniteStringCompactor implements IStringCompactor {
      */
     public void init() {
         Ignite ignite = igniteProvider.get();
-        CacheConfiguration<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> cfg = CacheConfigs.getCache8PartsConfig(STRINGS_CACHE);
+        CacheConfiguration<String, CompactorEntity> cfg = CacheConfigs.getCache8PartsConfig(STRINGS_CACHE);
 
-        cfg.setQueryEntities(Collections.singletonList(new QueryEntity(String.class, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity.class)));
+        cfg.setQueryEntities(Collections.singletonList(new QueryEntity(String.class, CompactorEntity.class)));
 
         stringsCache = ignite.getOrCreateCache(cfg);
 
         seq = ignite.atomicSequence(STRINGS_SEQ, 0, true);
+
+        preloadDictionary();
+    }
+
+    /**
+     * Fills dictionary with all strings saved by single scan and subscribes it to new strings. Subscription is done
+     * before the scan (the scan is the initial query), so no string is lost in between.
+     */
+    private void preloadDictionary() {
+        long start = System.currentTimeMillis();
+
+        ContinuousQuery<String, CompactorEntity> qry = new ContinuousQuery<>();
+
+        qry.setInitialQuery(new ScanQuery<>());
+        qry.setLocalListener(evts -> evts.forEach(evt -> {
+            CompactorEntity entity = evt.getValue();
+
+            if (entity != null)
+                dict.put(entity.id(), entity.val());
+        }));
+
+        updatesCursor = stringsCache.query(qry);
+
+        for (Cache.Entry<String, CompactorEntity> entry : updatesCursor)
+            dict.put(entry.getValue().id(), entry.getValue().val());
+
+        logger.info("Strings dictionary was loaded: " + dict.size() + " entries, "
+            + (System.currentTimeMillis() - start) + "ms");
     }
 
     /** {@inheritDoc} */
-    @AutoProfiling
-    @GuavaCached(cacheNegativeNumbersRval = false)
     @Override public int getStringId(String val) {
         if (val == null)
             return STRING_NULL;
 
+        Integer id = dict.getId(val);
+        if (id != null)
+            return id;
+
         initIfNeeded();
 
-        org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity entity = stringsCache.get(val);
-        if (entity != null)
-            return entity.id();
+        id = dict.getId(val);
+        if (id != null)
+            return id;
+
+        return registerStrings(Collections.singleton(val)).get(val);
+    }
+
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public Map<String, Integer> getStringIds(Collection<String> vals) {
+        Map<String, Integer> res = new HashMap<>();
+        Set<String> unknown = new HashSet<>();
+
+        for (String val : vals) {
+            if (val == null)
+                continue;
 
-        int codeCandidate = (int)seq.incrementAndGet();
+            Integer id = dict.getId(val);
 
-        boolean valWasSet = stringsCache.putIfAbsent(val, new org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity(codeCandidate, val));
+            if (id != null)
+                res.put(val, id);
+            else
+                unknown.add(val);
+        }
+
+        if (!unknown.isEmpty())
+            res.putAll(registerStrings(unknown));
 
-        return valWasSet ? codeCandidate : stringsCache.get(val).id();
+        return res;
+    }
+
+    /**
+     * Finds strings in the cache and saves ones missing there. All missing strings get IDs from one reserved range of
+     * the sequence and are saved by one <code>invokeAll</code> with put-if-absent semantics, so if another node saved
+     * the same string concurrently, its ID wins and is returned.
+     *
+     * @param vals Strings not found in dictionary.
+     * @return mapping from each string to its ID.
+     */
+    private Map<String, Integer> registerStrings(Set<String> vals) {
+        initIfNeeded();
+
+        Map<String, Integer> res = new HashMap<>();
+
+        Map<String, CompactorEntity> existing = stringsCache.getAll(vals);
+
+        existing.forEach((val, entity) -> {
+            dict.put(entity.id(), val);
+            res.put(val, entity.id());
+        });
+
+        int newCnt = vals.size() - existing.size();
+
+        if (newCnt == 0)
+            return res;
+
+        int id = (int)seq.getAndAdd(newCnt) + 1;
+
+        Map<String, Integer> candidateIds = new TreeMap<>();
+
+        for (String val : vals) {
+            if (!existing.containsKey(val))
+                candidateIds.put(val, id++);
+        }
+
+        Map<String, EntryProcessorResult<Integer>> saved =
+            stringsCache.invokeAll(candidateIds.keySet(), new PutIfAbsentProc(), candidateIds);
+
+        saved.forEach((val, procRes) -> {
+            Integer savedId = procRes.get();
+
+            dict.put(savedId, val);
+            res.put(val, savedId);
+        });
+
+        return res;
     }
 
     /** {@inheritDoc} */
-    @AutoProfiling
-    @GuavaCached(cacheNullRval = false)
     @Override public String getStringFromId(int id) {
         if (id < 0)
             return null;
 
+        String str = dict.getString(id);
+        if (str != null)
+            return str;
+
         initIfNeeded();
 
-        QueryCursor<Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>> qryCursor
-            = stringsCache.query(new SqlQuery<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>(org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity.class, "id = ?").setArgs(id));
+        str = dict.getString(id);
+        if (str != null)
+            return str;
+
+        // Probably string was just saved by another node, continuous query event is not yet delivered.
 
-        Iterator<Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>> iter = qryCursor.iterator();
+        QueryCursor<Cache.Entry<String, CompactorEntity>> qryCursor
+            = stringsCache.query(new SqlQuery<String, CompactorEntity>(CompactorEntity.class, "id = ?").setArgs(id));
+
+        Iterator<Cache.Entry<String, CompactorEntity>> iter = qryCursor.iterator();
 
         if (!iter.hasNext()) {
             System.err.println("Error: String Not found string by id " + id);
@@ -129,26 +252,61 @@ public class IgniteStringCompactor implements IStringCompactor {
             return null;
         }
 
-        Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> next = iter.next();
+        Cache.Entry<String, CompactorEntity> next = iter.next();
 
         qryCursor.close();
 
-        return ObjectInterner.internString(next.getValue().val());
+        dict.put(id, next.getValue().val());
+
+        return dict.getString(id);
     }
 
     /** {@inheritDoc} */
-    @GuavaCached(cacheNullRval = false, cacheNegativeNumbersRval = false)
     @Override public Integer getStringIdIfPresent(String val) {
         if (val == null)
             return -1;
 
+        Integer id = dict.getId(val);
+        if (id != null)
+            return id;
+
         initIfNeeded();
 
-        org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity entity = stringsCache.get(val);
+        id = dict.getId(val);
+        if (id != null)
+            return id;
+
+        CompactorEntity entity = stringsCache.get(val);
+
+        if (entity != null) {
+            dict.put(entity.id(), entity.val());
 
-        if (entity != null)
             return entity.id();
+        }
 
         return null;
     }
+
+    /**
+     * Saves string with ID from the map passed as an argument, if the string is not saved yet. Result is ID of the
+     * string stored in the cache.
+     */
+    private static class PutIfAbsentProc implements CacheEntryProcessor<String, CompactorEntity, Integer> {
+        /** {@inheritDoc} */
+        @SuppressWarnings("unchecked")
+        @Override public Integer process(MutableEntry<String, CompactorEntity> entry,
+            Object... arguments) throws EntryProcessorException {
+            CompactorEntity existing = entry.getValue();
+
+            if (existing != null)
+                return existing.id();
+
+            Map<String, Integer> candidateIds = (Map<String, Integer>)arguments[0];
+            int id = candidateIds.get(entry.getKey());
+
+            entry.setValue(new CompactorEntity(id, entry.getKey()));
+
+            return id;
+        }
+    }
 }
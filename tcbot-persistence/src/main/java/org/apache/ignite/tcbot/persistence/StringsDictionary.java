@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.apache.ignite.tcbot.common.util.ObjectInterner;
+
+/**
+ * Process local two-way dictionary of compacted strings. Lookups are wait-free: a volatile read of the array and an
+ * element by ID, or a concurrent map read by string. Additions are rare (all strings are preloaded at startup) and are
+ * synchronized.
+ */
+class StringsDictionary {
+    /** Initial capacity of ID to string array. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** ID to string, ID is used as an index. Array is replaced by bigger copy when needed. */
+    private volatile AtomicReferenceArray<String> idToStr = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /** String to ID. */
+    private final ConcurrentHashMap<String, Integer> strToId = new ConcurrentHashMap<>();
+
+    /**
+     * @param id String ID.
+     * @return string or <code>null</code> if this ID is not known locally.
+     */
+    @Nullable String getString(int id) {
+        AtomicReferenceArray<String> arr = idToStr;
+
+        return id >= 0 && id < arr.length() ? arr.get(id) : null;
+    }
+
+    /**
+     * @param val String.
+     * @return ID or <code>null</code> if string is not known locally.
+     */
+    @Nullable Integer getId(String val) {
+        return strToId.get(val);
+    }
+
+    /**
+     * @param id String ID.
+     * @param val String.
+     */
+    synchronized void put(int id, String val) {
+        if (id < 0)
+            return;
+
+        String interned = ObjectInterner.internString(val);
+
+        AtomicReferenceArray<String> arr = ensureCapacity(id + 1);
+
+        arr.set(id, interned);
+
+        strToId.putIfAbsent(interned, id);
+    }
+
+    /**
+     * @param cap Required capacity.
+     * @return array with at least required capacity.
+     */
+    @GuardedBy("this")
+    private AtomicReferenceArray<String> ensureCapacity(int cap) {
+        AtomicReferenceArray<String> arr = idToStr;
+
+        if (cap <= arr.length())
+            return arr;
+
+        int newLen = arr.length();
+        while (newLen < cap)
+            newLen = newLen > (Integer.MAX_VALUE >> 1) ? Integer.MAX_VALUE : newLen << 1;
+
+        AtomicReferenceArray<String> newArr = new AtomicReferenceArray<>(newLen);
+
+        for (int i = 0; i < arr.length(); i++)
+            newArr.set(i, arr.get(i));
+
+        idToStr = newArr;
+
+        return newArr;
+    }
+
+    /**
+     * @return count of strings in dictionary.
+     */
+    int size() {
+        return strToId.size();
+    }
+}
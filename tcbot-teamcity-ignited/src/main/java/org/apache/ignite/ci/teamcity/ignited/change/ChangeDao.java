@@ -86,6 +86,19 @@ public class ChangeDao {
         return false;
     }
 
+    /**
+     * @param srvId Server id.
+     * @param changes Changes by change ID.
+     */
+    @AutoProfiling
+    public void saveAll(int srvId, Map<Integer, ChangeCompacted> changes) {
+        Map<Long, ChangeCompacted> entries = new HashMap<>();
+
+        changes.forEach((changeId, change) -> entries.put(changeIdToCacheKey(srvId, changeId), change));
+
+        changesCache.putAll(entries);
+    }
+
     public ChangeCompacted load(int srvId, int changeId) {
         return changesCache.get(changeIdToCacheKey(srvId, changeId));
     }
@@ -17,28 +17,45 @@
 package org.apache.ignite.ci.teamcity.ignited.change;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
-import org.apache.ignite.tcservice.model.changes.Change;
+import org.apache.ignite.tcbot.common.util.FutureUtil;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcservice.ITeamcityConn;
-import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
+import org.apache.ignite.tcservice.model.changes.Change;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXParseException;
 
-import javax.annotation.Nonnull;
-import javax.inject.Inject;
-import java.io.FileNotFoundException;
-
 public class ChangeSync {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(ChangeSync.class);
 
+    /** Max changes requested from TC by one request, limited by URL length. */
+    public static final int CHANGES_PER_REQUEST = 100;
+
     /** Changes DAO. */
     @Inject private ChangeDao changeDao;
 
     @Inject private IStringCompactor compactor;
 
+    /** Changes being loaded now: cache key -> future, concurrent requests of the same change wait for one load. */
+    private final ConcurrentMap<Long, CompletableFuture<ChangeCompacted>> loading = new ConcurrentHashMap<>();
+
     public ChangeCompacted change(int srvId, int changeId, ITeamcityConn conn) {
         final ChangeCompacted load = changeDao.load(srvId, changeId);
 
@@ -48,9 +65,128 @@ public class ChangeSync {
         return reloadChange(srvId, changeId, conn);
     }
 
+    /**
+     * Provides changes from DB, missing and outdated changes are loaded from TC in bulk.
+     *
+     * @param srvId Server id.
+     * @param changeIds Change ids.
+     * @param conn Connection.
+     * @return changes by change ID.
+     */
+    @AutoProfiling
+    public Map<Integer, ChangeCompacted> changes(int srvId, int[] changeIds, ITeamcityConn conn) {
+        Map<Integer, ChangeCompacted> changes = changeDao.getAll(srvId, changeIds);
+
+        Set<Integer> toReload = new LinkedHashSet<>();
+
+        for (int changeId : changeIds) {
+            ChangeCompacted change = changes.get(changeId);
+
+            if (change == null || change.isOutdatedEntityVersion())
+                toReload.add(changeId);
+        }
+
+        if (!toReload.isEmpty())
+            changes.putAll(reloadChanges(srvId, toReload, conn));
+
+        return changes;
+    }
+
+    /**
+     * Loads changes from TC by bulk requests and saves them by one put. Changes being loaded by concurrent call are
+     * not requested again, result of that call is used.
+     *
+     * @param srvId Server id.
+     * @param changeIds Change ids.
+     * @param conn Connection.
+     */
+    private Map<Integer, ChangeCompacted> reloadChanges(int srvId, Collection<Integer> changeIds, ITeamcityConn conn) {
+        Map<Integer, CompletableFuture<ChangeCompacted>> futs = new HashMap<>();
+        Map<Integer, CompletableFuture<ChangeCompacted>> claimed = new HashMap<>();
+
+        for (Integer changeId : changeIds) {
+            CompletableFuture<ChangeCompacted> fut = new CompletableFuture<>();
+            long cacheKey = changeDao.changeIdToCacheKey(srvId, changeId);
+            CompletableFuture<ChangeCompacted> prev = loading.putIfAbsent(cacheKey, fut);
+
+            if (prev == null)
+                claimed.put(changeId, fut);
+
+            futs.put(changeId, prev == null ? fut : prev);
+        }
+
+        try {
+            Map<Integer, ChangeCompacted> loaded = new HashMap<>();
+
+            for (List<Integer> chunk : Lists.partition(new ArrayList<>(claimed.keySet()), CHANGES_PER_REQUEST))
+                loaded.putAll(loadChanges(srvId, chunk, conn));
+
+            changeDao.saveAll(srvId, loaded);
+
+            claimed.forEach((changeId, fut) -> fut.complete(loaded.get(changeId)));
+        }
+        catch (RuntimeException e) {
+            claimed.values().forEach(fut -> fut.completeExceptionally(e));
+
+            throw e;
+        }
+        finally {
+            claimed.keySet().forEach(changeId -> loading.remove(changeDao.changeIdToCacheKey(srvId, changeId)));
+        }
+
+        Map<Integer, ChangeCompacted> res = new HashMap<>();
+
+        futs.forEach((changeId, fut) -> res.put(changeId, FutureUtil.getResult(fut)));
+
+        return res;
+    }
+
+    /**
+     * @param srvId Server id.
+     * @param changeIds Change ids, one request.
+     * @param conn Connection.
+     * @return compacted changes, changes not returned by bulk request are loaded one by one.
+     */
+    private Map<Integer, ChangeCompacted> loadChanges(int srvId, List<Integer> changeIds, ITeamcityConn conn) {
+        Map<Integer, ChangeCompacted> res = new HashMap<>();
+
+        try {
+            for (Change change : conn.getChanges(changeIds)) {
+                ChangeCompacted compacted = new ChangeCompacted(compactor, change);
+
+                if (compacted.id() > 0 && changeIds.contains(compacted.id()))
+                    res.put(compacted.id(), compacted);
+            }
+        }
+        catch (Exception e) {
+            logger.info("Bulk loading of " + changeIds.size() + " changes for server [" + conn.serverCode() + "] " +
+                "failed, changes will be loaded one by one: " + e.getMessage());
+        }
+
+        for (Integer changeId : changeIds) {
+            if (!res.containsKey(changeId))
+                res.put(changeId, loadChange(changeId, conn));
+        }
+
+        return res;
+    }
+
     @Nonnull
     @AutoProfiling
     public ChangeCompacted reloadChange(int srvId, int changeId, ITeamcityConn conn) {
+        final ChangeCompacted changeCompacted = loadChange(changeId, conn);
+
+        changeDao.save(srvId, changeId, changeCompacted);
+
+        return changeCompacted;
+    }
+
+    /**
+     * @param changeId Change id.
+     * @param conn Connection.
+     * @return compacted change, or fake change if it can't be loaded.
+     */
+    private ChangeCompacted loadChange(int changeId, ITeamcityConn conn) {
         Change change;
         try {
             change = conn.getChange(changeId);
@@ -69,10 +205,6 @@ public class ChangeSync {
                 throw ExceptionUtil.propagateException(e);
         }
 
-        final ChangeCompacted changeCompacted = new ChangeCompacted(compactor, change);
-
-        changeDao.save(srvId, changeId, changeCompacted);
-
-        return changeCompacted;
+        return new ChangeCompacted(compactor, change);
     }
 }
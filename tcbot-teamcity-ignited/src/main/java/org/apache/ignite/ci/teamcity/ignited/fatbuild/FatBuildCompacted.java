@@ -22,6 +22,7 @@ import com.google.common.base.Strings;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -381,6 +382,21 @@ public class FatBuildCompacted extends BuildRefCompacted implements IVersionedEn
         return this;
     }
 
+    /**
+     * @param compacted Tests already compacted.
+     */
+    public FatBuildCompacted addTests(Collection<TestCompactedV2> compacted) {
+        if (compacted.isEmpty())
+            return this;
+
+        if (testsV2 == null)
+            testsV2 = new ArrayList<>(compacted.size());
+
+        testsV2.addAll(compacted);
+
+        return this;
+    }
+
     /**
      * @param off Offset.
      * @param val Value.
@@ -17,7 +17,8 @@
 package org.apache.ignite.tcignited;
 
 import com.google.common.base.Strings;
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -120,6 +121,14 @@ public interface ITeamcityIgnited {
      */
     public void fastBuildsSync(Set<Integer> collect);
 
+    /**
+     * Accepts builds reported as changed by the server, e.g. by build finish webhook. Builds are synchronized
+     * asynchronously, events received at the same time are handled by one sync.
+     *
+     * @param buildIds Build IDs.
+     */
+    public void onBuildEvents(Collection<Integer> buildIds);
+
     /**
      * @param srvId Server id.
      * @return integer representation of server ID.
@@ -164,6 +173,16 @@ public interface ITeamcityIgnited {
      */
     public FatBuildCompacted getFatBuild(int id, SyncMode mode);
 
+    /**
+     * Bulk version of {@link #getFatBuild(int, SyncMode)}: builds are read from DB by one request, server is requested
+     * only for builds missing in DB or requiring reload.
+     *
+     * @param ids Build IDs.
+     * @param mode Refresh mode.
+     * @return builds by ID in order of IDs provided.
+     */
+    public Map<Integer, FatBuildCompacted> getFatBuilds(Collection<Integer> ids, SyncMode mode);
+
     public Collection<ChangeCompacted> getAllChanges(int[] changeIds);
 
     /**
@@ -259,7 +278,11 @@ public interface ITeamcityIgnited {
         return null;
     }
 
-    @Nullable File downloadAndCacheBuildLog(int buildId);
+    /**
+     * @param buildId Build ID.
+     * @return zipped build log stream, caller is responsible for closing it.
+     */
+    InputStream downloadBuildLog(int buildId) throws IOException;
 
     /**
      * Enforce reloading of recent build references for this server. At least queued/running builds from TC Bot DB
@@ -16,14 +16,17 @@
  */
 package org.apache.ignite.tcignited;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -55,12 +58,16 @@ import org.apache.ignite.tcbot.common.interceptor.GuavaCached;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcignited.build.BuildLoadPriority;
+import org.apache.ignite.tcignited.build.FatBuildBatchMetrics;
 import org.apache.ignite.tcignited.build.FatBuildDao;
 import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
 import org.apache.ignite.tcignited.buildlog.BuildLogCheckResultDao;
 import org.apache.ignite.tcignited.buildref.BranchEquivalence;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.buildref.BuildEventsTracker;
 import org.apache.ignite.tcignited.buildref.BuildRefSync;
+import org.apache.ignite.tcignited.buildref.ReindexCursorDao;
 import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcignited.history.HistoryCollector;
 import org.apache.ignite.tcignited.history.IRunHistory;
@@ -92,6 +99,9 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** Max build id diff to enforce reload during incremental refresh. */
     public static final int MAX_ID_DIFF_TO_ENFORCE_CONTINUE_SCAN = 3000;
 
+    /** Delay of sync of reported builds, events received during the delay are handled by the same sync. */
+    public static final long BUILD_EVENTS_DELAY_MS = 1000;
+
     /** Server (service) code. */
     private String srvCode;
 
@@ -110,12 +120,18 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** Build condition DAO. */
     @Inject private BuildConditionDao buildConditionDao;
 
+    /** Full reindex progress DAO. */
+    @Inject private ReindexCursorDao reindexCursorDao;
+
     /** Build DAO. */
     @Inject private FatBuildDao fatBuildDao;
 
     /** Build Sync. */
     @Inject private ProactiveFatBuildSync fatBuildSync;
 
+    /** Bulk fat builds requests metrics. */
+    @Inject private FatBuildBatchMetrics batchMetrics;
+
     /** Mute DAO. */
     @Inject private MuteDao muteDao;
 
@@ -154,6 +170,9 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
 
     @Inject private BranchEquivalence branchEquivalence;
 
+    /** Builds reported by build events. */
+    @Inject private BuildEventsTracker buildEvents;
+
     /** Server ID mask for cache Entries. */
     private int srvIdMaskHigh;
 
@@ -172,6 +191,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         muteDao.init();
         logCheckResDao.init();
         histDao.init();
+        reindexCursorDao.init();
     }
 
     /**
@@ -223,6 +243,13 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         if (buildRefs.isEmpty())
             return Collections.emptyList();
 
+        if (sinceDate != null || untilDate != null) {
+            List<BuildRefCompacted> indexed = filterByIndexedStartTime(buildRefs, sinceDate, untilDate);
+
+            if (indexed != null)
+                return indexed;
+        }
+
         int idSince = 0;
         int idUntil = buildRefs.size() - 1;
 
@@ -354,6 +381,38 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         return minDiffId;
     }
 
+    /**
+     * Filters builds using in-memory index of start times.
+     *
+     * @param buildRefs Build refs.
+     * @param sinceDate Since date, inclusive.
+     * @param untilDate Until date, inclusive.
+     * @return builds started between dates or <code>null</code> if start time of some build is not known yet.
+     */
+    @Nullable private List<BuildRefCompacted> filterByIndexedStartTime(List<BuildRefCompacted> buildRefs,
+        @Nullable Date sinceDate,
+        @Nullable Date untilDate) {
+        long fromTs = sinceDate != null ? sinceDate.getTime() : Long.MIN_VALUE;
+        long toTs = untilDate != null ? untilDate.getTime() : Long.MAX_VALUE;
+
+        Set<Integer> ids = buildRefs.stream().map(BuildRefCompacted::id).collect(Collectors.toSet());
+        Map<Integer, Long> startTimes = buildStartTimeStorage.getBuildsStartTime(srvIdMaskHigh, ids);
+
+        List<BuildRefCompacted> res = new ArrayList<>();
+
+        for (BuildRefCompacted ref : buildRefs) {
+            Long startTime = startTimes.get(ref.id());
+
+            if (startTime == null)
+                return null;
+
+            if (startTime >= fromTs && startTime <= toTs)
+                res.add(ref);
+        }
+
+        return res;
+    }
+
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public List<BuildRefCompacted> getAllBuildsCompacted(
@@ -471,10 +530,9 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         return conn.agents(connected, authorized);
     }
 
-    @Nullable
-    @Override
-    public File downloadAndCacheBuildLog(int buildId) {
-        return conn.downloadAndCacheBuildLog(buildId);
+    /** {@inheritDoc} */
+    @Override public InputStream downloadBuildLog(int buildId) throws IOException {
+        return conn.downloadBuildLog(buildId);
     }
 
     /** {@inheritDoc} */
@@ -502,7 +560,13 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
      * Enables scheduling for build refs/builds/history sync
      */
     public void ensureActualizeRequested() {
-        scheduler.sheduleNamed(taskName("actualizeRecentBuildRefs"), () -> actualizeRecentBuildRefs(srvCode), 2, TimeUnit.MINUTES);
+        if (buildEvents.eventsActive(srvCode)) {
+            // builds are reported by server, polling is only a safety net for lost events
+            scheduler.sheduleNamed(taskName("actualizeRecentBuildRefsSafetyNet"), () -> actualizeRecentBuildRefs(srvCode),
+                BuildEventsTracker.pollingMinutes(), TimeUnit.MINUTES);
+        }
+        else
+            scheduler.sheduleNamed(taskName("actualizeRecentBuildRefs"), () -> actualizeRecentBuildRefs(srvCode), 2, TimeUnit.MINUTES);
 
         // schedule find missing later
         fatBuildSync.ensureActualizationRequested(srvCode, conn);
@@ -531,6 +595,46 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         buildRefSync.runActualizeBuildRefs(srvCode, BuildRefSync.SyncMode.ULTRAFAST, collect, conn);
     }
 
+    /** {@inheritDoc} */
+    @Override public void onBuildEvents(Collection<Integer> buildIds) {
+        if (buildIds.isEmpty())
+            return;
+
+        if (buildEvents.add(srvCode, buildIds))
+            scheduler.invokeLater(() -> syncReportedBuilds(srvCode), BUILD_EVENTS_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Synchronizes builds reported by build events: references are found by ULTRAFAST sync and fat builds are loaded
+     * with interactive priority.
+     *
+     * @param srvNme Server code.
+     */
+    @SuppressWarnings("WeakerAccess")
+    @MonitoredTask(name = "Sync Reported Builds(srv)", nameExtArgsIndexes = {0})
+    protected String syncReportedBuilds(String srvNme) {
+        Set<Integer> buildIds = buildEvents.takePending(srvCode);
+
+        if (buildIds.isEmpty())
+            return "Nothing to sync";
+
+        int reported = buildIds.size();
+        Set<Integer> notFound = new HashSet<>(buildIds);
+
+        try {
+            buildRefSync.runActualizeBuildRefs(srvCode, BuildRefSync.SyncMode.ULTRAFAST, notFound, conn);
+
+            fatBuildSync.scheduleBuildsLoad(conn, buildIds, BuildLoadPriority.INTERACTIVE);
+        }
+        catch (Exception e) {
+            logger.error("Sync of reported builds failed for " + srvCode + ", builds are left to polling", e);
+
+            throw e;
+        }
+
+        return "Builds reported " + reported + ", not found in recent builds " + notFound.size();
+    }
+
     /** {@inheritDoc} */
     @Override public boolean buildIsValid(int buildId) {
         BuildCondition cond = buildConditionDao.getBuildCondition(srvIdMaskHigh, buildId);
@@ -612,6 +716,43 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         return savedVer;
     }
 
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public Map<Integer, FatBuildCompacted> getFatBuilds(Collection<Integer> ids, SyncMode mode) {
+        long start = System.nanoTime();
+
+        ensureActualizeRequested();
+
+        Map<Integer, FatBuildCompacted> existing = new HashMap<>();
+
+        fatBuildDao.getAllFatBuilds(srvIdMaskHigh, ids)
+            .forEach((key, build) -> existing.put(BuildRefDao.cacheKeyToBuildId(key), build));
+
+        Map<Integer, FatBuildCompacted> res = new LinkedHashMap<>();
+        int reloadCnt = 0;
+
+        if (mode == SyncMode.NONE) {
+            // providing fake builds
+            for (Integer id : ids)
+                res.put(id, existing.getOrDefault(id, new FatBuildCompacted().setFakeStub(true)));
+        }
+        else {
+            fatBuildDao.runTestMigrationIfNeeded(srvIdMaskHigh, existing.values());
+
+            reloadCnt = (int)ids.stream().distinct().filter(id -> {
+                FatBuildCompacted build = existing.get(id);
+
+                return build == null || fatBuildSync.isReloadRequired(build, mode);
+            }).count();
+
+            res.putAll(fatBuildSync.loadBuilds(conn, ids, existing, mode));
+        }
+
+        batchMetrics.record(ids.size(), existing.size(), reloadCnt, System.nanoTime() - start);
+
+        return res;
+    }
+
     protected FatBuildCompacted getFatBuildFromIgnite(int buildId) {
         ensureActualizeRequested();
 
@@ -621,17 +762,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public Collection<ChangeCompacted> getAllChanges(int[] changeIds) {
-        final Map<Integer, ChangeCompacted> changes = changesDao.getAll(srvIdMaskHigh, changeIds);
-
-        for (int changeId : changeIds) {
-            if (!changes.containsKey(changeId)) {
-                final ChangeCompacted change = changeSync.reloadChange(srvIdMaskHigh, changeId, conn);
-
-                changes.put(changeId, change);
-            }
-        }
-
-        return changes.values();
+        return changeSync.changes(srvIdMaskHigh, changeIds, conn).values();
     }
 
     public void actualizeRecentBuildRefs() {
@@ -664,7 +795,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         int cntFreshBuilds = paginateUntil.size();
 
         //schedule direct reload for Fat Builds for all queued too-old builds
-        fatBuildSync.scheduleBuildsLoad(conn, directUpload);
+        fatBuildSync.scheduleBuildsLoad(conn, directUpload, BuildLoadPriority.REQUEUE);
 
         buildRefSync.runActualizeBuildRefs(srvCode, BuildRefSync.SyncMode.INCREMENTAL, paginateUntil, conn);
 
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+/**
+ * Class of fat build load request. Classes are listed in priority order: loads of the higher class are taken by
+ * workers first, and lower classes are evicted first if queue is full.
+ */
+public enum BuildLoadPriority {
+    /** Builds requested by user action, e.g. PR check or just triggered build. */
+    INTERACTIVE,
+
+    /** Recently updated builds found by incremental sync, mostly builds of tracked branches. */
+    TRACKED_BRANCH,
+
+    /** Re-check of running or queued builds. */
+    REQUEUE,
+
+    /** Old builds missing in fat builds cache, found by full reindex or missing builds search. */
+    BACKFILL
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Bounded queue of fat build loads for one server. Build is queued only once: repeated request of a higher class
+ * moves the build forward, request of the same or lower class is ignored, as well as request for a build being loaded
+ * now. Workers take builds from the head: all loads of a higher {@link BuildLoadPriority} go before loads of lower
+ * classes, loads of one class are taken in FIFO order.
+ *
+ * If queue is full, the most recent load of the lowest class is evicted in favour of a load of a higher class.
+ */
+public class BuildLoadQueue {
+    /** Priority classes. */
+    private static final BuildLoadPriority[] CLASSES = BuildLoadPriority.values();
+
+    /** Maximal count of queued builds. */
+    private final int capacity;
+
+    /** Queue per class, may contain stale entries of builds moved to a higher class. */
+    @GuardedBy("this")
+    private final List<ArrayDeque<Entry>> queues;
+
+    /** Count of actual (non-stale) entries per class. */
+    @GuardedBy("this")
+    private final int[] depth = new int[CLASSES.length];
+
+    /** Build ID to actual entry. */
+    @GuardedBy("this")
+    private final Map<Integer, Entry> queued = new HashMap<>();
+
+    /** Builds taken by workers and not yet completed. */
+    @GuardedBy("this")
+    private final Set<Integer> loading = new HashSet<>();
+
+    /** Builds queued per class. */
+    @GuardedBy("this")
+    private final long[] enqueued = new long[CLASSES.length];
+
+    /** Builds dropped per class because queue was full. */
+    @GuardedBy("this")
+    private final long[] dropped = new long[CLASSES.length];
+
+    /** Builds taken per class. */
+    @GuardedBy("this")
+    private final long[] taken = new long[CLASSES.length];
+
+    /** Total wait time of taken builds per class, milliseconds. */
+    @GuardedBy("this")
+    private final long[] waitTotalMs = new long[CLASSES.length];
+
+    /** Maximal wait time of taken builds per class, milliseconds. */
+    @GuardedBy("this")
+    private final long[] waitMaxMs = new long[CLASSES.length];
+
+    /**
+     * @param capacity Maximal count of queued builds.
+     */
+    public BuildLoadQueue(int capacity) {
+        this.capacity = capacity;
+
+        queues = new ArrayList<>(CLASSES.length);
+
+        for (int i = 0; i < CLASSES.length; i++)
+            queues.add(new ArrayDeque<>());
+    }
+
+    /**
+     * @param buildIds Build IDs.
+     * @param priority Class of load.
+     * @return count of builds added or moved forward.
+     */
+    public synchronized int offer(Collection<Integer> buildIds, BuildLoadPriority priority) {
+        int cls = priority.ordinal();
+        long now = System.currentTimeMillis();
+        int added = 0;
+
+        for (Integer buildId : buildIds) {
+            if (loading.contains(buildId))
+                continue;
+
+            Entry existing = queued.get(buildId);
+
+            if (existing != null) {
+                if (existing.cls <= cls)
+                    continue;
+
+                // Entry remains in lower class queue as stale one, wait time is counted from the first request.
+                depth[existing.cls]--;
+            }
+            else if (queued.size() >= capacity && !evictLowerThan(cls)) {
+                dropped[cls]++;
+
+                continue;
+            }
+
+            Entry entry = new Entry(buildId, cls, existing != null ? existing.enqueuedTs : now);
+
+            queued.put(buildId, entry);
+            queues.get(cls).addLast(entry);
+            depth[cls]++;
+            enqueued[cls]++;
+            added++;
+        }
+
+        return added;
+    }
+
+    /**
+     * @param cls Class of new load.
+     * @return <code>true</code> if load of lower class was evicted.
+     */
+    @GuardedBy("this")
+    private boolean evictLowerThan(int cls) {
+        for (int lowCls = CLASSES.length - 1; lowCls > cls; lowCls--) {
+            ArrayDeque<Entry> queue = queues.get(lowCls);
+
+            Entry entry;
+
+            while ((entry = queue.pollLast()) != null) {
+                if (queued.get(entry.buildId) != entry)
+                    continue;
+
+                queued.remove(entry.buildId);
+                depth[lowCls]--;
+                dropped[lowCls]++;
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Takes builds from the head of the queue and marks these builds as being loaded.
+     *
+     * @param max Maximal count of builds to take.
+     * @return build IDs, empty if queue is empty.
+     */
+    public synchronized List<Integer> poll(int max) {
+        List<Integer> res = new ArrayList<>(Math.min(max, queued.size()));
+        long now = System.currentTimeMillis();
+
+        for (int cls = 0; cls < CLASSES.length && res.size() < max; cls++) {
+            ArrayDeque<Entry> queue = queues.get(cls);
+
+            Entry entry;
+
+            while (res.size() < max && (entry = queue.pollFirst()) != null) {
+                if (queued.get(entry.buildId) != entry)
+                    continue;
+
+                queued.remove(entry.buildId);
+                depth[cls]--;
+                loading.add(entry.buildId);
+                res.add(entry.buildId);
+
+                long waitMs = now - entry.enqueuedTs;
+
+                taken[cls]++;
+                waitTotalMs[cls] += waitMs;
+                waitMaxMs[cls] = Math.max(waitMaxMs[cls], waitMs);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Marks builds as loaded (or failed), so these builds may be queued again.
+     *
+     * @param buildIds Build IDs returned by {@link #poll(int)}.
+     */
+    public synchronized void completed(Collection<Integer> buildIds) {
+        loading.removeAll(buildIds);
+    }
+
+    /**
+     * @return <code>true</code> if there are no queued builds.
+     */
+    public synchronized boolean isEmpty() {
+        return queued.isEmpty();
+    }
+
+    /**
+     * @return statistics per class in priority order.
+     */
+    public synchronized List<ClassStat> stats() {
+        List<ClassStat> res = new ArrayList<>(CLASSES.length);
+        long now = System.currentTimeMillis();
+
+        for (int cls = 0; cls < CLASSES.length; cls++) {
+            ClassStat stat = new ClassStat();
+
+            stat.priority = CLASSES[cls];
+            stat.depth = depth[cls];
+            stat.enqueued = enqueued[cls];
+            stat.dropped = dropped[cls];
+            stat.taken = taken[cls];
+            stat.avgWaitMs = taken[cls] == 0 ? 0 : waitTotalMs[cls] / taken[cls];
+            stat.maxWaitMs = waitMaxMs[cls];
+
+            for (Entry entry : queues.get(cls)) {
+                if (queued.get(entry.buildId) == entry) {
+                    stat.headWaitMs = now - entry.enqueuedTs;
+
+                    break;
+                }
+            }
+
+            res.add(stat);
+        }
+
+        return res;
+    }
+
+    /**
+     * @return count of builds being loaded now.
+     */
+    public synchronized int loadingCount() {
+        return loading.size();
+    }
+
+    /**
+     * Queued build.
+     */
+    private static class Entry {
+        /** Build ID. */
+        final int buildId;
+
+        /** Class, index of {@link BuildLoadPriority}. */
+        final int cls;
+
+        /** Timestamp of the first request to load this build. */
+        final long enqueuedTs;
+
+        /**
+         * @param buildId Build ID.
+         * @param cls Class.
+         * @param enqueuedTs Enqueued timestamp.
+         */
+        Entry(int buildId, int cls, long enqueuedTs) {
+            this.buildId = buildId;
+            this.cls = cls;
+            this.enqueuedTs = enqueuedTs;
+        }
+    }
+
+    /**
+     * Statistics of one class of loads.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static class ClassStat {
+        /** Class. */
+        public BuildLoadPriority priority;
+
+        /** Builds in queue now. */
+        public int depth;
+
+        /** Builds queued since start. */
+        public long enqueued;
+
+        /** Builds dropped since start because queue was full. */
+        public long dropped;
+
+        /** Builds taken by workers since start. */
+        public long taken;
+
+        /** Average time between request and start of load, milliseconds. */
+        public long avgWaitMs;
+
+        /** Maximal time between request and start of load, milliseconds. */
+        public long maxWaitMs;
+
+        /** Wait time of the oldest build in queue, milliseconds. */
+        public long headWaitMs;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.apache.ignite.tcbot.common.interceptor.LatencyHistogram;
+
+/**
+ * Metrics of bulk fat builds requests, see {@link org.apache.ignite.tcignited.ITeamcityIgnited#getFatBuilds}.
+ */
+public class FatBuildBatchMetrics {
+    /** Requests since start. */
+    private final AtomicLong calls = new AtomicLong();
+
+    /** Builds requested since start. */
+    private final AtomicLong builds = new AtomicLong();
+
+    /** Builds found in DB since start. */
+    private final AtomicLong fromDb = new AtomicLong();
+
+    /** Builds requested from server since start. */
+    private final AtomicLong reloaded = new AtomicLong();
+
+    /** Recent batch sizes. */
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+
+    /** Recent request durations, nanoseconds. */
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    /**
+     * @param size Builds requested.
+     * @param foundInDb Builds found in DB.
+     * @param reloadedCnt Builds requested from server.
+     * @param nanos Request duration.
+     */
+    public void record(int size, int foundInDb, int reloadedCnt, long nanos) {
+        calls.incrementAndGet();
+        builds.addAndGet(size);
+        fromDb.addAndGet(foundInDb);
+        reloaded.addAndGet(reloadedCnt);
+
+        batchSizes.record(size);
+        durations.record(nanos);
+    }
+
+    /**
+     * @return current metrics.
+     */
+    @Nonnull public Metrics metrics() {
+        Metrics res = new Metrics();
+
+        res.calls = calls.get();
+        res.builds = builds.get();
+        res.fromDb = fromDb.get();
+        res.reloaded = reloaded.get();
+
+        LatencyHistogram.Snapshot sizes = batchSizes.snapshot();
+
+        res.recentCalls = sizes.getCount();
+        res.batchP50 = sizes.getP50();
+        res.batchP99 = sizes.getP99();
+        res.batchMax = sizes.getMax();
+
+        LatencyHistogram.Snapshot times = durations.snapshot();
+
+        res.durationP50Ms = TimeUnit.NANOSECONDS.toMillis(times.getP50());
+        res.durationP99Ms = TimeUnit.NANOSECONDS.toMillis(times.getP99());
+
+        return res;
+    }
+
+    /**
+     * Bulk requests metrics.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static class Metrics {
+        /** Requests since start. */
+        public long calls;
+
+        /** Builds requested since start. */
+        public long builds;
+
+        /** Builds found in DB since start. */
+        public long fromDb;
+
+        /** Builds requested from server since start. */
+        public long reloaded;
+
+        /** Requests during last {@link LatencyHistogram#WINDOW_MINUTES} minutes. */
+        public long recentCalls;
+
+        /** Median of recent batch sizes. */
+        public long batchP50;
+
+        /** 99th percentile of recent batch sizes. */
+        public long batchP99;
+
+        /** Maximal recent batch size. */
+        public long batchMax;
+
+        /** Median of recent request durations, ms. */
+        public long durationP50Ms;
+
+        /** 99th percentile of recent request durations, ms. */
+        public long durationP99Ms;
+    }
+}
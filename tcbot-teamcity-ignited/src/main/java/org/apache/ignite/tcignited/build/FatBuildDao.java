@@ -21,6 +21,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -61,6 +62,7 @@ import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrence;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -122,16 +124,49 @@ public class FatBuildDao {
                                        @Nullable Statistics statistics,
                                        @Nullable ChangesList changesList,
                                        @Nullable FatBuildCompacted existingBuild) {
+        List<TestOccurrenceFull> occurrences = new ArrayList<>();
+
+        for (TestOccurrencesFull next : tests)
+            occurrences.addAll(next.getTests());
+
+        List<TestCompactedV2> compactedTests = compactTests(occurrences);
+
+        return saveCompactedBuild(srvIdMaskHigh, buildId, build, compactedTests, problems, statistics, changesList,
+            existingBuild);
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask to be placed at high bits of the key.
+     * @param buildId Build id.
+     * @param build Build.
+     * @param tests Tests already compacted, see {@link #compactTests(Collection)}.
+     * @param problems Problems.
+     * @param statistics Statistics.
+     * @param changesList Changes list.
+     * @param existingBuild Existing version of build in the DB.
+     * @return Fat Build saved (if modifications detected), otherwise null.
+     */
+    @Nullable public FatBuildCompacted saveCompactedBuild(int srvIdMaskHigh,
+                                       int buildId,
+                                       @Nonnull Build build,
+                                       @Nonnull List<TestCompactedV2> tests,
+                                       @Nullable List<ProblemOccurrence> problems,
+                                       @Nullable Statistics statistics,
+                                       @Nullable ChangesList changesList,
+                                       @Nullable FatBuildCompacted existingBuild) {
         Preconditions.checkNotNull(buildsCache, "init() was not called");
         Preconditions.checkNotNull(build, "build can't be null");
 
         FatBuildCompacted newBuild = new FatBuildCompacted(compactor, build);
 
-        for (TestOccurrencesFull next : tests)
-            newBuild.addTests(compactor, next.getTests(), logProductSpecific);
+        newBuild.addTests(tests);
+
+        if (problems != null) {
+            // registers new strings of problems at once, compaction below is served from compactor memory.
+            compactor.getStringIds(collectProblemStrings(problems));
 
-        if (problems != null)
             newBuild.addProblems(compactor, problems);
+        }
 
         if (statistics != null)
             newBuild.statistics(compactor, statistics);
@@ -148,11 +183,50 @@ public class FatBuildDao {
         return null;
     }
 
+    /**
+     * Compacts tests, new strings of all the tests are registered by one compactor call.
+     *
+     * @param occurrences Test occurrences, e.g. one page of tests.
+     * @return compacted tests to be saved with {@link #saveCompactedBuild}.
+     */
+    public List<TestCompactedV2> compactTests(Collection<TestOccurrenceFull> occurrences) {
+        Set<String> strings = new HashSet<>();
+
+        for (TestOccurrenceFull test : occurrences) {
+            strings.add(test.name);
+            strings.add(test.status);
+        }
+
+        compactor.getStringIds(strings);
+
+        List<TestCompactedV2> res = new ArrayList<>(occurrences.size());
+
+        for (TestOccurrenceFull occurrence : occurrences)
+            res.add(new TestCompactedV2(compactor, occurrence, logProductSpecific));
+
+        return res;
+    }
+
+    /**
+     * @param problems Problems.
+     * @return strings to be compacted for problems.
+     */
+    private static Set<String> collectProblemStrings(List<ProblemOccurrence> problems) {
+        Set<String> strings = new HashSet<>();
+
+        for (ProblemOccurrence problem : problems) {
+            strings.add(problem.type);
+            strings.add(problem.identity);
+        }
+
+        return strings;
+    }
+
     @AutoProfiling
     public void putFatBuild(int srvIdMaskHigh, int buildId, FatBuildCompacted newBuild) {
         buildsCache.put(buildIdToCacheKey(srvIdMaskHigh, buildId), newBuild);
 
-        histCollector.invalidateHistoryInMem(srvIdMaskHigh, newBuild);
+        histCollector.onBuildSaved(srvIdMaskHigh, newBuild);
 
         countersStorage.increment(newBuild.branchName());
     }
@@ -387,13 +461,24 @@ public class FatBuildDao {
         return igniteProvider.get().affinity(buildsCache.getName());
     }
 
+    /**
+     * Runs partition-local search of missing builds at the node owning the partition. Build refs of the partition
+     * are scanned once, only missing (and running or queued) build IDs are returned.
+     *
+     * @param srvId Server id mask high.
+     * @param part Partition, same for build refs and fat builds caches.
+     * @param stateQueued State queued: Compactor identifier, or -1.
+     * @param stateRunning State running: Compactor identifier, or -1.
+     */
     @AutoProfiling
-    public Collection<Integer> getMissingBuilds(int srvId, int[] buildIds) {
-        Set<Long> cacheKeys = buildsIdsToCacheKeys(srvId, buildIds);
-
-        Map<Long, EntryProcessorResult<Integer>> map = buildsCache.<Long, BinaryObject>withKeepBinary().invokeAll(cacheKeys, new IsMissingBuildProcessor());
+    public MissingBuildsPartitionJob.Result findMissingBuildsInPartition(int srvId, int part, int stateQueued,
+        int stateRunning) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
 
-        return map.values().stream().map(EntryProcessorResult::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return igniteProvider.get().compute().affinityCall(
+            Arrays.asList(TEAMCITY_FAT_BUILD_CACHE_NAME, BuildRefDao.TEAMCITY_BUILD_CACHE_NAME),
+            part,
+            new MissingBuildsPartitionJob(srvId, part, stateQueued, stateRunning));
     }
 
     public void runTestMigrationIfNeeded(int srvIdMaskHigh, FatBuildCompacted build) {
@@ -401,6 +486,33 @@ public class FatBuildDao {
             putFatBuild(srvIdMaskHigh, build.id(), build);
     }
 
+    /**
+     * Bulk version of {@link #runTestMigrationIfNeeded(int, FatBuildCompacted)}, migrated builds are saved by one
+     * request.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param builds Builds.
+     */
+    public void runTestMigrationIfNeeded(int srvIdMaskHigh, Collection<FatBuildCompacted> builds) {
+        Map<Long, FatBuildCompacted> migrated = new HashMap<>();
+
+        for (FatBuildCompacted build : builds) {
+            if (build.migrateTests(logProductSpecific))
+                migrated.put(buildIdToCacheKey(srvIdMaskHigh, build.id()), build);
+        }
+
+        if (migrated.isEmpty())
+            return;
+
+        buildsCache.putAll(migrated);
+
+        for (FatBuildCompacted build : migrated.values()) {
+            histCollector.onBuildSaved(srvIdMaskHigh, build);
+
+            countersStorage.increment(build.branchName());
+        }
+    }
+
     private static class GetStartTimeProc implements CacheEntryProcessor<Long, BinaryObject, Long> {
         /** {@inheritDoc} */
         @Override public Long process(MutableEntry<Long, BinaryObject> entry,
@@ -453,19 +565,4 @@ public class FatBuildDao {
     public void removeAll(Set<Long> keys) {
         buildsCache.removeAll(keys);
     }
-
-    /**
-     * Returns Build Id if current build is missing in the cache.
-     */
-    private static class IsMissingBuildProcessor implements CacheEntryProcessor<Long, BinaryObject, Integer> {
-        /** {@inheritDoc} */
-        @Override public Integer process(MutableEntry<Long, BinaryObject> entry,
-            Object... arguments) throws EntryProcessorException {
-            Long key = entry.getKey();
-            if (key == null)
-                return null;
-
-            return entry.getValue() == null ? BuildRefDao.cacheKeyToBuildId(key) : null;
-        }
-    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.cache.Cache;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.lang.IgniteCallable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+import org.apache.ignite.tcignited.buildref.BuildRefDao;
+
+/**
+ * Partition-local search of builds referenced by build refs, but missing in fat builds cache.
+ *
+ * Build refs and fat builds caches use the same key ({@link FatBuildDao#buildIdToCacheKey(int, int)}) and the same
+ * affinity, so the job is sent to the partition owner and both scan and existence check are local reads.
+ */
+class MissingBuildsPartitionJob implements IgniteCallable<MissingBuildsPartitionJob.Result> {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 0L;
+
+    /** Amount of keys to be checked in fat builds cache at once. */
+    private static final int CHECK_BATCH_SIZE = 1000;
+
+    /** Ignite, injected at the executing node. */
+    @IgniteInstanceResource
+    private transient Ignite ignite;
+
+    /** Server id mask high. */
+    private final int srvId;
+
+    /** Partition to scan. */
+    private final int part;
+
+    /** Compactor identifier for queued state, or -1 if there is no such string. */
+    private final int stateQueued;
+
+    /** Compactor identifier for running state, or -1 if there is no such string. */
+    private final int stateRunning;
+
+    /**
+     * @param srvId Server id mask high.
+     * @param part Partition.
+     * @param stateQueued State queued: Compactor identifier.
+     * @param stateRunning State running: Compactor identifier.
+     */
+    MissingBuildsPartitionJob(int srvId, int part, int stateQueued, int stateRunning) {
+        this.srvId = srvId;
+        this.part = part;
+        this.stateQueued = stateQueued;
+        this.stateRunning = stateRunning;
+    }
+
+    /** {@inheritDoc} */
+    @Override public Result call() {
+        IgniteCache<Long, BinaryObject> refs = ignite.cache(BuildRefDao.TEAMCITY_BUILD_CACHE_NAME).withKeepBinary();
+        IgniteCache<Long, BinaryObject> fatBuilds = ignite.cache(FatBuildDao.TEAMCITY_FAT_BUILD_CACHE_NAME).withKeepBinary();
+
+        int srvId = this.srvId;
+        ScanQuery<Long, BinaryObject> qry = new ScanQuery<Long, BinaryObject>((k, v) -> BuildRefDao.isKeyForServer(k, srvId))
+            .setPartition(part)
+            .setLocal(true);
+
+        GridIntList missing = new GridIntList(16);
+        GridIntList requeue = new GridIntList(16);
+        Result res = new Result();
+        Set<Long> keysToCheck = new HashSet<>();
+
+        try (QueryCursor<Cache.Entry<Long, BinaryObject>> cursor = refs.query(qry)) {
+            for (Cache.Entry<Long, BinaryObject> entry : cursor) {
+                res.refsScanned++;
+
+                Integer state = entry.getValue().field("state");
+
+                if (state != null && state >= 0 && (state == stateQueued || state == stateRunning))
+                    requeue.add(BuildRefDao.cacheKeyToBuildId(entry.getKey())); //re-check queued
+                else {
+                    keysToCheck.add(entry.getKey()); // check if missing
+
+                    if (keysToCheck.size() >= CHECK_BATCH_SIZE)
+                        checkMissing(fatBuilds, keysToCheck, missing, res);
+                }
+            }
+        }
+
+        if (!keysToCheck.isEmpty())
+            checkMissing(fatBuilds, keysToCheck, missing, res);
+
+        res.missing = missing.array();
+        res.requeue = requeue.array();
+
+        return res;
+    }
+
+    /**
+     * @param fatBuilds Fat builds cache.
+     * @param keys Keys to check, cleared after check.
+     * @param missing Missing builds IDs.
+     * @param res Result to update counters.
+     */
+    private void checkMissing(IgniteCache<Long, BinaryObject> fatBuilds, Set<Long> keys, GridIntList missing,
+        Result res) {
+        Map<Long, BinaryObject> existing = fatBuilds.getAll(keys);
+
+        res.keysChecked += keys.size();
+
+        for (Long key : keys) {
+            if (!existing.containsKey(key))
+                missing.add(BuildRefDao.cacheKeyToBuildId(key));
+        }
+
+        keys.clear();
+    }
+
+    /**
+     * Builds to be loaded found in one partition and scan counters.
+     */
+    static class Result {
+        /** Builds missing in fat builds cache. */
+        int[] missing;
+
+        /** Running and queued builds, should be re-checked. */
+        int[] requeue;
+
+        /** Build refs scanned. */
+        long refsScanned;
+
+        /** Fat build keys checked for existence. */
+        long keysChecked;
+    }
+}
@@ -18,29 +18,37 @@ package org.apache.ignite.tcignited.build;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.primitives.Ints;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
-import org.apache.ignite.cache.affinity.Affinity;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeSync;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
-import org.apache.ignite.internal.util.GridConcurrentHashSet;
-import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
@@ -52,16 +60,23 @@ import org.apache.ignite.tcignited.SyncMode;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
 import org.apache.ignite.tcservice.ITeamcityConn;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrence;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
-import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ProactiveFatBuildSync {
     public static final int FAT_BUILD_PROACTIVE_TASKS = 5;
 
+    /** Count of builds taken from the head of the queue by a worker at once. */
+    private static final int LOAD_BATCH_SIZE = 32;
+
+    /** Count of test occurrences requested in one page. */
+    public static final int TESTS_PAGE_SIZE = 1000;
+
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(ProactiveFatBuildSync.class);
 
@@ -80,21 +95,36 @@ public class ProactiveFatBuildSync {
     /** Change sync. */
     @Inject private ChangeSync changeSync;
 
+    /** Server code to load queue. */
     @GuardedBy("this")
     private Map<String, SyncTask> buildToLoad = new HashMap<>();
 
-    public void doLoadBuilds(int i, String srvNme, ITeamcityConn conn, Set<Integer> paginateUntil) {
-        doLoadBuilds(i, srvNme, conn, paginateUntil, getSyncTask(conn).loadingBuilds);
-    }
+    /** Executor of requests for build parts, threads count is limited by permits of all servers. */
+    private final ExecutorService requestsExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger cnt = new AtomicInteger();
+
+        @Override public Thread newThread(@Nonnull Runnable r) {
+            Thread thread = new Thread(r, "fat-build-request-" + cnt.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    });
+
+    /** Permits for concurrent requests to each server: server code -> permits. */
+    private final ConcurrentMap<String, Semaphore> srvRequestPermits = new ConcurrentHashMap<>();
 
     /**
      * Scope of work: builds to be loaded from a connection.
      */
     private static class SyncTask {
-        ITeamcityConn conn;
-        Set<Integer> ids = new HashSet<>();
+        /** Connection to be used for loads. */
+        volatile ITeamcityConn conn;
 
-        GridConcurrentHashSet<Integer> loadingBuilds = new GridConcurrentHashSet<>();
+        /** Builds to be loaded. */
+        final BuildLoadQueue queue = new BuildLoadQueue(
+            Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_FAT_BUILD_QUEUE_CAPACITY, 100_000));
     }
 
     /**
@@ -103,26 +133,44 @@ public class ProactiveFatBuildSync {
      * @param buildsToAskFromTc Builds to ask from tc.
      */
     public void scheduleBuildsLoad(ITeamcityConn conn, Collection<Integer> buildsToAskFromTc) {
+        scheduleBuildsLoad(conn, buildsToAskFromTc, BuildLoadPriority.TRACKED_BRANCH);
+    }
+
+    /**
+     * Queues builds for load. Interactive loads are started as soon as possible by dedicated worker, other loads are
+     * started by one of {@link #FAT_BUILD_PROACTIVE_TASKS} workers later. Each worker takes builds from the head of the
+     * queue until it is empty.
+     *
+     * @param conn TC server connection.
+     * @param buildsToAskFromTc Builds to ask from tc.
+     * @param priority Class of load.
+     */
+    public void scheduleBuildsLoad(ITeamcityConn conn, Collection<Integer> buildsToAskFromTc,
+        BuildLoadPriority priority) {
         if (buildsToAskFromTc.isEmpty())
             return;
 
-        synchronized (this) {
-            final SyncTask syncTask = getSyncTask(conn);
+        SyncTask syncTask = getSyncTask(conn);
 
-            buildsToAskFromTc.stream()
-                    .filter(id -> !syncTask.loadingBuilds.contains(id))
-                    .forEach(syncTask.ids::add);
-        }
+        if (syncTask.queue.offer(buildsToAskFromTc, priority) == 0)
+            return;
 
-        int ldrToActivate = ThreadLocalRandom.current().nextInt(FAT_BUILD_PROACTIVE_TASKS);
+        String srvCode = conn.serverCode();
 
-        scheduler.sheduleNamed(taskName("loadFatBuilds" + ldrToActivate, conn.serverCode()),
-                () -> loadFatBuilds(ldrToActivate, conn.serverCode()), 2, TimeUnit.MINUTES);
+        if (priority == BuildLoadPriority.INTERACTIVE) {
+            scheduler.sheduleNamed(taskName("loadFatBuildsInteractive", srvCode),
+                () -> loadFatBuilds(FAT_BUILD_PROACTIVE_TASKS, srvCode), 0, TimeUnit.MINUTES);
+        }
+        else {
+            int ldrToActivate = ThreadLocalRandom.current().nextInt(FAT_BUILD_PROACTIVE_TASKS);
 
+            scheduler.sheduleNamed(taskName("loadFatBuilds" + ldrToActivate, srvCode),
+                () -> loadFatBuilds(ldrToActivate, srvCode), 2, TimeUnit.MINUTES);
+        }
     }
 
     @Nonnull
-    public synchronized SyncTask getSyncTask(ITeamcityConn conn) {
+    private synchronized SyncTask getSyncTask(ITeamcityConn conn) {
         final SyncTask syncTask = buildToLoad.computeIfAbsent(conn.serverCode(), s -> new SyncTask());
 
         syncTask.conn = conn;
@@ -130,111 +178,98 @@ public class ProactiveFatBuildSync {
         return syncTask;
     }
 
+    /**
+     * @return server code to statistics of the load queue of this server.
+     */
+    public synchronized Map<String, List<BuildLoadQueue.ClassStat>> queueStats() {
+        Map<String, List<BuildLoadQueue.ClassStat>> res = new TreeMap<>();
+
+        buildToLoad.forEach((srvCode, task) -> res.put(srvCode, task.queue.stats()));
+
+        return res;
+    }
+
+    /**
+     * Finds builds referenced by build refs, but missing in fat builds cache, and schedules its loading. Running and
+     * queued builds are re-checked as well. Each partition is scanned once at its owner node.
+     *
+     * @param srvCode Server code.
+     * @param conn Connection.
+     * @return summary of the run: refs scanned, keys checked, builds requested to load and wall time.
+     */
     @SuppressWarnings({"WeakerAccess", "UnusedReturnValue"})
     @MonitoredTask(name = "Find missing builds", nameExtArgsIndexes = {0})
     @AutoProfiling
     protected String findMissingBuildsFromBuildRef(String srvCode, ITeamcityConn conn) {
+        long start = System.currentTimeMillis();
         int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvCode);
 
-        List<Integer> buildsIdsToLoad = new ArrayList<>();
-        AtomicInteger totalAskedToLoad = new AtomicInteger();
+        Integer stateQueued = compactor.getStringIdIfPresent(BuildRef.STATE_QUEUED);
+        Integer stateRunning = compactor.getStringIdIfPresent(BuildRef.STATE_RUNNING);
 
-        Affinity<Long> affinity = fatBuildDao.affinity();
-        int partitions = affinity.partitions();
-        int checkBatchSize = 1000;
+        long refsScanned = 0;
+        long keysChecked = 0;
+        int missing = 0;
+        int requeued = 0;
 
-        GridIntList keysToCheck = new GridIntList();
-        for (int p = 0; p < partitions; p++) {
-            int curPart = p;
-
-            buildRefDao.compactedBuildsForServer(srvIdMaskHigh, bref -> true)
-                .filter(
-                    bref -> {
-                        long fatBuildKey = FatBuildDao.buildIdToCacheKey(srvIdMaskHigh, bref.id());
-                        int part = affinity.partition(fatBuildKey);
-                        return part == curPart;
-                    }
-                )
-                .forEach(buildRef -> {
-                    int buildId = buildRef.id();
+        int partitions = fatBuildDao.affinity().partitions();
 
-                    if (buildRef.isRunning(compactor) || buildRef.isQueued(compactor))
-                        buildsIdsToLoad.add(buildId); //re-check queued
-                    else
-                        keysToCheck.add(buildId); // check if missing
-
-                    int initSize = keysToCheck.size();
-                    if (initSize >= checkBatchSize) {
-                        System.err.println("findMissingBuilds: Srv: " + srvCode + " Checking " + initSize + " builds for partition " + curPart);
-
-                        int[] buildIds = keysToCheck.array();
-                        keysToCheck.clear();
+        for (int p = 0; p < partitions; p++) {
+            MissingBuildsPartitionJob.Result res = fatBuildDao.findMissingBuildsInPartition(srvIdMaskHigh, p,
+                stateQueued == null ? -1 : stateQueued,
+                stateRunning == null ? -1 : stateRunning);
 
-                        Collection<Integer> builds = fatBuildDao.getMissingBuilds(srvIdMaskHigh, buildIds);
-                        System.err.println("foundMissing: " + builds.size() + ": Srv: " + srvCode + " Checking " + initSize + " builds for partition " + curPart);
+            refsScanned += res.refsScanned;
+            keysChecked += res.keysChecked;
+            missing += res.missing.length;
+            requeued += res.requeue.length;
 
-                        buildsIdsToLoad.addAll(builds);
-                    }
-
-                    if (buildsIdsToLoad.size() >= 100) {
-                        totalAskedToLoad.addAndGet(buildsIdsToLoad.size());
-                        scheduleBuildsLoad(conn, buildsIdsToLoad);
-                        buildsIdsToLoad.clear();
-                    }
-                });
+            scheduleBuildsLoad(conn, Ints.asList(res.requeue), BuildLoadPriority.REQUEUE);
+            scheduleBuildsLoad(conn, Ints.asList(res.missing), BuildLoadPriority.BACKFILL);
         }
 
-        if (!keysToCheck.isEmpty())
-            buildsIdsToLoad.addAll(fatBuildDao.getMissingBuilds(srvIdMaskHigh, keysToCheck.array()));
+        String summary = "Invoked later load for " + (missing + requeued) + " builds from " + srvCode
+            + ": missing " + missing + ", running/queued " + requeued
+            + "; refs scanned " + refsScanned + ", keys checked " + keysChecked
+            + ", partitions " + partitions + ", time " + (System.currentTimeMillis() - start) + "ms";
 
+        logger.info(summary);
 
-        if (!buildsIdsToLoad.isEmpty()) {
-            totalAskedToLoad.addAndGet(buildsIdsToLoad.size());
-            scheduleBuildsLoad(conn, buildsIdsToLoad);
-        }
-
-        return "Invoked later load for " + totalAskedToLoad.get() + " builds from " + srvCode;
+        return summary;
     }
 
-    /** */
+    /**
+     * Loads builds from the head of the server queue until queue is empty.
+     *
+     * @param ldrNo Loader (worker) number.
+     * @param srvId Server code.
+     */
     private void loadFatBuilds(int ldrNo, String srvId) {
-        Set<Integer> load;
-        ITeamcityConn conn;
-        final GridConcurrentHashSet<Integer> loadingBuilds;
+        SyncTask syncTask;
 
         synchronized (this) {
-            final SyncTask syncTask = buildToLoad.get(srvId);
-            if (syncTask == null)
-                return;
-
-            if (syncTask.ids.isEmpty()) {
-                syncTask.conn = null;
-                return;
-            }
-
-            if (syncTask.conn == null)
-                return;
-
-            load = syncTask.ids;
-            //marking that builds are in progress
+            syncTask = buildToLoad.get(srvId);
+        }
 
-            loadingBuilds = syncTask.loadingBuilds;
-            loadingBuilds.addAll(load);
+        if (syncTask == null)
+            return;
 
-            syncTask.ids = new HashSet<>();
+        List<Integer> load;
 
-            conn = syncTask.conn;
-            syncTask.conn = null;
+        while (!(load = syncTask.queue.poll(LOAD_BATCH_SIZE)).isEmpty()) {
+            try {
+                doLoadBuilds(ldrNo, srvId, syncTask.conn, load);
+            }
+            finally {
+                syncTask.queue.completed(load);
+            }
         }
-
-        doLoadBuilds(ldrNo, srvId, conn, load,  loadingBuilds);
     }
 
     @SuppressWarnings({"WeakerAccess", "UnusedReturnValue"})
     @MonitoredTask(name = "Proactive Builds Loading (srv,agent)", nameExtArgsIndexes = {1, 0})
     @AutoProfiling
-    public String doLoadBuilds(int ldrNo, String srvId, ITeamcityConn conn, Set<Integer> load,
-                               GridConcurrentHashSet<Integer> loadingBuilds) {
+    public String doLoadBuilds(int ldrNo, String srvId, ITeamcityConn conn, Collection<Integer> load) {
         if(load.isEmpty())
             return "Nothing to load";
 
@@ -254,8 +289,6 @@ public class ProactiveFatBuildSync {
 
                         if (savedVer != null)
                             ld.incrementAndGet();
-
-                        loadingBuilds.remove(buildId);
                     }
                     catch (Exception e) {
                         logger.error("", e);
@@ -327,17 +360,74 @@ public class ProactiveFatBuildSync {
     public FatBuildCompacted loadBuild(ITeamcityConn conn, int buildId,
         @Nullable FatBuildCompacted existingBuild,
         SyncMode mode) {
-        if (existingBuild != null && !existingBuild.isOutdatedEntityVersion()) {
-            boolean finished =
-                existingBuild.state(compactor) != null // don't count old fake builds as finished
-                    && !existingBuild.isRunning(compactor)
-                    && !existingBuild.isQueued(compactor);
-
-            if (finished || mode != SyncMode.RELOAD_QUEUED)
-                return null;
+        if (existingBuild != null && !isReloadRequired(existingBuild, mode))
+            return null;
+
+        return reloadBuildAndRef(conn, buildId, existingBuild, null);
+    }
+
+    /**
+     * Bulk version of {@link #loadBuild}. Main requests of all builds requiring reload are sent at once (count of
+     * concurrent requests to server is limited as for build parts), then builds are completed and saved one by one.
+     *
+     * @param conn TC connection to load data.
+     * @param buildIds Build IDs.
+     * @param existingBuilds Builds from DB by ID.
+     * @param mode Sync mode.
+     * @return builds by ID: new version if build was updated, existing one otherwise. If reload of a build failed,
+     * existing version is returned, or fake stub if there is no one.
+     */
+    public Map<Integer, FatBuildCompacted> loadBuilds(ITeamcityConn conn, Collection<Integer> buildIds,
+        Map<Integer, FatBuildCompacted> existingBuilds,
+        SyncMode mode) {
+        Map<Integer, CompletableFuture<Build>> requests = new HashMap<>();
+
+        for (Integer buildId : buildIds) {
+            FatBuildCompacted existingBuild = existingBuilds.get(buildId);
+
+            if (existingBuild == null || isReloadRequired(existingBuild, mode))
+                requests.computeIfAbsent(buildId, id -> submitRequest(conn, () -> conn.getBuild(id)));
+        }
+
+        Map<Integer, FatBuildCompacted> res = new LinkedHashMap<>();
+
+        for (Integer buildId : buildIds) {
+            FatBuildCompacted existingBuild = existingBuilds.get(buildId);
+            CompletableFuture<Build> req = requests.remove(buildId);
+
+            FatBuildCompacted savedVer;
+
+            try {
+                savedVer = req == null ? null : reloadBuildAndRef(conn, buildId, existingBuild, req);
+            }
+            catch (Exception e) {
+                // one failed build should not fail the rest of builds requested together.
+                logger.error("Reloading build [" + buildId + "] for server [" + conn.serverCode() + "] failed, "
+                    + (existingBuild != null ? "saved version" : "stub") + " is used: " + e.getMessage(), e);
+
+                savedVer = null;
+
+                if (existingBuild == null)
+                    existingBuild = new FatBuildCompacted().setFakeStub(true);
+            }
+
+            res.put(buildId, savedVer != null ? savedVer : existingBuild);
         }
 
-        FatBuildCompacted savedVer = reloadBuild(conn, buildId, existingBuild);
+        return res;
+    }
+
+    /**
+     * @param conn TC connection to load data.
+     * @param buildId build ID (TC identification).
+     * @param existingBuild build from DB.
+     * @param buildReq Already sent request of build, <code>null</code> to send it now.
+     * @return null if nothing was saved, new build if it was updated.
+     */
+    @Nullable private FatBuildCompacted reloadBuildAndRef(ITeamcityConn conn, int buildId,
+        @Nullable FatBuildCompacted existingBuild,
+        @Nullable CompletableFuture<Build> buildReq) {
+        FatBuildCompacted savedVer = reloadBuild(conn, buildId, existingBuild, buildReq);
 
         if (savedVer == null)
             return null;
@@ -354,6 +444,23 @@ public class ProactiveFatBuildSync {
         return savedVer;
     }
 
+    /**
+     * @param existingBuild Build from DB.
+     * @param mode Sync mode.
+     * @return <code>true</code> if build should be reloaded from server by {@link #loadBuild}.
+     */
+    public boolean isReloadRequired(FatBuildCompacted existingBuild, SyncMode mode) {
+        if (existingBuild.isOutdatedEntityVersion())
+            return true;
+
+        boolean finished =
+            existingBuild.state(compactor) != null // don't count old fake builds as finished
+                && !existingBuild.isRunning(compactor)
+                && !existingBuild.isQueued(compactor);
+
+        return !finished && mode == SyncMode.RELOAD_QUEUED;
+    }
+
     /**
      *
      * @param conn
@@ -361,9 +468,22 @@ public class ProactiveFatBuildSync {
      * @param existingBuild
      * @return new build if it was updated or <code>null</code> if no updates detected
      */
+    @Nullable public FatBuildCompacted reloadBuild(ITeamcityConn conn, int buildId, @Nullable FatBuildCompacted existingBuild) {
+        return reloadBuild(conn, buildId, existingBuild, null);
+    }
+
+    /**
+     * @param conn Connection.
+     * @param buildId Build ID.
+     * @param existingBuild Build from DB.
+     * @param buildReq Already sent request of build, <code>null</code> to send it now.
+     * @return new build if it was updated or <code>null</code> if no updates detected
+     */
     @SuppressWarnings({"WeakerAccess"})
     @AutoProfiling
-    @Nullable public FatBuildCompacted reloadBuild(ITeamcityConn conn, int buildId, @Nullable FatBuildCompacted existingBuild) {
+    @Nullable public FatBuildCompacted reloadBuild(ITeamcityConn conn, int buildId,
+        @Nullable FatBuildCompacted existingBuild,
+        @Nullable CompletableFuture<Build> buildReq) {
         //todo some sort of locking to avoid double requests
 
         final String srvName = conn.serverCode();
@@ -375,12 +495,12 @@ public class ProactiveFatBuildSync {
         }
 
         Build build;
-        List<TestOccurrencesFull> tests = new ArrayList<>();
+        List<TestCompactedV2> tests = new ArrayList<>();
         List<ProblemOccurrence> problems = null;
         Statistics statistics = null;
         ChangesList changesList = null;
         try {
-            build = conn.getBuild(buildId);
+            build = buildReq != null ? buildReq.join() : conn.getBuild(buildId);
 
             if (build.isFakeStub())
                 build.setCancelled(); // probably now it will not happen because of direct connection to TC.
@@ -390,31 +510,29 @@ public class ProactiveFatBuildSync {
                         "Build IDs are not consistent: returned " + build.getId() + " queued is " + buildId);
             }
 
-            if (build.testOccurrences != null && !build.isComposite()) { // don't query tests for compoite
-                String nextHref = null;
-                do {
-                    TestOccurrencesFull page = conn.getTestsPage(buildId, nextHref, true);
-                    nextHref = page.nextHref();
+            // parts of build are requested concurrently, see submitRequest()
+            CompletableFuture<List<ProblemOccurrence>> problemsFut = build.problemOccurrences == null
+                ? CompletableFuture.completedFuture(null)
+                : submitRequest(conn, () -> conn.getProblems(buildId).getProblemsNonNull());
 
-                    tests.add(page);
-                }
-                while (!Strings.isNullOrEmpty(nextHref));
-            }
-
-            if (build.problemOccurrences != null)
-                problems = conn.getProblems(buildId).getProblemsNonNull();
+            CompletableFuture<Statistics> statisticsFut = build.statisticsRef == null
+                ? CompletableFuture.completedFuture(null)
+                : submitRequest(conn, () -> conn.getStatistics(buildId));
 
-            if (build.statisticsRef != null)
-                statistics = conn.getStatistics(buildId);
+            CompletableFuture<ChangesList> changesFut = build.changesRef == null
+                ? CompletableFuture.completedFuture(null)
+                : submitRequest(conn, () -> conn.getChangesList(buildId));
 
-            if (build.changesRef != null) {
-                changesList = conn.getChangesList(buildId);
+            if (build.testOccurrences != null && !build.isComposite()) // don't query tests for compoite
+                tests.addAll(loadTests(conn, buildId, build));
 
-                for (int changeId : FatBuildDao.extractChangeIds(changesList)) {
-                    // consult change sync for provided changes data
+            problems = problemsFut.join();
+            statistics = statisticsFut.join();
+            changesList = changesFut.join();
 
-                    changeSync.change(srvIdMask, changeId, conn);
-                }
+            if (changesList != null) {
+                // consult change sync for provided changes data, missing changes are loaded in bulk
+                changeSync.changes(srvIdMask, FatBuildDao.extractChangeIds(changesList), conn);
             }
         }
         catch (Exception e) {
@@ -432,7 +550,8 @@ public class ProactiveFatBuildSync {
                     if (build.isFakeStub())
                         build.setCancelled();
 
-                    tests = Collections.singletonList(existingBuild.getTestOcurrences(compactor));
+                    tests.clear();
+                    tests.addAll(fatBuildDao.compactTests(existingBuild.getTestOcurrences(compactor).getTests()));
 
                     problems = existingBuild.problems(compactor);
 
@@ -456,7 +575,113 @@ public class ProactiveFatBuildSync {
 
         //if we are here because of some sort of outdated version of build,
         // new save will be performed with new entity version for compacted build
-        return fatBuildDao.saveBuild(srvIdMask, buildId, build, tests, problems, statistics, changesList, existingBuild);
+        return fatBuildDao.saveCompactedBuild(srvIdMask, buildId, build, tests, problems, statistics, changesList,
+            existingBuild);
+    }
+
+    /**
+     * Loads tests of the build. If count of tests is known for finished build, pages are requested concurrently using
+     * offsets, otherwise pages are loaded one by one following next page reference.
+     *
+     * @param conn Connection.
+     * @param buildId Build id.
+     * @param build Build.
+     * @return compacted tests in the order returned by TeamCity.
+     */
+    private List<TestCompactedV2> loadTests(ITeamcityConn conn, int buildId, Build build) {
+        List<TestCompactedV2> tests = new ArrayList<>();
+        Integer cnt = build.testOccurrences.count;
+        String nextHref = null;
+
+        if (cnt != null && cnt > TESTS_PAGE_SIZE && build.isFinished()) {
+            List<CompletableFuture<TestsPage>> pages = new ArrayList<>();
+
+            for (int start = 0; start < cnt; start += TESTS_PAGE_SIZE) {
+                String href = conn.testsPageHref(buildId, start, TESTS_PAGE_SIZE, true);
+
+                pages.add(submitRequest(conn, () -> loadTestsPage(conn, buildId, href)));
+            }
+
+            for (CompletableFuture<TestsPage> fut : pages) {
+                TestsPage page = fut.join();
+
+                tests.addAll(page.tests);
+                nextHref = page.nextHref;
+            }
+
+            if (Strings.isNullOrEmpty(nextHref))
+                return tests;
+        }
+
+        // count is unknown or tests were added after the build was requested.
+        do {
+            String href = nextHref;
+            TestsPage page = submitRequest(conn, () -> loadTestsPage(conn, buildId, href)).join();
+
+            tests.addAll(page.tests);
+            nextHref = page.nextHref;
+        }
+        while (!Strings.isNullOrEmpty(nextHref));
+
+        return tests;
+    }
+
+    /**
+     * @param conn Connection.
+     * @param buildId Build id.
+     * @param href Href of the page, <code>null</code> for the first page.
+     */
+    private TestsPage loadTestsPage(ITeamcityConn conn, int buildId, @Nullable String href) {
+        TestsPage page = new TestsPage();
+        List<TestOccurrenceFull> occurrences = new ArrayList<>();
+
+        // XML model of the page is not created, occurrences of the page are compacted at once.
+        page.nextHref = conn.streamTestsPage(buildId, href, true, occurrences::add);
+
+        page.tests.addAll(fatBuildDao.compactTests(occurrences));
+
+        return page;
+    }
+
+    /**
+     * Runs TeamCity request asynchronously. Count of concurrent requests to a server is limited, the caller is blocked
+     * until a permit is available, so executor threads never wait for permits.
+     *
+     * @param conn Connection.
+     * @param req Request.
+     */
+    public <T> CompletableFuture<T> submitRequest(ITeamcityConn conn, Supplier<T> req) {
+        Semaphore permits = srvRequestPermits.computeIfAbsent(conn.serverCode(),
+            srv -> new Semaphore(Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_TC_PARALLEL_REQUESTS, 4)));
+
+        permits.acquireUninterruptibly();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return req.get();
+                }
+                finally {
+                    permits.release();
+                }
+            }, requestsExecutor);
+        }
+        catch (RejectedExecutionException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Compacted tests of one page.
+     */
+    private static class TestsPage {
+        /** Tests. */
+        final List<TestCompactedV2> tests = new ArrayList<>();
+
+        /** Next page href. */
+        @Nullable String nextHref;
     }
 
     @Nullable
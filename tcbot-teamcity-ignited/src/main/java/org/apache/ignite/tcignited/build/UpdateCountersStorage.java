@@ -17,17 +17,23 @@
 package org.apache.ignite.tcignited.build;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import org.apache.ignite.internal.util.typedef.internal.U;
 
 public class UpdateCountersStorage {
     /** Counters: Map from Branch name compactor ID to its correspondent update counter value. */
     private ConcurrentMap<Integer, AtomicInteger> counters = new ConcurrentHashMap<>();
 
+    /** Listeners notified with branch name compactor ID after its counter was incremented. */
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
     public Map<Integer, Integer> getCounters(Collection<Integer> branchNames) {
         Map<Integer, Integer> res = new TreeMap<>();
 
@@ -38,8 +44,6 @@ public class UpdateCountersStorage {
             res.put(name, getIntegerForEntry(name).get());
         }
 
-        System.err.println("Requested counters:" + res);
-
         return res;
     }
 
@@ -53,5 +57,25 @@ public class UpdateCountersStorage {
 
     public void increment(int branchName) {
         getIntegerForEntry(branchName).incrementAndGet();
+
+        for (IntConsumer lsnr : listeners)
+            lsnr.accept(branchName);
+    }
+
+    /**
+     * Adds listener of counters updates. Listener is called synchronously from the thread saving build data, so it
+     * should not block.
+     *
+     * @param lsnr Listener, accepts branch name compactor ID.
+     */
+    public void addListener(IntConsumer lsnr) {
+        listeners.add(lsnr);
+    }
+
+    /**
+     * @param lsnr Listener to remove.
+     */
+    public void removeListener(IntConsumer lsnr) {
+        listeners.remove(lsnr);
     }
 }
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Zipped build logs of one server kept on disk. Total size of logs is limited by a byte budget. When budget is
+ * exceeded logs with persisted analysis results are removed first (least recently used first), then other least
+ * recently used logs. The most recently added log is never removed.
+ *
+ * Index of logs is built from files of the directory on first access, so logs downloaded before restart are reused.
+ */
+class BuildLogArchive {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(BuildLogArchive.class);
+
+    /** Log file name prefix. */
+    private static final String PREFIX = "build";
+
+    /** Log file name suffix. */
+    private static final String SUFFIX = ".log.zip";
+
+    /** Suffix of file being downloaded. */
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** Logs directory. */
+    private final File dir;
+
+    /** Budget in bytes. */
+    private final long budget;
+
+    /** Checks if analysis result of build is persisted, used for logs found on disk at startup. */
+    private final IntPredicate analyzed;
+
+    /** Build ID to archived log, in access order. Null until loaded from disk. */
+    @GuardedBy("this")
+    private LinkedHashMap<Integer, ArchivedLog> entries;
+
+    /** Total size of archived logs. */
+    @GuardedBy("this")
+    private long bytes;
+
+    /** Count of removed logs. */
+    @GuardedBy("this")
+    private long evicted;
+
+    /**
+     * @param dir Logs directory.
+     * @param budget Budget in bytes.
+     * @param analyzed Checks if analysis result of build is persisted.
+     */
+    BuildLogArchive(File dir, long budget, IntPredicate analyzed) {
+        this.dir = dir;
+        this.budget = budget;
+        this.analyzed = analyzed;
+    }
+
+    /**
+     * @param buildId Build ID.
+     * @return archived log or <code>null</code> if it was not downloaded yet.
+     */
+    @Nullable synchronized File get(int buildId) {
+        ArchivedLog entry = entries().get(buildId);
+
+        if (entry == null)
+            return null;
+
+        File file = file(buildId);
+
+        if (file.length() > 0)
+            return file;
+
+        // Removed outside of archive, e.g. by cleaner.
+        entries.remove(buildId);
+        bytes -= entry.bytes;
+
+        return null;
+    }
+
+    /**
+     * @param buildId Build ID.
+     * @return file for log of build, it exists only if log is archived.
+     */
+    File file(int buildId) {
+        return new File(dir, PREFIX + buildId + SUFFIX);
+    }
+
+    /**
+     * @param buildId Build ID.
+     * @return new file to download log into before {@link #commit(int, File)}.
+     */
+    File tempFile(int buildId) throws IOException {
+        return File.createTempFile(PREFIX + buildId + SUFFIX + ".", TMP_SUFFIX, dir);
+    }
+
+    /**
+     * Moves completely downloaded log into archive and removes logs exceeding budget.
+     *
+     * @param buildId Build ID.
+     * @param tmp File created by {@link #tempFile(int)}.
+     */
+    synchronized void commit(int buildId, File tmp) throws IOException {
+        File file = file(buildId);
+
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ArchivedLog prev = entries().put(buildId, new ArchivedLog(file.length(), false));
+
+        if (prev != null)
+            bytes -= prev.bytes;
+
+        bytes += file.length();
+
+        evict();
+    }
+
+    /**
+     * Marks log as analyzed, so it is removed before logs not analyzed yet.
+     *
+     * @param buildId Build ID.
+     */
+    synchronized void markAnalyzed(int buildId) {
+        ArchivedLog entry = entries == null ? null : entries.get(buildId);
+
+        if (entry != null)
+            entry.analyzed = true;
+    }
+
+    /**
+     * @return count of archived logs.
+     */
+    synchronized int size() {
+        return entries().size();
+    }
+
+    /**
+     * @return total size of archived logs.
+     */
+    synchronized long bytes() {
+        entries();
+
+        return bytes;
+    }
+
+    /**
+     * @return average size of archived log, 0 if archive is empty.
+     */
+    synchronized long averageBytes() {
+        return entries().isEmpty() ? 0 : bytes / entries.size();
+    }
+
+    /**
+     * @return count of removed logs.
+     */
+    synchronized long evicted() {
+        return evicted;
+    }
+
+    /**
+     * Removes logs exceeding budget, analyzed logs first.
+     */
+    @GuardedBy("this")
+    private void evict() {
+        if (bytes <= budget)
+            return;
+
+        for (int pass = 0; pass < 2 && bytes > budget; pass++) {
+            Iterator<Map.Entry<Integer, ArchivedLog>> it = entries.entrySet().iterator();
+
+            // Last entry is the most recent one.
+            for (int left = entries.size(); left > 1 && bytes > budget; left--) {
+                Map.Entry<Integer, ArchivedLog> next = it.next();
+                ArchivedLog entry = next.getValue();
+
+                if (pass == 0) {
+                    if (entry.analyzed == null)
+                        entry.analyzed = analyzed.test(next.getKey());
+
+                    if (!entry.analyzed)
+                        continue;
+                }
+
+                File file = file(next.getKey());
+
+                if (file.exists() && !file.delete()) {
+                    logger.warn("Unable to remove build log " + file);
+
+                    continue;
+                }
+
+                it.remove();
+                bytes -= entry.bytes;
+                evicted++;
+            }
+        }
+    }
+
+    /**
+     * @return index of archived logs, loaded from disk on first call.
+     */
+    @GuardedBy("this")
+    private LinkedHashMap<Integer, ArchivedLog> entries() {
+        if (entries != null)
+            return entries;
+
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        File[] files = dir.listFiles();
+
+        if (files == null)
+            return entries;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (File file : files) {
+            String name = file.getName();
+
+            if (!name.startsWith(PREFIX))
+                continue;
+
+            if (name.endsWith(TMP_SUFFIX)) {
+                // Download was interrupted by restart.
+                if (!file.delete())
+                    logger.warn("Unable to remove incomplete build log " + file);
+
+                continue;
+            }
+
+            if (!name.endsWith(SUFFIX))
+                continue;
+
+            try {
+                int buildId = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+
+                entries.put(buildId, new ArchivedLog(file.length(), null));
+                bytes += file.length();
+            }
+            catch (NumberFormatException ignored) {
+                // Not a build log.
+            }
+        }
+
+        logger.info("Build logs archive " + dir + " loaded: " + entries.size() + " logs, " + bytes + " bytes");
+
+        evict();
+
+        return entries;
+    }
+
+    /**
+     * Archived log.
+     */
+    private static class ArchivedLog {
+        /** Size of zipped log. */
+        private final long bytes;
+
+        /** Analysis result is persisted, <code>null</code> if not checked yet. */
+        @Nullable private Boolean analyzed;
+
+        /**
+         * @param bytes Size of zipped log.
+         * @param analyzed Analyzed flag.
+         */
+        ArchivedLog(long bytes, @Nullable Boolean analyzed) {
+            this.bytes = bytes;
+            this.analyzed = analyzed;
+        }
+    }
+}
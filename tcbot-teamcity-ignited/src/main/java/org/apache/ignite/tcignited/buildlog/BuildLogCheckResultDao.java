@@ -56,6 +56,10 @@ public class BuildLogCheckResultDao {
         return logsCache.get(getCacheKey(srvCode, buildId));
     }
 
+    public boolean containsKey(String srvCode, int buildId) {
+        return logsCache.containsKey(getCacheKey(srvCode, buildId));
+    }
+
     public void put(String srvCode, int buildId, LogCheckResultCompacted logCheckResultCompacted) {
         logsCache.put(getCacheKey(srvCode, buildId), logCheckResultCompacted);
     }
@@ -18,6 +18,9 @@ package org.apache.ignite.tcignited.buildlog;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import org.apache.ignite.lang.IgniteBiTuple;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.apache.ignite.tcbot.common.conf.TcBotWorkDir;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
@@ -27,9 +30,17 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
@@ -45,8 +56,18 @@ class BuildLogProcessor implements IBuildLogProcessor {
     @Inject
     private BuildLogCheckResultDao logCheckResultDao;
 
-    /** Non persistence cache for log check results. */
-    private final Cache<Long, ILogCheckResult> logCheckResultCache
+    /** Executor of log analysis. */
+    @Inject
+    private LogAnalysisExecutor logAnalysisExecutor;
+
+    /** Archives of downloaded logs, by server code. */
+    private final ConcurrentMap<String, BuildLogArchive> archives = new ConcurrentHashMap<>();
+
+    /**
+     * Non persistence cache for log check results, by persistence cache key and dump last test flag: analysis with dump
+     * of last test saves more data, so it does not share the result of analysis without it.
+     */
+    private final Cache<IgniteBiTuple<Long, Boolean>, ILogCheckResult> logCheckResultCache
             = CacheBuilder.newBuilder()
             .maximumSize(500)
             .expireAfterAccess(3, TimeUnit.MINUTES)
@@ -56,7 +77,7 @@ class BuildLogProcessor implements IBuildLogProcessor {
 
     @Override
     public ILogCheckResult analyzeBuildLog(ITeamcityIgnited teamcity, int buildId, boolean dumpLastTest) {
-        long cacheKey = BuildLogCheckResultDao.getCacheKey(teamcity.serverCode(), buildId);
+        IgniteBiTuple<Long, Boolean> cacheKey = resultKey(teamcity, buildId, dumpLastTest);
 
         try {
             return logCheckResultCache.get(cacheKey, () -> {
@@ -80,6 +101,8 @@ class BuildLogProcessor implements IBuildLogProcessor {
 
                 logCheckResultDao.put(teamcity.serverCode(), buildId, logCheckResultCompacted);
 
+                archive(teamcity).markAnalyzed(buildId);
+
                 return logCheckResultCompacted;
             });
         } catch (ExecutionException e) {
@@ -87,6 +110,36 @@ class BuildLogProcessor implements IBuildLogProcessor {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<ILogCheckResult> analyzeBuildLogAsync(ITeamcityIgnited teamcity, int buildId,
+        boolean dumpLastTest) {
+        IgniteBiTuple<Long, Boolean> cacheKey = resultKey(teamcity, buildId, dumpLastTest);
+
+        ILogCheckResult cached = logCheckResultCache.getIfPresent(cacheKey);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        LogCheckResultCompacted persisted = logCheckResultDao.get(teamcity.serverCode(), buildId);
+        if (persisted != null) {
+            logCheckResultCache.put(cacheKey, persisted);
+
+            return CompletableFuture.completedFuture(persisted);
+        }
+
+        return logAnalysisExecutor.submit(cacheKey, () -> analyzeBuildLog(teamcity, buildId, dumpLastTest));
+    }
+
+    /**
+     * @param teamcity Teamcity.
+     * @param buildId Build ID.
+     * @param dumpLastTest Dump last test.
+     * @return key of analysis result in memory and of analysis in flight.
+     */
+    private static IgniteBiTuple<Long, Boolean> resultKey(ITeamcityIgnited teamcity, int buildId,
+        boolean dumpLastTest) {
+        return new IgniteBiTuple<>(BuildLogCheckResultDao.getCacheKey(teamcity.serverCode(), buildId), dumpLastTest);
+    }
+
     @Nullable
     @Override
     public String getThreadDumpCached(String serverCode, Integer buildId) {
@@ -99,40 +152,196 @@ class BuildLogProcessor implements IBuildLogProcessor {
     }
 
 
-    private LogCheckResultCompacted checkBuildLogNoCache(ITeamcityIgnited teamcity, int buildId, boolean dumpLastTest) throws IOException {
-        File zipFile = teamcity.downloadAndCacheBuildLog(buildId);
+    /**
+     * @param teamcity Teamcity.
+     * @return archive of logs downloaded from server.
+     */
+    private BuildLogArchive archive(ITeamcityIgnited teamcity) {
+        String srvCode = teamcity.serverCode();
 
-        if (zipFile == null)
-            return null;
+        return archives.computeIfAbsent(srvCode, k -> {
+            long budget = Long.getLong(TcBotSystemProperties.TEAMCITY_BOT_LOGS_ARCHIVE_MB, 10240) * 1024 * 1024;
+            File dir = TcBotWorkDir.resolveLogsDir(teamcity.config().logsDirectory());
 
-        return runCheckForZippedLog(dumpLastTest, zipFile);
+            return new BuildLogArchive(dir, budget, buildId -> logCheckResultDao.containsKey(srvCode, buildId));
+        });
     }
 
+    /**
+     * Analyzes archived log, or log being downloaded: the download is saved to archive while it is analyzed.
+     *
+     * @param teamcity Teamcity.
+     * @param buildId Build ID.
+     * @param dumpLastTest Dump last test.
+     */
+    private LogCheckResultCompacted checkBuildLogNoCache(ITeamcityIgnited teamcity, int buildId, boolean dumpLastTest) throws IOException {
+        BuildLogArchive archive = archive(teamcity);
+        File archived = archive.get(buildId);
+
+        // Size of log being downloaded is not known, average one is reserved, or default one if archive is empty.
+        long reserved = archived != null ? archived.length() : archive.averageBytes();
+
+        if (reserved == 0)
+            reserved = Long.getLong(TcBotSystemProperties.TEAMCITY_BOT_LOG_ANALYSIS_DEFAULT_MB, 64) * 1024 * 1024;
+
+        try {
+            logAnalysisExecutor.acquireBytes(reserved);
+        }
+        catch (InterruptedException e) {
+            throw ExceptionUtil.propagateException(e);
+        }
+
+        long start = System.nanoTime();
+        long processed = 0;
+
+        try {
+            if (archived != null) {
+                processed = archived.length();
+
+                try (InputStream is = new FileInputStream(archived)) {
+                    return runCheckForZippedLog(dumpLastTest, is, archived);
+                }
+            }
+
+            File tmp = archive.tempFile(buildId);
+
+            try {
+                LogCheckResultCompacted res;
+
+                try (InputStream download = teamcity.downloadBuildLog(buildId);
+                     OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024)) {
+                    CopyingInputStream is = new CopyingInputStream(download, out);
+
+                    res = runCheckForZippedLog(dumpLastTest, is, archive.file(buildId));
+
+                    // Analysis may complete before end of stream, rest of the log is saved anyway.
+                    is.drain();
+
+                    processed = is.count();
+                }
+
+                archive.commit(buildId, tmp);
 
+                return res;
+            }
+            finally {
+                if (tmp.exists() && !tmp.delete())
+                    logger.warn("Unable to remove incomplete build log " + tmp);
+            }
+        }
+        finally {
+            logAnalysisExecutor.releaseBytes(reserved, processed, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param dumpLastTest Dump last test.
+     * @param zipStream Zipped log.
+     * @param zipFile File of zipped log in archive, may not exist yet if log is being downloaded.
+     */
     @SuppressWarnings("WeakerAccess")
     @AutoProfiling
     @Nullable
-    protected LogCheckResultCompacted runCheckForZippedLog(boolean dumpLastTest, File zipFile) throws IOException {
+    protected LogCheckResultCompacted runCheckForZippedLog(boolean dumpLastTest, InputStream zipStream,
+        File zipFile) throws IOException {
         LogCheckTask task = taskProvider.get();
 
+        //get the zip file content
+        try (ZipInputStream zis = new ZipInputStream(zipStream)) {
+            ZipEntry ze = zis.getNextEntry();    //get the zipped file list entry
 
-            //get the zip file content
-            try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
-                ZipEntry ze = zis.getNextEntry();    //get the zipped file list entry
+            while (ze != null) {
+                BuildLogStreamChecker checker = task.createChecker();
+                checker.apply(zis, zipFile);
+                LogCheckResultCompacted finalize = task.finalize(dumpLastTest);
+                if (finalize != null)
+                    return finalize;
 
-                while (ze != null) {
-                    BuildLogStreamChecker checker = task.createChecker();
-                    checker.apply(zis, zipFile);
-                    LogCheckResultCompacted finalize = task.finalize(dumpLastTest);
-                    if (finalize != null)
-                        return finalize;
+                ze = zis.getNextEntry();
+            }
+            zis.closeEntry();
+        }
 
-                    ze = zis.getNextEntry();
-                }
-                zis.closeEntry();
+        return null;
+    }
+
+    /**
+     * Stream copying all bytes read into other stream. Closing is ignored, so the rest of the source can be copied by
+     * {@link #drain()} after zip reader was closed, source and copy are closed by the owner.
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+        /** Copy. */
+        private final OutputStream copy;
+
+        /** Bytes read. */
+        private long cnt;
+
+        /**
+         * @param in Source.
+         * @param copy Copy.
+         */
+        CopyingInputStream(InputStream in, OutputStream copy) {
+            super(in);
+
+            this.copy = copy;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int read() throws IOException {
+            int b = in.read();
+
+            if (b >= 0) {
+                copy.write(b);
+                cnt++;
             }
 
+            return b;
+        }
 
-        return null;
+        /** {@inheritDoc} */
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+
+            if (read > 0) {
+                copy.write(b, off, read);
+                cnt += read;
+            }
+
+            return read;
+        }
+
+        /** {@inheritDoc} */
+        @Override public long skip(long n) throws IOException {
+            // Skipped bytes should be copied too.
+            return Math.max(0, read(new byte[(int)Math.min(n, 8192)]));
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean markSupported() {
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void close() {
+            // Closed by owner.
+        }
+
+        /**
+         * Reads source till the end.
+         */
+        void drain() throws IOException {
+            byte[] buf = new byte[64 * 1024];
+
+            while (read(buf, 0, buf.length) >= 0) {
+                // Copied by read.
+            }
+        }
+
+        /**
+         * @return bytes read.
+         */
+        long count() {
+            return cnt;
+        }
     }
 }
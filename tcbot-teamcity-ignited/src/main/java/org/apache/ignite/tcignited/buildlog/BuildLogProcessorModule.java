@@ -23,5 +23,6 @@ public class BuildLogProcessorModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(IBuildLogProcessor.class).to(BuildLogProcessor.class).in(new SingletonScope());
+        bind(LogAnalysisExecutor.class).in(new SingletonScope());
     }
 }
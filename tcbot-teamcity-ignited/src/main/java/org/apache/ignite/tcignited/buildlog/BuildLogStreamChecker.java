@@ -17,14 +17,10 @@
 
 package org.apache.ignite.tcignited.buildlog;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -37,11 +33,9 @@ class BuildLogStreamChecker {
         lineHandlersList = Arrays.asList(lineHandlers);
     }
 
-    void apply(ZipInputStream zipInputStream, File zipFile) {
-        Reader reader = new InputStreamReader(zipInputStream, StandardCharsets.UTF_8);
-
-        try (Stream<String> lines = new BufferedReader(reader).lines()) {
-            lines.forEach(line -> lineHandlersList.forEach(h -> h.accept(line, zipFile)));
+    void apply(ZipInputStream zipInputStream, File zipFile) throws IOException {
+        try {
+            new LogLinesScanner(lineHandlersList).scan(zipInputStream, zipFile);
         }
         finally {
             lineHandlersList.forEach(this::closeSilent);
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import com.google.common.base.Preconditions;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton searching several substrings in one pass over UTF-8 bytes. Automaton is compiled into a
+ * dense transition table over byte classes (each byte used in patterns has its own class, all other bytes share one),
+ * so one byte costs one lookup in a table small enough for L1 cache regardless of patterns count.
+ *
+ * States are identified by offset of its row in the table. States having matched patterns, and the special line end
+ * state (reached by <code>'\n'</code> from any state) are numbered last, so the hot loop needs one comparison per byte
+ * to detect both, see {@link LogLinesScanner}. Instance is immutable and thread safe.
+ */
+public class BytesPatternMatcher {
+    /** Maximal count of patterns, result of the match is a bit mask. */
+    public static final int MAX_PATTERNS = Long.SIZE;
+
+    /** Initial state. */
+    static final int INITIAL_STATE = 0;
+
+    /** Byte to class. */
+    private final int[] classes = new int[256];
+
+    /** Classes count, length of table row. */
+    private final int classesCnt;
+
+    /** Transitions: state (row offset) + byte class -> next state (row offset). */
+    private final int[] delta;
+
+    /** Bit mask of patterns ending in state, index is state row number. */
+    private final long[] out;
+
+    /** Lowest state having matched patterns or line end state. */
+    private final int firstSpecialState;
+
+    /** Line end state. */
+    private final int lineEndState;
+
+    /** Patterns count. */
+    private final int patternsCnt;
+
+    /**
+     * @param patterns Patterns, index of pattern is a bit number in match result.
+     */
+    public BytesPatternMatcher(List<String> patterns) {
+        Preconditions.checkArgument(patterns.size() <= MAX_PATTERNS, "Too many patterns: " + patterns.size());
+
+        patternsCnt = patterns.size();
+
+        // Byte classes: 0 - bytes not used in patterns, 1 - line end, then bytes of patterns.
+        List<byte[]> patternBytes = new ArrayList<>();
+        int clsCnt = 2;
+
+        classes['\n'] = 1;
+
+        for (String pattern : patterns) {
+            byte[] bytes = pattern.getBytes(StandardCharsets.UTF_8);
+
+            Preconditions.checkArgument(bytes.length > 0, "Empty pattern");
+
+            for (byte b : bytes) {
+                Preconditions.checkArgument(b != '\n', "Pattern contains line end: " + pattern);
+
+                if (classes[b & 0xFF] == 0)
+                    classes[b & 0xFF] = clsCnt++;
+            }
+
+            patternBytes.add(bytes);
+        }
+
+        classesCnt = clsCnt;
+
+        // Trie, goto function by byte class, -1 if there is no transition.
+        List<int[]> gotoFn = new ArrayList<>();
+        List<Long> outFn = new ArrayList<>();
+
+        gotoFn.add(newState(clsCnt));
+        outFn.add(0L);
+
+        for (int p = 0; p < patternBytes.size(); p++) {
+            int state = 0;
+
+            for (byte b : patternBytes.get(p)) {
+                int c = classes[b & 0xFF];
+
+                if (gotoFn.get(state)[c] < 0) {
+                    gotoFn.get(state)[c] = gotoFn.size();
+                    gotoFn.add(newState(clsCnt));
+                    outFn.add(0L);
+                }
+
+                state = gotoFn.get(state)[c];
+            }
+
+            outFn.set(state, outFn.get(state) | (1L << p));
+        }
+
+        int trieStates = gotoFn.size();
+
+        // Breadth-first construction of failure links folded into transitions (DFA), by trie state numbers.
+        int[][] dfa = new int[trieStates][clsCnt];
+        long[] trieOut = new long[trieStates];
+        int[] fail = new int[trieStates];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int s = 0; s < trieStates; s++)
+            trieOut[s] = outFn.get(s);
+
+        for (int c = 0; c < clsCnt; c++) {
+            int next = gotoFn.get(0)[c];
+
+            if (next > 0) {
+                dfa[0][c] = next;
+                queue.add(next);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+
+            trieOut[s] |= trieOut[fail[s]];
+
+            for (int c = 0; c < clsCnt; c++) {
+                int next = gotoFn.get(s)[c];
+
+                if (next < 0)
+                    dfa[s][c] = dfa[fail[s]][c];
+                else {
+                    dfa[s][c] = next;
+                    fail[next] = dfa[fail[s]][c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        // Renumbering: initial state first, states without output, states with output, line end state last.
+        int states = trieStates + 1;
+        int[] rowOf = new int[trieStates];
+        int row = 0;
+
+        for (int s = 0; s < trieStates; s++) {
+            if (trieOut[s] == 0)
+                rowOf[s] = row++;
+        }
+
+        firstSpecialState = row * clsCnt;
+
+        for (int s = 0; s < trieStates; s++) {
+            if (trieOut[s] != 0)
+                rowOf[s] = row++;
+        }
+
+        lineEndState = row * clsCnt;
+
+        delta = new int[states * clsCnt];
+        out = new long[states];
+
+        for (int s = 0; s < trieStates; s++) {
+            out[rowOf[s]] = trieOut[s];
+
+            for (int c = 0; c < clsCnt; c++)
+                delta[rowOf[s] * clsCnt + c] = c == 1 ? lineEndState : rowOf[dfa[s][c]] * clsCnt;
+        }
+
+        // Line end state behaves as initial one.
+        System.arraycopy(delta, 0, delta, lineEndState, clsCnt);
+    }
+
+    /**
+     * @param clsCnt Classes count.
+     * @return trie node without transitions.
+     */
+    private static int[] newState(int clsCnt) {
+        int[] res = new int[clsCnt];
+
+        Arrays.fill(res, -1);
+
+        return res;
+    }
+
+    /**
+     * @param buf Buffer.
+     * @param from Start offset, inclusive.
+     * @param to End offset, exclusive.
+     * @return bit mask of patterns found, line end in the range resets the search.
+     */
+    public long match(byte[] buf, int from, int to) {
+        int state = INITIAL_STATE;
+        long res = 0;
+
+        int[] delta = this.delta;
+        int[] classes = this.classes;
+
+        for (int i = from; i < to; i++) {
+            state = delta[state + classes[buf[i] & 0xFF]];
+
+            if (state >= firstSpecialState)
+                res |= matched(state);
+        }
+
+        return res;
+    }
+
+    /**
+     * @return transitions table: next state is <code>delta[state + classes[b &amp; 0xFF]]</code>, for hot loops.
+     */
+    int[] transitions() {
+        return delta;
+    }
+
+    /**
+     * @return byte to class, see {@link #transitions()}.
+     */
+    int[] byteClasses() {
+        return classes;
+    }
+
+    /**
+     * @return lowest state having matched patterns, or line end state; any lower state has no matches.
+     */
+    int firstSpecialState() {
+        return firstSpecialState;
+    }
+
+    /**
+     * @return state reached by line end byte.
+     */
+    int lineEndState() {
+        return lineEndState;
+    }
+
+    /**
+     * @param state State.
+     * @return bit mask of patterns ending in state.
+     */
+    long matched(int state) {
+        return out[state / classesCnt];
+    }
+
+    /**
+     * @return patterns count.
+     */
+    public int patternsCount() {
+        return patternsCnt;
+    }
+}
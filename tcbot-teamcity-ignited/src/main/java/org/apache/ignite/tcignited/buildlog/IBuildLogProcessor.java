@@ -18,11 +18,25 @@ package org.apache.ignite.tcignited.buildlog;
 
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 
 public interface IBuildLogProcessor {
     public ILogCheckResult analyzeBuildLog(ITeamcityIgnited teamcity, int buildId, boolean dumpLastTest);
 
+    /**
+     * Analyzes build log in the dedicated log analysis executor, concurrent requests for the same build share one
+     * analysis.
+     *
+     * @param teamcity Teamcity.
+     * @param buildId Build ID.
+     * @param dumpLastTest Save last started test and thread dump.
+     * @return future of analysis result, completed with <code>null</code> if log is not available, or exceptionally
+     * if analysis queue is full.
+     */
+    public CompletableFuture<ILogCheckResult> analyzeBuildLogAsync(ITeamcityIgnited teamcity, int buildId,
+        boolean dumpLastTest);
+
 
     @Nullable
     public String getThreadDumpCached(String serverCode, Integer buildId);
@@ -18,10 +18,24 @@
 package org.apache.ignite.tcignited.buildlog;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 /**
  *
  */
 public interface ILineHandler extends AutoCloseable {
-    public void accept(String line, File file);
+    /**
+     * @return substrings to be searched in each line, index of pattern in this list is used in {@link
+     * LogLine#contains(int)}.
+     */
+    public default List<String> linePatterns() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param line Line, valid only during this call.
+     * @param file Log file.
+     */
+    public void accept(LogLine line, File file);
 }
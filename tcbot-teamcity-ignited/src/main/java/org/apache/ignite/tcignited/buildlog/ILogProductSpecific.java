@@ -17,6 +17,10 @@
 
 package org.apache.ignite.tcignited.buildlog;
 
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
 /**
  *
  */
@@ -35,4 +39,41 @@ public interface ILogProductSpecific {
      * @param line Line.
      */
     public boolean needWarn(String line);
+
+    /**
+     * @return substrings searched in log lines, index of pattern in this list is used in {@link
+     * LogLine#contains(int)}. If empty, line checks fall back to string checks.
+     */
+    public default List<String> linePatterns() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param line Line with {@link #linePatterns()} matched.
+     */
+    public default boolean isTestStarting(LogLine line) {
+        return isTestStarting(line.toString());
+    }
+
+    /**
+     * @param line Line with {@link #linePatterns()} matched.
+     */
+    public default boolean isTestStopping(LogLine line) {
+        return isTestStopping(line.toString());
+    }
+
+    /**
+     * @param line Line with {@link #linePatterns()} matched.
+     */
+    public default boolean needWarn(LogLine line) {
+        return needWarn(line.toString());
+    }
+
+    /**
+     * @param line Line with {@link #linePatterns()} matched.
+     * @return problem code if line reports build problem.
+     */
+    @Nullable public default String getProblemCode(LogLine line) {
+        return LogMsgToWarn.getProblemCode(line.toString());
+    }
 }
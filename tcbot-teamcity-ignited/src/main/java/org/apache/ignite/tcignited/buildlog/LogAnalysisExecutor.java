@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor dedicated to build logs download and analysis, so multi-gigabyte logs do not compete with other tasks for
+ * shared pools. Provides:
+ * <ul>
+ * <li>bounded queue: if it is full, analysis fails with {@link RejectedExecutionException} and can be done on the next
+ * request,</li>
+ * <li>deduplication of analyses in flight by key, e.g. (server, build ID, analysis options),</li>
+ * <li>limit of total size of logs analyzed at the same time,</li>
+ * <li>queue and throughput metrics for the monitoring page.</li>
+ * </ul>
+ */
+public class LogAnalysisExecutor {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(LogAnalysisExecutor.class);
+
+    /** Threads count. */
+    private final int threads;
+
+    /** Queue capacity. */
+    private final int queueCapacity;
+
+    /** Limit of bytes in flight. */
+    private final long bytesLimit = Long.getLong(TcBotSystemProperties.TEAMCITY_BOT_LOG_ANALYSIS_MB_IN_FLIGHT, 512)
+        * 1024 * 1024;
+
+    /** Executor. */
+    private final ThreadPoolExecutor executor;
+
+    /** Analyses in flight: cache key to result future. */
+    private final ConcurrentMap<Object, CompletableFuture<ILogCheckResult>> inFlight = new ConcurrentHashMap<>();
+
+    /** Bytes being analyzed now. */
+    @GuardedBy("this")
+    private long bytesInFlight;
+
+    /** Tasks submitted. */
+    private final AtomicLong submitted = new AtomicLong();
+
+    /** Requests joined to analysis in flight. */
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /** Tasks rejected because queue was full. */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /** Tasks completed. */
+    private final AtomicLong completed = new AtomicLong();
+
+    /** Bytes of zipped logs analyzed. */
+    private final AtomicLong bytesAnalyzed = new AtomicLong();
+
+    /** Time spent for analysis of these bytes, nanoseconds. */
+    private final AtomicLong analysisNanos = new AtomicLong();
+
+    /** Default constructor. */
+    public LogAnalysisExecutor() {
+        this(Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_LOG_ANALYSIS_THREADS, 4),
+            Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_LOG_ANALYSIS_QUEUE, 500));
+    }
+
+    /**
+     * @param threads Threads count.
+     * @param queueCapacity Queue capacity.
+     */
+    LogAnalysisExecutor(int threads, int queueCapacity) {
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+
+        AtomicInteger threadCnt = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "log-analysis-" + threadCnt.incrementAndGet());
+
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs analysis if it is not in flight already for the same key.
+     *
+     * @param key Key of the analysis: build and all options affecting the result.
+     * @param analysis Analysis, result is <code>null</code> if log is not available.
+     * @return future of analysis result; completed with {@link RejectedExecutionException} if queue is full.
+     */
+    public CompletableFuture<ILogCheckResult> submit(Object key, Supplier<ILogCheckResult> analysis) {
+        CompletableFuture<ILogCheckResult> fut = new CompletableFuture<>();
+        CompletableFuture<ILogCheckResult> existing = inFlight.putIfAbsent(key, fut);
+
+        if (existing != null) {
+            deduplicated.incrementAndGet();
+
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    fut.complete(analysis.get());
+                }
+                catch (Throwable e) {
+                    fut.completeExceptionally(e);
+                }
+                finally {
+                    inFlight.remove(key, fut);
+                    completed.incrementAndGet();
+                }
+            });
+
+            submitted.incrementAndGet();
+        }
+        catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+
+            logger.warn("Log analysis queue is full [capacity=" + queueCapacity + "], analysis is rejected: " + key);
+
+            inFlight.remove(key, fut);
+            fut.completeExceptionally(e);
+        }
+
+        return fut;
+    }
+
+    /**
+     * Waits until bytes can be taken into processing. One log is processed anyway, even if it exceeds the limit.
+     *
+     * @param bytes Bytes to process.
+     */
+    public synchronized void acquireBytes(long bytes) throws InterruptedException {
+        while (bytesInFlight > 0 && bytesInFlight + bytes > bytesLimit)
+            wait();
+
+        bytesInFlight += bytes;
+    }
+
+    /**
+     * @param bytes Bytes taken by {@link #acquireBytes(long)}.
+     * @param processed Bytes actually processed, may differ from acquired for a log streamed from server.
+     * @param nanos Processing time.
+     */
+    public synchronized void releaseBytes(long bytes, long processed, long nanos) {
+        bytesInFlight -= bytes;
+
+        bytesAnalyzed.addAndGet(processed);
+        analysisNanos.addAndGet(nanos);
+
+        notifyAll();
+    }
+
+    /**
+     * @return current metrics.
+     */
+    @Nonnull public Metrics metrics() {
+        Metrics res = new Metrics();
+
+        res.threads = threads;
+        res.active = executor.getActiveCount();
+        res.queued = executor.getQueue().size();
+        res.queueCapacity = queueCapacity;
+        res.inFlight = inFlight.size();
+        res.submitted = submitted.get();
+        res.deduplicated = deduplicated.get();
+        res.rejected = rejected.get();
+        res.completed = completed.get();
+
+        synchronized (this) {
+            res.bytesInFlight = bytesInFlight;
+        }
+
+        res.bytesLimit = bytesLimit;
+        res.bytesAnalyzed = bytesAnalyzed.get();
+
+        long nanos = analysisNanos.get();
+
+        res.mbPerSec = nanos == 0 ? 0 : (res.bytesAnalyzed / 1024.0 / 1024.0) / (nanos / 1e9);
+
+        return res;
+    }
+
+    /**
+     * Stops executor.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Log analysis metrics.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static class Metrics {
+        /** Threads. */
+        public int threads;
+
+        /** Threads busy now. */
+        public int active;
+
+        /** Tasks in queue. */
+        public int queued;
+
+        /** Queue capacity. */
+        public int queueCapacity;
+
+        /** Analyses queued or running. */
+        public int inFlight;
+
+        /** Tasks submitted since start. */
+        public long submitted;
+
+        /** Requests joined to analysis in flight since start. */
+        public long deduplicated;
+
+        /** Tasks rejected since start because queue was full. */
+        public long rejected;
+
+        /** Tasks completed since start. */
+        public long completed;
+
+        /** Zipped log bytes being analyzed now. */
+        public long bytesInFlight;
+
+        /** Limit of bytes in flight. */
+        public long bytesLimit;
+
+        /** Zipped log bytes analyzed since start. */
+        public long bytesAnalyzed;
+
+        /** Analysis throughput of zipped logs by one thread, MB/s. */
+        public double mbPerSec;
+    }
+}
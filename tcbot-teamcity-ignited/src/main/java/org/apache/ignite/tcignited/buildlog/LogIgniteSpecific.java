@@ -17,6 +17,12 @@
 
 package org.apache.ignite.tcignited.buildlog;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrence;
+
 /**
  * Ignite specific logic related to build logs.
  */
@@ -30,6 +36,34 @@ public class LogIgniteSpecific implements ILogProductSpecific {
     /** Stopping test. */
     private static final String STOPPING_TEST = ">>> Stopping test: ";
 
+    /** Assertion error. */
+    private static final String ASSERTION_ERROR = "java.lang.AssertionError:";
+
+    /** Critical failure. */
+    private static final String CRITICAL_FAILURE = "Critical failure. Will be handled accordingly to configured handler";
+
+    /** Index of starting test in line patterns. */
+    private static final int STARTING_TEST_IDX = 0;
+
+    /** Index of test name end in line patterns. */
+    private static final int TEST_NAME_END_IDX = 1;
+
+    /** Index of stopping test in line patterns. */
+    private static final int STOPPING_TEST_IDX = 2;
+
+    /** Index of assertion error in line patterns. */
+    private static final int ASSERTION_ERROR_IDX = 3;
+
+    /** Index of deadlock in line patterns. */
+    private static final int DEADLOCK_IDX = 4;
+
+    /** Index of critical failure in line patterns. */
+    private static final int CRITICAL_FAILURE_IDX = 5;
+
+    /** Line patterns, see indexes above. */
+    private static final List<String> LINE_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+        STARTING_TEST, TEST_NAME_END, STOPPING_TEST, ASSERTION_ERROR, JAVA_LEVEL_DEADLOCK_TXT, CRITICAL_FAILURE));
+
     /** {@inheritDoc} */
     @Override public boolean isTestStarting(String line) {
         return line.contains(STARTING_TEST) && line.contains(TEST_NAME_END);
@@ -42,8 +76,35 @@ public class LogIgniteSpecific implements ILogProductSpecific {
 
     /** {@inheritDoc} */
     @Override public boolean needWarn(String line) {
-        return line.contains("java.lang.AssertionError:")
+        return line.contains(ASSERTION_ERROR)
             || line.contains(JAVA_LEVEL_DEADLOCK_TXT)
-            || line.contains("Critical failure. Will be handled accordingly to configured handler");
+            || line.contains(CRITICAL_FAILURE);
+    }
+
+    /** {@inheritDoc} */
+    @Override public List<String> linePatterns() {
+        return LINE_PATTERNS;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean isTestStarting(LogLine line) {
+        return line.contains(STARTING_TEST_IDX) && line.contains(TEST_NAME_END_IDX);
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean isTestStopping(LogLine line) {
+        return line.contains(STOPPING_TEST_IDX);
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean needWarn(LogLine line) {
+        return line.contains(ASSERTION_ERROR_IDX)
+            || line.contains(DEADLOCK_IDX)
+            || line.contains(CRITICAL_FAILURE_IDX);
+    }
+
+    /** {@inheritDoc} */
+    @Nullable @Override public String getProblemCode(LogLine line) {
+        return line.contains(DEADLOCK_IDX) ? ProblemOccurrence.JAVA_LEVEL_DEADLOCK : null;
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.nio.charset.StandardCharsets;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Line of build log as a view of the read buffer. Line is valid only during {@link ILineHandler#accept(LogLine,
+ * java.io.File)} call, handler should copy (e.g. by {@link #toString()}) only lines it needs to keep.
+ */
+@NotThreadSafe
+public class LogLine {
+    /** Buffer. */
+    private byte[] buf;
+
+    /** Line start offset. */
+    private int from;
+
+    /** Line end offset (exclusive), line terminator is not included. */
+    private int to;
+
+    /** Patterns of current handler found in line. */
+    private long matched;
+
+    /** Decoded line. */
+    private String str;
+
+    /**
+     * @param buf Buffer.
+     * @param from Line start offset.
+     * @param to Line end offset.
+     */
+    void reset(byte[] buf, int from, int to) {
+        this.buf = buf;
+        this.from = from;
+        this.to = to;
+        this.str = null;
+    }
+
+    /**
+     * @param matched Patterns of current handler found in line.
+     */
+    void matched(long matched) {
+        this.matched = matched;
+    }
+
+    /**
+     * @param patternIdx Index of pattern in {@link ILineHandler#linePatterns()} of the handler.
+     * @return <code>true</code> if line contains pattern.
+     */
+    public boolean contains(int patternIdx) {
+        return (matched & (1L << patternIdx)) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if line contains any pattern of the handler.
+     */
+    public boolean containsAny() {
+        return matched != 0;
+    }
+
+    /**
+     * @param c ASCII character.
+     */
+    public boolean startsWith(char c) {
+        return to > from && buf[from] == (byte)c;
+    }
+
+    /**
+     * @return length of line in bytes.
+     */
+    public int lengthBytes() {
+        return to - from;
+    }
+
+    /**
+     * @return line decoded from UTF-8, decoded once per line.
+     */
+    @Override public String toString() {
+        if (str == null)
+            str = new String(buf, from, to - from, StandardCharsets.UTF_8);
+
+        return str;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Splits log into lines and finds patterns of all handlers in a single pass over raw bytes. Patterns of all handlers
+ * are compiled into one {@link BytesPatternMatcher}, each handler gets its own range of bits of the match result.
+ * Lines are not decoded unless a handler asks for string, see {@link LogLine#toString()}.
+ *
+ * Use one instance per one stream, class is stateful and not thread safe.
+ */
+class LogLinesScanner {
+    /** Initial read buffer size. */
+    private static final int BUF_SIZE = 64 * 1024;
+
+    /** Compiled matchers: handlers patterns are the same for each log, so compile these once. */
+    private static final ConcurrentMap<List<String>, BytesPatternMatcher> MATCHERS = new ConcurrentHashMap<>();
+
+    /** Line handlers. */
+    private final ILineHandler[] handlers;
+
+    /** Shift of the match result for each handler. */
+    private final int[] shifts;
+
+    /** Mask of handler patterns (after shift). */
+    private final long[] masks;
+
+    /** Matcher. */
+    private final BytesPatternMatcher matcher;
+
+    /** Line view, reused. */
+    private final LogLine line = new LogLine();
+
+    /**
+     * @param handlers Line handlers.
+     */
+    LogLinesScanner(List<ILineHandler> handlers) {
+        this.handlers = handlers.toArray(new ILineHandler[0]);
+
+        shifts = new int[this.handlers.length];
+        masks = new long[this.handlers.length];
+
+        List<String> patterns = new ArrayList<>();
+
+        for (int i = 0; i < this.handlers.length; i++) {
+            List<String> hndPatterns = this.handlers[i].linePatterns();
+
+            shifts[i] = patterns.size();
+            masks[i] = hndPatterns.size() >= Long.SIZE ? -1L : (1L << hndPatterns.size()) - 1;
+
+            patterns.addAll(hndPatterns);
+        }
+
+        matcher = MATCHERS.computeIfAbsent(patterns, BytesPatternMatcher::new);
+    }
+
+    /**
+     * Passes each line of the stream to all handlers. Stream is not closed.
+     *
+     * @param in Log stream.
+     * @param file Log file.
+     * @return count of bytes read.
+     */
+    long scan(InputStream in, File file) throws IOException {
+        byte[] buf = new byte[BUF_SIZE];
+        int lineStart = 0;
+        int pos = 0;
+        int limit = 0;
+        int state = BytesPatternMatcher.INITIAL_STATE;
+        long matched = 0;
+        long total = 0;
+
+        int specialState = matcher.firstSpecialState();
+        int lineEndState = matcher.lineEndState();
+        int[] delta = matcher.transitions();
+        int[] classes = matcher.byteClasses();
+
+        while (true) {
+            if (pos == limit) {
+                if (lineStart > 0) {
+                    System.arraycopy(buf, lineStart, buf, 0, limit - lineStart);
+                    pos -= lineStart;
+                    limit -= lineStart;
+                    lineStart = 0;
+                }
+
+                if (limit == buf.length)
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+
+                int read = in.read(buf, limit, buf.length - limit);
+
+                if (read < 0)
+                    break;
+
+                limit += read;
+                total += read;
+            }
+
+            // Hot loop, one table lookup and one comparison per byte.
+            for (; pos < limit; pos++) {
+                state = delta[state + classes[buf[pos] & 0xFF]];
+
+                if (state < specialState)
+                    continue;
+
+                if (state == lineEndState) {
+                    acceptLine(buf, lineStart, pos, matched, file);
+
+                    lineStart = pos + 1;
+                    matched = 0;
+                }
+                else
+                    matched |= matcher.matched(state);
+            }
+        }
+
+        if (lineStart < limit)
+            acceptLine(buf, lineStart, limit, matched, file);
+
+        return total;
+    }
+
+    /**
+     * @param buf Buffer.
+     * @param from Line start.
+     * @param to Line end, exclusive.
+     * @param matched Patterns found.
+     * @param file Log file.
+     */
+    private void acceptLine(byte[] buf, int from, int to, long matched, File file) {
+        if (to > from && buf[to - 1] == '\r')
+            to--;
+
+        line.reset(buf, from, to);
+
+        for (int i = 0; i < handlers.length; i++) {
+            line.matched((matched >>> shifts[i]) & masks[i]);
+
+            handlers[i].accept(line, file);
+        }
+    }
+}
@@ -18,14 +18,13 @@
 package org.apache.ignite.tcignited.buildlog;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Stream;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,8 +49,8 @@ public class LogsAnalyzer implements Function<File, File> {
 
     /** {@inheritDoc} */
     @Override public File apply(File file) {
-        try (Stream<String> lines = Files.lines(file.toPath(), StandardCharsets.UTF_8)) {
-            lines.forEach(line -> lineHandlersList.forEach(h -> h.accept(line, file)));
+        try (InputStream in = new FileInputStream(file)) {
+            new LogLinesScanner(lineHandlersList).scan(in, file);
         }
         catch (IOException e) {
             throw new UncheckedIOException(e);
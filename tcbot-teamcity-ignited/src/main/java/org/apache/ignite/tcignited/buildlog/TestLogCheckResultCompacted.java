@@ -56,9 +56,15 @@ class TestLogCheckResultCompacted implements ITestLogCheckResult {
 
 
     public void addLineStat(String line) {
-        int i = line.length() + 1; //here suppose UTF-8, 1 byte per char; 1 newline char
+        addLineStat(line.length()); //here suppose UTF-8, 1 byte per char
+    }
+
+    /**
+     * @param lineBytes Length of line in bytes, without line terminator.
+     */
+    public void addLineStat(int lineBytes) {
         cntLines++;
-        cntBytes += i;
+        cntBytes += lineBytes + 1; // 1 newline char
     }
 
     public int getLogSizeBytes() {
@@ -18,6 +18,7 @@
 package org.apache.ignite.tcignited.buildlog;
 
 import java.io.File;
+import java.util.List;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 
 import javax.inject.Inject;
@@ -32,6 +33,9 @@ public class TestLogHandler implements ILineHandler {
     public static final TestLogCheckResultCompacted FAKE_RESULT = new TestLogCheckResultCompacted();
 
     private String currentTestName = null;
+
+    /** Result of current test, is resolved once per test. */
+    private TestLogCheckResultCompacted curTestRes;
     private File workFolder;
 
     /** Result. */
@@ -43,17 +47,22 @@ public class TestLogHandler implements ILineHandler {
     @Inject
     private ILogProductSpecific logSpecific;
 
-    @Override public void accept(String line, File fromLogFile) {
+    /** {@inheritDoc} */
+    @Override public List<String> linePatterns() {
+        return logSpecific.linePatterns();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void accept(LogLine line, File fromLogFile) {
         if (workFolder == null)
             workFolder = fromLogFile.getParentFile();
 
         if (logSpecific.isTestStarting(line)) {
-            if (currentTestName != null)
-                currentTestName = null;
-
-            String startTest = line.substring(line.indexOf(STARTING_TEST) + STARTING_TEST.length(), line.indexOf(TEST_NAME_END));
+            String str = line.toString();
+            String startTest = str.substring(str.indexOf(STARTING_TEST) + STARTING_TEST.length(), str.indexOf(TEST_NAME_END));
 
             this.currentTestName = startTest;
+            this.curTestRes = null;
         }
         else if (currentTestName != null && logSpecific.isTestStopping(line)) {
             //currentTestName = null;
@@ -63,21 +72,25 @@ public class TestLogHandler implements ILineHandler {
         if (currentTestName == null)
             return;
 
-        curTest().addLineStat(line);
+        curTest().addLineStat(line.lengthBytes());
 
         if (logSpecific.needWarn(line))
-            curTest().addWarning(line);
+            curTest().addWarning(line.toString());
 
-        String problemCode = LogMsgToWarn.getProblemCode(line);
+        String problemCode = logSpecific.getProblemCode(line);
 
         if (problemCode != null)
             res.addProblem(problemCode, compactor);
     }
 
     private TestLogCheckResultCompacted curTest() {
-        String curName = getLastTestName();
+        if (curTestRes == null) {
+            String curName = getLastTestName();
+
+            curTestRes = curName == null ? FAKE_RESULT : res.getOrCreateTestResult(curName);
+        }
 
-        return curName == null ? FAKE_RESULT : res.getOrCreateTestResult(curName);
+        return curTestRes;
     }
 
     /** {@inheritDoc} */
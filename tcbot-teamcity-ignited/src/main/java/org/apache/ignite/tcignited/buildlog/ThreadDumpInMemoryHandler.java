@@ -18,6 +18,8 @@
 package org.apache.ignite.tcignited.buildlog;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -30,11 +32,20 @@ public class ThreadDumpInMemoryHandler implements ILineHandler {
 
     private String lastThreadDump = null;
 
-    @Override public void accept(String line, File fromLogFile) {
-        if (currentThDump == null && line.contains(FULL_THREAD_DUMP))
+    /** Index of thread dump start in line patterns. */
+    private static final int FULL_THREAD_DUMP_IDX = 0;
+
+    /** {@inheritDoc} */
+    @Override public List<String> linePatterns() {
+        return Collections.singletonList(FULL_THREAD_DUMP);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void accept(LogLine line, File fromLogFile) {
+        if (currentThDump == null && line.contains(FULL_THREAD_DUMP_IDX))
             currentThDump = new StringBuilder();
 
-        if (line.startsWith("["))
+        if (line.startsWith('['))
             closeCurrentIfNeed();
 
         if (currentThDump != null) {
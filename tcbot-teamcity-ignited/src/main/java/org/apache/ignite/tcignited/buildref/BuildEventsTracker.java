@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+
+/**
+ * Builds reported as changed by TeamCity (e.g. by build finish webhook), per server. Builds reported by several events
+ * are collected until the next sync, so one sync handles a burst of events. Server which reports events recently is
+ * polled for recent builds rarely, polling remains only as a safety net for lost events.
+ */
+public class BuildEventsTracker {
+    /** Server code -> builds waiting for sync. */
+    private final ConcurrentMap<String, Set<Integer>> pending = new ConcurrentHashMap<>();
+
+    /** Server code -> timestamp of the last event. */
+    private final ConcurrentMap<String, Long> lastEventTs = new ConcurrentHashMap<>();
+
+    /**
+     * @param srvCode Server code.
+     * @param buildIds Changed builds.
+     * @return <code>true</code> if there were no builds waiting for sync, so new sync should be scheduled.
+     */
+    public boolean add(String srvCode, Collection<Integer> buildIds) {
+        lastEventTs.put(srvCode, System.currentTimeMillis());
+
+        boolean[] first = new boolean[1];
+
+        pending.compute(srvCode, (k, ids) -> {
+            Set<Integer> res = ids == null ? new HashSet<>() : ids;
+
+            first[0] = res.isEmpty();
+
+            res.addAll(buildIds);
+
+            return res;
+        });
+
+        return first[0];
+    }
+
+    /**
+     * @param srvCode Server code.
+     * @return builds waiting for sync, these builds are removed from the tracker.
+     */
+    public Set<Integer> takePending(String srvCode) {
+        Set<Integer> ids = pending.remove(srvCode);
+
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    /**
+     * @param srvCode Server code.
+     * @return <code>true</code> if events were received from the server during polling period for event-driven mode.
+     */
+    public boolean eventsActive(String srvCode) {
+        Long ts = lastEventTs.get(srvCode);
+
+        return ts != null && System.currentTimeMillis() - ts < TimeUnit.MINUTES.toMillis(pollingMinutes());
+    }
+
+    /**
+     * @return period of polling for recent builds in minutes for server which reports build events.
+     */
+    public static int pollingMinutes() {
+        return Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_BUILD_EVENTS_POLL_MINUTES, 30);
+    }
+}
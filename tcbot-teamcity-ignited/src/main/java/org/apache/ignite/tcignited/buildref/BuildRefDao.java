@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -95,6 +97,9 @@ public class BuildRefDao {
         .softValues()
         .build();
 
+    /** Queued and running builds by server ID. */
+    private final ConcurrentMap<Integer, NotFinishedBuildsIndex> notFinishedBuilds = new ConcurrentHashMap<>();
+
     /** */
     public BuildRefDao init() {
         CacheConfiguration<Long, BuildRefCompacted> cfg = CacheConfigs.getCacheV2Config(TEAMCITY_BUILD_CACHE_NAME);
@@ -150,6 +155,11 @@ public class BuildRefDao {
         Map<Long, BuildRefCompacted> existingEntries = buildRefsCache.getAll(ids);
         Map<Long, BuildRefCompacted> entriesToPut = new TreeMap<>();
 
+        // registers new strings of the chunk at once, compaction below is served from compactor memory.
+        compactor.getStringIds(ghData.stream()
+            .flatMap(ref -> Stream.of(ref.buildTypeId(), ref.branchName(), ref.status(), ref.state()))
+            .collect(Collectors.toSet()));
+
         List<BuildRefCompacted> collect = ghData.stream()
             .map(ref -> new BuildRefCompacted(compactor, ref))
             .collect(Collectors.toList());
@@ -166,6 +176,8 @@ public class BuildRefDao {
         if (size != 0) {
             buildRefsCache.putAll(entriesToPut);
 
+            entriesToPut.values().forEach(ref -> updateNotFinished(srvId, ref));
+
             invalidateHistoryInMem(srvId, entriesToPut.values().stream());
         }
 
@@ -256,10 +268,48 @@ public class BuildRefDao {
     }
 
     /**
+     * Queued and running builds from in-memory index, the index is filled by scan on the first call for the server.
+     *
      * @param srvId Server id.
      */
     @AutoProfiling
     public List<BuildRefCompacted> getQueuedAndRunning(int srvId) {
+        NotFinishedBuildsIndex idx = notFinished(srvId);
+
+        if (!idx.loaded()) {
+            synchronized (idx) {
+                if (!idx.loaded()) {
+                    scanQueuedAndRunning(srvId).forEach(ref -> idx.update(ref.id(), true));
+
+                    idx.markLoaded();
+                }
+            }
+        }
+
+        Set<Long> keys = idx.ids().stream()
+            .map(buildId -> buildIdToCacheKey(srvId, buildId))
+            .collect(Collectors.toSet());
+
+        Map<Long, BuildRefCompacted> refs = buildRefsCache.getAll(keys);
+        List<BuildRefCompacted> res = new ArrayList<>();
+
+        for (Long key : keys) {
+            BuildRefCompacted ref = refs.get(key);
+
+            if (ref != null && isNotFinished(ref))
+                res.add(ref);
+            else
+                idx.remove(cacheKeyToBuildId(key)); // finished during the scan, or removed
+        }
+
+        return res;
+    }
+
+    /**
+     * @param srvId Server id.
+     * @return queued and running builds found by full scan of references.
+     */
+    private List<BuildRefCompacted> scanQueuedAndRunning(int srvId) {
         GridIntList list = new GridIntList(2);
         Integer stateQueuedId = compactor.getStringIdIfPresent(BuildRef.STATE_QUEUED);
         if (stateQueuedId != null)
@@ -273,6 +323,28 @@ public class BuildRefDao {
             .collect(Collectors.toList());
     }
 
+    /**
+     * @param srvId Server id.
+     * @param ref Saved reference.
+     */
+    private void updateNotFinished(int srvId, BuildRefCompacted ref) {
+        notFinished(srvId).update(ref.id(), isNotFinished(ref));
+    }
+
+    /**
+     * @param ref Reference.
+     */
+    private boolean isNotFinished(BuildRefCompacted ref) {
+        return ref.isQueued(compactor) || ref.isRunning(compactor);
+    }
+
+    /**
+     * @param srvId Server id.
+     */
+    private NotFinishedBuildsIndex notFinished(int srvId) {
+        return notFinishedBuilds.computeIfAbsent(srvId, k -> new NotFinishedBuildsIndex());
+    }
+
     private static long branchNameToHistCacheKey(long srvId, int branchName) {
         return (long)branchName | srvId << 32;
     }
@@ -332,6 +404,7 @@ public class BuildRefDao {
 
         if (buildPersisted == null || !buildPersisted.equals(refCompacted)) {
             buildRefsCache.put(cacheKey, refCompacted);
+            updateNotFinished(srvId, refCompacted);
             invalidateHistoryInMem(srvId, Stream.of(refCompacted));
 
             return true;
@@ -367,9 +440,13 @@ public class BuildRefDao {
 
     public void remove(long key) {
         buildRefsCache.remove(key);
+
+        notFinished(cacheKeyToSrvId(key)).remove(cacheKeyToBuildId(key));
     }
 
     public void removeAll(Set<Long> keys) {
         buildRefsCache.removeAll(keys);
+
+        keys.forEach(key -> notFinished(cacheKeyToSrvId(key)).remove(cacheKeyToBuildId(key)));
     }
 }
@@ -17,21 +17,29 @@
 package org.apache.ignite.tcignited.buildref;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.apache.ignite.tcbot.common.util.TimeUtil;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
+import org.apache.ignite.tcignited.build.BuildLoadPriority;
 import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
 import org.apache.ignite.tcservice.ITeamcityConn;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class checks all builds ocurred on a TC server.
@@ -48,12 +56,24 @@ public class BuildRefSync {
     /** Incremental builds WO modification to be found to stop iterating. */
     public static final int INCREMENTAL_BUILDS_WO_MODIFICATION_TO_STOP  = 1000;
 
+    /** Builds per page requested by full reindex. */
+    public static final int REINDEX_PAGE_SIZE = 1000;
+
+    /** Full reindex started earlier is not continued, but started from the newest build again. */
+    public static final long REINDEX_CURSOR_TTL_MS = Duration.ofDays(7).toMillis();
+
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(BuildRefSync.class);
+
     /** Build reference DAO. */
     @Inject private BuildRefDao buildRefDao;
 
     /** Build Sync. */
     @Inject private ProactiveFatBuildSync fatBuildSync;
 
+    /** Full reindex progress DAO. */
+    @Inject private ReindexCursorDao reindexCursorDao;
+
     public enum SyncMode {
         ULTRAFAST,
         FULL_REINDEX,
@@ -75,15 +95,17 @@ public class BuildRefSync {
         SyncMode syncMode,
         @Nullable Set<Integer> mandatoryToReload,
         ITeamcityConn conn) {
+        if (syncMode == SyncMode.FULL_REINDEX)
+            return runFullReindex(srvId, conn);
 
         AtomicReference<String> outLinkNext = new AtomicReference<>();
         List<BuildRef> tcDataFirstPage = conn.getBuildRefsPage(null, outLinkNext);
 
-        long start = System.currentTimeMillis();
         int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvId);
         Set<Long> buildsUpdated = buildRefDao.saveChunk(srvIdMaskHigh, tcDataFirstPage);
         int totalUpdated = buildsUpdated.size();
-        fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(buildsUpdated));
+        BuildLoadPriority loadPriority = loadPriority(syncMode);
+        fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(buildsUpdated), loadPriority);
 
         int totalChecked = tcDataFirstPage.size();
         int neededToFind = 0;
@@ -105,10 +127,7 @@ public class BuildRefSync {
         }
 
         long lastTimeUpdateFound = System.currentTimeMillis();
-        long maxMsWithoutChanges = Duration.ofHours(1).toMillis();
 
-        //reason for end for full sync
-        boolean timeoutForNewBuild = false;
         //reason for end for incremental sync: decrementing counter of builds to find without modification to stop search.
         int buildsCntrToStop = INCREMENTAL_BUILDS_WO_MODIFICATION_TO_STOP;
 
@@ -118,7 +137,7 @@ public class BuildRefSync {
             List<BuildRef> tcDataNextPage = conn.getBuildRefsPage(nextPageUrl, outLinkNext);
             Set<Long> curChunkBuildsSaved = buildRefDao.saveChunk(srvIdMaskHigh, tcDataNextPage);
             totalUpdated += curChunkBuildsSaved.size();
-            fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(curChunkBuildsSaved));
+            fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(curChunkBuildsSaved), loadPriority);
 
             int savedCurChunk = curChunkBuildsSaved.size();
 
@@ -132,12 +151,6 @@ public class BuildRefSync {
 
             if (syncMode == SyncMode.ULTRAFAST && isEmpty(mandatoryToReload))
                 break;
-            else if (syncMode==SyncMode.FULL_REINDEX) {
-                timeoutForNewBuild = System.currentTimeMillis() > lastTimeUpdateFound + maxMsWithoutChanges;
-                if (timeoutForNewBuild
-                    && totalChecked > MAX_INCREMENTAL_BUILDS_TO_CHECK)
-                    break;
-            }
             else {
                 boolean noMandatoryBuildsLeft = isEmpty(mandatoryToReload);
                 if (!noMandatoryBuildsLeft)
@@ -168,18 +181,150 @@ public class BuildRefSync {
         sb.append(TimeUtil.millisToDurationPrintable(System.currentTimeMillis()- lastTimeUpdateFound));
         sb.append(" ago");
 
-        if(timeoutForNewBuild) {
-            sb.append("TIMEOUT, total time: ");
-            sb.append(TimeUtil.millisToDurationPrintable(System.currentTimeMillis()- start));
+        return sb.toString();
+    }
+
+    /**
+     * Checks all builds of the server. Build list is split into pages by position, several pages are requested
+     * concurrently while previous ones are saved. Progress is persisted after each saved page, so reindex interrupted by
+     * restart is continued from the last saved page.
+     *
+     * @param srvId Server id.
+     * @param conn Teamcity to check builds.
+     */
+    private String runFullReindex(String srvId, ITeamcityConn conn) {
+        int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvId);
+        BuildLoadPriority loadPriority = loadPriority(SyncMode.FULL_REINDEX);
+
+        ReindexCursor cursor = reindexCursorDao.get(srvIdMaskHigh);
+
+        if (cursor == null || System.currentTimeMillis() > cursor.startTs + REINDEX_CURSOR_TTL_MS) {
+            List<BuildRef> firstPage = conn.getBuildRefsPage(null, new AtomicReference<>());
+
+            Set<Long> saved = buildRefDao.saveChunk(srvIdMaskHigh, firstPage);
+            fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(saved), loadPriority);
+
+            OptionalInt newestBuild = newestStartedBuild(firstPage);
+
+            if (!newestBuild.isPresent())
+                return "Entries saved " + saved.size() + " Builds checked " + firstPage.size();
+
+            cursor = new ReindexCursor(newestBuild.getAsInt());
+
+            reindexCursorDao.save(srvIdMaskHigh, cursor);
         }
+        else
+            logger.info("Continue full reindex of " + srvId + " from build " + cursor.nextStart);
 
-        return sb.toString();
+        int parallelPages = Math.max(1, Integer.getInteger(TcBotSystemProperties.TEAMCITY_BOT_REINDEX_PARALLEL_PAGES, 2));
+        Deque<CompletableFuture<Page>> pages = new ArrayDeque<>();
+        int nextPageStart = cursor.nextStart;
+        boolean lastPageFound = false;
+
+        try {
+            while (!lastPageFound) {
+                while (pages.size() < parallelPages) {
+                    String url = pageUrl(cursor.untilBuildId, nextPageStart);
+
+                    pages.add(fatBuildSync.submitRequest(conn, () -> {
+                        AtomicReference<String> outLinkNext = new AtomicReference<>();
+                        List<BuildRef> builds = conn.getBuildRefsPage(url, outLinkNext);
+
+                        return new Page(builds, outLinkNext.get() != null);
+                    }));
+
+                    nextPageStart += REINDEX_PAGE_SIZE;
+                }
+
+                Page page = pages.poll().join();
+
+                Set<Long> saved = buildRefDao.saveChunk(srvIdMaskHigh, page.builds);
+                fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(saved), loadPriority);
+
+                cursor.nextStart += REINDEX_PAGE_SIZE;
+                cursor.checked += page.builds.size();
+                cursor.saved += saved.size();
+
+                lastPageFound = page.builds.isEmpty() || !page.hasNext;
+
+                if (!lastPageFound)
+                    reindexCursorDao.save(srvIdMaskHigh, cursor);
+            }
+        }
+        finally {
+            pages.forEach(f -> f.cancel(false));
+        }
+
+        reindexCursorDao.remove(srvIdMaskHigh);
+
+        return "Entries saved " + cursor.saved +
+            " Builds checked " + cursor.checked +
+            " Total time " + TimeUtil.millisToDurationPrintable(System.currentTimeMillis() - cursor.startTs);
+    }
+
+    /**
+     * @param builds Builds.
+     * @return newest build which is not queued, queued builds may be not accepted as a border of builds list.
+     */
+    private static OptionalInt newestStartedBuild(List<BuildRef> builds) {
+        OptionalInt started = builds.stream()
+            .filter(b -> b.getId() != null && !b.isQueued())
+            .mapToInt(BuildRef::getId)
+            .max();
+
+        if (started.isPresent())
+            return started;
+
+        return builds.stream().filter(b -> b.getId() != null).mapToInt(BuildRef::getId).max();
+    }
+
+    /**
+     * @param untilBuildId Newest build to be included, positions of builds are not changed by new builds.
+     * @param start Position of the first build of the page.
+     */
+    private static String pageUrl(int untilBuildId, int start) {
+        return "app/rest/latest/builds?locator=defaultFilter:false,count:" + REINDEX_PAGE_SIZE + ",start:" + start +
+            ",untilBuild:(id:" + untilBuildId + ")";
+    }
+
+    /**
+     * Page of builds requested by full reindex.
+     */
+    private static class Page {
+        /** Builds. */
+        final List<BuildRef> builds;
+
+        /** Next page is available. */
+        final boolean hasNext;
+
+        /**
+         * @param builds Builds.
+         * @param hasNext Next page is available.
+         */
+        Page(List<BuildRef> builds, boolean hasNext) {
+            this.builds = builds;
+            this.hasNext = hasNext;
+        }
     }
 
     public boolean isEmpty(@Nullable Set<Integer> mandatoryToReload) {
         return mandatoryToReload == null || mandatoryToReload.isEmpty();
     }
 
+    /**
+     * @param syncMode Sync mode.
+     * @return class of fat build loads for builds found by sync.
+     */
+    private static BuildLoadPriority loadPriority(SyncMode syncMode) {
+        if (syncMode == SyncMode.ULTRAFAST)
+            return BuildLoadPriority.INTERACTIVE;
+
+        if (syncMode == SyncMode.FULL_REINDEX)
+            return BuildLoadPriority.BACKFILL;
+
+        return BuildLoadPriority.TRACKED_BRANCH;
+    }
+
     @Nonnull
     private List<Integer> cacheKeysToBuildIds(Collection<Long> cacheKeysUpdated) {
         return cacheKeysUpdated.stream().map(BuildRefDao::cacheKeyToBuildId).collect(Collectors.toList());
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildref;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of queued and running builds of one server. It is filled by one scan of build references and then
+ * kept up to date by saves of references, so checking of not finished builds does not require scan of all history.
+ *
+ * Index may contain builds which were finished concurrently with the scan, such builds are removed by the reader.
+ */
+class NotFinishedBuildsIndex {
+    /** Build IDs. */
+    private final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+    /** Index was filled by scan. */
+    private volatile boolean loaded;
+
+    /**
+     * @param buildId Build ID.
+     * @param notFinished Build is queued or running.
+     */
+    void update(int buildId, boolean notFinished) {
+        if (notFinished)
+            ids.add(buildId);
+        else
+            ids.remove(buildId);
+    }
+
+    /**
+     * @param buildId Build ID.
+     */
+    void remove(int buildId) {
+        ids.remove(buildId);
+    }
+
+    /**
+     * @return IDs of builds, view of index.
+     */
+    Set<Integer> ids() {
+        return ids;
+    }
+
+    /**
+     * @return <code>true</code> if index was filled by scan.
+     */
+    boolean loaded() {
+        return loaded;
+    }
+
+    /**
+     * Marks index as filled.
+     */
+    void markLoaded() {
+        loaded = true;
+    }
+}
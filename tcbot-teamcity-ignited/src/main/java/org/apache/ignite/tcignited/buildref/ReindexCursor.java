@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import org.apache.ignite.tcbot.persistence.Persisted;
+
+/**
+ * Progress of full reindex of build references of one server. Pages are requested from the list of builds started
+ * not later than {@link #untilBuildId}, so positions of builds in the list are not shifted by new builds.
+ */
+@Persisted
+public class ReindexCursor {
+    /** Newest build at the moment reindex was started. */
+    int untilBuildId;
+
+    /** Position of first build not saved yet. */
+    int nextStart;
+
+    /** Builds checked. */
+    int checked;
+
+    /** Builds saved. */
+    int saved;
+
+    /** Reindex start timestamp. */
+    long startTs;
+
+    /**
+     * Default constructor.
+     */
+    public ReindexCursor() {
+    }
+
+    /**
+     * @param untilBuildId Newest build at the moment reindex was started.
+     */
+    ReindexCursor(int untilBuildId) {
+        this.untilBuildId = untilBuildId;
+        this.startTs = System.currentTimeMillis();
+    }
+}
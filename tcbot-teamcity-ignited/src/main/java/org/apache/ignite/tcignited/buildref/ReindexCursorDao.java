@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.tcbot.persistence.CacheConfigs;
+
+/**
+ * Persisted progress of full reindex of build references, allows to continue reindex after restart.
+ */
+public class ReindexCursorDao {
+    /** Cache name. */
+    public static final String BUILD_REF_REINDEX_CURSOR_CACHE_NAME = "teamcityBuildRefReindexCursor";
+
+    /** Ignite provider. */
+    @Inject private Provider<Ignite> igniteProvider;
+
+    /** Server ID -> reindex cursor. */
+    private IgniteCache<Integer, ReindexCursor> cursorCache;
+
+    /**
+     * Initialize
+     */
+    public void init() {
+        cursorCache = igniteProvider.get().getOrCreateCache(
+            CacheConfigs.getCacheV2Config(BUILD_REF_REINDEX_CURSOR_CACHE_NAME));
+    }
+
+    /**
+     * @param srvId Server ID.
+     * @return cursor of reindex in progress or <code>null</code> if no reindex was started.
+     */
+    @Nullable public ReindexCursor get(int srvId) {
+        return cursorCache.get(srvId);
+    }
+
+    /**
+     * @param srvId Server ID.
+     * @param cursor Cursor.
+     */
+    public void save(int srvId, ReindexCursor cursor) {
+        cursorCache.put(srvId, cursor);
+    }
+
+    /**
+     * @param srvId Server ID.
+     */
+    public void remove(int srvId) {
+        cursorCache.remove(srvId);
+    }
+}
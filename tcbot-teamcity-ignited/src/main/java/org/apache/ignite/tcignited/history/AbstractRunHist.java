@@ -16,8 +16,6 @@
  */
 package org.apache.ignite.tcignited.history;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -42,20 +40,45 @@ public abstract class AbstractRunHist implements IRunHistory {
 
     /** {@inheritDoc} */
     @Override public int getCriticalFailuresCount() {
-        return (int)getInvocations().filter(inv -> inv.status() == InvocationData.CRITICAL_FAILURE).count();
+        int cnt = getInvocationsCount();
+        int res = 0;
+
+        for (int i = 0; i < cnt; i++) {
+            if (statusAt(i) == InvocationData.CRITICAL_FAILURE)
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @Override public int getFailuresCount() {
-        return (int)getInvocations().filter(inv ->
-            inv.status() == InvocationData.FAILURE
-                || inv.status() == InvocationData.CRITICAL_FAILURE).count();
+        int cnt = getInvocationsCount();
+        int res = 0;
+
+        for (int i = 0; i < cnt; i++) {
+            byte status = statusAt(i);
+
+            if (status == InvocationData.FAILURE || status == InvocationData.CRITICAL_FAILURE)
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @Override public int getRunsCount() {
-        return (int)getInvocations().filter(inv ->
-            inv.status() != InvocationData.MISSING && !Invocation.isMutedOrIgnored(inv.status())).count();
+        int cnt = getInvocationsCount();
+        int res = 0;
+
+        for (int i = 0; i < cnt; i++) {
+            byte status = statusAt(i);
+
+            if (status != InvocationData.MISSING && !Invocation.isMutedOrIgnored(status))
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
@@ -71,107 +94,42 @@ public abstract class AbstractRunHist implements IRunHistory {
             return null;
 
         return "Test seems to be flaky: " +
-            "changed its status [" + statusChange + "/" + getInvocations().count() + "] without code modifications";
+            "changed its status [" + statusChange + "/" + getInvocationsCount() + "] without code modifications";
     }
 
     /**
      * @return number of status change without code modifications for test to be considered as flaky
      */
     public int getStatusChangesWithoutCodeModification() {
+        int cnt = getInvocationsCount();
         int statusChange = 0;
 
-        Invocation prev = null;
+        int prevIdx = -1;
 
-        for (Invocation cur : invocations()) {
-            if (cur == null)
-                continue;
+        for (int i = 0; i < cnt; i++) {
+            byte status = statusAt(i);
 
-            if (cur.status() == InvocationData.MISSING)
+            if (status == InvocationData.MISSING)
                 continue;
 
             //todo here all previous MISSING invocations status could be checked
-            if (prev != null) {
-                if (prev.status() != cur.status()
-                    && cur.changesState() == ChangesState.NONE
-                    && prev.changesState() != ChangesState.UNKNOWN)
+            if (prevIdx >= 0) {
+                if (statusAt(prevIdx) != status
+                    && changesStateAt(i) == ChangesState.NONE
+                    && changesStateAt(prevIdx) != ChangesState.UNKNOWN)
                     statusChange++;
             }
 
-            prev = cur;
+            prevIdx = i;
         }
         return statusChange;
     }
 
+    /** {@inheritDoc} */
     @Nullable
-    public Integer detectTemplate(IEventTemplate t) {
-        int centralEvtBuild = t.beforeEvent().length;
-
-        int[] template = concatArr(t.beforeEvent(), t.eventAndAfter());
-
-        assert centralEvtBuild < template.length;
-        assert centralEvtBuild >= 0;
-
-        boolean includeMissing = t.includeMissing();
-
-        List<Invocation> histAsArr = new ArrayList<>();
-        for (Invocation invocation : invocations()) {
-            if (includeMissing || invocation.status() != InvocationData.MISSING)
-                histAsArr.add(invocation);
-        }
-
-        if (histAsArr.size() < template.length)
-            return null;
-
-        Integer detectedAt = null;
-
-        //startIgnite from the end to find most recent
-        for (int idx = histAsArr.size() - template.length; idx >= 0; idx--) {
-            detectedAt = checkTemplateAtPos(template, centralEvtBuild, histAsArr, idx);
-
-            if (detectedAt != null)
-                break;
-        }
-
-        if (detectedAt != null && t.shouldBeFirstNonMissing()) {
-            for (Invocation invocation : invocations()) {
-                if (invocation.status() != InvocationData.MISSING)
-                    return invocation.buildId() != detectedAt ? null : detectedAt;
-            }
-
-            return null;
-        }
-
-        return detectedAt;
-    }
-
-    private static int[] concatArr(int[] arr1, int[] arr2) {
-        int[] arr1and2 = new int[arr1.length + arr2.length];
-        System.arraycopy(arr1, 0, arr1and2, 0, arr1.length);
-        System.arraycopy(arr2, 0, arr1and2, arr1.length, arr2.length);
-
-        return arr1and2;
-    }
-
-    @Nullable
-    private static Integer checkTemplateAtPos(int[] template, int centralEvtBuild, List<Invocation> histAsArr,
-        int idx) {
-        for (int tIdx = 0; tIdx < template.length; tIdx++) {
-            Invocation curStatus = histAsArr.get(idx + tIdx);
-
-            if (curStatus == null)
-                break;
-
-            RunStatus tmpl = RunStatus.byCode(template[tIdx]);
-
-            if ((tmpl == RunStatus.RES_OK_OR_FAILURE && (curStatus.status() == InvocationData.OK || curStatus.status() == InvocationData.FAILURE))
-                || curStatus.status() == tmpl.getCode()) {
-                if (tIdx == template.length - 1)
-                    return histAsArr.get(idx + centralEvtBuild).buildId();
-            }
-            else
-                break;
-        }
+    @Override public Integer detectTemplate(IEventTemplate t) {
+        int buildId = t.matcher().detect(this, 0);
 
-        return null;
+        return buildId == EventTemplateMatcher.NOT_DETECTED ? null : buildId;
     }
 }
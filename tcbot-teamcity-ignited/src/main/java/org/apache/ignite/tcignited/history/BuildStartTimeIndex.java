@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+
+/**
+ * Dense in-memory index of build start times of one server. Entries are kept in two pairs of primitive arrays: sorted
+ * by build ID (for lookup of a build) and sorted by start time, the latter with running maximum of build ID to answer
+ * border build for age without scan. About 28 bytes are used per build.
+ *
+ * New builds usually have the greatest ID and start time, so writes are merged into the tail of arrays in place.
+ * Start time of a build is never changed, first saved value is kept, same as in {@link BuildStartTimeStorage}.
+ */
+class BuildStartTimeIndex {
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Lock. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Build IDs, sorted. */
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    /** Start times, aligned with {@link #ids}. */
+    private long[] tsById = new long[INITIAL_CAPACITY];
+
+    /** Start times, sorted. */
+    private long[] ts = new long[INITIAL_CAPACITY];
+
+    /** Build IDs, aligned with {@link #ts}. */
+    private int[] idsByTs = new int[INITIAL_CAPACITY];
+
+    /** Maximum build ID of builds started not later than corresponding element of {@link #ts}. */
+    private int[] maxIdUpTo = new int[INITIAL_CAPACITY];
+
+    /** Entries count. */
+    private int size;
+
+    /** Index was filled from persisted start times. */
+    private volatile boolean loaded;
+
+    /**
+     * @param buildId Build ID.
+     * @return start time or <code>null</code> if it is not indexed.
+     */
+    @Nullable Long startTime(int buildId) {
+        lock.readLock().lock();
+
+        try {
+            int idx = Arrays.binarySearch(ids, 0, size, buildId);
+
+            return idx >= 0 ? tsById[idx] : null;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param maxTs Start time, inclusive.
+     * @return maximal ID of builds started not later than the time or <code>null</code> if there are no such builds.
+     */
+    @Nullable Integer maxBuildIdStartedBefore(long maxTs) {
+        lock.readLock().lock();
+
+        try {
+            int idx = (maxTs == Long.MAX_VALUE ? size : lowerBound(maxTs + 1)) - 1;
+
+            return idx >= 0 ? maxIdUpTo[idx] : null;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds start times of builds, which are not indexed yet.
+     *
+     * @param builds Build ID to start time.
+     */
+    void putAllIfAbsent(Map<Integer, Long> builds) {
+        if (builds.isEmpty())
+            return;
+
+        lock.writeLock().lock();
+
+        try {
+            TreeMap<Integer, Long> newBuilds = new TreeMap<>();
+
+            builds.forEach((id, startTs) -> {
+                if (id != null && startTs != null && startTs > 0 && Arrays.binarySearch(ids, 0, size, id) < 0)
+                    newBuilds.put(id, startTs);
+            });
+
+            int cnt = newBuilds.size();
+
+            if (cnt == 0)
+                return;
+
+            int[] addIds = new int[cnt];
+            long[] addTs = new long[cnt];
+
+            int i = 0;
+            for (Map.Entry<Integer, Long> e : newBuilds.entrySet()) {
+                addIds[i] = e.getKey();
+                addTs[i] = e.getValue();
+                i++;
+            }
+
+            ensureCapacity(size + cnt);
+
+            mergeById(addIds, addTs);
+
+            int[] order = IntStream.range(0, cnt).boxed()
+                .sorted((a, b) -> Long.compare(addTs[a], addTs[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+            long[] addTsSorted = new long[cnt];
+            int[] addIdsByTs = new int[cnt];
+
+            for (int j = 0; j < cnt; j++) {
+                addTsSorted[j] = addTs[order[j]];
+                addIdsByTs[j] = addIds[order[j]];
+            }
+
+            int firstChanged = mergeByTs(addTsSorted, addIdsByTs);
+
+            size += cnt;
+
+            updateMaxIds(firstChanged);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param buildIds Build IDs to remove.
+     */
+    void removeAll(Set<Integer> buildIds) {
+        if (buildIds.isEmpty())
+            return;
+
+        lock.writeLock().lock();
+
+        try {
+            int byId = 0;
+            int byTs = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (!buildIds.contains(ids[i])) {
+                    ids[byId] = ids[i];
+                    tsById[byId] = tsById[i];
+                    byId++;
+                }
+
+                if (!buildIds.contains(idsByTs[i])) {
+                    ts[byTs] = ts[i];
+                    idsByTs[byTs] = idsByTs[i];
+                    byTs++;
+                }
+            }
+
+            assert byId == byTs;
+
+            size = byId;
+
+            updateMaxIds(0);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return indexed builds count.
+     */
+    int size() {
+        lock.readLock().lock();
+
+        try {
+            return size;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if index was filled from persisted start times.
+     */
+    boolean loaded() {
+        return loaded;
+    }
+
+    /**
+     * Marks index as filled.
+     */
+    void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * @param key Start time.
+     * @return index of first element of {@link #ts} which is not less than the key.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (ts[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    /**
+     * Merges sorted builds into ID ordered arrays in place, starting from the tail.
+     *
+     * @param addIds Sorted build IDs.
+     * @param addTs Start times.
+     */
+    private void mergeById(int[] addIds, long[] addTs) {
+        int i = size - 1;
+        int j = addIds.length - 1;
+        int w = size + addIds.length - 1;
+
+        while (j >= 0) {
+            if (i >= 0 && ids[i] > addIds[j]) {
+                ids[w] = ids[i];
+                tsById[w] = tsById[i];
+                i--;
+            }
+            else {
+                ids[w] = addIds[j];
+                tsById[w] = addTs[j];
+                j--;
+            }
+
+            w--;
+        }
+    }
+
+    /**
+     * Merges sorted builds into start time ordered arrays in place, starting from the tail.
+     *
+     * @param addTs Sorted start times.
+     * @param addIds Build IDs.
+     * @return first changed position.
+     */
+    private int mergeByTs(long[] addTs, int[] addIds) {
+        int i = size - 1;
+        int j = addTs.length - 1;
+        int w = size + addTs.length - 1;
+
+        while (j >= 0) {
+            if (i >= 0 && ts[i] > addTs[j]) {
+                ts[w] = ts[i];
+                idsByTs[w] = idsByTs[i];
+                i--;
+            }
+            else {
+                ts[w] = addTs[j];
+                idsByTs[w] = addIds[j];
+                j--;
+            }
+
+            w--;
+        }
+
+        return w + 1;
+    }
+
+    /**
+     * @param from First position to recalculate.
+     */
+    private void updateMaxIds(int from) {
+        for (int i = from; i < size; i++)
+            maxIdUpTo[i] = i > 0 ? Math.max(maxIdUpTo[i - 1], idsByTs[i]) : idsByTs[i];
+    }
+
+    /**
+     * @param cap Required capacity.
+     */
+    private void ensureCapacity(int cap) {
+        if (cap <= ids.length)
+            return;
+
+        int newLen = ids.length;
+        while (newLen < cap)
+            newLen = newLen > (Integer.MAX_VALUE >> 1) ? Integer.MAX_VALUE : newLen << 1;
+
+        ids = Arrays.copyOf(ids, newLen);
+        tsById = Arrays.copyOf(tsById, newLen);
+        ts = Arrays.copyOf(ts, newLen);
+        idsByTs = Arrays.copyOf(idsByTs, newLen);
+        maxIdUpTo = Arrays.copyOf(maxIdUpTo, newLen);
+    }
+}
@@ -18,15 +18,12 @@
 package org.apache.ignite.tcignited.history;
 
 import java.time.Duration;
-import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.cache.Cache;
@@ -34,15 +31,16 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
 import org.apache.ignite.cache.query.ScanQuery;
-import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.apache.ignite.lang.IgniteBiPredicate;
-import org.apache.ignite.tcbot.common.TcBotConst;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
 
 /**
+ * Persisted start times of builds. Start times are also kept in dense per server in-memory index, so lookups and
+ * queries by date do not require cache access.
  */
 public class BuildStartTimeStorage {
     /** Build Start time Cache name. */
@@ -55,13 +53,8 @@ public class BuildStartTimeStorage {
     /** Build start time. */
     private IgniteCache<Long, Long> buildStartTime;
 
-    /**
-     * Biggest build ID, which is older than particular days count.
-     * Map: server ID-> Array of build Ids
-     * Array[0] = max build ID
-     * Array[1] = max build ID older than 1 day
-     */
-    private final ConcurrentMap<Integer, AtomicIntegerArray> maxBuildIdOlderThanDays = new ConcurrentHashMap<>();
+    /** Indexes of start times by server ID, filled from the cache on first access to server. */
+    private final ConcurrentMap<Integer, BuildStartTimeIndex> indexes = new ConcurrentHashMap<>();
 
     /** Millis in day. */
     private static final long MILLIS_IN_DAY = Duration.ofDays(1).toMillis();
@@ -89,20 +82,23 @@ public class BuildStartTimeStorage {
      */
     @AutoProfiling
     @Nullable public Long getBuildStartTime(int srvId, int buildId) {
-        Long ts = buildStartTime.get(buildIdToCacheKey(srvId, buildId));
-        if (ts == null || ts <= 0)
-            return null;
-
-        processBuildForBorder(srvId, buildId, ts);
+        return index(srvId).startTime(buildId);
+    }
 
-        return ts;
+    /**
+     * @param srvId Server id.
+     * @param buildId Build id.
+     * @return <code>true</code> if start time of the build is known.
+     */
+    public boolean hasBuildStartTime(int srvId, int buildId) {
+        return index(srvId).startTime(buildId) != null;
     }
 
     public boolean setBuildStartTime(int srvId, int buildId, long ts) {
         if (ts <= 0)
             return false;
 
-        processBuildForBorder(srvId, buildId, ts);
+        index(srvId).putAllIfAbsent(Collections.singletonMap(buildId, ts));
 
         return buildStartTime.putIfAbsent(buildIdToCacheKey(srvId, buildId), ts);
     }
@@ -112,30 +108,22 @@ public class BuildStartTimeStorage {
         if (ts <= 0)
             return false;
 
-        processBuildForBorder(srvId, buildId, ts);
+        index(srvId).putAllIfAbsent(Collections.singletonMap(buildId, ts));
 
         return buildStartTime.putIfAbsent(buildIdToCacheKey(srvId, buildId), ts);
     }
 
-    private static Set<Long> buildsIdsToCacheKeys(int srvId, Collection<Integer> ids) {
-        return ids.stream()
-            .filter(Objects::nonNull).map(id -> buildIdToCacheKey(srvId, id)).collect(Collectors.toSet());
-    }
-
     public Map<Integer, Long> getBuildsStartTime(int srvId, Set<Integer> ids) {
-        Set<Long> cacheKeys = buildsIdsToCacheKeys(srvId, ids);
+        BuildStartTimeIndex idx = index(srvId);
 
         Map<Integer, Long> res = new HashMap<>();
 
-        buildStartTime.getAll(cacheKeys).forEach((k, ts) -> {
-            if (ts != null && ts > 0) {
-                int buildId = BuildRefDao.cacheKeyToBuildId(k);
+        for (Integer buildId : ids) {
+            Long ts = buildId == null ? null : idx.startTime(buildId);
 
+            if (ts != null)
                 res.put(buildId, ts);
-
-                processBuildForBorder(srvId, buildId, ts);
-            }
-        });
+        }
 
         return res;
     }
@@ -144,54 +132,83 @@ public class BuildStartTimeStorage {
         Map<Long, Long> res = new HashMap<>();
 
         builds.forEach((buildId, ts) -> {
-            if (ts != null && ts > 0) {
+            if (ts != null && ts > 0)
                 res.put(buildIdToCacheKey(srvId, buildId), ts);
-
-                processBuildForBorder(srvId, buildId, ts);
-            }
         });
 
+        index(srvId).putAllIfAbsent(builds);
+
         buildStartTime.putAll(res);
     }
 
-    private void processBuildForBorder(int srvId, Integer buildId, Long ts) {
-        if (ts == null || ts <= 0)
-            return;
+    /**
+     * @param srvId Server id.
+     * @param ageDays Age of builds in days.
+     * @return biggest ID of builds started at least given days ago, or <code>null</code> if there are no such builds.
+     */
+    @Nullable public Integer getBorderForAgeForBuildId(int srvId, int ageDays) {
+        return index(srvId).maxBuildIdStartedBefore(System.currentTimeMillis() - ageDays * MILLIS_IN_DAY);
+    }
+
+    /**
+     * @param srvId Server id.
+     * @return index of start times, filled from the cache on first access.
+     */
+    private BuildStartTimeIndex index(int srvId) {
+        BuildStartTimeIndex idx = indexes.computeIfAbsent(srvId, k -> new BuildStartTimeIndex());
 
-        AtomicIntegerArray arr = maxBuildIdOlderThanDays.computeIfAbsent(srvId,
-            k -> new AtomicIntegerArray(TcBotConst.BUILD_MAX_DAYS + 1));
+        if (idx.loaded())
+            return idx;
 
-        long ageMs = System.currentTimeMillis() - ts;
-        if (ageMs < 0)
-            return;
+        synchronized (idx) {
+            if (!idx.loaded()) {
+                idx.putAllIfAbsent(loadStartTimes(srvId));
 
-        long days = ageMs / MILLIS_IN_DAY;
-        if (days > TcBotConst.BUILD_MAX_DAYS)
-            days = TcBotConst.BUILD_MAX_DAYS;
+                idx.markLoaded();
+            }
+        }
 
-        arr.accumulateAndGet((int)days, buildId, Math::max);
+        return idx;
     }
 
-    @Nullable public Integer getBorderForAgeForBuildId(int srvId, int ageDays) {
-        AtomicIntegerArray arr = maxBuildIdOlderThanDays.get(srvId);
-        if (arr == null)
-            return null;
-
-        for (int i = ageDays; i < TcBotConst.BUILD_MAX_DAYS; i++) {
-            int buildId = arr.get(i);
-            if (buildId != 0)
-                return buildId;
+    /**
+     * @param srvId Server id.
+     * @return persisted start times of server builds.
+     */
+    @AutoProfiling
+    protected Map<Integer, Long> loadStartTimes(int srvId) {
+        Map<Integer, Long> res = new HashMap<>();
+
+        IgniteBiPredicate<Long, Long> filter = (key, ts) -> BuildRefDao.cacheKeyToSrvId(key) == srvId;
+
+        try (QueryCursor<Cache.Entry<Long, Long>> cursor = buildStartTime.query(new ScanQuery<>(filter))) {
+            for (Cache.Entry<Long, Long> entry : cursor) {
+                Long ts = entry.getValue();
+
+                if (ts != null && ts > 0)
+                    res.put(BuildRefDao.cacheKeyToBuildId(entry.getKey()), ts);
+            }
         }
 
-        return null;
+        return res;
     }
 
     public void remove(long key) {
-        buildStartTime.remove(key);
+        removeAll(Collections.singleton(key));
     }
 
     public void removeAll(Set<Long> keys) {
         buildStartTime.removeAll(keys);
+
+        keys.stream()
+            .collect(Collectors.groupingBy(BuildRefDao::cacheKeyToSrvId,
+                Collectors.mapping(BuildRefDao::cacheKeyToBuildId, Collectors.toSet())))
+            .forEach((srvId, ids) -> {
+                BuildStartTimeIndex idx = indexes.get(srvId);
+
+                if (idx != null)
+                    idx.removeAll(ids);
+            });
     }
 
 }
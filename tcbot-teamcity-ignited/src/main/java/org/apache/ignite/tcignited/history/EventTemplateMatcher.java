@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Precompiled matcher of one or several {@link IEventTemplate}s. Templates are reversed and packed into one 64-bit
+ * word (shift-and algorithm), so history is scanned once from the most recent invocation using only status bytes and
+ * bit operations, without allocations.
+ *
+ * Result of matching is the same as the most recent occurrence of template found by per-position comparison: build
+ * ID of the central event (first element of {@link IEventTemplate#eventAndAfter()}).
+ */
+public final class EventTemplateMatcher {
+    /** Result returned if template was not detected. */
+    public static final int NOT_DETECTED = -1;
+
+    /** Max status code + 1. */
+    private static final int STATUS_CODES = 16;
+
+    /** Status to template positions accepting it. */
+    private final long[] masks = new long[STATUS_CODES];
+
+    /** Templates count. */
+    private final int cnt;
+
+    /** Bits of each template. */
+    private final long[] bits;
+
+    /** First bit of each template (most recent invocation of reversed template). */
+    private final long[] startBit;
+
+    /** Last bit of each template, set if template was matched. */
+    private final long[] finalBit;
+
+    /** Central event offset from the beginning of matched invocations. */
+    private final int[] central;
+
+    /** Template includes missing invocations. */
+    private final boolean[] includeMissing;
+
+    /** Template should start at the first non missing invocation. */
+    private final boolean[] firstNonMissing;
+
+    /** Start bits of templates skipping missing invocations. */
+    private long skipStarts;
+
+    /** Bits of templates skipping missing invocations. */
+    private long skipBits;
+
+    /** Start bits of templates including missing invocations. */
+    private long inclStarts;
+
+    /** Bits of templates including missing invocations. */
+    private long inclBits;
+
+    /**
+     * @param templates Templates.
+     */
+    private EventTemplateMatcher(IEventTemplate... templates) {
+        cnt = templates.length;
+
+        Preconditions.checkArgument(cnt > 0 && cnt <= Integer.SIZE, "Templates count: " + cnt);
+
+        bits = new long[cnt];
+        startBit = new long[cnt];
+        finalBit = new long[cnt];
+        central = new int[cnt];
+        includeMissing = new boolean[cnt];
+        firstNonMissing = new boolean[cnt];
+
+        int off = 0;
+
+        for (int t = 0; t < cnt; t++) {
+            IEventTemplate template = templates[t];
+            int[] before = template.beforeEvent();
+            int[] after = template.eventAndAfter();
+            int len = before.length + after.length;
+
+            Preconditions.checkArgument(after.length > 0, "Template without event");
+            Preconditions.checkArgument(off + len <= Long.SIZE, "Templates are too long: " + (off + len));
+
+            for (int pos = 0; pos < len; pos++) {
+                int code = pos < before.length ? before[pos] : after[pos - before.length];
+                long bit = 1L << (off + len - 1 - pos);
+
+                if (code == RunStatus.RES_OK_OR_FAILURE.getCode()) {
+                    masks[InvocationData.OK] |= bit;
+                    masks[InvocationData.FAILURE] |= bit;
+                }
+                else {
+                    Preconditions.checkArgument(code >= 0 && code < STATUS_CODES, "Unknown status: " + code);
+
+                    masks[code] |= bit;
+                }
+            }
+
+            bits[t] = (len == Long.SIZE ? -1L : (1L << len) - 1) << off;
+            startBit[t] = 1L << off;
+            finalBit[t] = 1L << (off + len - 1);
+            central[t] = before.length;
+            includeMissing[t] = template.includeMissing();
+            firstNonMissing[t] = template.shouldBeFirstNonMissing();
+
+            if (includeMissing[t]) {
+                inclStarts |= startBit[t];
+                inclBits |= bits[t];
+            }
+            else {
+                skipStarts |= startBit[t];
+                skipBits |= bits[t];
+            }
+
+            off += len;
+        }
+    }
+
+    /**
+     * @param templates Templates, total length should not exceed 64 invocations.
+     */
+    public static EventTemplateMatcher compile(IEventTemplate... templates) {
+        return new EventTemplateMatcher(templates);
+    }
+
+    /**
+     * @return count of compiled templates.
+     */
+    public int templates() {
+        return cnt;
+    }
+
+    /**
+     * @param hist History.
+     * @param t Template index.
+     * @return build ID of central event of the most recent template occurrence or {@link #NOT_DETECTED}.
+     */
+    public int detect(IRunHistory hist, int t) {
+        boolean incl = includeMissing[t];
+        long start = startBit[t];
+        long tBits = bits[t];
+        long fin = finalBit[t];
+        long state = 0;
+
+        for (int i = hist.getInvocationsCount() - 1; i >= 0; i--) {
+            byte status = hist.statusAt(i);
+
+            if (!incl && status == InvocationData.MISSING)
+                continue;
+
+            state = ((state << 1) | start) & mask(status) & tBits;
+
+            if ((state & fin) != 0)
+                return checkFirstNonMissing(hist, t, centralBuildId(hist, i, t));
+        }
+
+        return NOT_DETECTED;
+    }
+
+    /**
+     * Detects all templates by one pass over history.
+     *
+     * @param hist History.
+     * @param res Results by template index, see {@link #detect(IRunHistory, int)}.
+     */
+    public void detectAll(IRunHistory hist, int[] res) {
+        long pending = cnt == Integer.SIZE ? 0xFFFFFFFFL : (1L << cnt) - 1;
+        long skipState = 0;
+        long inclState = 0;
+
+        for (int t = 0; t < cnt; t++)
+            res[t] = NOT_DETECTED;
+
+        for (int i = hist.getInvocationsCount() - 1; i >= 0 && pending != 0; i--) {
+            byte status = hist.statusAt(i);
+            long mask = mask(status);
+
+            inclState = ((inclState << 1) | inclStarts) & mask & inclBits;
+
+            if (status != InvocationData.MISSING)
+                skipState = ((skipState << 1) | skipStarts) & mask & skipBits;
+
+            long matched = inclState | skipState;
+
+            for (int t = 0; t < cnt; t++) {
+                if ((pending & (1L << t)) == 0 || (matched & finalBit[t]) == 0)
+                    continue;
+
+                res[t] = checkFirstNonMissing(hist, t, centralBuildId(hist, i, t));
+                pending &= ~(1L << t);
+            }
+        }
+    }
+
+    /**
+     * @param status Status.
+     * @return template positions accepting status.
+     */
+    private long mask(byte status) {
+        return status >= 0 && status < STATUS_CODES ? masks[status] : 0;
+    }
+
+    /**
+     * @param hist History.
+     * @param startIdx Index of the first invocation of matched template.
+     * @param t Template index.
+     * @return build ID of central event.
+     */
+    private int centralBuildId(IRunHistory hist, int startIdx, int t) {
+        int idx = startIdx;
+
+        for (int skipped = 0; skipped < central[t]; ) {
+            idx++;
+
+            if (includeMissing[t] || hist.statusAt(idx) != InvocationData.MISSING)
+                skipped++;
+        }
+
+        return hist.buildIdAt(idx);
+    }
+
+    /**
+     * @param hist History.
+     * @param t Template index.
+     * @param buildId Detected build ID.
+     * @return build ID or {@link #NOT_DETECTED} if template requires event to be first non missing invocation, and it
+     * is not.
+     */
+    private int checkFirstNonMissing(IRunHistory hist, int t, int buildId) {
+        if (!firstNonMissing[t])
+            return buildId;
+
+        int cnt = hist.getInvocationsCount();
+
+        for (int i = 0; i < cnt; i++) {
+            if (hist.statusAt(i) != InvocationData.MISSING)
+                return hist.buildIdAt(i) == buildId ? buildId : NOT_DETECTED;
+        }
+
+        return NOT_DETECTED;
+    }
+}
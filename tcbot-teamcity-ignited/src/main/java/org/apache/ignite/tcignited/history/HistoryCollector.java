@@ -17,15 +17,19 @@
 package org.apache.ignite.tcignited.history;
 
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Iterables;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiPredicate;
@@ -39,6 +43,7 @@ import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.query.QueryCursor;
 import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
 import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
 import org.apache.ignite.tcbot.common.TcBotConst;
@@ -89,16 +94,36 @@ public class HistoryCollector {
 
     /**
      * Non persistence cache for all suite RunHistory for particular branch. RunHistKey(ServerId||BranchId||suiteId)->
-     * Build reference
+     * Build reference. Entries are weighted by memory used, least recently used histories are evicted first. Off-heap
+     * memory of removed histories is released.
      */
     private final com.google.common.cache.Cache<RunHistKey, SuiteHistory> runHistInMemCache
         = CacheBuilder.newBuilder()
-        .maximumSize(Boolean.valueOf(System.getProperty(TcBotSystemProperties.DEV_MODE)) ? 1000 : 8000)
+        .maximumWeight(historyMemoryLimit())
+        .weigher((RunHistKey k, SuiteHistory v) -> (int)Math.min(v.sizeInBytes(), Integer.MAX_VALUE))
         .expireAfterAccess(16, TimeUnit.MINUTES)
         .expireAfterWrite(17, TimeUnit.MINUTES) //workaround for stale records
-        .softValues()
+        .removalListener((RemovalNotification<RunHistKey, SuiteHistory> notification) -> {
+            SuiteHistory hist = notification.getValue();
+
+            if (hist != null)
+                hist.release();
+        })
         .build();
 
+    /** Server codes by server ID, filled for servers with history requested. Used to add invocations incrementally. */
+    private final ConcurrentMap<Integer, String> srvIdToCode = new ConcurrentHashMap<>();
+
+    /**
+     * @return memory limit for in-memory suite histories in bytes.
+     */
+    private static long historyMemoryLimit() {
+        boolean devMode = Boolean.valueOf(System.getProperty(TcBotSystemProperties.DEV_MODE));
+        long limitMb = Long.getLong(TcBotSystemProperties.TEAMCITY_BOT_HISTORY_MEM_MB, devMode ? 128 : 1024);
+
+        return limitMb * 1024 * 1024;
+    }
+
     /**
      * @param srvCode Server id mask to be placed at high bits in the key.
      * @param testName Test name.
@@ -118,6 +143,8 @@ public class HistoryCollector {
         int srvId = ITeamcityIgnited.serverIdToInt(srvCode);
         RunHistKey runHistKey = new RunHistKey(srvId, buildTypeId, normalizedBaseBranch);
 
+        srvIdToCode.putIfAbsent(srvId, srvCode);
+
         SuiteHistory hist;
         try {
             hist = runHistInMemCache.get(runHistKey,
@@ -248,13 +275,73 @@ public class HistoryCollector {
     }
 
     /**
+     * Applies saved build to the in-memory history of its suite. Newly finished build is added to existing history as
+     * one more invocation, without reload of the history, and builds aged out of history window are dropped. History
+     * is invalidated if the build was already part of it.
+     *
      * @param srvId Server id.
-     * @param b Build ref to invalidate.
+     * @param build Saved build.
      */
-    public void invalidateHistoryInMem(int srvId, BuildRefCompacted b) {
-        RunHistKey inv = new RunHistKey(srvId, b.buildTypeId(), b.branchName());
+    public void onBuildSaved(int srvId, FatBuildCompacted build) {
+        String branch = compactor.getStringFromId(build.branchName());
+        Integer normalizedBranch = compactor.getStringIdIfPresent(BranchEquivalence.normalizeBranch(branch));
+
+        if (normalizedBranch == null)
+            return;
 
-        runHistInMemCache.invalidate(inv);
+        RunHistKey key = new RunHistKey(srvId, build.buildTypeId(), normalizedBranch);
+        SuiteHistory hist = runHistInMemCache.getIfPresent(key);
+
+        if (hist == null)
+            return;
+
+        String srvCode = srvIdToCode.get(srvId);
+
+        if (srvCode == null || hist.containsBuild(build.id())) {
+            runHistInMemCache.invalidate(key);
+
+            return;
+        }
+
+        if (!applicableForHistory(build))
+            return; // not finished builds are not included into history.
+
+        Set<Integer> filteringParameters = getFilteringParameters(srvCode);
+        int successStatusStrId = compactor.getStringId(TestOccurrence.STATUS_SUCCESS);
+
+        SuiteInvocation sinv = toSuiteInvocation(srvId, normalizedBranch, build,
+            (k, v) -> filteringParameters.contains(k), successStatusStrId);
+
+        histDao.putAll(srvId, Collections.singletonMap(build.id(), sinv));
+
+        // History extended build by build should not keep builds aged out of the window.
+        Integer border = buildStartTimeStorage.getBorderForAgeForBuildId(srvId, TcBotConst.HISTORY_MAX_DAYS);
+        int borderBuildId = border == null ? 0 : border;
+
+        runHistInMemCache.asMap().computeIfPresent(key, (k, cur) -> cur.withSuiteInvocation(sinv, borderBuildId));
+    }
+
+    /**
+     * @param srvId Server id.
+     * @param normalizedBaseBranch Normalized base branch.
+     * @param build Build.
+     * @param paramsFilter Filter for build parameters to be saved.
+     * @param successStatusStrId Success status string id.
+     */
+    private SuiteInvocation toSuiteInvocation(int srvId, int normalizedBaseBranch, FatBuildCompacted build,
+        BiPredicate<Integer, Integer> paramsFilter, int successStatusStrId) {
+        SuiteInvocation sinv = new SuiteInvocation(srvId, normalizedBaseBranch, build, compactor, paramsFilter);
+
+        Stream<ITest> tests = build.getAllTests();
+        tests.forEach(
+            testCompacted -> {
+                Invocation invocation = TestCompactedV2.toInvocation(testCompacted, build, successStatusStrId);
+
+                sinv.addTest(testCompacted.testName(), invocation);
+            }
+        );
+
+        return sinv;
     }
 
     @Nonnull
@@ -290,17 +377,8 @@ public class HistoryCollector {
                     if (!applicableForHistory(fatBuildCompacted))
                         return;
 
-                    SuiteInvocation sinv = new SuiteInvocation(srvId, normalizedBaseBranch, fatBuildCompacted, compactor, paramsFilter);
-
-                    Stream<ITest> tests = fatBuildCompacted.getAllTests();
-                    tests.forEach(
-                        testCompacted -> {
-                            Invocation invocation = TestCompactedV2.toInvocation(testCompacted,
-                                fatBuildCompacted, successStatusStrId);
-
-                            sinv.addTest(testCompacted.testName(), invocation);
-                        }
-                    );
+                    SuiteInvocation sinv = toSuiteInvocation(srvId, normalizedBaseBranch, fatBuildCompacted,
+                        paramsFilter, successStatusStrId);
 
                     suiteRunHist.put(fatBuildCompacted.id(), sinv);
                 });
@@ -390,7 +468,7 @@ public class HistoryCollector {
 
                 int buildId = BuildRefDao.cacheKeyToBuildId(key);
 
-                Integer borderBuildId = buildStartTimeStorage.getBorderForAgeForBuildId(srvId, days);
+                Integer borderBuildId = preBorder.get(srvId);
 
                 boolean passesDate = borderBuildId == null || buildId >= borderBuildId;
 
@@ -27,4 +27,11 @@ public interface IEventTemplate {
     boolean includeMissing();
 
     boolean shouldBeFirstNonMissing();
+
+    /**
+     * @return matcher of this template, implementations should compile it once.
+     */
+    default EventTemplateMatcher matcher() {
+        return EventTemplateMatcher.compile(this);
+    }
 }
@@ -32,6 +32,32 @@ public interface IRunHistory {
 
     public Stream<Invocation> getInvocations();
 
+    /**
+     * Primitive cursor over history: invocations are accessed by index, from oldest to latest, without
+     * {@link Invocation} instances creation.
+     *
+     * @return count of invocations in history.
+     */
+    public int getInvocationsCount();
+
+    /**
+     * @param idx Invocation index.
+     * @return build ID of invocation.
+     */
+    public int buildIdAt(int idx);
+
+    /**
+     * @param idx Invocation index.
+     * @return status code of invocation, see {@link RunStatus}.
+     */
+    public byte statusAt(int idx);
+
+    /**
+     * @param idx Invocation index.
+     * @return changes state of invocation.
+     */
+    public ChangesState changesStateAt(int idx);
+
     @Nullable
     List<Integer> getLatestRunResults();
 
@@ -121,14 +121,61 @@ public class InvocationData {
         return buildIdToIdx;
     }
 
+    /**
+     * Binary search of build in invocations list, should be always called after sort.
+     *
+     * @param buildId Build id.
+     * @return index of the build if present, otherwise <code>(-(insertion point) - 1)</code>.
+     */
+    public int indexOfBuild(int buildId) {
+        int low = 0;
+        int high = invocationList.size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midBuildId = invocationList.get(mid).buildId();
+
+            if (midBuildId < buildId)
+                low = mid + 1;
+            else if (midBuildId > buildId)
+                high = mid - 1;
+            else
+                return mid;
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * @param idx Index to insert invocation at.
+     * @param inv Invocation.
+     * @param skip Count of first invocations not to be copied.
+     * @return copy of this data with invocation added, this instance is not modified.
+     */
+    public InvocationData copyWithInvocationAt(int idx, Invocation inv, int skip) {
+        InvocationData cp = new InvocationData();
+
+        cp.invocationList.addAll(invocationList.subList(skip, idx));
+        cp.invocationList.add(inv);
+        cp.invocationList.addAll(invocationList.subList(idx, invocationList.size()));
+
+        return cp;
+    }
+
     public Iterable<Invocation> invocationsIterable() {
         return Collections.unmodifiableList(invocationList);
     }
 
+    /**
+     * @return count of invocations.
+     */
+    public int size() {
+        return invocationList.size();
+    }
+
     public Invocation getInvocationAt(int idx) {
         int size = invocationList.size();
-        Preconditions.checkState(idx < size,
-            "Requested invocation outside suite history [" + idx + "] size [" + size + "]");
+        Preconditions.checkState(idx < size, "Requested invocation outside suite history [%s] size [%s]", idx, size);
         return invocationList.get(idx);
     }
 }
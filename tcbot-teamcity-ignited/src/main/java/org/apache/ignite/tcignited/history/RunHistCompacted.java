@@ -57,6 +57,26 @@ public class RunHistCompacted extends AbstractRunHist {
         return data.invocationsIterable();
     }
 
+    /** {@inheritDoc} */
+    @Override public int getInvocationsCount() {
+        return data.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int buildIdAt(int idx) {
+        return data.getInvocationAt(idx).buildId();
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte statusAt(int idx) {
+        return data.getInvocationAt(idx).status();
+    }
+
+    /** {@inheritDoc} */
+    @Override public ChangesState changesStateAt(int idx) {
+        return data.getInvocationAt(idx).changesState();
+    }
+
     public Set<Integer> buildIds() {
         return data.buildIdsMapping().keySet();
     }
@@ -113,6 +133,28 @@ public class RunHistCompacted extends AbstractRunHist {
         return cp;
     }
 
+    /**
+     * @param buildId Build id.
+     * @return index of the build if present, otherwise <code>(-(insertion point) - 1)</code>.
+     */
+    public int indexOfBuild(int buildId) {
+        return data.indexOfBuild(buildId);
+    }
+
+    /**
+     * @param idx Index to insert invocation at.
+     * @param v Invocation.
+     * @param skip Count of first invocations not to be copied.
+     * @return copy of this history with invocation added, this instance is not modified.
+     */
+    public RunHistCompacted copyWithInvocationAt(int idx, Invocation v, int skip) {
+        RunHistCompacted cp = new RunHistCompacted();
+
+        cp.data = data.copyWithInvocationAt(idx, v, skip);
+
+        return cp;
+    }
+
     /**
      * @param idx Index.
      */
@@ -24,81 +24,166 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
 
 /**
- * Suite run history (in memory) summary with tests grouped by name.
+ * Suite run history (in memory) summary with tests grouped by name. Test statuses are stored in columnar form: test
+ * name dictionary and one off-heap status matrix for the suite.
  */
 public class SuiteHistory implements ISuiteRunHistory {
-    /** Tests history: Test name ID->statuses for invocations */
-    private Map<Integer, byte[]> testsInvStatues = new HashMap<>();
+    /** Estimated heap size of one test dictionary entry. */
+    private static final int DICTIONARY_ENTRY_SIZE = 64;
+
+    /** Estimated heap size of one suite invocation. */
+    private static final int INVOCATION_SIZE = 48;
+
+    /** Column of invocation unknown to statuses matrix. */
+    private static final int MISSING_COL = -1;
+
+    /** Tests dictionary: Test name ID->row in statuses matrix. */
+    private Map<Integer, Integer> testRows = new HashMap<>();
+
+    /** Tests statuses, columns are suite invocations sorted by build ID. */
+    private TestStatusMatrix statuses;
+
+    /** Count of suite invocations (builds) in this history. */
+    private int buildsCnt;
+
+    /** Matrix column of the first invocation, columns before it belong to builds trimmed out of history window. */
+    private int firstCol;
+
+    /** Matrix columns of invocations for filtered history, {@code null} if history uses columns as is. */
+    @Nullable private int[] cols;
 
     /** Suite history. */
     private RunHistCompacted suiteHist = new RunHistCompacted();
 
     public SuiteHistory(Map<Integer, SuiteInvocation> suiteRunHist) {
-        //filling data for tests invoked.
-        Map<Integer, RunHistCompacted> testsHist = new HashMap<>();
+        suiteRunHist.forEach((buildId, suiteInv) -> {
+            suiteInv.tests().keySet().forEach(tName -> testRows.computeIfAbsent(tName, k -> testRows.size()));
 
-        suiteRunHist.forEach((buildId, suiteInv) -> addSuiteInvocation(suiteInv, testsHist));
+            suiteHist.addInvocation(suiteInv.suiteInvocation());
+        });
 
         suiteHist.sort();
 
         Map<Integer, Integer> buildIdToIdx = suiteHist.buildIdsMapping();
-        int buildsCnt = buildIdToIdx.size();
+        buildsCnt = buildIdToIdx.size();
 
-        byte missingCode = (byte)RunStatus.RES_MISSING.getCode();
-        testsHist.forEach((k, testHist) -> {
-            byte[] testStatusesUltraComp = new byte[buildsCnt];
+        statuses = new TestStatusMatrix(testRows.size(), TestStatusMatrix.strideFor(buildsCnt), buildsCnt);
 
-            for (int i = 0; i < testStatusesUltraComp.length; i++)
-                testStatusesUltraComp[i] = missingCode;
+        //filling data for tests invoked.
+        suiteRunHist.forEach((buildId, suiteInv) -> {
+            Integer idx = buildIdToIdx.get(suiteInv.suiteInvocation().buildId());
+            if (idx == null)
+                return;
 
-            testHist.getInvocations().forEach(
-                invocation -> {
-                    int i = invocation.buildId();
-                    Integer idx = buildIdToIdx.get(i);
-                    if (idx == null)
-                        return;
+            suiteInv.tests().forEach((tName, invocation) -> statuses.set(testRows.get(tName), idx, invocation.status()));
+        });
+    }
 
-                    Preconditions.checkState(idx < testStatusesUltraComp.length);
+    private SuiteHistory() {}
 
-                    testStatusesUltraComp[idx] = invocation.status();
-                }
-            );
+    /**
+     * @param buildId Build id.
+     * @return <code>true</code> if build invocation is already present in this history.
+     */
+    public boolean containsBuild(int buildId) {
+        return suiteHist.indexOfBuild(buildId) >= 0;
+    }
 
-            testsInvStatues.put(k, testStatusesUltraComp);
-        });
+    /**
+     * Creates copy of this history with one more suite invocation (build). Invocations of builds which are out of
+     * history window are dropped. Existing history is not modified so it can be still used by readers. If the build is
+     * the latest one and has no new tests, status matrix is shared and only one column is written, dropped columns are
+     * just skipped until the matrix is copied.
+     *
+     * @param suiteInv suite invocation (build) to be added to history.
+     * @param borderBuildId Invocations of builds with ID not greater than this one are dropped, 0 to keep all.
+     * @return new history instance, or this instance if the build is already present or is out of window.
+     */
+    public SuiteHistory withSuiteInvocation(SuiteInvocation suiteInv, int borderBuildId) {
+        Preconditions.checkState(cols == null, "Filtered history can't be modified");
+
+        Invocation suiteInvocation = suiteInv.suiteInvocation();
+        int idx = suiteHist.indexOfBuild(suiteInvocation.buildId());
+
+        if (idx >= 0 || suiteInvocation.buildId() <= borderBuildId)
+            return this;
+
+        int insertIdx = -(idx + 1);
+
+        int borderIdx = suiteHist.indexOfBuild(borderBuildId);
+        int dropCnt = borderIdx >= 0 ? borderIdx + 1 : -(borderIdx + 1);
+
+        Map<Integer, Invocation> tests = suiteInv.tests();
+
+        SuiteHistory res = new SuiteHistory();
+
+        res.suiteHist = suiteHist.copyWithInvocationAt(insertIdx, suiteInvocation, dropCnt);
+        res.buildsCnt = buildsCnt + 1 - dropCnt;
+
+        boolean newTests = tests.keySet().stream().anyMatch(tName -> !testRows.containsKey(tName));
+
+        if (!newTests && insertIdx == buildsCnt && statuses.tryClaimColumn(firstCol + buildsCnt)) {
+            res.testRows = testRows;
+            res.statuses = statuses;
+            res.firstCol = firstCol + dropCnt;
+
+            statuses.retain();
+
+            // column was never written by other versions, so it is filled with MISSING.
+            tests.forEach((tName, inv) -> statuses.set(testRows.get(tName), firstCol + insertIdx, inv.status()));
+
+            return res;
+        }
+
+        res.testRows = new HashMap<>(testRows);
+        tests.keySet().forEach(tName -> res.testRows.computeIfAbsent(tName, k -> res.testRows.size()));
+
+        res.statuses = new TestStatusMatrix(res.testRows.size(), TestStatusMatrix.strideFor(res.buildsCnt),
+            res.buildsCnt);
+
+        int resInsertIdx = insertIdx - dropCnt;
+
+        for (int row = 0; row < statuses.rows(); row++) {
+            statuses.copyTo(row, firstCol + dropCnt, res.statuses, row, 0, resInsertIdx);
+            statuses.copyTo(row, firstCol + insertIdx, res.statuses, row, resInsertIdx + 1, buildsCnt - insertIdx);
+        }
+
+        tests.forEach((tName, inv) -> res.statuses.set(res.testRows.get(tName), resInsertIdx, inv.status()));
+
+        return res;
     }
 
-    private SuiteHistory() {}
+    /**
+     * @return estimated memory used by this history, both heap and off-heap.
+     */
+    public long sizeInBytes() {
+        return statuses.sizeInBytes()
+            + (long)testRows.size() * DICTIONARY_ENTRY_SIZE
+            + (long)buildsCnt * INVOCATION_SIZE;
+    }
 
     /**
-     * @param suiteInv suite invocation (build) to be added to history (summary).
-     * @param testsHist tests map.
+     * Should be called once, when history is removed from cache. Off-heap memory of statuses is freed if no other
+     * cached history shares it. History remains readable.
      */
-    private void addSuiteInvocation(SuiteInvocation suiteInv, Map<Integer, RunHistCompacted> testsHist) {
-        suiteInv.tests().forEach(
-            (tName, invocation) -> {
-                testsHist.computeIfAbsent(tName, k_ -> new RunHistCompacted())
-                    .addInvocation(invocation);
-            });
-
-        suiteHist.addInvocation(suiteInv.suiteInvocation());
+    public void release() {
+        if (cols == null)
+            statuses.release();
     }
 
     /** {@inheritDoc} */
     @Nullable @Override public IRunHistory getTestRunHist(int testName) {
-        byte[] testInvStatuses = testsInvStatues.get(testName);
+        Integer row = testRows.get(testName);
 
-        if(testInvStatuses == null)
+        if (row == null)
             return null;
 
-        return new TestUltraCompactRunHist(testInvStatuses, suiteHist);
+        return new TestUltraCompactRunHist(this, row);
     }
 
     /** {@inheritDoc} */
@@ -107,110 +192,119 @@ public class SuiteHistory implements ISuiteRunHistory {
 
         Map<Integer, Integer> buildIdToIdx = suiteHist.buildIdsMapping();
 
-        Set<Integer> indexesToKeep = suitesFiltered.buildIds().stream().map(buildIdToIdx::get).collect(Collectors.toSet());
+        int[] filteredCols = new int[suitesFiltered.getInvocationsCount()];
 
-        SuiteHistory res = new SuiteHistory();
+        for (int i = 0; i < filteredCols.length; i++) {
+            Integer col = buildIdToIdx.get(suitesFiltered.buildIdAt(i));
 
-        res.suiteHist = suitesFiltered;
-
-        testsInvStatues.forEach((tName, invList) -> {
-            byte[] buildsFiltered = new byte[indexesToKeep.size()];
-
-            int j = 0;
-            for (int i = 0; i < invList.length; i++) {
-                if (!indexesToKeep.contains(i))
-                    continue;
+            // Unknown build is shown as missing invocation.
+            filteredCols[i] = col == null ? MISSING_COL : col(col);
+        }
 
-                buildsFiltered[j] = invList[i];
-                j++;
-            }
+        SuiteHistory res = new SuiteHistory();
 
-            res.testsInvStatues.put(tName, buildsFiltered);
-        });
+        res.suiteHist = suitesFiltered;
+        res.testRows = testRows;
+        res.buildsCnt = filteredCols.length;
+        res.statuses = statuses;
+        res.cols = filteredCols;
 
         return res;
     }
+
+    /**
+     * @param idx Invocation index in this history.
+     * @return matrix column, or {@link #MISSING_COL}.
+     */
+    private int col(int idx) {
+        return cols == null ? firstCol + idx : cols[idx];
+    }
+
     @Override public IRunHistory self() {
         return suiteHist;
     }
 
+    /**
+     * @param row Test row.
+     * @param idx Invocation index in this history.
+     * @return status of test invocation.
+     */
+    private byte status(int row, int idx) {
+        int col = col(idx);
+
+        return col == MISSING_COL ? (byte)InvocationData.MISSING : statuses.get(row, col);
+    }
+
+    /**
+     * Test history, reads statuses directly from the suite status matrix.
+     */
     private static class TestUltraCompactRunHist extends AbstractRunHist {
-        @Nonnull private final byte[] testInvStatuses;
-        @Nonnull private final RunHistCompacted suiteHist;
+        /** Suite history. */
+        @Nonnull private final SuiteHistory hist;
 
-        public TestUltraCompactRunHist(@Nonnull byte[] testInvStatuses, @Nonnull RunHistCompacted suiteHist) {
-            this.testInvStatuses = testInvStatuses;
-            this.suiteHist = suiteHist;
+        /** Row of the test in the matrix. */
+        private final int row;
 
-            Preconditions.checkState(testInvStatuses.length == suiteHist.getInvocations().count());
+        /**
+         * @param hist Suite history.
+         * @param row Row of the test in the matrix.
+         */
+        TestUltraCompactRunHist(@Nonnull SuiteHistory hist, int row) {
+            this.hist = hist;
+            this.row = row;
+
+            Preconditions.checkState(hist.cols != null || hist.firstCol + hist.buildsCnt <= hist.statuses.stride());
         }
 
         /** {@inheritDoc} */
         @Nullable @Override public List<Integer> getLatestRunResults() {
-            List<Integer> res = new ArrayList<>();
-            for (int i = 0; i < testInvStatuses.length; i++)
-                res.add((int)testInvStatuses[i]);
+            List<Integer> res = new ArrayList<>(hist.buildsCnt);
+            for (int i = 0; i < hist.buildsCnt; i++)
+                res.add((int)hist.status(row, i));
 
             return res;
         }
 
         /** {@inheritDoc} */
-        @Override public int getCriticalFailuresCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                if (testInvStatuses[i] == InvocationData.CRITICAL_FAILURE)
-                    res++;
-            }
-
-            return res;
+        @Override public int getInvocationsCount() {
+            return hist.buildsCnt;
         }
 
         /** {@inheritDoc} */
-        @Override public int getRunsCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                byte status = testInvStatuses[i];
-                if (status != InvocationData.MISSING && !Invocation.isMutedOrIgnored(status))
-                    res++;
-            }
-
-            return res;
+        @Override public int buildIdAt(int idx) {
+            return hist.suiteHist.buildIdAt(idx);
         }
 
         /** {@inheritDoc} */
-        @Override public int getFailuresCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                byte status = testInvStatuses[i];
-                if (status == InvocationData.FAILURE || status == InvocationData.CRITICAL_FAILURE)
-                    res++;
-            }
+        @Override public byte statusAt(int idx) {
+            return hist.status(row, idx);
+        }
 
-            return res;
+        /** {@inheritDoc} */
+        @Override public ChangesState changesStateAt(int idx) {
+            return hist.suiteHist.changesStateAt(idx);
         }
 
         /** {@inheritDoc} */
         @Override public Iterable<Invocation> invocations() {
-            return () -> new TestUltraCompactRunHistIterator(testInvStatuses, suiteHist);
+            return () -> new TestUltraCompactRunHistIterator(hist, row);
         }
     }
 
-
     private static class TestUltraCompactRunHistIterator implements Iterator<Invocation> {
         /** Cur index: index of element to be returned in case next is called now. */
         private int curIdx = 0;
-        @Nonnull private final byte[] testInvStatuses;
-        @Nonnull private final RunHistCompacted suiteHist;
+        @Nonnull private final SuiteHistory hist;
+        private final int row;
 
-        public TestUltraCompactRunHistIterator(@Nonnull byte[] testInvStatuses,
-            @Nonnull RunHistCompacted suiteHist) {
-            this.testInvStatuses = testInvStatuses;
-            this.suiteHist = suiteHist;
+        public TestUltraCompactRunHistIterator(@Nonnull SuiteHistory hist, int row) {
+            this.hist = hist;
+            this.row = row;
         }
 
         /** {@inheritDoc} */
         @Override public boolean hasNext() {
-            return curIdx < testInvStatuses.length;
+            return curIdx < hist.buildsCnt;
         }
 
         /** {@inheritDoc} */
@@ -218,11 +312,11 @@ public class SuiteHistory implements ISuiteRunHistory {
             if (!hasNext())
                 throw new NoSuchElementException();
 
-            Invocation suiteInv = suiteHist.getInvocationAt(curIdx);
+            Invocation suiteInv = hist.suiteHist.getInvocationAt(curIdx);
 
             Invocation invocation = new Invocation(suiteInv.buildId())
                 .withChangeState(suiteInv.changesState())
-                .withStatus(testInvStatuses[curIdx]);
+                .withStatus(hist.status(row, curIdx));
 
             curIdx++;
 
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ignite.internal.util.GridUnsafe;
+
+/**
+ * Off-heap matrix of test statuses: one row per test, one column per suite invocation (build). Row of a test is
+ * contiguous, row length (stride) may exceed count of builds to allow appending builds without copy.
+ *
+ * Matrix may be shared between several versions of {@link SuiteHistory}. Each version reads only columns it knows
+ * about, and only one version is allowed to write next free column, see {@link #tryClaimColumn(int)}.
+ *
+ * Cached histories sharing the matrix are counted as owners. When the last owner is evicted, the matrix is moved to
+ * heap, so readers still holding an evicted history keep working, and off-heap memory is freed after
+ * {@link #RELEASE_GRACE_MS}, when no read started before the move can be in progress.
+ */
+class TestStatusMatrix {
+    /** Minimal free columns reserved for appends. */
+    private static final int MIN_RESERVE = 8;
+
+    /** Delay of freeing off-heap memory of released matrix. */
+    private static final long RELEASE_GRACE_MS = TimeUnit.SECONDS.toMillis(10);
+
+    /** Released direct buffers to be freed, with time of release. */
+    private static final Queue<ReleasedBuffer> released = new ConcurrentLinkedQueue<>();
+
+    /** Statuses, direct (off-heap) buffer, or heap buffer after the matrix was released. */
+    private volatile ByteBuffer buf;
+
+    /** Count of cached histories owning the matrix. */
+    private final AtomicInteger owners = new AtomicInteger(1);
+
+    /** Rows (tests) count. */
+    private final int rows;
+
+    /** Row length in bytes, maximal columns count. */
+    private final int stride;
+
+    /** Count of columns claimed by histories sharing this matrix. */
+    private final AtomicInteger columnsClaimed;
+
+    /**
+     * Creates matrix filled with {@link InvocationData#MISSING} status.
+     *
+     * @param rows Rows (tests) count.
+     * @param stride Maximal columns count.
+     * @param columns Count of columns to be written by creator.
+     */
+    TestStatusMatrix(int rows, int stride, int columns) {
+        Preconditions.checkState(columns <= stride);
+
+        long size = (long)rows * stride;
+        Preconditions.checkState(size <= Integer.MAX_VALUE, "Too big history: " + rows + "x" + stride);
+
+        this.rows = rows;
+        this.stride = stride;
+        this.columnsClaimed = new AtomicInteger(columns);
+
+        ByteBuffer buf = ByteBuffer.allocateDirect((int)size);
+
+        byte missing = (byte)InvocationData.MISSING;
+        for (int i = 0; i < size; i++)
+            buf.put(i, missing);
+
+        this.buf = buf;
+    }
+
+    /**
+     * @param columns Count of columns to be stored.
+     * @return stride with some reserve for appends.
+     */
+    static int strideFor(int columns) {
+        return columns + Math.max(MIN_RESERVE, columns / 4);
+    }
+
+    /**
+     * @param row Row.
+     * @param col Column.
+     */
+    byte get(int row, int col) {
+        return buf.get(row * stride + col);
+    }
+
+    /**
+     * @param row Row.
+     * @param col Column.
+     * @param status Status.
+     */
+    void set(int row, int col, byte status) {
+        buf.put(row * stride + col, status);
+    }
+
+    /**
+     * Copies part of the row to other matrix.
+     *
+     * @param row Source row.
+     * @param col Source column.
+     * @param dst Destination matrix.
+     * @param dstRow Destination row.
+     * @param dstCol Destination column.
+     * @param len Length.
+     */
+    void copyTo(int row, int col, TestStatusMatrix dst, int dstRow, int dstCol, int len) {
+        if (len == 0)
+            return;
+
+        ByteBuffer src = buf.duplicate();
+        int srcOff = row * stride + col;
+        src.limit(srcOff + len).position(srcOff);
+
+        ByteBuffer dstBuf = dst.buf.duplicate();
+        dstBuf.position(dstRow * dst.stride + dstCol);
+        dstBuf.put(src);
+    }
+
+    /**
+     * Claims column for writing. Succeeds only for the next free column, so only one history version derived from
+     * the history having <code>col</code> columns can write into this matrix.
+     *
+     * @param col Column to write.
+     * @return <code>true</code> if column can be written by the caller.
+     */
+    boolean tryClaimColumn(int col) {
+        return col < stride && columnsClaimed.compareAndSet(col, col + 1);
+    }
+
+    /**
+     * @return rows (tests) count.
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * @return maximal columns count.
+     */
+    int stride() {
+        return stride;
+    }
+
+    /**
+     * @return memory used by the matrix.
+     */
+    long sizeInBytes() {
+        return buf.capacity();
+    }
+
+    /**
+     * Registers one more history owning this matrix.
+     */
+    void retain() {
+        owners.incrementAndGet();
+    }
+
+    /**
+     * Unregisters owning history, moves matrix to heap and schedules freeing of off-heap memory if there are no more
+     * owners.
+     */
+    void release() {
+        freeReleasedBuffers(System.currentTimeMillis() - RELEASE_GRACE_MS);
+
+        if (owners.decrementAndGet() != 0)
+            return;
+
+        ByteBuffer direct = buf;
+
+        if (!direct.isDirect())
+            return;
+
+        ByteBuffer heap = ByteBuffer.allocate(direct.capacity());
+
+        heap.put(direct.duplicate());
+
+        buf = heap;
+
+        released.add(new ReleasedBuffer(direct, System.currentTimeMillis()));
+    }
+
+    /**
+     * @param releasedBefore Max time of release of buffers to be freed.
+     */
+    static void freeReleasedBuffers(long releasedBefore) {
+        ReleasedBuffer rb;
+
+        while ((rb = released.peek()) != null && rb.ts <= releasedBefore) {
+            if (released.remove(rb))
+                GridUnsafe.cleanDirectBuffer(rb.buf);
+        }
+    }
+
+    /**
+     * @return {@code true} if statuses are stored off-heap.
+     */
+    boolean isOffHeap() {
+        return buf.isDirect();
+    }
+
+    /**
+     * Direct buffer waiting to be freed.
+     */
+    private static class ReleasedBuffer {
+        /** Buffer. */
+        private final ByteBuffer buf;
+
+        /** Time of release. */
+        private final long ts;
+
+        /**
+         * @param buf Buffer.
+         * @param ts Time of release.
+         */
+        ReleasedBuffer(ByteBuffer buf, long ts) {
+            this.buf = buf;
+            this.ts = ts;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.teamcity.ignited.change;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Providers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcservice.ITeamcityConn;
+import org.apache.ignite.tcservice.model.changes.Change;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk reload of changes missing in DB.
+ */
+public class ChangeSyncTest {
+    /** Server ID. */
+    private static final int SRV_ID = 1;
+
+    /** Change sync. */
+    private ChangeSync changeSync;
+
+    /** Changes DAO. */
+    private ChangeDao changeDao;
+
+    /** Change IDs of bulk requests. */
+    private final List<List<Integer>> bulkRequests = Collections.synchronizedList(new ArrayList<>());
+
+    /** Executor. */
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    /**
+     *
+     */
+    @Before
+    public void setUp() {
+        changeDao = Mockito.mock(ChangeDao.class);
+
+        when(changeDao.changeIdToCacheKey(anyLong(), anyInt())).thenCallRealMethod();
+        when(changeDao.getAll(anyInt(), any())).thenAnswer(inv -> new HashMap<>());
+
+        changeSync = Guice.createInjector(new AbstractModule() {
+            /** {@inheritDoc} */
+            @Override protected void configure() {
+                bind(ChangeDao.class).toProvider(Providers.of(changeDao));
+                bind(IStringCompactor.class).toProvider(Providers.of(Mockito.mock(IStringCompactor.class)));
+            }
+        }).getInstance(ChangeSync.class);
+    }
+
+    /**
+     *
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testMissingChangesLoadedInChunks() {
+        int[] changeIds = new int[ChangeSync.CHANGES_PER_REQUEST + 5];
+
+        for (int i = 0; i < changeIds.length; i++)
+            changeIds[i] = i + 1;
+
+        Map<Integer, ChangeCompacted> changes = changeSync.changes(SRV_ID, changeIds, connection(null, null));
+
+        assertEquals(changeIds.length, changes.size());
+        changes.forEach((id, change) -> assertEquals(id.intValue(), change.id()));
+
+        assertEquals(2, bulkRequests.size());
+        assertEquals(ChangeSync.CHANGES_PER_REQUEST, bulkRequests.get(0).size());
+        assertEquals(5, bulkRequests.get(1).size());
+
+        Mockito.verify(changeDao, Mockito.times(1)).saveAll(Mockito.eq(SRV_ID), Mockito.anyMap());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testChangesInFlightAreNotLoadedTwice() throws Exception {
+        CountDownLatch firstReqStarted = new CountDownLatch(1);
+        CountDownLatch secondReqDone = new CountDownLatch(1);
+
+        // Load of changes 1..3 is blocked until concurrent load finishes its request.
+        ITeamcityConn conn = connection(firstReqStarted, secondReqDone);
+
+        Future<Map<Integer, ChangeCompacted>> first = executor.submit(
+            () -> changeSync.changes(SRV_ID, new int[] {1, 2, 3}, conn));
+
+        assertTrue(firstReqStarted.await(10, TimeUnit.SECONDS));
+
+        Future<Map<Integer, ChangeCompacted>> second = executor.submit(
+            () -> changeSync.changes(SRV_ID, new int[] {2, 3, 4}, conn));
+
+        assertEquals(new TreeSet<>(Arrays.asList(1, 2, 3)), first.get(10, TimeUnit.SECONDS).keySet());
+        assertEquals(new TreeSet<>(Arrays.asList(2, 3, 4)), second.get(10, TimeUnit.SECONDS).keySet());
+
+        // Second call requested only change 4, changes 2 and 3 were taken from the first call.
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Collections.singletonList(4)), bulkRequests);
+    }
+
+    /**
+     * @param blockingReqStarted Latch counted down when request of change 1 started, <code>null</code> to not block.
+     * @param release Latch to wait before request of change 1 is answered.
+     * @return connection returning requested changes.
+     */
+    private ITeamcityConn connection(CountDownLatch blockingReqStarted, CountDownLatch release) {
+        ITeamcityConn conn = Mockito.mock(ITeamcityConn.class);
+
+        when(conn.serverCode()).thenReturn("apachetest");
+
+        when(conn.getChanges(any())).thenAnswer(inv -> {
+            Collection<Integer> ids = inv.getArgument(0);
+            List<Integer> sorted = ids.stream().sorted().collect(Collectors.toList());
+
+            bulkRequests.add(sorted);
+
+            if (blockingReqStarted != null) {
+                if (sorted.contains(1)) {
+                    blockingReqStarted.countDown();
+
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                }
+                else
+                    release.countDown();
+            }
+
+            return sorted.stream().map(ChangeSyncTest::change).collect(Collectors.toList());
+        });
+
+        return conn;
+    }
+
+    /**
+     * @param id Change ID.
+     */
+    private static Change change(int id) {
+        Change change = new Change();
+
+        change.id = Integer.toString(id);
+        change.username = "user" + id;
+
+        return change;
+    }
+}
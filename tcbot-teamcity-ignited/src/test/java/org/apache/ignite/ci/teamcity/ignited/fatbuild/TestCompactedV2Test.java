@@ -16,14 +16,21 @@
  */
 package org.apache.ignite.ci.teamcity.ignited.fatbuild;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
 import org.apache.ignite.tcignited.build.TestCompactedV2;
 import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesStaxParser;
 import org.apache.ignite.tcservice.model.result.tests.TestRef;
+import org.apache.ignite.tcservice.util.XmlUtil;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -101,4 +108,38 @@ public class TestCompactedV2Test {
 
         assertFalse(buildCompacted.migrateTests(logSpec));
     }
+
+    @Test
+    public void testStreamingParserMatchesJaxb() throws Exception {
+        String xml = "<testOccurrences nextHref=\"/app/rest/latest/testOccurrences?locator=build:(id:1),start:2\">\n" +
+            "  <testOccurrence id=\"id:1,build:(id:1)\" name=\"Suite: Test.testOk\" status=\"SUCCESS\" " +
+            "ignored=\"false\" duration=\"5192\" muted=\"false\" currentlyMuted=\"false\" currentlyInvestigated=\"false\">\n" +
+            "    <details/>\n" +
+            "    <test id=\"3810451959920173755\"/>\n" +
+            "    <build id=\"1\"/>\n" +
+            "  </testOccurrence>\n" +
+            "  <testOccurrence id=\"id:2,build:(id:1)\" name=\"Suite: Test.testFailed\" status=\"FAILURE\" " +
+            "duration=\"10\" muted=\"true\" currentlyMuted=\"true\">\n" +
+            "    <details>java.lang.AssertionError: &lt;expected&gt;\n\tat Test.testFailed(Test.java:10)</details>\n" +
+            "    <test id=\"-4811343553553101238\"/>\n" +
+            "    <build id=\"2\"/>\n" +
+            "  </testOccurrence>\n" +
+            "</testOccurrences>";
+
+        IStringCompactor c = new InMemoryStringCompactor();
+        ILogProductSpecific logSpec = Mockito.mock(ILogProductSpecific.class);
+
+        TestOccurrencesFull page = XmlUtil.load(TestOccurrencesFull.class, new StringReader(xml));
+        FatBuildCompacted jaxbBuild = new FatBuildCompacted().addTests(c, page.getTests(), logSpec);
+
+        List<TestCompactedV2> tests = new ArrayList<>();
+        String nextHref = TestOccurrencesStaxParser.parse(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+            occurrence -> tests.add(new TestCompactedV2(c, occurrence, logSpec)));
+        FatBuildCompacted streamedBuild = new FatBuildCompacted().addTests(tests);
+
+        assertEquals(page.nextHref(), nextHref);
+        assertEquals(2, streamedBuild.getAllTests().count());
+        assertEquals(jaxbBuild, streamedBuild);
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BuildLoadQueueTest {
+    @Test
+    public void testHigherClassIsTakenFirst() {
+        BuildLoadQueue queue = new BuildLoadQueue(100);
+
+        queue.offer(Arrays.asList(1, 2), BuildLoadPriority.BACKFILL);
+        queue.offer(Arrays.asList(3, 4), BuildLoadPriority.REQUEUE);
+        queue.offer(Collections.singletonList(5), BuildLoadPriority.INTERACTIVE);
+
+        // Request of a higher class moves build forward, request of a lower class is ignored.
+        queue.offer(Collections.singletonList(2), BuildLoadPriority.TRACKED_BRANCH);
+        assertEquals(0, queue.offer(Collections.singletonList(5), BuildLoadPriority.BACKFILL));
+
+        assertEquals(Arrays.asList(5, 2, 3), queue.poll(3));
+        assertEquals(Arrays.asList(4, 1), queue.poll(3));
+        assertTrue(queue.poll(3).isEmpty());
+
+        List<BuildLoadQueue.ClassStat> stats = queue.stats();
+        assertEquals(1, stats.get(BuildLoadPriority.TRACKED_BRANCH.ordinal()).taken);
+        assertEquals(1, stats.get(BuildLoadPriority.BACKFILL.ordinal()).taken);
+        assertEquals(0, stats.get(BuildLoadPriority.BACKFILL.ordinal()).depth);
+    }
+
+    @Test
+    public void testLoadingBuildIsNotQueuedTwice() {
+        BuildLoadQueue queue = new BuildLoadQueue(100);
+
+        queue.offer(Collections.singletonList(1), BuildLoadPriority.TRACKED_BRANCH);
+        List<Integer> load = queue.poll(10);
+
+        assertEquals(0, queue.offer(Collections.singletonList(1), BuildLoadPriority.INTERACTIVE));
+
+        queue.completed(load);
+
+        assertEquals(1, queue.offer(Collections.singletonList(1), BuildLoadPriority.INTERACTIVE));
+    }
+
+    @Test
+    public void testLowerClassIsEvictedIfFull() {
+        BuildLoadQueue queue = new BuildLoadQueue(2);
+
+        queue.offer(Arrays.asList(1, 2), BuildLoadPriority.BACKFILL);
+        queue.offer(Collections.singletonList(3), BuildLoadPriority.INTERACTIVE);
+        queue.offer(Collections.singletonList(4), BuildLoadPriority.BACKFILL);
+
+        assertEquals(Arrays.asList(3, 1), queue.poll(10));
+        assertEquals(2, queue.stats().get(BuildLoadPriority.BACKFILL.ordinal()).dropped);
+    }
+}
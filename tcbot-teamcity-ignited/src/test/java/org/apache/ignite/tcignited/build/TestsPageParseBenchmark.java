@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.build;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesStaxParser;
+import org.apache.ignite.tcservice.util.XmlUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares JAXB parsing of test occurrences pages followed by compaction with streaming parsing directly into
+ * compacted tests.
+ *
+ * Pages are taken from file written by {@link org.apache.ignite.tcservice.http.TeamcityRecorder} (run the bot with
+ * <code>-Dteamcity.bot.recorder=true</code> and pass <code>tcrecorder.txt</code> as argument of {@link #main}). If
+ * no recording is provided, pages of 1000 generated occurrences are used.
+ *
+ * Not a unit test, run {@link #main(String[])} to get results. Use <code>-prof gc</code> to compare allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestsPageParseBenchmark {
+    /** Recorded request prefix, see TeamcityRecorder. */
+    private static final String RECORDER_PREFIX = "===HTTP=RECORDER=== GET ";
+
+    /** Path to recorder output, empty for generated pages. */
+    @Param("")
+    public String recording;
+
+    /** Pages. */
+    private List<byte[]> pages;
+
+    /** Compactor. */
+    private IStringCompactor compactor;
+
+    @Setup
+    public void setUp() throws IOException {
+        pages = recording.isEmpty() ? generatePages(20, 1000) : readRecordedPages(new File(recording));
+        compactor = new InMemoryStringCompactor();
+
+        System.out.println("Test occurrences pages: " + pages.size());
+    }
+
+    @Benchmark
+    public FatBuildCompacted jaxb() throws JAXBException {
+        FatBuildCompacted build = new FatBuildCompacted();
+
+        for (byte[] page : pages) {
+            TestOccurrencesFull occurrences = XmlUtil.load(TestOccurrencesFull.class,
+                new InputStreamReader(new ByteArrayInputStream(page), StandardCharsets.UTF_8));
+
+            build.addTests(compactor, occurrences.getTests(), null);
+        }
+
+        return build;
+    }
+
+    @Benchmark
+    public FatBuildCompacted stax() throws XMLStreamException {
+        List<TestCompactedV2> tests = new ArrayList<>();
+
+        for (byte[] page : pages) {
+            TestOccurrencesStaxParser.parse(new ByteArrayInputStream(page),
+                occurrence -> tests.add(new TestCompactedV2(compactor, occurrence, null)));
+        }
+
+        return new FatBuildCompacted().addTests(tests);
+    }
+
+    /**
+     * @param file Recorder output.
+     * @return bodies of test occurrences responses.
+     */
+    private static List<byte[]> readRecordedPages(File file) throws IOException {
+        String recorded = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        List<byte[]> res = new ArrayList<>();
+
+        int start = recorded.indexOf(RECORDER_PREFIX);
+
+        while (start >= 0) {
+            int urlEnd = recorded.indexOf('\n', start);
+            int end = recorded.indexOf(RECORDER_PREFIX, urlEnd);
+            String url = recorded.substring(start + RECORDER_PREFIX.length(), urlEnd);
+
+            if (url.contains("/testOccurrences")) {
+                String body = end < 0 ? recorded.substring(urlEnd + 1) : recorded.substring(urlEnd + 1, end);
+
+                res.add(body.getBytes(StandardCharsets.UTF_8));
+            }
+
+            start = end;
+        }
+
+        return res;
+    }
+
+    /**
+     * @param cnt Pages count.
+     * @param pageSize Occurrences per page.
+     * @return pages in TeamCity REST format.
+     */
+    private static List<byte[]> generatePages(int cnt, int pageSize) {
+        List<byte[]> res = new ArrayList<>();
+
+        for (int p = 0; p < cnt; p++) {
+            StringBuilder sb = new StringBuilder("<testOccurrences>\n");
+
+            for (int i = 0; i < pageSize; i++) {
+                int id = p * pageSize + i;
+                boolean failed = id % 50 == 0;
+
+                sb.append("<testOccurrence id=\"id:").append(id).append(",build:(id:2153237)\" ")
+                    .append("name=\"org.apache.ignite.testsuites.IgniteCacheTestSuite").append(id % 40)
+                    .append(": org.apache.ignite.internal.processors.cache.SomeCacheTest").append(id / 10)
+                    .append(".testOperation").append(id % 10).append("\" ")
+                    .append("status=\"").append(failed ? "FAILURE" : "SUCCESS").append("\" ignored=\"false\" ")
+                    .append("duration=\"").append(id % 3000).append("\" muted=\"false\" currentlyMuted=\"false\" ")
+                    .append("currentlyInvestigated=\"false\">\n");
+
+                if (failed) {
+                    sb.append("<details>java.lang.AssertionError: Unexpected value\n");
+
+                    for (int line = 0; line < 40; line++)
+                        sb.append("\tat org.apache.ignite.internal.SomeClass.method(SomeClass.java:").append(line).append(")\n");
+
+                    sb.append("</details>\n");
+                }
+                else
+                    sb.append("<details/>\n");
+
+                sb.append("<test id=\"").append(id * 31L).append("\"/>\n")
+                    .append("<build id=\"2153237\"/>\n")
+                    .append("</testOccurrence>\n");
+            }
+
+            sb.append("</testOccurrences>\n");
+
+            res.add(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return res;
+    }
+
+    /**
+     * @param args Optional path to recorder output.
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder opts = new OptionsBuilder();
+
+        opts.include(TestsPageParseBenchmark.class.getSimpleName());
+
+        if (args.length > 0)
+            opts.param("recording", args[0]);
+
+        new Runner(opts.build()).run();
+    }
+}
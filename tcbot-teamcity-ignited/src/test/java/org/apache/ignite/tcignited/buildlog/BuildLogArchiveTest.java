@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BuildLogArchiveTest {
+    /** Logs directory. */
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    @Test
+    public void testAnalyzedLogsAreEvictedFirst() throws IOException {
+        BuildLogArchive archive = new BuildLogArchive(dir.getRoot(), 300, id -> false);
+
+        add(archive, 1, 100);
+        add(archive, 2, 100);
+        add(archive, 3, 100);
+
+        archive.markAnalyzed(2);
+
+        add(archive, 4, 100);
+
+        assertNotNull(archive.get(1));
+        assertNull(archive.get(2));
+        assertFalse(archive.file(2).exists());
+
+        // Nothing is analyzed, least recently used is evicted: 3, because 1 was accessed.
+        add(archive, 5, 100);
+
+        assertNull(archive.get(3));
+        assertNotNull(archive.get(1));
+        assertEquals(300, archive.bytes());
+        assertEquals(2, archive.evicted());
+    }
+
+    @Test
+    public void testIndexIsLoadedFromDisk() throws IOException {
+        BuildLogArchive archive = new BuildLogArchive(dir.getRoot(), 1000, id -> false);
+
+        add(archive, 1, 100);
+        add(archive, 2, 100);
+        File incomplete = archive.tempFile(3);
+
+        Set<Integer> analyzed = new HashSet<>();
+        analyzed.add(1);
+
+        BuildLogArchive restarted = new BuildLogArchive(dir.getRoot(), 250, analyzed::contains);
+
+        assertEquals(2, restarted.size());
+        assertFalse(incomplete.exists());
+
+        add(restarted, 3, 100);
+
+        assertNull(restarted.get(1));
+        assertNotNull(restarted.get(2));
+        assertTrue(archive.file(3).exists());
+    }
+
+    /**
+     * @param archive Archive.
+     * @param buildId Build ID.
+     * @param size Log size.
+     */
+    private static void add(BuildLogArchive archive, int buildId, int size) throws IOException {
+        File tmp = archive.tempFile(buildId);
+
+        Files.write(tmp.toPath(), new byte[size]);
+
+        archive.commit(buildId, tmp);
+    }
+}
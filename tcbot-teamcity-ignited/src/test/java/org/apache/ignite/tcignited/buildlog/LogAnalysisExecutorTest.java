@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.ignite.lang.IgniteBiTuple;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LogAnalysisExecutorTest {
+    /** Executor: one thread and one task in queue. */
+    private final LogAnalysisExecutor executor = new LogAnalysisExecutor(1, 1);
+
+    /** Unblocks analyses. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void stop() {
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    public void testSameKeyIsDeduplicatedAndOptionsAreKeyed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<ILogCheckResult> first = executor.submit(new IgniteBiTuple<>(1L, false), () -> {
+            started.countDown();
+
+            return blocked().get();
+        });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertSame(first, executor.submit(new IgniteBiTuple<>(1L, false), blocked()));
+
+        // Analysis with other options for the same build is not joined.
+        CompletableFuture<ILogCheckResult> dumpLastTest = executor.submit(new IgniteBiTuple<>(1L, true), blocked());
+
+        assertNotSame(first, dumpLastTest);
+
+        release.countDown();
+
+        assertNull(first.get(10, TimeUnit.SECONDS));
+        assertNull(dumpLastTest.get(10, TimeUnit.SECONDS));
+
+        LogAnalysisExecutor.Metrics metrics = executor.metrics();
+
+        assertEquals(2, metrics.submitted);
+        assertEquals(1, metrics.deduplicated);
+        assertEquals(0, metrics.rejected);
+    }
+
+    @Test
+    public void testFullQueueFailsFuture() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<ILogCheckResult> running = executor.submit(1L, () -> {
+            started.countDown();
+
+            return blocked().get();
+        });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<ILogCheckResult> queued = executor.submit(2L, blocked());
+        CompletableFuture<ILogCheckResult> rejected = executor.submit(3L, blocked());
+
+        assertTrue(rejected.isCompletedExceptionally());
+
+        try {
+            rejected.get();
+
+            fail("Rejected analysis should fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        assertEquals(1, executor.metrics().rejected);
+
+        release.countDown();
+
+        assertNull(running.get(10, TimeUnit.SECONDS));
+        assertNull(queued.get(10, TimeUnit.SECONDS));
+
+        // Rejected key is not left in flight, the next request is analyzed.
+        CompletableFuture<ILogCheckResult> retry = executor.submit(3L, blocked());
+
+        assertNotSame(rejected, retry);
+        assertNull(retry.get(10, TimeUnit.SECONDS));
+        assertFalse(retry.isCompletedExceptionally());
+    }
+
+    /**
+     * @return analysis waiting for the test to release it.
+     */
+    private Supplier<ILogCheckResult> blocked() {
+        return () -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return null;
+        };
+    }
+}
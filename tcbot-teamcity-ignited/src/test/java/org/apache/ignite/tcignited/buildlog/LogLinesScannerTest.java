@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogLinesScannerTest {
+    @Test
+    public void testMatcherIsEqualToContains() {
+        List<String> patterns = Arrays.asList("abab", "bab", "b", "abc", "caab", "Ж");
+        BytesPatternMatcher matcher = new BytesPatternMatcher(patterns);
+        Random random = new Random(42);
+        String alphabet = "abcЖ";
+
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = random.nextInt(12);
+
+            for (int j = 0; j < len; j++)
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+
+            String str = sb.toString();
+            long exp = 0;
+
+            for (int p = 0; p < patterns.size(); p++) {
+                if (str.contains(patterns.get(p)))
+                    exp |= 1L << p;
+            }
+
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(str, exp, matcher.match(bytes, 0, bytes.length));
+        }
+    }
+
+    @Test
+    public void testLinesAndPatternsPerHandler() throws IOException {
+        List<String> lines1 = new ArrayList<>();
+        List<String> lines2 = new ArrayList<>();
+
+        ILineHandler hnd1 = new ILineHandler() {
+            @Override public List<String> linePatterns() {
+                return Collections.singletonList("foo");
+            }
+
+            @Override public void accept(LogLine line, File file) {
+                lines1.add(line.contains(0) + " " + line);
+            }
+
+            @Override public void close() {
+            }
+        };
+
+        ILineHandler hnd2 = new ILineHandler() {
+            @Override public List<String> linePatterns() {
+                return Arrays.asList("bar", "foo");
+            }
+
+            @Override public void accept(LogLine line, File file) {
+                lines2.add(line.contains(0) + " " + line.contains(1) + " " + line.lengthBytes());
+            }
+
+            @Override public void close() {
+            }
+        };
+
+        // Long line exceeds initial buffer.
+        char[] longLine = new char[200_000];
+        Arrays.fill(longLine, 'x');
+        String log = "foo\r\nbar\n\n" + new String(longLine) + "foo\nlast bar";
+
+        new LogLinesScanner(Arrays.asList(hnd1, hnd2))
+            .scan(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)), new File("build.log"));
+
+        assertEquals(Arrays.asList("true foo", "false bar", "false ", "true " + new String(longLine) + "foo",
+            "false last bar"), lines1);
+        assertEquals(Arrays.asList("false true 3", "true false 3", "false false 0", "false true 200003",
+            "true false 8"), lines2);
+    }
+}
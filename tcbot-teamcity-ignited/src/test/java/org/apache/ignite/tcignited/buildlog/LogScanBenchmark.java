@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildlog;
+
+import com.google.common.io.ByteStreams;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Build log analysis throughput: line by line decoding and string checks of each line (as it was done before) vs
+ * single pass multi-pattern scan of bytes by {@link LogLinesScanner}.
+ *
+ * Logs are taken from files passed as arguments of {@link #main} (<code>build*.log.zip</code> from the bot logs
+ * directory or plain text logs), otherwise a generated Ignite-like log is used.
+ *
+ * Not a unit test, run {@link #main(String[])} to get results, MB/s is printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogScanBenchmark {
+    /** Paths to logs, separated by comma, empty for generated log. */
+    @Param("")
+    public String logs;
+
+    /** Uncompressed log. */
+    private byte[] log;
+
+    /** Injector. */
+    private Injector injector;
+
+    @Setup
+    public void setUp() throws IOException {
+        log = loadLogs(logs);
+
+        injector = Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(IStringCompactor.class).to(InMemoryStringCompactor.class).in(Singleton.class);
+                bind(ILogProductSpecific.class).to(LogIgniteSpecific.class);
+            }
+        });
+    }
+
+    @Benchmark
+    public Object strings() throws IOException {
+        LegacyTestLogHandler testLogHnd = new LegacyTestLogHandler(injector.getInstance(IStringCompactor.class));
+        LegacyThreadDumpHandler threadDumpHnd = new LegacyThreadDumpHandler();
+
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(log), StandardCharsets.UTF_8))) {
+            reader.lines().forEach(line -> {
+                threadDumpHnd.accept(line);
+                testLogHnd.accept(line);
+            });
+        }
+
+        return testLogHnd.res;
+    }
+
+    @Benchmark
+    public Object scanner() throws IOException {
+        TestLogHandler testLogHnd = injector.getInstance(TestLogHandler.class);
+        ThreadDumpInMemoryHandler threadDumpHnd = new ThreadDumpInMemoryHandler();
+
+        new LogLinesScanner(Arrays.asList(threadDumpHnd, testLogHnd))
+            .scan(new ByteArrayInputStream(log), new File("build.log"));
+
+        return testLogHnd.getResult(false);
+    }
+
+    /**
+     * Line by line thread dump handler, as it was before byte level scanning.
+     */
+    private static class LegacyThreadDumpHandler {
+        /** Current thread dump. */
+        private StringBuilder currentThDump;
+
+        /** Last thread dump. */
+        private String lastThreadDump;
+
+        /**
+         * @param line Line.
+         */
+        void accept(String line) {
+            if (currentThDump == null && line.contains(ThreadDumpInMemoryHandler.FULL_THREAD_DUMP))
+                currentThDump = new StringBuilder();
+
+            if (line.startsWith("[") && currentThDump != null) {
+                lastThreadDump = currentThDump.toString();
+                currentThDump = null;
+            }
+
+            if (currentThDump != null)
+                currentThDump.append(line).append("\n");
+        }
+    }
+
+    /**
+     * Line by line test log handler, as it was before byte level scanning.
+     */
+    private static class LegacyTestLogHandler {
+        /** Starting test. */
+        private static final String STARTING_TEST = ">>> Starting test: ";
+
+        /** Test name end. */
+        private static final String TEST_NAME_END = " <<<";
+
+        /** Product specific. */
+        private final LogIgniteSpecific logSpecific = new LogIgniteSpecific();
+
+        /** Compactor. */
+        private final IStringCompactor compactor;
+
+        /** Result. */
+        private final LogCheckResultCompacted res = new LogCheckResultCompacted();
+
+        /** Current test name. */
+        private String currentTestName;
+
+        /**
+         * @param compactor Compactor.
+         */
+        LegacyTestLogHandler(IStringCompactor compactor) {
+            this.compactor = compactor;
+        }
+
+        /**
+         * @param line Line.
+         */
+        void accept(String line) {
+            if (logSpecific.isTestStarting(line)) {
+                currentTestName = line.substring(line.indexOf(STARTING_TEST) + STARTING_TEST.length(),
+                    line.indexOf(TEST_NAME_END));
+            }
+
+            if (currentTestName == null)
+                return;
+
+            String curName = currentTestName.replaceAll("#", ".");
+            int cfgVariationMarker = curName.indexOf("-[");
+            if (cfgVariationMarker > 0)
+                curName = curName.substring(0, cfgVariationMarker);
+
+            TestLogCheckResultCompacted curTest = res.getOrCreateTestResult(curName);
+
+            curTest.addLineStat(line);
+
+            if (logSpecific.needWarn(line))
+                curTest.addWarning(line);
+
+            String problemCode = LogMsgToWarn.getProblemCode(line);
+
+            if (problemCode != null)
+                res.addProblem(problemCode, compactor);
+        }
+    }
+
+    /**
+     * @param paths Comma separated paths, empty for generated log.
+     * @return uncompressed logs.
+     */
+    private static byte[] loadLogs(String paths) throws IOException {
+        if (paths.isEmpty())
+            return generateLog(64 * 1024 * 1024);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (String path : paths.split(",")) {
+            try (InputStream in = new FileInputStream(path)) {
+                if (path.endsWith(".zip")) {
+                    ZipInputStream zis = new ZipInputStream(in);
+
+                    while (zis.getNextEntry() != null)
+                        ByteStreams.copy(zis, out);
+                }
+                else
+                    ByteStreams.copy(in, out);
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @param size Approximate size.
+     * @return Ignite-like log with tests started, node logs, assertions and a thread dump.
+     */
+    private static byte[] generateLog(int size) {
+        StringBuilder sb = new StringBuilder(size + 1024);
+
+        for (int i = 0; sb.length() < size; i++) {
+            if (i % 500 == 0) {
+                sb.append("[12:34:56,789][INFO ][main][root] >>> Starting test: SomeCacheTest#testOperation")
+                    .append(i).append(" <<<\n");
+            }
+            else if (i % 5000 == 2500) {
+                sb.append("Full thread dump Java HotSpot(TM) 64-Bit Server VM (25.191-b12 mixed mode):\n");
+
+                for (int t = 0; t < 100; t++) {
+                    sb.append("\"sys-stripe-").append(t).append("\" #").append(t).append(" prio=5 WAITING\n")
+                        .append("\tat sun.misc.Unsafe.park(Native Method)\n")
+                        .append("\tat java.util.concurrent.locks.LockSupport.park(LockSupport.java:304)\n");
+                }
+            }
+            else if (i % 1000 == 777)
+                sb.append("java.lang.AssertionError: Values are not equal [expected=1, actual=2]\n");
+            else {
+                sb.append("[12:34:56,789][INFO ][sys-stripe-").append(i % 16)
+                    .append("-#").append(i % 7).append("%cache.SomeCacheTest0%][GridDhtPartitionsExchangeFuture] ")
+                    .append("Finished exchange init [topVer=AffinityTopologyVersion [topVer=").append(i % 100)
+                    .append(", minorTopVer=0], crd=true]\n");
+            }
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param args Optional paths to logs.
+     */
+    public static void main(String[] args) throws RunnerException, IOException {
+        String paths = String.join(",", args);
+        long size = loadLogs(paths).length;
+
+        OptionsBuilder opts = new OptionsBuilder();
+
+        opts.include(LogScanBenchmark.class.getSimpleName());
+
+        if (!paths.isEmpty())
+            opts.param("logs", paths);
+
+        Collection<RunResult> results = new Runner(opts.build()).run();
+
+        for (RunResult res : results) {
+            double ms = res.getPrimaryResult().getScore();
+
+            System.out.printf("%s: %.1f MB/s%n", res.getParams().getBenchmark(),
+                size / 1024.0 / 1024.0 / (ms / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildref;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Providers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.apache.ignite.tcignited.ITeamcityIgnited;
+import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
+import org.apache.ignite.tcservice.ITeamcityConn;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.apache.ignite.tcignited.buildref.BuildRefSync.REINDEX_CURSOR_TTL_MS;
+import static org.apache.ignite.tcignited.buildref.BuildRefSync.REINDEX_PAGE_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Full reindex of build references over emulated TC builds list, progress is kept in {@link InMemoryCursorDao}.
+ */
+public class BuildRefSyncReindexTest {
+    /** Server ID. */
+    private static final String SRV_ID = "apachetest";
+
+    /** Builds on server. */
+    private static final int BUILDS = 2500;
+
+    /** Pattern of position in page request. */
+    private static final Pattern START = Pattern.compile("start:(\\d+)");
+
+    /** Pattern of newest build in page request. */
+    private static final Pattern UNTIL = Pattern.compile("untilBuild:\\(id:(\\d+)\\)");
+
+    /** Sync. */
+    private BuildRefSync sync;
+
+    /** Cursor DAO. */
+    private InMemoryCursorDao cursorDao;
+
+    /** Build IDs saved by sync. */
+    private List<Integer> savedBuilds;
+
+    /** Positions of pages requested. */
+    private List<Integer> requestedStarts;
+
+    /** Newest builds requested pages are limited by. */
+    private List<Integer> requestedUntil;
+
+    /** Position of page request failed as if server was stopped, -1 for no failure. */
+    private int failAtStart;
+
+    /**
+     *
+     */
+    @Before
+    public void setUp() {
+        cursorDao = new InMemoryCursorDao();
+        savedBuilds = new ArrayList<>();
+        requestedStarts = new ArrayList<>();
+        requestedUntil = new ArrayList<>();
+        failAtStart = -1;
+
+        BuildRefDao buildRefDao = Mockito.mock(BuildRefDao.class);
+
+        when(buildRefDao.saveChunk(anyInt(), anyList())).thenAnswer(inv -> {
+            int srvIdMaskHigh = inv.getArgument(0);
+            List<BuildRef> builds = inv.getArgument(1);
+
+            builds.forEach(b -> savedBuilds.add(b.getId()));
+
+            return builds.stream()
+                .map(b -> BuildRefDao.buildIdToCacheKey(srvIdMaskHigh, b.getId()))
+                .collect(Collectors.toSet());
+        });
+
+        ProactiveFatBuildSync fatBuildSync = Mockito.mock(ProactiveFatBuildSync.class);
+
+        when(fatBuildSync.submitRequest(any(), any())).thenAnswer(inv -> {
+            Supplier<?> req = inv.getArgument(1);
+
+            CompletableFuture<Object> fut = new CompletableFuture<>();
+
+            try {
+                fut.complete(req.get());
+            }
+            catch (RuntimeException e) {
+                fut.completeExceptionally(e);
+            }
+
+            return fut;
+        });
+
+        // Instances are provided as is, without injection of their dependencies.
+        sync = Guice.createInjector(new AbstractModule() {
+            /** {@inheritDoc} */
+            @Override protected void configure() {
+                bind(BuildRefDao.class).toProvider(Providers.of(buildRefDao));
+                bind(ProactiveFatBuildSync.class).toProvider(Providers.of(fatBuildSync));
+                bind(ReindexCursorDao.class).toProvider(Providers.of(cursorDao));
+            }
+        }).getInstance(BuildRefSync.class);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testReindexStopsAfterLastPage() {
+        String res = sync.runActualizeBuildRefs(SRV_ID, BuildRefSync.SyncMode.FULL_REINDEX, null, connection());
+
+        // Pages are requested ahead, the one after the last page is requested but not saved.
+        assertEquals(Arrays.asList(0, 1000, 2000, 3000), requestedStarts);
+        assertTrue(requestedUntil.stream().allMatch(id -> id == BUILDS));
+
+        // Recent page requested to find the newest build, then all builds by pages.
+        assertEquals(REINDEX_PAGE_SIZE + BUILDS, savedBuilds.size());
+        assertEquals(BUILDS, savedBuilds.stream().distinct().count());
+        assertTrue(res, res.contains("Builds checked " + BUILDS));
+
+        // Progress is saved before the first page and after each page but the last one.
+        assertEquals(Arrays.asList(0, 1000, 2000), cursorDao.savedStarts);
+        assertNull("Cursor should be removed after reindex", cursorDao.get(srvIdMaskHigh()));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testInterruptedReindexIsResumedFromSavedCursor() {
+        failAtStart = 2000;
+
+        try {
+            sync.runActualizeBuildRefs(SRV_ID, BuildRefSync.SyncMode.FULL_REINDEX, null, connection());
+
+            fail("Page request failure expected");
+        }
+        catch (CompletionException ignored) {
+            // Expected.
+        }
+
+        ReindexCursor cursor = cursorDao.get(srvIdMaskHigh());
+
+        assertNotNull(cursor);
+        assertEquals(BUILDS, cursor.untilBuildId);
+        assertEquals(2000, cursor.nextStart);
+
+        failAtStart = -1;
+        requestedStarts.clear();
+        savedBuilds.clear();
+
+        sync.runActualizeBuildRefs(SRV_ID, BuildRefSync.SyncMode.FULL_REINDEX, null, connection());
+
+        // Recent page is not requested again, reindex continues from the page failed.
+        assertEquals(Arrays.asList(2000, 3000), requestedStarts);
+        assertEquals(BUILDS - 2000, savedBuilds.size());
+        assertNull(cursorDao.get(srvIdMaskHigh()));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testExpiredCursorIsNotContinued() {
+        ReindexCursor expired = new ReindexCursor(BUILDS - 700);
+
+        expired.nextStart = 1000;
+        expired.startTs = System.currentTimeMillis() - REINDEX_CURSOR_TTL_MS - 60_000;
+
+        cursorDao.save(srvIdMaskHigh(), expired);
+        cursorDao.savedStarts.clear();
+
+        sync.runActualizeBuildRefs(SRV_ID, BuildRefSync.SyncMode.FULL_REINDEX, null, connection());
+
+        // Reindex is started again from the recent page and the newest build.
+        assertEquals(Arrays.asList(0, 1000, 2000, 3000), requestedStarts);
+        assertTrue(requestedUntil.stream().allMatch(id -> id == BUILDS));
+        assertEquals(Arrays.asList(0, 1000, 2000), cursorDao.savedStarts);
+        assertNull(cursorDao.get(srvIdMaskHigh()));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testValidCursorIsContinued() {
+        ReindexCursor cursor = new ReindexCursor(BUILDS - 700);
+
+        cursor.nextStart = 1000;
+
+        cursorDao.save(srvIdMaskHigh(), cursor);
+
+        sync.runActualizeBuildRefs(SRV_ID, BuildRefSync.SyncMode.FULL_REINDEX, null, connection());
+
+        // Builds list is limited by build newest at the moment reindex was started.
+        assertEquals(Arrays.asList(1000, 2000), requestedStarts);
+        assertTrue(requestedUntil.stream().allMatch(id -> id == BUILDS - 700));
+        assertEquals(BUILDS - 700 - 1000, savedBuilds.size());
+    }
+
+    /**
+     * @return connection to server with builds from 1 to {@link #BUILDS}, newest first.
+     */
+    private ITeamcityConn connection() {
+        ITeamcityConn conn = Mockito.mock(ITeamcityConn.class);
+
+        when(conn.serverCode()).thenReturn(SRV_ID);
+
+        when(conn.getBuildRefsPage(any(), any())).thenAnswer(inv -> {
+            String url = inv.getArgument(0);
+            AtomicReference<String> nextPage = inv.getArgument(1);
+
+            int start = 0;
+            int until = BUILDS;
+
+            if (url != null) {
+                start = parse(START, url);
+                until = parse(UNTIL, url);
+
+                synchronized (this) {
+                    requestedStarts.add(start);
+                    requestedUntil.add(until);
+                }
+
+                if (start == failAtStart)
+                    throw new IllegalStateException("Server stopped");
+            }
+
+            List<BuildRef> page = new ArrayList<>();
+
+            for (int id = until - start; id > 0 && page.size() < REINDEX_PAGE_SIZE; id--)
+                page.add(buildRef(id));
+
+            if (until - start > REINDEX_PAGE_SIZE)
+                nextPage.set("app/rest/latest/builds?locator=count:1000,start:" + (start + REINDEX_PAGE_SIZE));
+
+            return page;
+        });
+
+        return conn;
+    }
+
+    /**
+     * @param ptrn Pattern with one group.
+     * @param url Url.
+     */
+    private static int parse(Pattern ptrn, String url) {
+        Matcher matcher = ptrn.matcher(url);
+
+        assertTrue(url, matcher.find());
+
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    /**
+     * @param id Build ID.
+     */
+    private static BuildRef buildRef(int id) {
+        BuildRef ref = new BuildRef();
+
+        ref.setId(id);
+        ref.state = BuildRef.STATE_FINISHED;
+        ref.buildTypeId = "IgniteTests24Java8_RunAll";
+        ref.branchName = "refs/heads/master";
+
+        return ref;
+    }
+
+    /**
+     *
+     */
+    private static int srvIdMaskHigh() {
+        return ITeamcityIgnited.serverIdToInt(SRV_ID);
+    }
+
+    /**
+     * Cursor DAO storing copies of cursors like cache does.
+     */
+    private static class InMemoryCursorDao extends ReindexCursorDao {
+        /** Cursors. */
+        private final Map<Integer, ReindexCursor> cursors = new HashMap<>();
+
+        /** Positions of cursors saved. */
+        private final List<Integer> savedStarts = new ArrayList<>();
+
+        /** {@inheritDoc} */
+        @Nullable @Override public synchronized ReindexCursor get(int srvId) {
+            return copy(cursors.get(srvId));
+        }
+
+        /** {@inheritDoc} */
+        @Override public synchronized void save(int srvId, ReindexCursor cursor) {
+            cursors.put(srvId, copy(cursor));
+            savedStarts.add(cursor.nextStart);
+        }
+
+        /** {@inheritDoc} */
+        @Override public synchronized void remove(int srvId) {
+            cursors.remove(srvId);
+        }
+
+        /**
+         * @param cursor Cursor.
+         */
+        private static ReindexCursor copy(@Nullable ReindexCursor cursor) {
+            if (cursor == null)
+                return null;
+
+            ReindexCursor res = new ReindexCursor(cursor.untilBuildId);
+
+            res.nextStart = cursor.nextStart;
+            res.checked = cursor.checked;
+            res.saved = cursor.saved;
+            res.startTs = cursor.startTs;
+
+            return res;
+        }
+    }
+}
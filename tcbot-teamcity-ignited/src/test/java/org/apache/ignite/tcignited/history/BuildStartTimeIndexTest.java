@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BuildStartTimeIndexTest {
+    @Test
+    public void testQueriesMatchScan() {
+        BuildStartTimeIndex idx = new BuildStartTimeIndex();
+        Map<Integer, Long> all = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int batch = 0; batch < 20; batch++) {
+            Map<Integer, Long> builds = new HashMap<>();
+
+            for (int i = 0; i < 200; i++) {
+                int id = random.nextInt(10_000) + 1;
+                long ts = 1_000_000L + id * 10L + random.nextInt(500);
+
+                builds.putIfAbsent(id, ts);
+                all.putIfAbsent(id, ts);
+            }
+
+            if (batch % 2 == 0)
+                idx.putAllIfAbsent(builds);
+            else
+                builds.forEach((id, ts) -> idx.putAllIfAbsent(Collections.singletonMap(id, ts)));
+        }
+
+        Set<Integer> removed = new HashSet<>();
+        for (Integer id : all.keySet()) {
+            if (id % 7 == 0)
+                removed.add(id);
+        }
+
+        idx.removeAll(removed);
+        all.keySet().removeAll(removed);
+
+        assertEquals(all.size(), idx.size());
+
+        all.forEach((id, ts) -> assertEquals(ts, idx.startTime(id)));
+        assertNull(idx.startTime(7));
+
+        for (int q = 0; q < 100; q++) {
+            long to = 1_000_000L + random.nextInt(130_000);
+
+            Integer expBorder = all.entrySet().stream()
+                .filter(e -> e.getValue() <= to)
+                .map(Map.Entry::getKey).max(Integer::compare).orElse(null);
+
+            assertEquals(expBorder, idx.maxBuildIdStartedBefore(to));
+        }
+
+        assertNull(idx.maxBuildIdStartedBefore(0));
+    }
+}
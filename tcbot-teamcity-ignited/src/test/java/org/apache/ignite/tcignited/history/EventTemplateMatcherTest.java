@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventTemplateMatcherTest {
+    /** Statuses used in generated histories, most of the runs are OK. */
+    private static final int[] STATUSES = {
+        InvocationData.OK, InvocationData.OK, InvocationData.OK, InvocationData.OK,
+        InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.CRITICAL_FAILURE,
+        InvocationData.MISSING, InvocationData.MISSING, InvocationData.OK_MUTED
+    };
+
+    /** Templates of the same shape as templates used for issues detection. */
+    private static final IEventTemplate[] TEMPLATES = {
+        template(new int[] {0, 0, 0, 0, 0}, new int[] {1, 1, 1, 1}, false, false),
+        template(new int[] {10}, new int[] {3, 3, 3}, false, false),
+        template(new int[] {4, 4, 4, 4}, new int[] {1, 1, 1, 1}, true, true),
+        template(new int[] {0, 0}, new int[] {1, 1, 1, 1, 1, 1, 1, 1}, false, false)
+    };
+
+    @Test
+    public void testMatcherIsEqualToPerPositionComparison() {
+        Random random = new Random(42);
+        EventTemplateMatcher all = EventTemplateMatcher.compile(TEMPLATES);
+        int[] res = new int[TEMPLATES.length];
+
+        for (int iter = 0; iter < 20_000; iter++) {
+            RunHistCompacted hist = new RunHistCompacted();
+            int len = random.nextInt(40);
+            int failRun = random.nextInt(len + 1);
+
+            for (int i = 0; i < len; i++) {
+                int status;
+
+                if (i < failRun / 2)
+                    status = InvocationData.MISSING;
+                else if (i >= failRun && random.nextInt(10) < 8)
+                    status = iter % 2 == 0 ? InvocationData.FAILURE : InvocationData.CRITICAL_FAILURE;
+                else
+                    status = STATUSES[random.nextInt(STATUSES.length)];
+
+                hist.addInvocation(new Invocation(1000 + i).withStatus(status));
+            }
+
+            all.detectAll(hist, res);
+
+            for (int t = 0; t < TEMPLATES.length; t++) {
+                int exp = perPositionDetect(hist, TEMPLATES[t]);
+
+                assertEquals(hist.toString(), exp, res[t]);
+                assertEquals(hist.toString(), exp, all.detect(hist, t));
+                assertEquals(hist.toString(), exp, TEMPLATES[t].matcher().detect(hist, 0));
+            }
+        }
+    }
+
+    /**
+     * Straightforward template detection.
+     *
+     * @param hist History.
+     * @param t Template.
+     */
+    private static int perPositionDetect(IRunHistory hist, IEventTemplate t) {
+        int centralEvtBuild = t.beforeEvent().length;
+        List<Integer> template = new ArrayList<>();
+
+        for (int code : t.beforeEvent())
+            template.add(code);
+
+        for (int code : t.eventAndAfter())
+            template.add(code);
+
+        List<Integer> idxs = new ArrayList<>();
+
+        for (int i = 0; i < hist.getInvocationsCount(); i++) {
+            if (t.includeMissing() || hist.statusAt(i) != InvocationData.MISSING)
+                idxs.add(i);
+        }
+
+        for (int start = idxs.size() - template.size(); start >= 0; start--) {
+            boolean match = true;
+
+            for (int pos = 0; pos < template.size() && match; pos++) {
+                int status = hist.statusAt(idxs.get(start + pos));
+                int code = template.get(pos);
+
+                match = code == RunStatus.RES_OK_OR_FAILURE.getCode()
+                    ? status == InvocationData.OK || status == InvocationData.FAILURE
+                    : status == code;
+            }
+
+            if (!match)
+                continue;
+
+            int buildId = hist.buildIdAt(idxs.get(start + centralEvtBuild));
+
+            if (t.shouldBeFirstNonMissing() && hist.buildIdAt(firstNonMissing(hist)) != buildId)
+                return EventTemplateMatcher.NOT_DETECTED;
+
+            return buildId;
+        }
+
+        return EventTemplateMatcher.NOT_DETECTED;
+    }
+
+    /**
+     * @param hist History.
+     */
+    private static int firstNonMissing(IRunHistory hist) {
+        for (int i = 0; i < hist.getInvocationsCount(); i++) {
+            if (hist.statusAt(i) != InvocationData.MISSING)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param before Before event.
+     * @param after Event and after.
+     * @param includeMissing Include missing.
+     * @param firstNonMissing Should be first non missing.
+     */
+    private static IEventTemplate template(int[] before, int[] after, boolean includeMissing,
+        boolean firstNonMissing) {
+        return new IEventTemplate() {
+            @Override public int[] beforeEvent() {
+                return before;
+            }
+
+            @Override public int[] eventAndAfter() {
+                return after;
+            }
+
+            @Override public boolean includeMissing() {
+                return includeMissing;
+            }
+
+            @Override public boolean shouldBeFirstNonMissing() {
+                return firstNonMissing;
+            }
+        };
+    }
+}
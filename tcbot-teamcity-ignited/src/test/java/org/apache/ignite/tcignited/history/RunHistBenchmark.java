@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares iteration over {@link Invocation} instances with primitive cursor of {@link IRunHistory} for all tests of
+ * a large suite: fail rate, flakiness and critical failure template detection, as it is done for suite report.
+ *
+ * Issue detection benchmarks compare per-template detection with one pass of {@link EventTemplateMatcher} for test
+ * failure templates (same as templates of issue detector), for all tests of the branch history.
+ *
+ * Not a unit test, run {@link #main(String[])} to get results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunHistBenchmark {
+    /** Tests in suite. */
+    private static final int TESTS = 10_000;
+
+    /** Builds in history. */
+    private static final int BUILDS = 100;
+
+    /** Template: test was OK and became failed in the latest builds. */
+    private static final IEventTemplate NEW_FAILURE = template(
+        new int[] {InvocationData.OK, InvocationData.OK, InvocationData.OK},
+        new int[] {InvocationData.FAILURE, InvocationData.FAILURE},
+        false, false);
+
+    /** Template: test was missing and failed in the first runs. */
+    private static final IEventTemplate NEW_CONTRIBUTED_FAILURE = template(
+        new int[] {InvocationData.MISSING, InvocationData.MISSING, InvocationData.MISSING, InvocationData.MISSING},
+        new int[] {InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE},
+        true, true);
+
+    /** Template: test was OK and became failed. */
+    private static final IEventTemplate NEW_TEST_FAILURE = template(
+        new int[] {InvocationData.OK, InvocationData.OK, InvocationData.OK, InvocationData.OK, InvocationData.OK},
+        new int[] {InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE},
+        false, false);
+
+    /** Template: flaky test was OK and became failed. */
+    private static final IEventTemplate NEW_FAILURE_FOR_FLAKY = template(
+        new int[] {InvocationData.OK, InvocationData.OK, InvocationData.OK, InvocationData.OK, InvocationData.OK},
+        new int[] {InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE,
+            InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE, InvocationData.FAILURE},
+        false, false);
+
+    /** Test failure templates matcher. */
+    private static final EventTemplateMatcher TEST_FAILURE_MATCHER =
+        EventTemplateMatcher.compile(NEW_CONTRIBUTED_FAILURE, NEW_TEST_FAILURE, NEW_FAILURE_FOR_FLAKY);
+
+    /** Tests histories. */
+    private List<AbstractRunHist> tests;
+
+    @Setup
+    public void setUp() {
+        IStringCompactor c = new InMemoryStringCompactor();
+        Random random = new Random(42);
+
+        int[] testNames = new int[TESTS];
+        for (int i = 0; i < TESTS; i++)
+            testNames[i] = c.getStringId("org.apache.ignite.SomeTest.test" + i);
+
+        Map<Integer, SuiteInvocation> builds = new HashMap<>();
+
+        for (int buildId = 1; buildId <= BUILDS; buildId++) {
+            FatBuildCompacted build = new FatBuildCompacted();
+            build.withId(buildId);
+            build.status(c.getStringId(BuildRef.STATUS_SUCCESS));
+
+            SuiteInvocation inv = new SuiteInvocation(1, c.getStringId("master"), build, c, (k, v) -> false);
+
+            for (int i = 0; i < TESTS; i++) {
+                int rnd = random.nextInt(100);
+                int status = rnd < 3 ? InvocationData.FAILURE : (rnd < 5 ? InvocationData.MISSING : InvocationData.OK);
+
+                if (status != InvocationData.MISSING) {
+                    inv.addTest(testNames[i], new Invocation(buildId).withStatus(status)
+                        .withChanges(random.nextBoolean() ? new int[0] : new int[] {buildId}));
+                }
+            }
+
+            builds.put(buildId, inv);
+        }
+
+        SuiteHistory hist = new SuiteHistory(builds);
+
+        tests = new ArrayList<>(TESTS);
+        for (int testName : testNames)
+            tests.add((AbstractRunHist)hist.getTestRunHist(testName));
+    }
+
+    @Benchmark
+    public void invocations(Blackhole bh) {
+        for (AbstractRunHist test : tests) {
+            bh.consume(legacyFailures(test));
+            bh.consume(legacyRuns(test));
+            bh.consume(legacyStatusChanges(test));
+            bh.consume(legacyDetectTemplate(test, NEW_FAILURE));
+        }
+    }
+
+    @Benchmark
+    public void cursor(Blackhole bh) {
+        for (AbstractRunHist test : tests) {
+            bh.consume(test.getFailuresCount());
+            bh.consume(test.getRunsCount());
+            bh.consume(test.getStatusChangesWithoutCodeModification());
+            bh.consume(test.detectTemplate(NEW_FAILURE));
+        }
+    }
+
+    @Benchmark
+    public void issueDetectionPerTemplate(Blackhole bh) {
+        for (AbstractRunHist test : tests) {
+            bh.consume(legacyDetectTemplate(test, NEW_CONTRIBUTED_FAILURE));
+            bh.consume(legacyDetectTemplate(test, NEW_TEST_FAILURE));
+            bh.consume(legacyDetectTemplate(test, NEW_FAILURE_FOR_FLAKY));
+        }
+    }
+
+    @Benchmark
+    public void issueDetectionOnePass(Blackhole bh) {
+        int[] res = new int[TEST_FAILURE_MATCHER.templates()];
+
+        for (AbstractRunHist test : tests) {
+            TEST_FAILURE_MATCHER.detectAll(test, res);
+
+            bh.consume(res);
+        }
+    }
+
+    /**
+     * @param hist History.
+     */
+    private static int legacyFailures(AbstractRunHist hist) {
+        return (int)hist.getInvocations().filter(inv ->
+            inv.status() == InvocationData.FAILURE
+                || inv.status() == InvocationData.CRITICAL_FAILURE).count();
+    }
+
+    /**
+     * @param hist History.
+     */
+    private static int legacyRuns(AbstractRunHist hist) {
+        return (int)hist.getInvocations().filter(inv ->
+            inv.status() != InvocationData.MISSING && !Invocation.isMutedOrIgnored(inv.status())).count();
+    }
+
+    /**
+     * @param hist History.
+     */
+    private static int legacyStatusChanges(AbstractRunHist hist) {
+        int statusChange = 0;
+
+        Invocation prev = null;
+
+        for (Invocation cur : hist.invocations()) {
+            if (cur.status() == InvocationData.MISSING)
+                continue;
+
+            if (prev != null) {
+                if (prev.status() != cur.status()
+                    && cur.changesState() == ChangesState.NONE
+                    && prev.changesState() != ChangesState.UNKNOWN)
+                    statusChange++;
+            }
+
+            prev = cur;
+        }
+
+        return statusChange;
+    }
+
+    /**
+     * @param hist History.
+     * @param t Template.
+     */
+    private static Integer legacyDetectTemplate(AbstractRunHist hist, IEventTemplate t) {
+        int centralEvtBuild = t.beforeEvent().length;
+
+        int[] template = new int[t.beforeEvent().length + t.eventAndAfter().length];
+        System.arraycopy(t.beforeEvent(), 0, template, 0, t.beforeEvent().length);
+        System.arraycopy(t.eventAndAfter(), 0, template, t.beforeEvent().length, t.eventAndAfter().length);
+
+        List<Invocation> histAsArr = new ArrayList<>();
+
+        for (Invocation invocation : hist.invocations()) {
+            if (t.includeMissing() || invocation.status() != InvocationData.MISSING)
+                histAsArr.add(invocation);
+        }
+
+        for (int idx = histAsArr.size() - template.length; idx >= 0; idx--) {
+            for (int tIdx = 0; tIdx < template.length; tIdx++) {
+                Invocation cur = histAsArr.get(idx + tIdx);
+
+                RunStatus tmpl = RunStatus.byCode(template[tIdx]);
+
+                if ((tmpl == RunStatus.RES_OK_OR_FAILURE && (cur.status() == InvocationData.OK || cur.status() == InvocationData.FAILURE))
+                    || cur.status() == tmpl.getCode()) {
+                    if (tIdx == template.length - 1)
+                        return histAsArr.get(idx + centralEvtBuild).buildId();
+                }
+                else
+                    break;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param before Before event.
+     * @param after Event and after.
+     * @param includeMissing Include missing.
+     * @param firstNonMissing Should be first non missing.
+     */
+    private static IEventTemplate template(int[] before, int[] after, boolean includeMissing,
+        boolean firstNonMissing) {
+        return new IEventTemplate() {
+            /** Matcher. */
+            private final EventTemplateMatcher matcher = EventTemplateMatcher.compile(this);
+
+            @Override public int[] beforeEvent() {
+                return before;
+            }
+
+            @Override public int[] eventAndAfter() {
+                return after;
+            }
+
+            @Override public boolean includeMissing() {
+                return includeMissing;
+            }
+
+            @Override public boolean shouldBeFirstNonMissing() {
+                return firstNonMissing;
+            }
+
+            @Override public EventTemplateMatcher matcher() {
+                return matcher;
+            }
+        };
+    }
+
+    /**
+     * @param args Args.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RunHistBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SuiteHistoryTest {
+    /** Test names. */
+    private static final String[] TESTS = {"testA", "testB", "testC"};
+
+    /**
+     * Statuses of tests in builds 1..6, by test index. Test C was added in build 4.
+     */
+    private static final int[][] STATUSES = {
+        {0, 0, 4},
+        {1, 0, 4},
+        {0, 1, 4},
+        {0, 0, 0},
+        {1, 1, 1},
+        {0, 0, 0}
+    };
+
+    @Test
+    public void testIncrementalAddIsEqualToFullRebuild() {
+        IStringCompactor c = new InMemoryStringCompactor();
+        Map<Integer, SuiteInvocation> all = new HashMap<>();
+
+        for (int buildId = 1; buildId <= STATUSES.length; buildId++)
+            all.put(buildId, suiteInvocation(c, buildId));
+
+        Map<Integer, SuiteInvocation> initial = new HashMap<>(all);
+        initial.remove(2);
+        initial.remove(4);
+        initial.remove(6);
+
+        SuiteHistory initialHist = new SuiteHistory(initial);
+        SuiteHistory incremental = initialHist
+            .withSuiteInvocation(all.get(6), 0)
+            .withSuiteInvocation(all.get(2), 0)
+            .withSuiteInvocation(all.get(4), 0);
+
+        SuiteHistory full = new SuiteHistory(all);
+
+        assertEquals(full.self().getLatestRunResults(), incremental.self().getLatestRunResults());
+
+        for (String test : TESTS) {
+            int testName = c.getStringId(test);
+
+            assertEquals(full.getTestRunHist(testName).getLatestRunResults(),
+                incremental.getTestRunHist(testName).getLatestRunResults());
+        }
+
+        // initial history is not modified.
+        assertFalse(initialHist.containsBuild(4));
+        assertEquals(3, initialHist.getTestRunHist(c.getStringId("testC")).getLatestRunResults().size());
+        assertTrue(incremental.containsBuild(4));
+
+        assertSame(incremental, incremental.withSuiteInvocation(all.get(4), 0));
+    }
+
+    @Test
+    public void testBuildsOutOfWindowAreTrimmed() {
+        IStringCompactor c = new InMemoryStringCompactor();
+        Map<Integer, SuiteInvocation> all = new HashMap<>();
+
+        for (int buildId = 1; buildId <= STATUSES.length; buildId++)
+            all.put(buildId, suiteInvocation(c, buildId));
+
+        SuiteHistory hist = new SuiteHistory(subMap(all, 1, 3));
+
+        // Build with new test is copied to new matrix, build 5 is appended to the same matrix.
+        SuiteHistory withNewTest = hist.withSuiteInvocation(all.get(4), 1);
+        SuiteHistory appended = withNewTest.withSuiteInvocation(all.get(5), 2);
+
+        assertHistoryEquals(c, new SuiteHistory(subMap(all, 2, 4)), withNewTest);
+        assertHistoryEquals(c, new SuiteHistory(subMap(all, 3, 5)), appended);
+
+        SuiteHistory latest = appended.withSuiteInvocation(all.get(6), 4);
+
+        assertHistoryEquals(c, new SuiteHistory(subMap(all, 5, 6)), latest);
+        assertFalse(latest.containsBuild(4));
+
+        // Build older than window is not added.
+        assertSame(latest, latest.withSuiteInvocation(all.get(3), 4));
+
+        // Previous versions are not modified by trimming.
+        assertHistoryEquals(c, new SuiteHistory(subMap(all, 3, 5)), appended);
+        assertEquals(3, hist.self().getInvocationsCount());
+    }
+
+    @Test
+    public void testFilteredHistoryReadsParentMatrix() {
+        IStringCompactor c = new InMemoryStringCompactor();
+        Map<Integer, SuiteInvocation> all = new HashMap<>();
+
+        int env = c.getStringId("env");
+        int even = c.getStringId("even");
+
+        for (int buildId = 1; buildId <= STATUSES.length; buildId++) {
+            SuiteInvocation inv = suiteInvocation(c, buildId);
+
+            Map<Integer, Integer> parms = new HashMap<>();
+            parms.put(env, c.getStringId(buildId % 2 == 0 ? "even" : "odd"));
+            inv.suiteInvocation().withParameters(parms);
+
+            all.put(buildId, inv);
+        }
+
+        SuiteHistory hist = new SuiteHistory(all);
+        ISuiteRunHistory filtered = hist.filter(Collections.singletonMap(env, even));
+
+        assertEquals(STATUSES.length / 2, filtered.self().getLatestRunResults().size());
+
+        for (int i = 0; i < TESTS.length; i++) {
+            List<Integer> exp = new ArrayList<>();
+
+            for (int buildId = 2; buildId <= STATUSES.length; buildId += 2)
+                exp.add(STATUSES[buildId - 1][i]);
+
+            assertEquals(exp, filtered.getTestRunHist(c.getStringId(TESTS[i])).getLatestRunResults());
+        }
+
+        List<Integer> beforeRelease = filtered.getTestRunHist(c.getStringId("testC")).getLatestRunResults();
+
+        // History evicted from cache remains readable through the view.
+        hist.release();
+
+        assertEquals(beforeRelease, filtered.getTestRunHist(c.getStringId("testC")).getLatestRunResults());
+    }
+
+    /**
+     * @param all Suite invocations by build ID.
+     * @param from First build ID, inclusive.
+     * @param to Last build ID, inclusive.
+     */
+    private static Map<Integer, SuiteInvocation> subMap(Map<Integer, SuiteInvocation> all, int from, int to) {
+        Map<Integer, SuiteInvocation> res = new HashMap<>();
+
+        for (int buildId = from; buildId <= to; buildId++)
+            res.put(buildId, all.get(buildId));
+
+        return res;
+    }
+
+    /**
+     * @param c Compactor.
+     * @param exp Expected history.
+     * @param act Actual history.
+     */
+    private static void assertHistoryEquals(IStringCompactor c, SuiteHistory exp, SuiteHistory act) {
+        assertEquals(exp.self().getLatestRunResults(), act.self().getLatestRunResults());
+
+        for (int i = 0; i < exp.self().getInvocationsCount(); i++)
+            assertEquals(exp.self().buildIdAt(i), act.self().buildIdAt(i));
+
+        for (String test : TESTS) {
+            IRunHistory expTest = exp.getTestRunHist(c.getStringId(test));
+            IRunHistory actTest = act.getTestRunHist(c.getStringId(test));
+
+            if (expTest == null)
+                continue; // test is known to history only after its builds were dropped.
+
+            assertEquals(test, expTest.getLatestRunResults(), actTest.getLatestRunResults());
+        }
+    }
+
+    /**
+     * @param c Compactor.
+     * @param buildId Build id.
+     */
+    private SuiteInvocation suiteInvocation(IStringCompactor c, int buildId) {
+        FatBuildCompacted build = new FatBuildCompacted();
+        build.withId(buildId);
+        build.status(c.getStringId(BuildRef.STATUS_SUCCESS));
+
+        SuiteInvocation inv = new SuiteInvocation(1, c.getStringId("master"), build, c, (k, v) -> false);
+
+        for (int i = 0; i < TESTS.length; i++) {
+            int status = STATUSES[buildId - 1][i];
+
+            if (status != InvocationData.MISSING)
+                inv.addTest(c.getStringId(TESTS[i]), new Invocation(buildId).withStatus(status).withChanges(new int[0]));
+        }
+
+        return inv;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestStatusMatrixTest {
+    @Test
+    public void testMatrixIsFilledWithMissing() {
+        TestStatusMatrix m = new TestStatusMatrix(3, TestStatusMatrix.strideFor(4), 4);
+
+        assertTrue(m.isOffHeap());
+        assertEquals(3, m.rows());
+        assertEquals(3L * m.stride(), m.sizeInBytes());
+
+        for (int row = 0; row < m.rows(); row++) {
+            for (int col = 0; col < m.stride(); col++)
+                assertEquals(InvocationData.MISSING, m.get(row, col));
+        }
+    }
+
+    @Test
+    public void testCopyAndClaim() {
+        TestStatusMatrix m = new TestStatusMatrix(2, 4, 2);
+
+        m.set(0, 0, (byte)InvocationData.OK);
+        m.set(0, 1, (byte)InvocationData.FAILURE);
+        m.set(1, 1, (byte)InvocationData.MUTED);
+
+        assertFalse(m.tryClaimColumn(1));
+        assertTrue(m.tryClaimColumn(2));
+        assertFalse(m.tryClaimColumn(2));
+        assertTrue(m.tryClaimColumn(3));
+        assertFalse(m.tryClaimColumn(4));
+
+        TestStatusMatrix dst = new TestStatusMatrix(2, 4, 3);
+
+        m.copyTo(0, 0, dst, 0, 1, 2);
+        m.copyTo(1, 1, dst, 1, 0, 1);
+
+        assertEquals(InvocationData.MISSING, dst.get(0, 0));
+        assertEquals(InvocationData.OK, dst.get(0, 1));
+        assertEquals(InvocationData.FAILURE, dst.get(0, 2));
+        assertEquals(InvocationData.MUTED, dst.get(1, 0));
+        assertEquals(InvocationData.MISSING, dst.get(1, 1));
+    }
+
+    @Test
+    public void testReleasedMatrixIsMovedToHeap() {
+        TestStatusMatrix m = new TestStatusMatrix(2, 4, 1);
+
+        m.set(1, 0, (byte)InvocationData.FAILURE);
+        m.retain();
+
+        m.release();
+        assertTrue(m.isOffHeap());
+
+        m.release();
+        assertFalse(m.isOffHeap());
+
+        // Readers of evicted history still get statuses after off-heap memory is freed.
+        TestStatusMatrix.freeReleasedBuffers(Long.MAX_VALUE);
+
+        assertEquals(InvocationData.FAILURE, m.get(1, 0));
+        assertEquals(InvocationData.MISSING, m.get(0, 0));
+        assertEquals(8, m.sizeInBytes());
+    }
+}
@@ -17,13 +17,17 @@
 
 package org.apache.ignite.tcservice;
 
-import java.io.File;
+import com.google.common.base.Strings;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -38,6 +42,7 @@ import org.apache.ignite.tcservice.model.mute.MuteInfo;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrences;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
@@ -101,6 +106,34 @@ public interface ITeamcityConn {
      */
     public TestOccurrencesFull getTestsPage(int buildId, @Nullable String href, boolean testDtls);
 
+    /**
+     * @param buildId Build id.
+     * @param start Index of the first occurrence in the page.
+     * @param cnt Maximal count of occurrences in the page.
+     * @param testDtls Query test details.
+     * @return href of test occurrences page to be used in {@link #streamTestsPage}.
+     */
+    public String testsPageHref(int buildId, int start, int cnt, boolean testDtls);
+
+    /**
+     * Streaming version of {@link #getTestsPage(int, String, boolean)}: each occurrence is passed to consumer as soon
+     * as it is read, page model is not kept in memory.
+     *
+     * @param buildId Build id.
+     * @param href Href. Null activates first page loaded.
+     * @param testDtls Query test details.
+     * @param consumer Occurrences consumer.
+     * @return href of the next page or <code>null</code> if this page is the last one.
+     */
+    @Nullable public default String streamTestsPage(int buildId, @Nullable String href, boolean testDtls,
+        Consumer<TestOccurrenceFull> consumer) {
+        TestOccurrencesFull page = getTestsPage(buildId, href, testDtls);
+
+        page.getTests().forEach(consumer);
+
+        return Strings.emptyToNull(page.nextHref());
+    }
+
     /**
      * Trigger build.
      * @param buildTypeId Build type (suite) identifier.
@@ -142,6 +175,15 @@ public interface ITeamcityConn {
      */
     public Change getChange(int changeId);
 
+    /**
+     * Loads several changes with details by one request. Changes not available on the server are skipped.
+     *
+     * @param changeIds Change ids.
+     *
+     * @throws RuntimeException in case loading failed, see details in {@link ITeamcityConn}.
+     */
+    public List<Change> getChanges(Collection<Integer> changeIds);
+
     /**
      * List of project suites.
      *
@@ -171,13 +213,15 @@ public interface ITeamcityConn {
     public List<Agent> agents(boolean connected, boolean authorized);
 
     /**
-     * @param buildId
-     * @return
+     * Opens stream of zipped build log, caller is responsible for closing it.
+     *
+     * @param buildId Build ID.
+     * @return zipped build log stream.
      *
-     * @throws UncheckedIOException caused by IOException If communication failed.
-     * @throws UncheckedIOException caused by FileNotFoundException If not found (404) was returned from service.
+     * @throws IOException If communication failed.
+     * @throws FileNotFoundException If not found (404) was returned from service.
      * @throws ServiceConflictException If conflict (409) was returned from service.
      * @throws IllegalStateException if some unexpected HTTP error returned.
      */
-    @Nullable public File downloadAndCacheBuildLog(int buildId);
+    public InputStream downloadBuildLog(int buildId) throws IOException;
 }
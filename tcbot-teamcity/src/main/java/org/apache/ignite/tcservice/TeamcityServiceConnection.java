@@ -18,26 +18,27 @@
 package org.apache.ignite.tcservice;
 
 import com.google.common.base.Strings;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import org.apache.ignite.tcbot.common.conf.IDataSourcesConfigSupplier;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
-import org.apache.ignite.tcbot.common.conf.TcBotWorkDir;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
@@ -46,6 +47,7 @@ import org.apache.ignite.tcservice.http.ITeamcityHttpConnection;
 import org.apache.ignite.tcservice.model.agent.Agent;
 import org.apache.ignite.tcservice.model.agent.AgentsRef;
 import org.apache.ignite.tcservice.model.changes.Change;
+import org.apache.ignite.tcservice.model.changes.ChangesFull;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
 import org.apache.ignite.tcservice.model.conf.BuildType;
 import org.apache.ignite.tcservice.model.conf.Project;
@@ -58,7 +60,9 @@ import org.apache.ignite.tcservice.model.mute.Mutes;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrences;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesStaxParser;
 import org.apache.ignite.tcservice.model.user.User;
 import org.apache.ignite.tcservice.model.user.Users;
 import org.apache.ignite.tcservice.util.XmlUtil;
@@ -119,40 +123,12 @@ public class TeamcityServiceConnection implements ITeamcity {
 
     /** {@inheritDoc} */
     @AutoProfiling
-    public File downloadAndCacheBuildLog(int buildId) {
-        String buildIdStr = Integer.toString(buildId);
-        File file = new File(logsDir(), "build" + buildIdStr + ".log.zip");
+    @Override public InputStream downloadBuildLog(int buildId) throws IOException {
+        String url = host() + "downloadBuildLog.html?buildId=" + buildId + "&archived=true";
 
-        if (file.exists() && file.canRead() && file.length() > 0) {
-            logger.info("Nothing to do, file is cached locally: [" + file + "]");
-
-            return file;
-        }
-        String url = host() + "downloadBuildLog.html" + "?buildId=" + buildIdStr + "&archived=true";
-
-        try {
-            HttpUtil.sendGetCopyToFile(basicAuthTok, url, file);
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-        return file;
-    }
-
-    private static File resolveLogs(File workDir, String logsProp) {
-        final File logsDirFileConfigured = new File(logsProp);
-        return logsDirFileConfigured.isAbsolute() ? logsDirFileConfigured : new File(workDir, logsProp);
-    }
-
-    private File logsDir() {
-        File logsDirFile = resolveLogs(
-                TcBotWorkDir.resolveWorkDir(),
-                config().logsDirectory());
-
-        return TcBotWorkDir.ensureDirExist(logsDirFile);
+        return HttpUtil.sendGetWithBasicAuth(basicAuthTok, url);
     }
 
-
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public Build triggerBuild(
@@ -252,6 +228,19 @@ public class TeamcityServiceConnection implements ITeamcity {
         return getJaxbUsingHref(href, Change.class);
     }
 
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public List<Change> getChanges(Collection<Integer> changeIds) {
+        String items = changeIds.stream()
+            .map(id -> "item:(id:" + id + ")")
+            .collect(Collectors.joining(","));
+
+        String href = "app/rest/latest/changes?locator=" + items +
+            "&fields=change(id,version,username,date,href,webUrl,comment,user(id,username,name,href))";
+
+        return getJaxbUsingHref(href, ChangesFull.class).changes();
+    }
+
     /** {@inheritDoc} */
     @Override public List<Project> getProjects() {
         return sendGetXmlParseJaxb(host() + "app/rest/latest/projects", ProjectsList.class).projects();
@@ -372,9 +361,33 @@ public class TeamcityServiceConnection implements ITeamcity {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public TestOccurrencesFull getTestsPage(int buildId, @Nullable String href, boolean testDtls) {
+        return sendGetXmlParseJaxb(testsPageUrl(buildId, href, testDtls), TestOccurrencesFull.class);
+    }
+
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public String streamTestsPage(int buildId, @Nullable String href, boolean testDtls,
+        Consumer<TestOccurrenceFull> consumer) {
+        try (InputStream inputStream = teamcityHttpConn.sendGet(basicAuthTok, testsPageUrl(buildId, href, testDtls))) {
+            return TestOccurrencesStaxParser.parse(inputStream, consumer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (XMLStreamException e) {
+            throw ExceptionUtil.propagateException(e);
+        }
+    }
+
+    /**
+     * @param buildId Build id.
+     * @param href Href. Null activates first page loaded.
+     * @param testDtls Query test details.
+     */
+    private String testsPageUrl(int buildId, @Nullable String href, boolean testDtls) {
         String relPathSelected = Strings.isNullOrEmpty(href) ? testsStartHref(buildId, testDtls) : href;
-        String url = host() + (relPathSelected.startsWith("/") ? relPathSelected.substring(1) : relPathSelected);
-        return sendGetXmlParseJaxb(url, TestOccurrencesFull.class);
+
+        return host() + (relPathSelected.startsWith("/") ? relPathSelected.substring(1) : relPathSelected);
     }
 
     /**
@@ -383,13 +396,25 @@ public class TeamcityServiceConnection implements ITeamcity {
      */
     @Nonnull
     private String testsStartHref(int buildId, boolean testDtls) {
-        String fieldList = "id,name," +
-            (testDtls ? "details," : "") +
-            "status,duration,muted,currentlyMuted,currentlyInvestigated,ignored,test(id),build(id)";
-
         return "app/rest/latest/testOccurrences?locator=build:(id:" +
             buildId + ")" +
-            "&fields=testOccurrence(" + fieldList + ")" +
+            "&fields=testOccurrence(" + testsFieldList(testDtls) + ")" +
             "&count=1000)";
     }
+
+    /** {@inheritDoc} */
+    @Override public String testsPageHref(int buildId, int start, int cnt, boolean testDtls) {
+        return "app/rest/latest/testOccurrences?locator=build:(id:" + buildId + "),start:" + start + ",count:" + cnt +
+            "&fields=testOccurrence(" + testsFieldList(testDtls) + ")";
+    }
+
+    /**
+     * @param testDtls request test details string
+     */
+    @Nonnull
+    private static String testsFieldList(boolean testDtls) {
+        return "id,name," +
+            (testDtls ? "details," : "") +
+            "status,duration,muted,currentlyMuted,currentlyInvestigated,ignored,test(id),build(id)";
+    }
 }
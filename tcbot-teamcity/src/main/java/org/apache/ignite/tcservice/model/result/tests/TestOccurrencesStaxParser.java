@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcservice.model.result.tests;
+
+import com.google.common.base.Strings;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+
+/**
+ * Streaming (StAX) reader of test occurrences page, produces the same {@link TestOccurrenceFull} as JAXB model of
+ * {@link TestOccurrencesFull}, but passes each occurrence to consumer as soon as it is read. Page is never kept in
+ * memory, so occurrence (including details text) can be collected right after it was handled by consumer.
+ */
+public class TestOccurrencesStaxParser {
+    /** Factory, thread safe after configuration. */
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     *
+     */
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+
+    /**
+     * @param is XML of test occurrences page.
+     * @param consumer Occurrences consumer.
+     * @return next page href or <code>null</code> if this page is the last one.
+     */
+    @Nullable public static String parse(InputStream is, Consumer<TestOccurrenceFull> consumer)
+        throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+
+        try {
+            String nextHref = null;
+            TestOccurrenceFull occurrence = null;
+
+            while (reader.hasNext()) {
+                int evt = reader.next();
+
+                if (evt == XMLStreamConstants.START_ELEMENT) {
+                    String elem = reader.getLocalName();
+
+                    if ("testOccurrence".equals(elem))
+                        occurrence = readOccurrenceAttributes(reader);
+                    else if (occurrence != null) {
+                        if ("details".equals(elem))
+                            occurrence.details = reader.getElementText();
+                        else if ("test".equals(elem)) {
+                            occurrence.test = new TestRef();
+                            occurrence.test.id = reader.getAttributeValue(null, "id");
+                            occurrence.test.name = reader.getAttributeValue(null, "name");
+                            occurrence.test.href = reader.getAttributeValue(null, "href");
+                        }
+                        else if ("build".equals(elem)) {
+                            occurrence.build = new BuildRef();
+
+                            String id = reader.getAttributeValue(null, "id");
+                            if (!Strings.isNullOrEmpty(id))
+                                occurrence.build.setId(Integer.parseInt(id));
+                        }
+                    }
+                    else if ("testOccurrences".equals(elem))
+                        nextHref = Strings.emptyToNull(reader.getAttributeValue(null, "nextHref"));
+                }
+                else if (evt == XMLStreamConstants.END_ELEMENT
+                    && occurrence != null
+                    && "testOccurrence".equals(reader.getLocalName())) {
+                    consumer.accept(occurrence);
+
+                    occurrence = null;
+                }
+            }
+
+            return nextHref;
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param reader Reader positioned at start of test occurrence element.
+     */
+    private static TestOccurrenceFull readOccurrenceAttributes(XMLStreamReader reader) {
+        TestOccurrenceFull occurrence = new TestOccurrenceFull();
+
+        occurrence.setId(reader.getAttributeValue(null, "id"));
+        occurrence.name = reader.getAttributeValue(null, "name");
+        occurrence.status = reader.getAttributeValue(null, "status");
+        occurrence.href = reader.getAttributeValue(null, "href");
+
+        String duration = reader.getAttributeValue(null, "duration");
+        if (!Strings.isNullOrEmpty(duration))
+            occurrence.duration = Integer.parseInt(duration);
+
+        occurrence.muted = parseBoolean(reader.getAttributeValue(null, "muted"));
+        occurrence.currentlyMuted = parseBoolean(reader.getAttributeValue(null, "currentlyMuted"));
+        occurrence.currentlyInvestigated = parseBoolean(reader.getAttributeValue(null, "currentlyInvestigated"));
+        occurrence.ignored = parseBoolean(reader.getAttributeValue(null, "ignored"));
+
+        return occurrence;
+    }
+
+    /**
+     * @param val Value of xsd:boolean attribute.
+     */
+    @Nullable private static Boolean parseBoolean(@Nullable String val) {
+        if (val == null)
+            return null;
+
+        return "true".equals(val) || "1".equals(val);
+    }
+}